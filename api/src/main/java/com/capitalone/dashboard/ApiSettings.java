@@ -12,6 +12,14 @@ public class ApiSettings {
      */
     private String key;
     private boolean logRequest;
+    private double logRequestSampleRate = 1.0;
+    private int logRequestMaxBodySize = 65536;
+    private int logRequestQueueCapacity = 1000;
+    private int logRequestBatchSize = 100;
+    private int logRequestRetentionDays = 30;
+    private String requestLogApiKey;
+    private int testCasesPerChunk = 500;
+    private int featureMigrationIntervalMinutes = 15;
 
     public String getKey() {
         return key;
@@ -28,4 +36,68 @@ public class ApiSettings {
     public void setLogRequest(boolean logRequest) {
         this.logRequest = logRequest;
     }
+
+    public double getLogRequestSampleRate() {
+        return logRequestSampleRate;
+    }
+
+    public void setLogRequestSampleRate(double logRequestSampleRate) {
+        this.logRequestSampleRate = logRequestSampleRate;
+    }
+
+    public int getLogRequestMaxBodySize() {
+        return logRequestMaxBodySize;
+    }
+
+    public void setLogRequestMaxBodySize(int logRequestMaxBodySize) {
+        this.logRequestMaxBodySize = logRequestMaxBodySize;
+    }
+
+    public int getLogRequestQueueCapacity() {
+        return logRequestQueueCapacity;
+    }
+
+    public void setLogRequestQueueCapacity(int logRequestQueueCapacity) {
+        this.logRequestQueueCapacity = logRequestQueueCapacity;
+    }
+
+    public int getLogRequestBatchSize() {
+        return logRequestBatchSize;
+    }
+
+    public void setLogRequestBatchSize(int logRequestBatchSize) {
+        this.logRequestBatchSize = logRequestBatchSize;
+    }
+
+    public int getLogRequestRetentionDays() {
+        return logRequestRetentionDays;
+    }
+
+    public void setLogRequestRetentionDays(int logRequestRetentionDays) {
+        this.logRequestRetentionDays = logRequestRetentionDays;
+    }
+
+    public String getRequestLogApiKey() {
+        return requestLogApiKey;
+    }
+
+    public void setRequestLogApiKey(String requestLogApiKey) {
+        this.requestLogApiKey = requestLogApiKey;
+    }
+
+    public int getTestCasesPerChunk() {
+        return testCasesPerChunk;
+    }
+
+    public void setTestCasesPerChunk(int testCasesPerChunk) {
+        this.testCasesPerChunk = testCasesPerChunk;
+    }
+
+    public int getFeatureMigrationIntervalMinutes() {
+        return featureMigrationIntervalMinutes;
+    }
+
+    public void setFeatureMigrationIntervalMinutes(int featureMigrationIntervalMinutes) {
+        this.featureMigrationIntervalMinutes = featureMigrationIntervalMinutes;
+    }
 }
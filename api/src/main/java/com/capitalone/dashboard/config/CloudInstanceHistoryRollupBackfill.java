@@ -0,0 +1,41 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRollupRepository;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Adds cloud instance history saved before the hour, day and week rollups existed to the rollups,
+ * in the background when the API starts. Records are marked as rolled up as they are added, so a
+ * restart only picks up what is left and nothing is counted twice.
+ */
+@Component
+public class CloudInstanceHistoryRollupBackfill {
+    private static final Logger LOGGER = Logger.getLogger(CloudInstanceHistoryRollupBackfill.class);
+
+    private final CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
+
+    @Autowired
+    public CloudInstanceHistoryRollupBackfill(CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository) {
+        this.cloudInstanceHistoryRollupRepository = cloudInstanceHistoryRollupRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        Thread backfill = new Thread(() -> {
+            try {
+                int added = cloudInstanceHistoryRollupRepository.addMissingToRollups();
+                if (added > 0) {
+                    LOGGER.info("Added " + added + " cloud instance history records to their rollups");
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to add cloud instance history to its rollups", e);
+            }
+        }, "cloud-instance-history-rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+}
@@ -0,0 +1,66 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.repository.FeatureRepository;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the typed sprint dates, change date and estimate of features stored without them, by feature
+ * collectors older than the API. Feature queries compare the typed values only. The migration runs in
+ * the background when the API starts, so startup does not wait for it, and again every
+ * {@code featureMigrationIntervalMinutes}, so features that collectors not yet upgraded keep writing
+ * show up without a restart. Features already migrated are not read again.
+ */
+@Component
+public class FeatureValueMigration {
+    private static final Logger LOGGER = Logger.getLogger(FeatureValueMigration.class);
+
+    private final FeatureRepository featureRepository;
+    private final ApiSettings settings;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "feature-value-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public FeatureValueMigration(FeatureRepository featureRepository, ApiSettings settings) {
+        this.featureRepository = featureRepository;
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    public void start() {
+        int intervalMinutes = settings.getFeatureMigrationIntervalMinutes();
+        if (intervalMinutes > 0) {
+            executor.scheduleWithFixedDelay(this::migrate, 0, intervalMinutes, TimeUnit.MINUTES);
+        } else {
+            executor.execute(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    void migrate() {
+        // an exception would cancel the following runs
+        try {
+            int updated = featureRepository.populateTypedValues();
+            if (updated > 0) {
+                LOGGER.info("Set the typed dates and estimates of " + updated + " features");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to set the typed dates and estimates of features", e);
+        }
+    }
+}
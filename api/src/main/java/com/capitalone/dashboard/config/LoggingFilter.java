@@ -3,8 +3,6 @@ package com.capitalone.dashboard.config;
 
 import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.model.RequestLog;
-import com.capitalone.dashboard.repository.RequestLogRepository;
-import com.mongodb.util.JSON;
 import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,19 +25,23 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -51,8 +53,11 @@ public class LoggingFilter implements Filter {
 
     private static final Logger LOGGER = Logger.getLogger(LoggingFilter.class);
 
+    /** Endpoints whose request bodies hold credentials; their bodies are never captured. */
+    private static final List<String> CREDENTIAL_ENDPOINTS = Arrays.asList("/authenticateUser", "/registerUser", "/updateUser");
+
     @Autowired
-    private RequestLogRepository requestLogRepository;
+    private RequestLogWriter requestLogWriter;
     @Autowired
     private ApiSettings settings;
 
@@ -71,47 +76,71 @@ public class LoggingFilter implements Filter {
         HttpServletResponse httpServletResponse = (HttpServletResponse) response;
         if (settings.isLogRequest() && (httpServletRequest.getMethod().equals(HttpMethod.PUT.toString()) ||
                 (httpServletRequest.getMethod().equals(HttpMethod.POST.toString())) ||
-                (httpServletRequest.getMethod().equals(HttpMethod.DELETE.toString())))) {
-            Map<String, String> requestMap = this.getTypesafeRequestMap(httpServletRequest);
-            BufferedRequestWrapper bufferedRequest = new BufferedRequestWrapper(httpServletRequest);
-            BufferedResponseWrapper bufferedResponse = new BufferedResponseWrapper(httpServletResponse);
+                (httpServletRequest.getMethod().equals(HttpMethod.DELETE.toString()))) && isSampled()) {
+            // nothing that may hold a password is kept, not even in the capture buffers
+            boolean credentials = hasCredentials(httpServletRequest);
+            int maxBodySize = credentials ? 0 : Math.max(0, settings.getLogRequestMaxBodySize());
+            BufferedRequestWrapper bufferedRequest = new BufferedRequestWrapper(httpServletRequest, maxBodySize);
+            BufferedResponseWrapper bufferedResponse = new BufferedResponseWrapper(httpServletResponse, maxBodySize);
 
 
             RequestLog requestLog = new RequestLog();
             requestLog.setClient(httpServletRequest.getRemoteAddr());
             requestLog.setEndpoint(httpServletRequest.getRequestURI());
             requestLog.setMethod(httpServletRequest.getMethod());
-            requestLog.setParameter(requestMap.toString());
+            if (!credentials) {
+                requestLog.setParameter(this.getTypesafeRequestMap(httpServletRequest).toString());
+            }
             requestLog.setRequestSize(httpServletRequest.getContentLengthLong());
             requestLog.setRequestContentType(httpServletRequest.getContentType());
 
             chain.doFilter(bufferedRequest, bufferedResponse);
             requestLog.setResponseContentType(httpServletResponse.getContentType());
+            // bodies are parsed by the writer, off the request thread
             try {
-                if ((httpServletRequest.getContentType() != null) && (new MimeType(httpServletRequest.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))) {
-                    requestLog.setRequestBody(JSON.parse(bufferedRequest.getRequestBody()));
+                if (!credentials && (httpServletRequest.getContentType() != null) && (new MimeType(httpServletRequest.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))) {
+                    requestLog.setRequestBody(bufferedRequest.getRequestBody());
                 }
-                if ((bufferedResponse.getContentType() != null) && (new MimeType(bufferedResponse.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))){
-                    requestLog.setResponseBody(JSON.parse(bufferedResponse.getContent()));
+                if (!credentials && (bufferedResponse.getContentType() != null) && (new MimeType(bufferedResponse.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))){
+                    requestLog.setResponseBody(bufferedResponse.getContent());
                 }
             } catch (MimeTypeParseException e) {
                 LOGGER.error("Invalid MIME Type detected. Request MIME type=" + httpServletRequest.getContentType() + ". Response MIME Type=" + bufferedResponse.getContentType());
             }
-            requestLog.setResponseSize(bufferedResponse.getContent().length());
+            requestLog.setResponseSize(bufferedResponse.getContentSize());
 
             requestLog.setResponseCode(bufferedResponse.getStatus());
             requestLog.setTimestamp(System.currentTimeMillis());
-            try {
-                requestLogRepository.save(requestLog);
-            } catch (RuntimeException re) {
-                LOGGER.info(requestLog.toString());
-            }
+            requestLog.setCreated(new Date(requestLog.getTimestamp()));
+            requestLogWriter.write(requestLog);
 
         } else {
             chain.doFilter(request, response);
         }
     }
 
+    private static boolean hasCredentials(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return false;
+        }
+        String contextPath = request.getContextPath();
+        if (contextPath != null && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        for (String endpoint : CREDENTIAL_ENDPOINTS) {
+            if (path.startsWith(endpoint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSampled() {
+        double sampleRate = settings.getLogRequestSampleRate();
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
 
     private Map<String, String> getTypesafeRequestMap(HttpServletRequest request) {
         Map<String, String> typesafeRequestMap = new HashMap<>();
@@ -132,49 +161,40 @@ public class LoggingFilter implements Filter {
     }
 
 
+    /**
+     * Passes the request body through, keeping a copy of its first bytes as it is read.
+     */
     private static final class BufferedRequestWrapper extends HttpServletRequestWrapper {
 
-        private ByteArrayInputStream bais = null;
-        private ByteArrayOutputStream baos = null;
+        private final BodyCapture capture;
         private BufferedServletInputStream bsis = null;
-        private byte[] buffer = null;
+        private BufferedReader reader = null;
 
 
-        public BufferedRequestWrapper(HttpServletRequest req) throws IOException {
+        public BufferedRequestWrapper(HttpServletRequest req, int maxBodySize) {
             super(req);
-            // Read InputStream and store its content in a buffer.
-
-            this.baos = new ByteArrayOutputStream();
-            byte buf[] = new byte[1024];
-            int letti;
-            try (InputStream is = req.getInputStream()) {
-                while ((letti = is.read(buf)) > 0) {
-                    this.baos.write(buf, 0, letti);
-                }
-            }
-            this.buffer = this.baos.toByteArray();
+            this.capture = new BodyCapture(maxBodySize);
         }
 
 
         @Override
-        public ServletInputStream getInputStream() {
-            this.bais = new ByteArrayInputStream(this.buffer);
-            this.bsis = new BufferedServletInputStream(this.bais);
+        public ServletInputStream getInputStream() throws IOException {
+            if (this.bsis == null) {
+                this.bsis = new BufferedServletInputStream(super.getInputStream(), this.capture);
+            }
             return this.bsis;
         }
 
-        String getRequestBody() throws IOException {
-            String line;
-            StringBuilder inputBuffer = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(this.getInputStream()))) {
-                do {
-                    line = reader.readLine();
-                    if (null != line) {
-                        inputBuffer.append(line);
-                    }
-                } while (line != null);
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (this.reader == null) {
+                this.reader = new BufferedReader(new InputStreamReader(getInputStream(), charset(getCharacterEncoding())));
             }
-            return inputBuffer.toString();
+            return this.reader;
+        }
+
+        String getRequestBody() {
+            return capture.toString(charset(getCharacterEncoding()));
         }
 
     }
@@ -182,41 +202,96 @@ public class LoggingFilter implements Filter {
 
     private static final class BufferedServletInputStream extends ServletInputStream {
 
-        private ByteArrayInputStream bais;
+        private final ServletInputStream original;
+        private final BodyCapture capture;
 
-        public BufferedServletInputStream(ByteArrayInputStream bais) {
-            this.bais = bais;
+        public BufferedServletInputStream(ServletInputStream original, BodyCapture capture) {
+            this.original = original;
+            this.capture = capture;
         }
 
         @Override
-        public int available() {
-            return this.bais.available();
+        public int available() throws IOException {
+            return this.original.available();
         }
 
         @Override
-        public int read() {
-            return this.bais.read();
+        public int read() throws IOException {
+            int b = this.original.read();
+            if (b >= 0) {
+                this.capture.write(b);
+            }
+            return b;
         }
 
         @Override
-        public int read(byte[] buf, int off, int len) {
-            return this.bais.read(buf, off, len);
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int read = this.original.read(buf, off, len);
+            if (read > 0) {
+                this.capture.write(buf, off, read);
+            }
+            return read;
         }
 
 
         @Override
         public boolean isFinished() {
-            return false;
+            return this.original.isFinished();
         }
 
         @Override
         public boolean isReady() {
-            return false;
+            return this.original.isReady();
         }
 
         @Override
         public void setReadListener(ReadListener readListener) {
+            this.original.setReadListener(readListener);
+        }
+    }
+
+    /**
+     * Counts the bytes written to it and keeps the first {@code maxSize} of them.
+     */
+    private static final class BodyCapture extends OutputStream {
+
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private final int maxSize;
+        private long size;
+
+        BodyCapture(int maxSize) {
+            this.maxSize = maxSize;
+        }
 
+        @Override
+        public void write(int b) {
+            if (size < maxSize) {
+                captured.write(b);
+            }
+            size++;
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            int kept = (int) Math.max(0, Math.min(len, maxSize - size));
+            captured.write(buf, off, kept);
+            size += len;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        String toString(Charset charset) {
+            return new String(captured.toByteArray(), charset);
+        }
+    }
+
+    private static Charset charset(String encoding) {
+        try {
+            return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
         }
     }
 
@@ -233,6 +308,11 @@ public class LoggingFilter implements Filter {
             this.targetStream.write(arg0);
         }
 
+        @Override
+        public void write(byte[] buf, int off, int len) throws IOException {
+            this.targetStream.write(buf, off, len);
+        }
+
         public void flush() throws IOException {
             super.flush();
             this.targetStream.flush();
@@ -259,16 +339,21 @@ public class LoggingFilter implements Filter {
 
         private HttpServletResponse original;
         private TeeServletOutputStream teeStream;
-        private ByteArrayOutputStream bos;
+        private final BodyCapture capture;
         private PrintWriter teeWriter;
 
-        public BufferedResponseWrapper(HttpServletResponse response) {
+        public BufferedResponseWrapper(HttpServletResponse response, int maxBodySize) {
             original = response;
+            capture = new BodyCapture(maxBodySize);
         }
 
         public String getContent() {
 
-            return (bos == null) ? "" : bos.toString();
+            return capture.toString(charset(original.getCharacterEncoding()));
+        }
+
+        public long getContentSize() {
+            return capture.getSize();
         }
 
         @Override
@@ -284,8 +369,7 @@ public class LoggingFilter implements Filter {
         public ServletOutputStream getOutputStream() throws IOException {
 
             if (LoggingFilter.BufferedResponseWrapper.this.teeStream == null) {
-                bos = new ByteArrayOutputStream();
-                LoggingFilter.BufferedResponseWrapper.this.teeStream = new TeeServletOutputStream(original.getOutputStream(), bos);
+                LoggingFilter.BufferedResponseWrapper.this.teeStream = new TeeServletOutputStream(original.getOutputStream(), capture);
             }
             return LoggingFilter.BufferedResponseWrapper.this.teeStream;
         }
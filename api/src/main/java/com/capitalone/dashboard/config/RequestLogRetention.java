@@ -0,0 +1,54 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.repository.RequestLogRepository;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provisions the request log collection at startup: creates its indexes and the TTL index that
+ * expires request logs after {@code logRequestRetentionDays}. Request logs written before they
+ * had a creation date are never expired by the TTL index; they are deleted once, in the
+ * background, when they are older than the retention.
+ */
+@Component
+public class RequestLogRetention {
+    private static final Logger LOGGER = Logger.getLogger(RequestLogRetention.class);
+
+    private final RequestLogRepository requestLogRepository;
+    private final ApiSettings settings;
+
+    @Autowired
+    public RequestLogRetention(RequestLogRepository requestLogRepository, ApiSettings settings) {
+        this.requestLogRepository = requestLogRepository;
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    public void provision() {
+        final long retentionMillis = TimeUnit.DAYS.toMillis(Math.max(0, settings.getLogRequestRetentionDays()));
+        try {
+            requestLogRepository.ensureIndexes(TimeUnit.MILLISECONDS.toSeconds(retentionMillis));
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to provision the request log indexes", e);
+            return;
+        }
+        if (retentionMillis == 0) {
+            return;
+        }
+        Thread cleanup = new Thread(() -> {
+            try {
+                int deleted = requestLogRepository.deleteUndatedBefore(System.currentTimeMillis() - retentionMillis);
+                LOGGER.info("Deleted " + deleted + " expired request logs without a creation date");
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to delete expired request logs", e);
+            }
+        }, "request-log-cleanup");
+        cleanup.setDaemon(true);
+        cleanup.start();
+    }
+}
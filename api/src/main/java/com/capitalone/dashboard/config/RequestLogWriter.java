@@ -0,0 +1,199 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.repository.RequestLogRepository;
+import com.mongodb.util.JSON;
+import com.mongodb.util.JSONParseException;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes {@link RequestLog}s off the request thread. The {@link LoggingFilter} queues a log with
+ * the captured request and response bodies as text; a single worker parses the JSON bodies and
+ * saves the logs in batches.
+ * <p>
+ * The queue is bounded. When it is full the log is dropped and counted, so a slow or unavailable
+ * database never holds up or piles up requests. Queue depth and counters are exposed over JMX.
+ */
+@Component
+@ManagedResource(objectName = "com.capitalone.dashboard:type=RequestLogWriter")
+public class RequestLogWriter {
+    private static final Logger LOGGER = Logger.getLogger(RequestLogWriter.class);
+
+    private static final long POLL_MILLIS = 1000;
+    private static final long SHUTDOWN_WAIT_MS = 10000;
+
+    private final RequestLogRepository requestLogRepository;
+    private final BlockingQueue<RequestLog> queue;
+    private final int batchSize;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private long reportedDropped;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    @Autowired
+    public RequestLogWriter(RequestLogRepository requestLogRepository, ApiSettings settings) {
+        this.requestLogRepository = requestLogRepository;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getLogRequestQueueCapacity()));
+        this.batchSize = Math.max(1, settings.getLogRequestBatchSize());
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "request-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker once everything queued so far has been written.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(SHUTDOWN_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            LOGGER.warn("Request log writer did not finish, " + getQueueDepth() + " request logs not written");
+        }
+        worker = null;
+    }
+
+    /**
+     * Queues a request log without blocking.
+     *
+     * @param requestLog request log, with JSON bodies as text
+     * @return false if the queue was full and the log was dropped
+     */
+    public boolean write(RequestLog requestLog) {
+        if (queue.offer(requestLog)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Writes everything that is queued on the calling thread.
+     */
+    public void flush() {
+        List<RequestLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            save(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * @return number of request logs waiting to be written
+     */
+    @ManagedAttribute
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of request logs written since startup
+     */
+    @ManagedAttribute
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return number of request logs dropped because the queue was full since startup
+     */
+    @ManagedAttribute
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of request logs that could not be saved since startup
+     */
+    @ManagedAttribute
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                RequestLog first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<RequestLog> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                save(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to write request logs", e);
+            }
+        }
+    }
+
+    private void save(List<RequestLog> batch) {
+        for (RequestLog requestLog : batch) {
+            requestLog.setRequestBody(parse(requestLog.getRequestBody()));
+            requestLog.setResponseBody(parse(requestLog.getResponseBody()));
+        }
+        try {
+            requestLogRepository.save(batch);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException re) {
+            failed.addAndGet(batch.size());
+            for (RequestLog requestLog : batch) {
+                LOGGER.info(requestLog.toString());
+            }
+        }
+        long droppedNow = dropped.get();
+        if (droppedNow > reportedDropped) {
+            LOGGER.warn((droppedNow - reportedDropped) + " request logs dropped, queue depth " + getQueueDepth());
+            reportedDropped = droppedNow;
+        }
+    }
+
+    // bodies cut off at the size limit are not valid JSON and are kept as text
+    private static Object parse(Object body) {
+        if (!(body instanceof String)) {
+            return body;
+        }
+        try {
+            return JSON.parse((String) body);
+        } catch (JSONParseException e) {
+            return body;
+        }
+    }
+}
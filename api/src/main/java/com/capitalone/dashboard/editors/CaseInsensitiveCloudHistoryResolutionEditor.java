@@ -0,0 +1,16 @@
+package com.capitalone.dashboard.editors;
+
+import com.capitalone.dashboard.model.CloudHistoryResolution;
+
+import java.beans.PropertyEditorSupport;
+
+/**
+ * Property editor that translates text into a CloudHistoryResolution in a case insensitive manner.
+ */
+public class CaseInsensitiveCloudHistoryResolutionEditor extends PropertyEditorSupport {
+
+    @Override
+    public void setAsText(String text) throws IllegalArgumentException {
+        setValue(CloudHistoryResolution.fromString(text));
+    }
+}
@@ -0,0 +1,44 @@
+package com.capitalone.dashboard.model;
+
+import java.util.List;
+
+/**
+ * Everything the feature widget shows for a team's current sprint: its stories, the estimates of
+ * their epics and the total, in-progress and done estimates.
+ */
+public class SprintSummary {
+    private final List<Feature> stories;
+    private final List<Feature> epicEstimates;
+    private final int totalEstimate;
+    private final int inProgressEstimate;
+    private final int doneEstimate;
+
+    public SprintSummary(List<Feature> stories, List<Feature> epicEstimates, int totalEstimate,
+                         int inProgressEstimate, int doneEstimate) {
+        this.stories = stories;
+        this.epicEstimates = epicEstimates;
+        this.totalEstimate = totalEstimate;
+        this.inProgressEstimate = inProgressEstimate;
+        this.doneEstimate = doneEstimate;
+    }
+
+    public List<Feature> getStories() {
+        return stories;
+    }
+
+    public List<Feature> getEpicEstimates() {
+        return epicEstimates;
+    }
+
+    public int getTotalEstimate() {
+        return totalEstimate;
+    }
+
+    public int getInProgressEstimate() {
+        return inProgressEstimate;
+    }
+
+    public int getDoneEstimate() {
+        return doneEstimate;
+    }
+}
@@ -0,0 +1,36 @@
+package com.capitalone.dashboard.request;
+
+import com.capitalone.dashboard.model.CloudHistoryResolution;
+
+import javax.validation.constraints.NotNull;
+
+public class CloudInstanceHistoryRequest {
+    @NotNull
+    private CloudHistoryResolution resolution = CloudHistoryResolution.HOUR;
+    private Long from;
+    private Long to;
+
+    public CloudHistoryResolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(CloudHistoryResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+
+    public void setTo(Long to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,54 @@
+package com.capitalone.dashboard.request;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+public class RequestLogSearchRequest {
+    private String endpoint;
+    private String client;
+    private Long from;
+    private Long to;
+    @Min(1)
+    @Max(100000)
+    private int max = 1000;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public void setClient(String client) {
+        this.client = client;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+
+    public void setTo(Long to) {
+        this.to = to;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
+}
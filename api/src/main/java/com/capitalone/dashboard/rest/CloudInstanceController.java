@@ -1,17 +1,24 @@
 package com.capitalone.dashboard.rest;
 
+import com.capitalone.dashboard.editors.CaseInsensitiveCloudHistoryResolutionEditor;
 import com.capitalone.dashboard.misc.HygieiaException;
+import com.capitalone.dashboard.model.CloudHistoryResolution;
 import com.capitalone.dashboard.model.CloudInstance;
 import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
 import com.capitalone.dashboard.model.NameValue;
 import com.capitalone.dashboard.request.CloudInstanceCreateRequest;
+import com.capitalone.dashboard.request.CloudInstanceHistoryRequest;
 import com.capitalone.dashboard.request.CloudInstanceListRefreshRequest;
 import com.capitalone.dashboard.service.CloudInstanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
@@ -33,6 +40,11 @@ public class CloudInstanceController {
 
     }
 
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        binder.registerCustomEditor(CloudHistoryResolution.class, new CaseInsensitiveCloudHistoryResolutionEditor());
+    }
+
     //Cloud Instance Endpoints
     @RequestMapping(value = "/cloud/instance/refresh", method = POST, consumes = APPLICATION_JSON_VALUE,
             produces = APPLICATION_JSON_VALUE)
@@ -74,8 +86,12 @@ public class CloudInstanceController {
     @RequestMapping(value = "/cloud/instance/details/tags", method = POST, consumes = APPLICATION_JSON_VALUE,
             produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<Collection<CloudInstance>> getInstanceDetailsByTags(
-            @Valid @RequestBody List<NameValue> tags) {
-        return ResponseEntity.ok().body(cloudInstanceService.getInstanceDetailsByTags(tags));
+            @Valid @RequestBody List<NameValue> tags,
+            @RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size) {
+        if (page == null || size == null) {
+            return ResponseEntity.ok().body(cloudInstanceService.getInstanceDetailsByTags(tags));
+        }
+        return ResponseEntity.ok().body(cloudInstanceService.getInstanceDetailsByTags(tags, page, size));
     }
 
     @RequestMapping(value = "/cloud/instance/history/account/{accountNumber}", method = GET, produces = APPLICATION_JSON_VALUE)
@@ -83,4 +99,10 @@ public class CloudInstanceController {
             @PathVariable String accountNumber) {
         return ResponseEntity.ok().body(cloudInstanceService.getInstanceHistoryByAccount(accountNumber));
     }
+
+    @RequestMapping(value = "/cloud/instance/history/account/{accountNumber}/rollup", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<CloudInstanceHistoryRollup>> getInstanceHistoryRollupsByAccount(
+            @PathVariable String accountNumber, @Valid CloudInstanceHistoryRequest request) {
+        return ResponseEntity.ok().body(cloudInstanceService.getInstanceHistoryByAccount(accountNumber, request));
+    }
 }
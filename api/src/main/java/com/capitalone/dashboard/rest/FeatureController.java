@@ -2,6 +2,7 @@ package com.capitalone.dashboard.rest;
 
 import com.capitalone.dashboard.model.DataResponse;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.SprintSummary;
 import com.capitalone.dashboard.service.FeatureService;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -159,4 +160,24 @@ public class FeatureController {
 		ObjectId componentId = new ObjectId(cId);
 		return this.featureService.getDoneEstimate(componentId, teamId, agileType, estimateMetricType);
 	}
+
+	/**
+	 * REST endpoint for retrieving the stories, super feature estimates and
+	 * total, in-progress and done estimates of a team's current sprint in a
+	 * single request
+	 *
+	 * @param teamId
+	 *            A given scope-owner's source-system ID
+	 * @return A response containing the sprint summary of the current team's
+	 *         sprint
+	 */
+	@RequestMapping(value = "/feature/summary/{teamId}", method = GET, produces = APPLICATION_JSON_VALUE)
+	public DataResponse<SprintSummary> sprintSummary(
+			@RequestParam(value = "agileType", required = false) Optional<String> agileType,
+			@RequestParam(value = "estimateMetricType", required = false) Optional<String> estimateMetricType,
+			@RequestParam(value = "component", required = true) String cId,
+			@PathVariable String teamId) {
+		ObjectId componentId = new ObjectId(cId);
+		return this.featureService.getSprintSummary(componentId, teamId, agileType, estimateMetricType);
+	}
 }
@@ -6,6 +6,7 @@ import com.capitalone.dashboard.service.PipelineService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
@@ -22,7 +23,11 @@ public class PipelineController {
     }
 
     @RequestMapping(value = "/pipeline", method = GET, produces = APPLICATION_JSON_VALUE)
-    public Iterable<PipelineResponse> searchPipelines(@Valid PipelineSearchRequest searchRequest) {
-        return pipelineService.search(searchRequest);
+    public Iterable<PipelineResponse> searchPipelines(@Valid PipelineSearchRequest searchRequest, WebRequest webRequest) {
+        Iterable<PipelineResponse> pipelineResponses = pipelineService.search(searchRequest);
+        if (webRequest.checkNotModified(pipelineService.getETag(searchRequest, pipelineResponses))) {
+            return null;
+        }
+        return pipelineResponses;
     }
 }
@@ -0,0 +1,78 @@
+package com.capitalone.dashboard.rest;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.mapper.CustomObjectMapper;
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.request.RequestLogSearchRequest;
+import com.capitalone.dashboard.service.RequestLogService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+@RestController
+public class RequestLogController {
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String API_KEY_HEADER = "X-Api-Key";
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final RequestLogService requestLogService;
+    private final ApiSettings settings;
+    private final ObjectMapper mapper = new CustomObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    @Autowired
+    public RequestLogController(RequestLogService requestLogService, ApiSettings settings) {
+        this.requestLogService = requestLogService;
+        this.settings = settings;
+    }
+
+    /**
+     * Streams request logs as newline delimited JSON, one request log per line, most recent first.
+     * Request logs hold request and response bodies, so they are only streamed to clients that send
+     * the configured request log API key; without one configured the endpoint is forbidden.
+     */
+    @RequestMapping(value = "/requestlog", method = GET, produces = APPLICATION_NDJSON_VALUE)
+    public void requestLogs(@Valid RequestLogSearchRequest request,
+                            @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                            HttpServletResponse response) throws IOException {
+        if (!isAuthorized(apiKey)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        try (CloseableIterator<RequestLog> requestLogs = requestLogService.search(request)) {
+            int count = 0;
+            while (requestLogs.hasNext()) {
+                out.write(mapper.writeValueAsBytes(requestLogs.next()));
+                out.write('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private boolean isAuthorized(String apiKey) {
+        String expected = settings.getRequestLogApiKey();
+        return StringUtils.isNotBlank(expected) && apiKey != null
+                && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), apiKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,8 +3,10 @@ package com.capitalone.dashboard.service;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.CloudInstance;
 import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
 import com.capitalone.dashboard.model.NameValue;
 import com.capitalone.dashboard.request.CloudInstanceCreateRequest;
+import com.capitalone.dashboard.request.CloudInstanceHistoryRequest;
 import com.capitalone.dashboard.request.CloudInstanceListRefreshRequest;
 
 import java.util.Collection;
@@ -30,6 +32,7 @@ public interface CloudInstanceService {
     CloudInstance getInstanceDetailsByInstanceId(String instanceId);
     Collection<CloudInstance> getInstanceDetailsByInstanceIds(List<String> instanceId);
     Collection<CloudInstance> getInstanceDetailsByTags(List<NameValue> tags);
+    Collection<CloudInstance> getInstanceDetailsByTags(List<NameValue> tags, int page, int size);
     Collection<CloudInstance> getInstanceDetailsByAccount(String accountNumber);
 
 
@@ -37,4 +40,10 @@ public interface CloudInstanceService {
      *     Instance History Aggregated Data by account
      */
     Collection<CloudInstanceHistory> getInstanceHistoryByAccount(String account);
+
+    /**
+     *     Instance History rolled up by hour, day or week for a time range of an account. The range
+     *     is limited to 1000 buckets before its end, which defaults to now.
+     */
+    List<CloudInstanceHistoryRollup> getInstanceHistoryByAccount(String account, CloudInstanceHistoryRequest request);
 }
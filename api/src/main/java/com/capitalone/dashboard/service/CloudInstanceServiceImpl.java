@@ -3,18 +3,23 @@ package com.capitalone.dashboard.service;
 import com.capitalone.dashboard.config.collector.CloudConfig;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.CloudInstance;
+import com.capitalone.dashboard.model.CloudHistoryResolution;
 import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.NameValue;
 import com.capitalone.dashboard.repository.CloudInstanceHistoryRepository;
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRollupRepository;
 import com.capitalone.dashboard.repository.CloudInstanceRepository;
 import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.request.CloudInstanceCreateRequest;
+import com.capitalone.dashboard.request.CloudInstanceHistoryRequest;
 import com.capitalone.dashboard.request.CloudInstanceListRefreshRequest;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -27,27 +32,30 @@ import java.util.Set;
 
 @Service
 public class CloudInstanceServiceImpl implements CloudInstanceService {
+    private static final int MAX_HISTORY_BUCKETS = 1000;
 
     private final CloudInstanceRepository cloudInstanceRepository;
     private final CloudInstanceHistoryRepository cloudInstanceHistoryRepository;
+    private final CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
     private final ComponentRepository componentRepository;
 
     @Autowired
     public CloudInstanceServiceImpl(CloudInstanceRepository cloudInstanceRepository,
                                     CloudInstanceHistoryRepository cloudInstanceHistoryRepository,
+                                    CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository,
                                     ComponentRepository cloudConfigRepository) {
         this.cloudInstanceRepository = cloudInstanceRepository;
         this.cloudInstanceHistoryRepository = cloudInstanceHistoryRepository;
+        this.cloudInstanceHistoryRollupRepository = cloudInstanceHistoryRollupRepository;
         this.componentRepository = cloudConfigRepository;
     }
 
     public Collection<CloudInstance> getInstanceDetails(CollectorItem item) {
-        Collection<CloudInstance> instances = new HashSet<>();
         if ((item != null) && (item instanceof CloudConfig)) {
             CloudConfig config = (CloudConfig) item;
-            instances.addAll(getInstanceDetailsByTags(config.getTags()));
+            return getInstanceDetailsByTags(config.getTags());
         }
-        return instances;
+        return new ArrayList<>();
     }
 
     private CollectorItem getCollectorItem(ObjectId componentId) {
@@ -73,11 +81,12 @@ public class CloudInstanceServiceImpl implements CloudInstanceService {
 
     @Override
     public Collection<CloudInstance> getInstanceDetailsByTags(List<NameValue> tags) {
-        Set<CloudInstance> instances = new HashSet<>();
-        for (NameValue nv : tags) {
-            instances.addAll(cloudInstanceRepository.findByTagNameAndValue(nv.getName(), nv.getValue()));
-        }
-        return instances;
+        return cloudInstanceRepository.findByAnyTag(tags, null);
+    }
+
+    @Override
+    public Collection<CloudInstance> getInstanceDetailsByTags(List<NameValue> tags, int page, int size) {
+        return cloudInstanceRepository.findByAnyTag(tags, new PageRequest(page, size));
     }
 
     @Override
@@ -91,6 +100,15 @@ public class CloudInstanceServiceImpl implements CloudInstanceService {
         return cloudInstanceHistoryRepository.findByAccountNumber(account);
     }
 
+    @Override
+    public List<CloudInstanceHistoryRollup> getInstanceHistoryByAccount(String account, CloudInstanceHistoryRequest request) {
+        CloudHistoryResolution resolution = request.getResolution();
+        long to = request.getTo() == null ? System.currentTimeMillis() : request.getTo();
+        long earliest = to - MAX_HISTORY_BUCKETS * resolution.getLength();
+        long from = request.getFrom() == null ? earliest : Math.max(request.getFrom(), earliest);
+        return cloudInstanceHistoryRollupRepository.findRollups(account, resolution, resolution.bucketStart(from), to);
+    }
+
     @Override
     public Collection<String> refreshInstances(CloudInstanceListRefreshRequest request) {
         Collection<CloudInstance> existing = cloudInstanceRepository.findByAccountNumber(request.getAccountNumber());
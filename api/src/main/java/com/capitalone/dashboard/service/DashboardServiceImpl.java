@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.event.TeamDashboardIndex;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.Collector;
 import com.capitalone.dashboard.model.CollectorItem;
@@ -38,6 +39,7 @@ public class DashboardServiceImpl implements DashboardService {
 	@SuppressWarnings("unused")
 	private final PipelineRepository pipelineRepository; //NOPMD
     private final ServiceRepository serviceRepository;
+    private final TeamDashboardIndex teamDashboardIndex;
 
     @Autowired
     public DashboardServiceImpl(DashboardRepository dashboardRepository,
@@ -45,13 +47,15 @@ public class DashboardServiceImpl implements DashboardService {
                                 CollectorRepository collectorRepository,
                                 CollectorItemRepository collectorItemRepository,
                                 ServiceRepository serviceRepository,
-                                PipelineRepository pipelineRepository) {
+                                PipelineRepository pipelineRepository,
+                                TeamDashboardIndex teamDashboardIndex) {
         this.dashboardRepository = dashboardRepository;
         this.componentRepository = componentRepository;
         this.collectorRepository = collectorRepository;
         this.collectorItemRepository = collectorItemRepository;
         this.serviceRepository = serviceRepository;
         this.pipelineRepository = pipelineRepository;   //TODO - Review if we need this param, seems it is never used according to PMD
+        this.teamDashboardIndex = teamDashboardIndex;
     }
 
     @Override
@@ -196,6 +200,7 @@ public class DashboardServiceImpl implements DashboardService {
         }
         collectorItemRepository.save(toSaveCollectorItemList);
         componentRepository.save(component);
+        teamDashboardIndex.update(component);
         return component;
     }
 
@@ -18,19 +18,18 @@ import com.capitalone.dashboard.repository.EnvironmentComponentRepository;
 import com.capitalone.dashboard.repository.EnvironmentStatusRepository;
 import com.capitalone.dashboard.request.CollectorRequest;
 import com.capitalone.dashboard.request.DeployDataCreateRequest;
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
@@ -63,98 +62,77 @@ public class DeployServiceImpl implements DeployService {
                 .get(CollectorType.Deployment).get(0);
         ObjectId collectorItemId = item.getId();
 
+        List<Environment> environments = environments(collectorItemId);
+
+        Collector collector = collectorRepository
+                .findOne(item.getCollectorId());
+        return new DataResponse<>(environments, collector.getLastExecuted());
+    }
+
+    /**
+     * Builds the environments of a deployment collector item from the latest component of every
+     * environment and component name. Components are grouped, and statuses looked up, by key in a
+     * single pass each.
+     */
+    private List<Environment> environments(ObjectId collectorItemId) {
         List<EnvironmentComponent> components = environmentComponentRepository
-                .findByCollectorItemId(collectorItemId);
+                .findLatestByCollectorItemId(collectorItemId);
         List<EnvironmentStatus> statuses = environmentStatusRepository
                 .findByCollectorItemId(collectorItemId);
 
+        Map<List<String>, List<Server>> serversByComponent = new HashMap<>();
+        for (EnvironmentStatus status : statuses) {
+            List<String> key = Arrays.asList(status.getEnvironmentName(), status.getComponentName());
+            List<Server> servers = serversByComponent.get(key);
+            if (servers == null) {
+                servers = new ArrayList<>();
+                serversByComponent.put(key, servers);
+            }
+            servers.add(new Server(status.getResourceName(), status.isOnline()));
+        }
+
         List<Environment> environments = new ArrayList<>();
-        for (Map.Entry<Environment, List<EnvironmentComponent>> entry : groupByEnvironment(
+        for (Map.Entry<Environment, Map<String, EnvironmentComponent>> entry : groupByEnvironment(
                 components).entrySet()) {
             Environment env = entry.getKey();
             environments.add(env);
-            for (EnvironmentComponent envComponent : entry.getValue()) {
-                env.getUnits().add(
-                        new DeployableUnit(envComponent, servers(envComponent,
-                                statuses)));
+            for (EnvironmentComponent envComponent : entry.getValue().values()) {
+                List<Server> servers = serversByComponent.get(
+                        Arrays.asList(envComponent.getEnvironmentName(), envComponent.getComponentName()));
+                env.getUnits().add(new DeployableUnit(envComponent,
+                        servers == null ? Collections.<Server>emptyList() : servers));
             }
         }
-
-        Collector collector = collectorRepository
-                .findOne(item.getCollectorId());
-        return new DataResponse<>(environments, collector.getLastExecuted());
+        return environments;
     }
 
-    private Map<Environment, List<EnvironmentComponent>> groupByEnvironment(
+    /**
+     * Groups components by environment and case insensitive component name, keeping only the
+     * component with the latest asOfDate.
+     */
+    private Map<Environment, Map<String, EnvironmentComponent>> groupByEnvironment(
             List<EnvironmentComponent> components) {
-        Map<Environment, List<EnvironmentComponent>> map = new LinkedHashMap<>();
+        Map<Environment, Map<String, EnvironmentComponent>> map = new LinkedHashMap<>();
         for (EnvironmentComponent component : components) {
             Environment env = new Environment(component.getEnvironmentName(),
                     component.getEnvironmentUrl());
 
-            if (!map.containsKey(env)) {
-                map.put(env, new ArrayList<EnvironmentComponent>());
+            Map<String, EnvironmentComponent> envComponents = map.get(env);
+            if (envComponents == null) {
+                envComponents = new LinkedHashMap<>();
+                map.put(env, envComponents);
             }
 
-            // Following logic is to send only the latest deployment status - there may be better way to do this
-            Iterator<EnvironmentComponent> alreadyAddedIter = map.get(env)
-                    .iterator();
-
-            boolean found = false;
-            ArrayList<EnvironmentComponent> toRemove = new ArrayList<EnvironmentComponent>();
-            ArrayList<EnvironmentComponent> toAdd = new ArrayList<EnvironmentComponent>();
-            while (alreadyAddedIter.hasNext()) {
-                EnvironmentComponent ec = (EnvironmentComponent) alreadyAddedIter
-                        .next();
-                if (component.getComponentName().equalsIgnoreCase(
-                        ec.getComponentName())) {
-                    found = true;
-                    if (component.getAsOfDate() > ec.getAsOfDate()) {
-                        toRemove.add(ec);
-                        toAdd.add(component);
-                    }
-                }
-            }
-            if (!found) {
-                toAdd.add(component);
+            String name = component.getComponentName().toLowerCase(Locale.ENGLISH);
+            EnvironmentComponent latest = envComponents.get(name);
+            if (latest == null || component.getAsOfDate() > latest.getAsOfDate()) {
+                envComponents.put(name, component);
             }
-            map.get(env).removeAll(toRemove);
-            map.get(env).addAll(toAdd);
         }
 
         return map;
     }
 
-    private Iterable<Server> servers(final EnvironmentComponent component,
-                                     List<EnvironmentStatus> statuses) {
-        return Iterables.transform(
-                Iterables.filter(statuses, new ComponentMatches(component)),
-                new ToServer());
-    }
-
-    private class ComponentMatches implements Predicate<EnvironmentStatus> {
-        private EnvironmentComponent component;
-
-        public ComponentMatches(EnvironmentComponent component) {
-            this.component = component;
-        }
-
-        @Override
-        public boolean apply(EnvironmentStatus environmentStatus) {
-            return environmentStatus.getEnvironmentName().equals(
-                    component.getEnvironmentName())
-                    && environmentStatus.getComponentName().equals(
-                    component.getComponentName());
-        }
-    }
-
-    private class ToServer implements Function<EnvironmentStatus, Server> {
-        @Override
-        public Server apply(EnvironmentStatus status) {
-            return new Server(status.getResourceName(), status.isOnline());
-        }
-    }
-
 
     @Override
     public String create(DeployDataCreateRequest request) throws HygieiaException {
@@ -198,22 +176,7 @@ public class DeployServiceImpl implements DeployService {
 
         ObjectId collectorItemId = item.getId();
 
-        List<EnvironmentComponent> components = environmentComponentRepository
-                .findByCollectorItemId(collectorItemId);
-        List<EnvironmentStatus> statuses = environmentStatusRepository
-                .findByCollectorItemId(collectorItemId);
-
-        List<Environment> environments = new ArrayList<>();
-        for (Map.Entry<Environment, List<EnvironmentComponent>> entry : groupByEnvironment(
-                components).entrySet()) {
-            Environment env = entry.getKey();
-            environments.add(env);
-            for (EnvironmentComponent envComponent : entry.getValue()) {
-                env.getUnits().add(
-                        new DeployableUnit(envComponent, servers(envComponent,
-                                statuses)));
-            }
-        }
+        List<Environment> environments = environments(collectorItemId);
         return new DataResponse<>(environments, collector.getLastExecuted());
     }
 
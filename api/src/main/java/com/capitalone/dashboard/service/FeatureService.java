@@ -2,6 +2,7 @@ package com.capitalone.dashboard.service;
 
 import com.capitalone.dashboard.model.Feature;
 import com.capitalone.dashboard.model.DataResponse;
+import com.capitalone.dashboard.model.SprintSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -138,4 +139,26 @@ public interface FeatureService {
 	 */
 	DataResponse<List<Feature>> getCurrentSprintDetail(ObjectId componentId,
 			String teamId, Optional<String> agileType);
+
+	/**
+	 * Retrieves the stories, super feature estimates and total, in-progress
+	 * and done estimates of a given team's current sprint from a single read
+	 * of its features. Summaries are cached until the feature collector runs
+	 * again or the sprint ends.
+	 * 
+	 * @param componentId
+	 *            The ID of the related UI component that will reference
+	 *            collector item content from this collector
+	 * @param teamId
+	 *            A given scope-owner's source-system ID
+	 * @param agileType
+	 * 			  Agile type to be retrieved (e.g., kanban | scrum)
+	 * @param estimateMetricType
+	 * 			  The reporting metric (hours | storypoints)
+	 * 
+	 * @return A data response containing the sprint summary of the current
+	 *         team's sprint
+	 */
+	DataResponse<SprintSummary> getSprintSummary(ObjectId componentId,
+			String teamId, Optional<String> agileType, Optional<String> estimateMetricType);
 }
@@ -6,28 +6,37 @@ import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.DataResponse;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureEstimate;
 import com.capitalone.dashboard.model.QScopeOwner;
+import com.capitalone.dashboard.model.SprintSummary;
 import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.FeatureRepository;
 import com.capitalone.dashboard.util.FeatureCollectorConstants;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.mysema.query.BooleanBuilder;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
-import javax.xml.bind.DatatypeConverter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 import org.apache.log4j.Logger;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class FeatureServiceImpl implements FeatureService {
 
@@ -37,6 +46,16 @@ public class FeatureServiceImpl implements FeatureService {
 	private final CollectorRepository collectorRepository;
 	private final static String NOT_EQUAL = "$ne";
 	private final static String EQUAL = "$eq";
+	private final static List<String> IN_PROGRESS_STATUSES = Arrays.asList("In Progress", "Waiting", "Impeded");
+	private final static List<String> DONE_STATUSES = Arrays.asList("Done", "Accepted");
+	private final static int SPRINT_SUMMARY_CACHE_SIZE = 1000;
+	private final static int SPRINT_SUMMARY_CACHE_MINUTES = 10;
+
+	// Keyed by team, agile type, estimate metric, collector and the collector's last run
+	private final Cache<List<Object>, CachedSprintSummary> sprintSummaries = CacheBuilder.newBuilder()
+			.maximumSize(SPRINT_SUMMARY_CACHE_SIZE)
+			.expireAfterWrite(SPRINT_SUMMARY_CACHE_MINUTES, TimeUnit.MINUTES)
+			.build();
 
 	private enum Status {
 		TOTAL, DONE, InProgress
@@ -130,26 +149,27 @@ public class FeatureServiceImpl implements FeatureService {
 
 		// Get teamId first from available collector item, based on
 		// component
-		List<Feature> relevantStories;
+		List<Feature> relevantStories = getCurrentSprintStories(teamId, agileType, new Date());
+
+		Collector collector = collectorRepository.findOne(item.getCollectorId());
+
+		return new DataResponse<>(relevantStories, collector.getLastExecuted());
+	}
+
+	private List<Feature> getCurrentSprintStories(String teamId, Optional<String> agileType, Date now) {
 		if (agileType.isPresent()
 				&& FeatureCollectorConstants.KANBAN_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
 			// Kanban
-			relevantStories = featureRepository.queryByOrderBySStatusDesc(teamId,
-					getCurrentISODateTime(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
+			return featureRepository.queryByOrderBySStatusDesc(teamId,
+					now, EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
 		} else if (agileType.isPresent()
 				&& FeatureCollectorConstants.SCRUM_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
 			// Scrum
-			relevantStories = featureRepository.queryByOrderBySStatusDesc(teamId,
-					getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-		} else {
-			// Legacy
-			relevantStories = featureRepository.queryByOrderBySStatusDesc(teamId,
-					getCurrentISODateTime());
+			return featureRepository.queryByOrderBySStatusDesc(teamId,
+					now, NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
 		}
-
-		Collector collector = collectorRepository.findOne(item.getCollectorId());
-
-		return new DataResponse<>(relevantStories, collector.getLastExecuted());
+		// Legacy
+		return featureRepository.queryByOrderBySStatusDesc(teamId, now);
 	}
 
 	/**
@@ -182,68 +202,35 @@ public class FeatureServiceImpl implements FeatureService {
 		BooleanBuilder builder = new BooleanBuilder();
 		builder.and(team.collectorItemId.eq(item.getId()));
 
-		// Get teamId first from available collector item, based on component
-		List<Feature> relevantFeatureEstimates = getRelevantFeaturesEstimates(teamId, agileType);
-		// epicID : epic information (in the form of a Feature object)
-		Map<String, Feature> epicIDToEpicFeatureMap = new HashMap<>();
-
-		setFeatureEstimates(estimateMetricType, relevantFeatureEstimates, epicIDToEpicFeatureMap);
-
-		if (isEstimateTime(estimateMetricType)) {
-			// time estimate is in minutes but we want to return in hours
-			for (Feature f : epicIDToEpicFeatureMap.values()) {
-				f.setsEstimate(String.valueOf(Integer.valueOf(f.getsEstimate()) / 60));
-			}
+		// Epic information and estimates in the form of Feature objects, summed up by Mongo
+		List<Feature> epicEstimates = new ArrayList<>();
+		for (FeatureEstimate estimate : featureRepository
+				.sumEstimatesByEpic(getFeatureEstimatesCriteria(teamId, agileType))) {
+			epicEstimates.add(toEpicFeature(estimate, estimateMetricType));
 		}
-		
+
 		Collector collector = collectorRepository.findOne(item.getCollectorId());
-		return new DataResponse<>(new ArrayList<>(epicIDToEpicFeatureMap.values()), collector.getLastExecuted());
+		return new DataResponse<>(epicEstimates, collector.getLastExecuted());
 	}
 
-	private void setFeatureEstimates(Optional<String> estimateMetricType, List<Feature> relevantFeatureEstimates, Map<String, Feature> epicIDToEpicFeatureMap) {
-		for (Feature tempRs : relevantFeatureEstimates) {
-			String epicID = tempRs.getsEpicID();
-
-			if (StringUtils.isEmpty(epicID))
-				continue;
-
-			Feature feature = epicIDToEpicFeatureMap.get(epicID);
-			if (feature == null) {
-				feature = new Feature();
-				feature.setId(null);
-				feature.setsEpicID(epicID);
-				feature.setsEpicNumber(tempRs.getsEpicNumber());
-				feature.setsEpicName(tempRs.getsEpicName());
-				feature.setsEstimate("0");
-				epicIDToEpicFeatureMap.put(epicID, feature);
-			}
-
-			// if estimateMetricType is hours accumulate time estimate in minutes for better precision ... divide by 60 later
-			int estimate = getEstimate(tempRs, estimateMetricType);
-
-			feature.setsEstimate(String.valueOf(Integer.valueOf(feature.getsEstimate()) + estimate));
-		}
+	private Feature toEpicFeature(FeatureEstimate estimate, Optional<String> estimateMetricType) {
+		Feature feature = new Feature();
+		feature.setsEpicID(estimate.getEpicId());
+		feature.setsEpicNumber(estimate.getEpicNumber());
+		feature.setsEpicName(estimate.getEpicName());
+		feature.setsEstimate(String.valueOf(getEstimate(estimate, estimateMetricType)));
+		return feature;
 	}
 
-	private List<Feature> getRelevantFeaturesEstimates(String teamId, Optional<String> agileType) {
-		List<Feature> relevantFeatureEstimates;
-		if (agileType.isPresent()
-				&& FeatureCollectorConstants.KANBAN_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
-			// Kanban
-			relevantFeatureEstimates = featureRepository.getInProgressKanbanFeaturesEstimatesByTeamId(
-					teamId, getOneMonthAgoISODateTime(), getCurrentISODateTime(), EQUAL, 
-                    FeatureCollectorConstants.KANBAN_SPRINT_ID);
-		} else if (agileType.isPresent()
-				&& FeatureCollectorConstants.SCRUM_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
-			// Scrum
-			relevantFeatureEstimates = featureRepository.getInProgressFeaturesEstimatesByTeamId(
-					teamId, getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-		} else {
-			// Legacy
-			relevantFeatureEstimates = featureRepository
-					.getInProgressFeaturesEstimatesByTeamId(teamId, getCurrentISODateTime());
+	private Criteria getFeatureEstimatesCriteria(String teamId, Optional<String> agileType) {
+		if (isKanban(agileType)) {
+			return where("sTeamID").is(teamId).and("isDeleted").is("False")
+					.and("sStatus").in(IN_PROGRESS_STATUSES)
+					.and("sSprintID").is(FeatureCollectorConstants.KANBAN_SPRINT_ID)
+					.and("sprintBeginDateValue").lte(getOneMonthAgo())
+					.and("sprintEndDateValue").gte(new Date());
 		}
-		return relevantFeatureEstimates;
+		return getCurrentSprintCriteria(teamId, agileType);
 	}
 
 	private DataResponse<List<Feature>> getEstimate(ObjectId componentId, String teamId,
@@ -263,114 +250,67 @@ public class FeatureServiceImpl implements FeatureService {
 		builder.and(team.collectorItemId.eq(item.getId()));
 
 		// Get teamId first from available collector item, based on component
-		List<Feature> storyEstimates;
+		Criteria criteria;
 		switch (status) {
 		case TOTAL:
-			storyEstimates = getFeaturesForTotal(teamId, agileType);
-
+			criteria = getTotalCriteria(teamId, agileType);
 			break;
 
 		case DONE:
-			storyEstimates = getFeaturesForDone(teamId, agileType);
-
+			criteria = getCurrentSprintCriteria(teamId, agileType).and("sStatus").in(DONE_STATUSES);
 			break;
 
 		case InProgress:
-			storyEstimates = getFeaturesForInProgress(teamId, agileType);
+			criteria = getCurrentSprintCriteria(teamId, agileType).and("sState").is("Active")
+					.and("sStatus").in(IN_PROGRESS_STATUSES);
 			break;
 
 		default:
-			storyEstimates = new ArrayList<>();
-			break;
+			throw new IllegalArgumentException("Unknown status " + status);
 		}
 
 		List<Feature> cumulativeEstimate = new ArrayList<>();
 		Feature f = new Feature();
-		int lineTotalEstimate = 0;
-		lineTotalEstimate = getLineTotalEstimate(estimateMetricType, storyEstimates, lineTotalEstimate);
-
-		lineTotalEstimate = getLineTotalEstimateInHours(estimateMetricType, lineTotalEstimate);
-
-		f.setsEstimate(Integer.toString(lineTotalEstimate));
+		f.setsEstimate(Integer.toString(getEstimate(featureRepository.sumEstimates(criteria), estimateMetricType)));
 		cumulativeEstimate.add(f);
 		Collector collector = collectorRepository.findOne(item.getCollectorId());
 		return new DataResponse<>(cumulativeEstimate, collector.getLastExecuted());
 	}
 
-	private int getLineTotalEstimateInHours(Optional<String> estimateMetricType, int lineTotalEstimate) {
-		if (isEstimateTime(estimateMetricType)) {
-			// time estimate is in minutes but we want to return in hours
-			lineTotalEstimate /= 60;
+	private Criteria getTotalCriteria(String teamId, Optional<String> agileType) {
+		if (isKanban(agileType)) {
+			// Kanban throughput of the last month
+			return where("sTeamID").is(teamId).and("isDeleted").is("False")
+					.and("sSprintID").is(FeatureCollectorConstants.KANBAN_SPRINT_ID)
+					.and("changeDateValue").gte(getOneMonthAgo())
+					.and("sStatus").is("Done");
 		}
-		return lineTotalEstimate;
+		return getCurrentSprintCriteria(teamId, agileType);
 	}
 
-	private int getLineTotalEstimate(Optional<String> estimateMetricType, List<Feature> storyEstimates, int lineTotalEstimate) {
-		for (Feature tempRs : storyEstimates) {
-			// if estimateMetricType is hours accumulate time estimate in minutes for better precision ... divide by 60 later
-			lineTotalEstimate += getEstimate(tempRs, estimateMetricType);
+	/**
+	 * Matches the features of a team in its current sprint: Kanban, Scrum or, without an agile
+	 * type, either (Legacy).
+	 */
+	private Criteria getCurrentSprintCriteria(String teamId, Optional<String> agileType) {
+		Date now = new Date();
+		Criteria criteria = where("sTeamID").is(teamId).and("isDeleted").is("False")
+				.and("sprintBeginDateValue").lte(now)
+				.and("sprintEndDateValue").gte(now);
+		if (isKanban(agileType)) {
+			criteria.and("sSprintID").is(FeatureCollectorConstants.KANBAN_SPRINT_ID);
+		} else if (agileType.isPresent()
+				&& FeatureCollectorConstants.SCRUM_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
+			criteria.and("sSprintID").nin(null, FeatureCollectorConstants.KANBAN_SPRINT_ID);
+		} else {
+			criteria.and("sSprintID").ne(null);
 		}
-		return lineTotalEstimate;
-	}
-
-	private List<Feature> getFeaturesForInProgress(String teamId, Optional<String> agileType) {
-		List<Feature> storyEstimates;
-		if (agileType.isPresent() && FeatureCollectorConstants.KANBAN_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Kanban
-            storyEstimates = featureRepository.getSprintBacklogInProgress(teamId,
-                    getCurrentISODateTime(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else if (agileType.isPresent() && FeatureCollectorConstants.SCRUM_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Scrum
-            storyEstimates = featureRepository.getSprintBacklogInProgress(teamId,
-                    getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else {
-            // Legacy
-            storyEstimates = featureRepository.getSprintBacklogInProgress(teamId,
-                    getCurrentISODateTime());
-        }
-		return storyEstimates;
+		return criteria;
 	}
 
-	private List<Feature> getFeaturesForDone(String teamId, Optional<String> agileType) {
-		List<Feature> storyEstimates;
-		if (agileType.isPresent() && FeatureCollectorConstants.KANBAN_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Kanban
-            storyEstimates = featureRepository.getSprintBacklogDone(teamId,
-                    getCurrentISODateTime(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else if (agileType.isPresent() && FeatureCollectorConstants.SCRUM_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Scrum
-            storyEstimates = featureRepository.getSprintBacklogDone(teamId,
-                    getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else {
-            // Legacy
-            storyEstimates = featureRepository.getSprintBacklogDone(teamId,
-                    getCurrentISODateTime());
-        }
-		return storyEstimates;
-	}
-
-	private List<Feature> getFeaturesForTotal(String teamId, Optional<String> agileType) {
-		List<Feature> storyEstimates;
-		if (agileType.isPresent() && FeatureCollectorConstants.KANBAN_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Kanban
-				storyEstimates = featureRepository.getKanbanThroughput(teamId, getOneMonthAgoISODateTime(),
-						getCurrentISODateTime(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else if (agileType.isPresent() && FeatureCollectorConstants.SCRUM_SPRINT_ID
-                .equalsIgnoreCase(agileType.get())) {
-            // Scrum
-            storyEstimates = featureRepository.getSprintBacklogTotal(teamId,
-                    getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
-        } else {
-            // Legacy
-            storyEstimates = featureRepository.getSprintBacklogTotal(teamId,
-                    getCurrentISODateTime());
-        }
-		return storyEstimates;
+	private boolean isKanban(Optional<String> agileType) {
+		return agileType.isPresent()
+				&& FeatureCollectorConstants.KANBAN_SPRINT_ID.equalsIgnoreCase(agileType.get());
 	}
 
 	/**
@@ -461,16 +401,16 @@ public class FeatureServiceImpl implements FeatureService {
 				&& FeatureCollectorConstants.KANBAN_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
 			// Kanban
 			sprintResponse = featureRepository.getCurrentSprintDetail(teamId,
-					getCurrentISODateTime(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
+					new Date(), EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
 		} else if (agileType.isPresent()
 				&& FeatureCollectorConstants.SCRUM_SPRINT_ID.equalsIgnoreCase(agileType.get())) {
 			// Scrum
 			sprintResponse = featureRepository.getCurrentSprintDetail(teamId,
-					getCurrentISODateTime(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
+					new Date(), NOT_EQUAL, FeatureCollectorConstants.KANBAN_SPRINT_ID);
 		} else {
 			// Legacy
 			sprintResponse = featureRepository.getCurrentSprintDetail(teamId,
-					getCurrentISODateTime());
+					new Date());
 		}
 
 		List<Feature> sprintDetail = new ArrayList<>();
@@ -482,40 +422,152 @@ public class FeatureServiceImpl implements FeatureService {
 	}
 
 	/**
-	 * Retrieves the current system time stamp in ISO date time format. Because
-	 * this is not using SimpleTimeFormat, this should be thread safe.
+	 * Retrieves the stories, super feature estimates and total, in-progress
+	 * and done estimates of a given team's current sprint from a single read
+	 * of its features.
 	 *
-	 * @return A string representation of the current date time stamp in ISO
-	 *         format from the current time zone
+	 * @param componentId
+	 *            The ID of the related UI component that will reference
+	 *            collector item content from this collector
+	 * @param teamId
+	 *            A given scope-owner's source-system ID
+	 * @return A data response containing the sprint summary of the current
+	 *         team's sprint
 	 */
-	private String getCurrentISODateTime() {
-		return DatatypeConverter.printDateTime(Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+	@Override
+	public DataResponse<SprintSummary> getSprintSummary(ObjectId componentId, String teamId,
+			Optional<String> agileType, Optional<String> estimateMetricType) {
+		Component component = componentRepository.findOne(componentId);
+		if ((component == null) || CollectionUtils.isEmpty(component.getCollectorItems())
+				|| CollectionUtils
+						.isEmpty(component.getCollectorItems().get(CollectorType.ScopeOwner))
+				|| (component.getCollectorItems().get(CollectorType.ScopeOwner).get(0) == null)) {
+			return new DataResponse<>(new SprintSummary(new ArrayList<Feature>(),
+					new ArrayList<Feature>(), 0, 0, 0), 0);
+		}
+
+		CollectorItem item = component.getCollectorItems().get(CollectorType.ScopeOwner).get(0);
+		Collector collector = collectorRepository.findOne(item.getCollectorId());
+
+		// The sprint is only known once its stories are read, so a summary is kept until the
+		// collector runs again or the first of its stories' sprints has ended
+		List<Object> key = Arrays.<Object>asList(teamId, agileType, estimateMetricType,
+				item.getCollectorId(), collector.getLastExecuted());
+		Date now = new Date();
+		CachedSprintSummary cached = sprintSummaries.getIfPresent(key);
+		if ((cached != null) && ((cached.sprintEnd == null) || !now.after(cached.sprintEnd))) {
+			return cached.response;
+		}
+
+		List<Feature> stories = getCurrentSprintStories(teamId, agileType, now);
+		DataResponse<SprintSummary> response = new DataResponse<>(
+				summarize(stories, agileType, estimateMetricType), collector.getLastExecuted());
+		sprintSummaries.put(key, new CachedSprintSummary(response, getFirstSprintEnd(stories)));
+		return response;
+	}
+
+	/**
+	 * Sums the estimates of the current sprint's stories the way
+	 * {@link #getTotalEstimate}, {@link #getInProgressEstimate},
+	 * {@link #getDoneEstimate} and {@link #getFeatureEstimates} select them.
+	 */
+	private SprintSummary summarize(List<Feature> stories, Optional<String> agileType,
+			Optional<String> estimateMetricType) {
+		boolean kanban = isKanban(agileType);
+		Date oneMonthAgo = getOneMonthAgo();
+		FeatureEstimate total = new FeatureEstimate();
+		FeatureEstimate inProgress = new FeatureEstimate();
+		FeatureEstimate done = new FeatureEstimate();
+		Map<String, FeatureEstimate> epics = new LinkedHashMap<>();
+
+		for (Feature story : stories) {
+			boolean storyInProgress = IN_PROGRESS_STATUSES.contains(story.getsStatus());
+			if (!kanban || isDoneSince(story, oneMonthAgo)) {
+				add(total, story);
+			}
+			if ("Active".equals(story.getsState()) && storyInProgress) {
+				add(inProgress, story);
+			}
+			if (DONE_STATUSES.contains(story.getsStatus())) {
+				add(done, story);
+			}
+			if (!Strings.isNullOrEmpty(story.getsEpicID()) && (!kanban || (storyInProgress
+					&& beganBy(story, oneMonthAgo)))) {
+				FeatureEstimate epic = epics.get(story.getsEpicID());
+				if (epic == null) {
+					epic = new FeatureEstimate(story.getsEpicID(), story.getsEpicNumber(),
+							story.getsEpicName());
+					epics.put(story.getsEpicID(), epic);
+				}
+				add(epic, story);
+			}
+		}
+
+		List<Feature> epicEstimates = new ArrayList<>();
+		for (FeatureEstimate epic : epics.values()) {
+			epicEstimates.add(toEpicFeature(epic, estimateMetricType));
+		}
+		return new SprintSummary(stories, epicEstimates, getEstimate(total, estimateMetricType),
+				getEstimate(inProgress, estimateMetricType), getEstimate(done, estimateMetricType));
 	}
-    
-    private String getOneMonthAgoISODateTime() {
+
+	// Kanban throughput of the last month, see getTotalCriteria
+	private boolean isDoneSince(Feature story, Date since) {
+		return "Done".equals(story.getsStatus()) && (story.getChangeDateValue() != null)
+				&& !story.getChangeDateValue().before(since);
+	}
+
+	// Kanban super features only count stories that entered the board a month ago or earlier
+	private boolean beganBy(Feature story, Date when) {
+		return (story.getSprintBeginDateValue() != null) && !story.getSprintBeginDateValue().after(when);
+	}
+
+	private void add(FeatureEstimate estimate, Feature story) {
+		if (story.getEstimateValue() != null) {
+			estimate.setStoryPoints(estimate.getStoryPoints() + story.getEstimateValue());
+		}
+		if (story.getsEstimateTime() != null) {
+			estimate.setEstimateTime(estimate.getEstimateTime() + story.getsEstimateTime());
+		}
+	}
+
+	private Date getFirstSprintEnd(List<Feature> stories) {
+		Date first = null;
+		for (Feature story : stories) {
+			Date end = story.getSprintEndDateValue();
+			if ((end != null) && ((first == null) || end.before(first))) {
+				first = end;
+			}
+		}
+		return first;
+	}
+
+	private static final class CachedSprintSummary {
+		private final DataResponse<SprintSummary> response;
+		private final Date sprintEnd;
+
+		CachedSprintSummary(DataResponse<SprintSummary> response, Date sprintEnd) {
+			this.response = response;
+			this.sprintEnd = sprintEnd;
+		}
+	}
+
+    private Date getOneMonthAgo() {
         Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
         cal.add(Calendar.MONTH, -1);
-        return DatatypeConverter.printDateTime(cal);
+        return cal.getTime();
     }
 	
 	private boolean isEstimateTime(Optional<String> estimateMetricType) {
 		return estimateMetricType.isPresent() && FeatureCollectorConstants.STORY_HOURS_ESTIMATE.equalsIgnoreCase(estimateMetricType.get());
 	}
 	
-	private int getEstimate(Feature feature, Optional<String> estimateMetricType) {
-		int rt = 0;
-		
+	private int getEstimate(FeatureEstimate estimate, Optional<String> estimateMetricType) {
 		if (isEstimateTime(estimateMetricType)) {
-			if (feature.getsEstimateTime() != null) {
-				rt = feature.getsEstimateTime();
-			}
-		} else {
-			// default to story points since that should be the most common use case
-			if (!StringUtils.isEmpty(feature.getsEstimate())) {
-				rt = Integer.parseInt(feature.getsEstimate());
-			}
+			// time estimate is in minutes but we want to return in hours
+			return estimate.getEstimateTime() / 60;
 		}
-		
-		return rt;
+		// default to story points since that should be the most common use case
+		return estimate.getStoryPoints();
 	}
 }
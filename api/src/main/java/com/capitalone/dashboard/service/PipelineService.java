@@ -12,4 +12,14 @@ public interface PipelineService {
      * @return all pipelines for team dashboards
      */
     Iterable<PipelineResponse> search(PipelineSearchRequest searchRequest);
+
+    /**
+     * Computes an entity tag for the result of a search. The tag changes whenever one of the pipelines or
+     * the requested prod date range changes.
+     *
+     * @param searchRequest search request
+     * @param pipelineResponses result of the search
+     * @return quoted entity tag
+     */
+    String getETag(PipelineSearchRequest searchRequest, Iterable<PipelineResponse> pipelineResponses);
 }
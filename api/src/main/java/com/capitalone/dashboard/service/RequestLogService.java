@@ -0,0 +1,17 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.request.RequestLogSearchRequest;
+import org.springframework.data.util.CloseableIterator;
+
+public interface RequestLogService {
+
+    /**
+     * Finds request logs, most recent first. They are read from the database as the iterator
+     * advances, so the result does not need to fit in memory.
+     *
+     * @param request search criteria
+     * @return matching request logs; the iterator must be closed
+     */
+    CloseableIterator<RequestLog> search(RequestLogSearchRequest request);
+}
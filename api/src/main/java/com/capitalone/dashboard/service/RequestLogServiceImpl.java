@@ -0,0 +1,25 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.repository.RequestLogRepository;
+import com.capitalone.dashboard.request.RequestLogSearchRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RequestLogServiceImpl implements RequestLogService {
+
+    private final RequestLogRepository requestLogRepository;
+
+    @Autowired
+    public RequestLogServiceImpl(RequestLogRepository requestLogRepository) {
+        this.requestLogRepository = requestLogRepository;
+    }
+
+    @Override
+    public CloseableIterator<RequestLog> search(RequestLogSearchRequest request) {
+        return requestLogRepository.stream(request.getEndpoint(), request.getClient(),
+                request.getFrom(), request.getTo(), request.getMax());
+    }
+}
@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.*;
 import com.capitalone.dashboard.repository.CollectorRepository;
@@ -8,13 +9,10 @@ import com.capitalone.dashboard.repository.TestResultRepository;
 import com.capitalone.dashboard.request.CollectorRequest;
 import com.capitalone.dashboard.request.TestDataCreateRequest;
 import com.capitalone.dashboard.request.TestResultRequest;
-import com.google.common.collect.Lists;
-import com.mysema.query.BooleanBuilder;
 import org.apache.commons.lang.StringUtils;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -30,16 +28,19 @@ public class TestResultServiceImpl implements TestResultService {
     private final ComponentRepository componentRepository;
     private final CollectorRepository collectorRepository;
     private final CollectorService collectorService;
+    private final ApiSettings apiSettings;
 
     @Autowired
     public TestResultServiceImpl(TestResultRepository testResultRepository,
                                  ComponentRepository componentRepository,
                                  CollectorRepository collectorRepository,
-                                 CollectorService collectorService) {
+                                 CollectorService collectorService,
+                                 ApiSettings apiSettings) {
         this.testResultRepository = testResultRepository;
         this.componentRepository = componentRepository;
         this.collectorRepository = collectorRepository;
         this.collectorService = collectorService;
+        this.apiSettings = apiSettings;
     }
 
     @Override
@@ -54,7 +55,7 @@ public class TestResultServiceImpl implements TestResultService {
         if (!CollectionUtils.isEmpty(component.getCollectorItems().get(CollectorType.Test)) && (component.getCollectorItems().get(CollectorType.Test).get(0) != null)) {
             Collector collector = collectorRepository.findOne(component.getCollectorItems().get(CollectorType.Test).get(0).getCollectorId());
             if (collector != null) {
-                return new DataResponse<>(pruneToDepth(result, request.getDepth()), collector.getLastExecuted());
+                return new DataResponse<>(result, collector.getLastExecuted());
             }
         }
 
@@ -64,90 +65,43 @@ public class TestResultServiceImpl implements TestResultService {
     private void validateAllCollectorItems(TestResultRequest request, Component component, List<TestResult> result) {
         for (CollectorItem item : component.getCollectorItems().get(CollectorType.Test)) {
 
-            QTestResult testResult = new QTestResult("testResult");
-            BooleanBuilder builder = new BooleanBuilder();
+            Criteria criteria = Criteria.where("collectorItemId").is(item.getId());
 
-            builder.and(testResult.collectorItemId.eq(item.getId()));
+            validateStartDateRange(request, criteria);
+            validateEndDateRange(request, criteria);
 
-            validateStartDateRange(request, testResult, builder);
-            validateEndDateRange(request, testResult, builder);
+            validateDurationRange(request, criteria);
 
-            validateDurationRange(request, testResult, builder);
+            validateTestCapabilities(request, criteria);
 
-            validateTestCapabilities(request, testResult, builder);
-
-            // add all test result repos
-            addAllTestResultRepositories(request, result, testResult, builder);
-        }
-    }
-
-    private void addAllTestResultRepositories(TestResultRequest request, List<TestResult> result, QTestResult testResult, BooleanBuilder builder) {
-        if (request.getMax() == null) {
-            result.addAll(Lists.newArrayList(testResultRepository.findAll(builder.getValue(), testResult.timestamp.desc())));
-        } else {
-            PageRequest pageRequest = new PageRequest(0, request.getMax(), Sort.Direction.DESC, "timestamp");
-            result.addAll(Lists.newArrayList(testResultRepository.findAll(builder.getValue(), pageRequest).getContent()));
+            // nested lists below the requested depth are not read, nor are the test case chunks
+            // of chunked results above depth 3
+            result.addAll(testResultRepository.findAll(criteria, request.getMax(), request.getDepth()));
         }
     }
 
-    private void validateTestCapabilities(TestResultRequest request, QTestResult testResult, BooleanBuilder builder) {
+    private void validateTestCapabilities(TestResultRequest request, Criteria criteria) {
         if (!request.getTypes().isEmpty()) {
-            builder.and(testResult.testCapabilities.any().type.in(request.getTypes()));
+            criteria.and("testCapabilities.type").in(request.getTypes());
         }
     }
 
-    private void validateDurationRange(TestResultRequest request, QTestResult testResult, BooleanBuilder builder) {
+    private void validateDurationRange(TestResultRequest request, Criteria criteria) {
         if (request.validDurationRange()) {
-            builder.and(testResult.duration.between(request.getDurationGreaterThan(), request.getDurationLessThan()));
+            criteria.and("duration").gte(request.getDurationGreaterThan()).lte(request.getDurationLessThan());
         }
     }
 
-    private void validateEndDateRange(TestResultRequest request, QTestResult testResult, BooleanBuilder builder) {
+    private void validateEndDateRange(TestResultRequest request, Criteria criteria) {
         if (request.validEndDateRange()) {
-            builder.and(testResult.endTime.between(request.getEndDateBegins(), request.getEndDateEnds()));
+            criteria.and("endTime").gte(request.getEndDateBegins()).lte(request.getEndDateEnds());
         }
     }
 
-    private void validateStartDateRange(TestResultRequest request, QTestResult testResult, BooleanBuilder builder) {
+    private void validateStartDateRange(TestResultRequest request, Criteria criteria) {
         if (request.validStartDateRange()) {
-            builder.and(testResult.startTime.between(request.getStartDateBegins(), request.getStartDateEnds()));
-        }
-    }
-
-    private Iterable<TestResult> pruneToDepth(List<TestResult> results, Integer depth) {
-        // Prune the response to the requested depth
-        // 0 - TestResult
-        // 1 - TestCapability
-        // 2 - TestSuite
-        // 3 - TestCase
-        // 4 - Entire response
-        // null - Entire response
-        if (depth == null || depth > 3) {
-            return results;
+            criteria.and("startTime").gte(request.getStartDateBegins()).lte(request.getStartDateEnds());
         }
-        for (TestResult result : results) {
-            if (depth == 0) {
-                result.getTestCapabilities().clear();
-            } else {
-                for (TestCapability testCapability : result.getTestCapabilities()) {
-                    if (depth == 1) {
-                        testCapability.getTestSuites().clear();
-                    } else {
-                        for (TestSuite testSuite : testCapability.getTestSuites()) {
-                            if (depth == 2) {
-                                testSuite.getTestCases().clear();
-                            } else { // depth == 3
-                                for (TestCase testCase : testSuite.getTestCases()) {
-                                    testCase.getTestSteps().clear();
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return results;
     }
 
     @Override
@@ -213,7 +167,8 @@ public class TestResultServiceImpl implements TestResultService {
     private TestResult createTest(CollectorItem collectorItem, TestDataCreateRequest request) {
         TestResult testResult = testResultRepository.findByCollectorItemIdAndExecutionId(collectorItem.getId(),
                 request.getExecutionId());
-        if (testResult == null) {
+        boolean existing = testResult != null;
+        if (!existing) {
             testResult = new TestResult();
         }
 
@@ -233,9 +188,14 @@ public class TestResultServiceImpl implements TestResultService {
         testResult.setTotalCount(request.getTotalCount());
         testResult.setUnknownStatusCount(request.getUnknownStatusCount());
         testResult.setUrl(request.getTestJobUrl());
-        testResult.getTestCapabilities().addAll(request.getTestCapabilities());
         testResult.setBuildId(new ObjectId(request.getTestJobId()));
 
-        return testResultRepository.save(testResult);
+        if (existing) {
+            // only the chunks of the new test capabilities are written, those pushed before are kept
+            return testResultRepository.addTestCapabilities(testResult, request.getTestCapabilities(),
+                    apiSettings.getTestCasesPerChunk());
+        }
+        testResult.getTestCapabilities().addAll(request.getTestCapabilities());
+        return testResultRepository.saveChunked(testResult, apiSettings.getTestCasesPerChunk());
     }
 }
@@ -0,0 +1,36 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRollupRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CloudInstanceHistoryRollupBackfillTest {
+
+    @Mock
+    private CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
+
+    @Test
+    public void start_addsMissingHistoryInBackground() {
+        when(cloudInstanceHistoryRollupRepository.addMissingToRollups()).thenReturn(3);
+
+        new CloudInstanceHistoryRollupBackfill(cloudInstanceHistoryRollupRepository).start();
+
+        verify(cloudInstanceHistoryRollupRepository, timeout(5000)).addMissingToRollups();
+    }
+
+    @Test
+    public void start_failure_swallowed() {
+        when(cloudInstanceHistoryRollupRepository.addMissingToRollups()).thenThrow(new IllegalStateException("not primary"));
+
+        new CloudInstanceHistoryRollupBackfill(cloudInstanceHistoryRollupRepository).start();
+
+        verify(cloudInstanceHistoryRollupRepository, timeout(5000)).addMissingToRollups();
+    }
+}
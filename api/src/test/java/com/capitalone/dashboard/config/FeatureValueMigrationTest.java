@@ -0,0 +1,64 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.repository.FeatureRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureValueMigrationTest {
+
+    @Mock
+    private FeatureRepository featureRepository;
+
+    private ApiSettings settings;
+    private FeatureValueMigration migration;
+
+    @Before
+    public void setUp() {
+        settings = new ApiSettings();
+        migration = new FeatureValueMigration(featureRepository, settings);
+    }
+
+    @After
+    public void tearDown() {
+        migration.stop();
+    }
+
+    @Test
+    public void start_migratesInBackground() {
+        when(featureRepository.populateTypedValues()).thenReturn(2);
+
+        migration.start();
+
+        verify(featureRepository, timeout(5000)).populateTypedValues();
+    }
+
+    @Test
+    public void start_noInterval_migratesOnce() {
+        settings.setFeatureMigrationIntervalMinutes(0);
+
+        migration.start();
+
+        verify(featureRepository, timeout(5000)).populateTypedValues();
+    }
+
+    @Test
+    public void migrate_failure_swallowed() {
+        when(featureRepository.populateTypedValues()).thenThrow(new IllegalStateException("not primary"));
+
+        migration.migrate();
+        migration.migrate();
+
+        verify(featureRepository, times(2)).populateTypedValues();
+    }
+}
@@ -2,10 +2,11 @@ package com.capitalone.dashboard.config;
 
 import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.model.RequestLog;
-import com.capitalone.dashboard.repository.RequestLogRepository;
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -14,10 +15,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -28,7 +37,7 @@ import static org.mockito.Mockito.when;
 public class LoggingFilterTest {
 
     @Mock
-    private RequestLogRepository requestLogRepository;
+    private RequestLogWriter requestLogWriter;
 
     @Mock
     private Logger logger;
@@ -47,12 +56,13 @@ public class LoggingFilterTest {
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.PUT.toString());
         when(settings.isLogRequest()).thenReturn(true);
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(1)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(1)).write(any(RequestLog.class));
     }
 
 
@@ -64,13 +74,14 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.GET.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(0)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
     }
 
 
@@ -82,13 +93,14 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.POST.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(1)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(1)).write(any(RequestLog.class));
     }
 
 
@@ -101,13 +113,14 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.DELETE.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(1)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(1)).write(any(RequestLog.class));
     }
 
     @Test
@@ -119,13 +132,13 @@ public class LoggingFilterTest {
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.PUT.toString());
         when(settings.isLogRequest()).thenReturn(false);
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
 
-        verify(requestLogRepository, times(0)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
     }
 
 
@@ -137,13 +150,13 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.GET.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(false);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(0)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
     }
 
 
@@ -155,13 +168,13 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.POST.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(false);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(0)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
     }
 
 
@@ -174,12 +187,132 @@ public class LoggingFilterTest {
         when(httpServletRequest.getInputStream()).thenReturn(Mockito.mock(ServletInputStream.class));
         when(httpServletRequest.getRequestURI()).thenReturn("Success");
         when(httpServletRequest.getMethod()).thenReturn(HttpMethod.DELETE.toString());
-        when(requestLogRepository.save(any(RequestLog.class))).thenReturn(new RequestLog());
+        when(requestLogWriter.write(any(RequestLog.class))).thenReturn(true);
         when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
         when(settings.isLogRequest()).thenReturn(false);
         loggingFilter.doFilter(httpServletRequest, httpServletResponse,
                 filterChain);
-        verify(requestLogRepository, times(0)).save(any(RequestLog.class));
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDoFilterPostCapturesBodiesUpToLimit() throws Exception {
+        HttpServletRequest httpServletRequest = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse httpServletResponse = Mockito.mock(HttpServletResponse.class);
+        ServletInputStream inputStream = new ServletInputStream() {
+            private final ByteArrayInputStream body = new ByteArrayInputStream("{\"name\":\"value\"}".getBytes("UTF-8"));
+
+            @Override
+            public int read() {
+                return body.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return body.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+        when(httpServletRequest.getInputStream()).thenReturn(inputStream);
+        when(httpServletRequest.getMethod()).thenReturn(HttpMethod.POST.toString());
+        when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
+        when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
+        when(httpServletResponse.getOutputStream()).thenReturn(Mockito.mock(ServletOutputStream.class));
+        when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
+        when(settings.getLogRequestMaxBodySize()).thenReturn(10);
+        FilterChain filterChain = new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                IOUtils.toString(request.getInputStream(), "UTF-8");
+                response.getOutputStream().write("{\"id\":\"0123456789\"}".getBytes("UTF-8"));
+            }
+        };
+
+        loggingFilter.doFilter(httpServletRequest, httpServletResponse, filterChain);
+
+        ArgumentCaptor<RequestLog> requestLog = ArgumentCaptor.forClass(RequestLog.class);
+        verify(requestLogWriter).write(requestLog.capture());
+        assertEquals("{\"name\":\"v", requestLog.getValue().getRequestBody());
+        assertEquals("{\"id\":\"012", requestLog.getValue().getResponseBody());
+        assertEquals(19, requestLog.getValue().getResponseSize());
+    }
+
+    @Test
+    public void testDoFilterPostCredentialsNotCaptured() throws Exception {
+        HttpServletRequest httpServletRequest = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse httpServletResponse = Mockito.mock(HttpServletResponse.class);
+        ServletInputStream inputStream = new ServletInputStream() {
+            private final ByteArrayInputStream body = new ByteArrayInputStream("{\"username\":\"user\",\"password\":\"secret\"}".getBytes("UTF-8"));
+
+            @Override
+            public int read() {
+                return body.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return body.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+        when(httpServletRequest.getInputStream()).thenReturn(inputStream);
+        when(httpServletRequest.getContextPath()).thenReturn("/api");
+        when(httpServletRequest.getRequestURI()).thenReturn("/api/authenticateUser");
+        when(httpServletRequest.getMethod()).thenReturn(HttpMethod.POST.toString());
+        when(httpServletRequest.getContentType()).thenReturn("application/json;charset=UTF-8");
+        when(httpServletResponse.getContentType()).thenReturn("application/json;charset=UTF-8");
+        when(httpServletResponse.getOutputStream()).thenReturn(Mockito.mock(ServletOutputStream.class));
+        when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(1.0);
+        when(settings.getLogRequestMaxBodySize()).thenReturn(65536);
+        FilterChain filterChain = new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                assertEquals("{\"username\":\"user\",\"password\":\"secret\"}", IOUtils.toString(request.getInputStream(), "UTF-8"));
+                response.getOutputStream().write("\"token\"".getBytes("UTF-8"));
+            }
+        };
+
+        loggingFilter.doFilter(httpServletRequest, httpServletResponse, filterChain);
+
+        ArgumentCaptor<RequestLog> requestLog = ArgumentCaptor.forClass(RequestLog.class);
+        verify(requestLogWriter).write(requestLog.capture());
+        assertEquals("/api/authenticateUser", requestLog.getValue().getEndpoint());
+        assertNull(requestLog.getValue().getRequestBody());
+        assertNull(requestLog.getValue().getResponseBody());
+        assertNull(requestLog.getValue().getParameter());
+        assertEquals(7, requestLog.getValue().getResponseSize());
+    }
+
+    @Test
+    public void testDoFilterPostNotSampled() throws Exception {
+        HttpServletRequest httpServletRequest = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse httpServletResponse =  Mockito.mock(HttpServletResponse.class);
+        FilterChain filterChain =  Mockito.mock(FilterChain.class);
+        when(httpServletRequest.getMethod()).thenReturn(HttpMethod.POST.toString());
+        when(settings.isLogRequest()).thenReturn(true);
+        when(settings.getLogRequestSampleRate()).thenReturn(0.0);
+        loggingFilter.doFilter(httpServletRequest, httpServletResponse,
+                filterChain);
+        verify(filterChain).doFilter(httpServletRequest, httpServletResponse);
+        verify(requestLogWriter, times(0)).write(any(RequestLog.class));
+    }
+}
@@ -0,0 +1,98 @@
+package com.capitalone.dashboard.config;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.repository.RequestLogRepository;
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequestLogWriterTest {
+
+    @Mock
+    private RequestLogRepository requestLogRepository;
+
+    @Mock
+    private ApiSettings settings;
+
+    private RequestLogWriter writer;
+
+    @Before
+    public void setUp() {
+        when(settings.getLogRequestQueueCapacity()).thenReturn(3);
+        when(settings.getLogRequestBatchSize()).thenReturn(2);
+        writer = new RequestLogWriter(requestLogRepository, settings);
+    }
+
+    @Test
+    public void write_queueFull_dropsAndCounts() {
+        assertThat(writer.write(new RequestLog()), is(true));
+        assertThat(writer.write(new RequestLog()), is(true));
+        assertThat(writer.write(new RequestLog()), is(true));
+        assertThat(writer.write(new RequestLog()), is(false));
+
+        assertThat(writer.getQueueDepth(), is(3));
+        assertThat(writer.getDropped(), is(1L));
+    }
+
+    @Test
+    public void flush_savesInBatches() {
+        writer.write(new RequestLog());
+        writer.write(new RequestLog());
+        writer.write(new RequestLog());
+
+        writer.flush();
+
+        ArgumentCaptor<List<RequestLog>> batches = listCaptor();
+        verify(requestLogRepository, times(2)).save(batches.capture());
+        assertThat(batches.getAllValues().get(0).size(), is(2));
+        assertThat(batches.getAllValues().get(1).size(), is(1));
+        assertThat(writer.getQueueDepth(), is(0));
+        assertThat(writer.getWritten(), is(3L));
+    }
+
+    @Test
+    public void flush_parsesJsonBodiesAndKeepsTruncatedAsText() {
+        RequestLog requestLog = new RequestLog();
+        requestLog.setRequestBody("{\"name\":\"value\"}");
+        requestLog.setResponseBody("{\"id\":\"012");
+        writer.write(requestLog);
+
+        writer.flush();
+
+        assertThat(requestLog.getRequestBody(), instanceOf(DBObject.class));
+        assertThat(((DBObject) requestLog.getRequestBody()).get("name"), is((Object) "value"));
+        assertThat(requestLog.getResponseBody(), is((Object) "{\"id\":\"012"));
+    }
+
+    @Test
+    public void flush_saveFails_counted() {
+        when(requestLogRepository.save(anyListOf(RequestLog.class))).thenThrow(new RuntimeException("down"));
+        writer.write(new RequestLog());
+
+        writer.flush();
+
+        assertThat(writer.getFailed(), is(1L));
+        assertThat(writer.getWritten(), is(0L));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.config;
 
+import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.service.*;
 import org.mockito.Mockito;
 import org.springframework.context.annotation.Bean;
@@ -108,4 +109,14 @@ public class TestConfig {
     public CloudVolumeService cloudVolumeService() {
         return Mockito.mock(CloudVolumeService.class);
     }
+
+    @Bean
+    public RequestLogService requestLogService() {
+        return Mockito.mock(RequestLogService.class);
+    }
+
+    @Bean
+    public ApiSettings apiSettings() {
+        return new ApiSettings();
+    }
 }
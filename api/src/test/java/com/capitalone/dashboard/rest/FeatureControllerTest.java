@@ -8,6 +8,7 @@ import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.DataResponse;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.SprintSummary;
 import com.capitalone.dashboard.service.FeatureService;
 
 import org.bson.types.ObjectId;
@@ -26,6 +27,7 @@ import org.springframework.web.context.WebApplicationContext;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -354,4 +356,25 @@ public class FeatureControllerTest {
 				.andExpect(jsonPath("$result[0].sEstimate", is(mockV1Feature.getsEstimate())))
 				.andExpect(jsonPath("$result", hasSize(3)));
 	}
+
+	@Test
+	public void testSprintSummary_HappyPath() throws Exception {
+		String testTeamId = mockJiraFeature.getsTeamID();
+		SprintSummary summary = new SprintSummary(Arrays.asList(mockJiraFeature, mockJiraFeature2),
+				Arrays.asList(mockJiraFeature), 80, 40, 0);
+		DataResponse<SprintSummary> response = new DataResponse<>(summary,
+				mockJiraCollector.getLastExecuted());
+
+		when(featureService.getSprintSummary(mockComponentId, testTeamId, Optional.of("scrum"),
+				Optional.empty())).thenReturn(response);
+		mockMvc.perform(
+				get("/feature/summary/" + testTeamId + "?agileType=scrum&component="
+						+ mockComponentId.toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$result.stories", hasSize(2)))
+				.andExpect(jsonPath("$result.epicEstimates[0].sEpicNumber", is(mockJiraFeature.getsEpicNumber())))
+				.andExpect(jsonPath("$result.totalEstimate", is(80)))
+				.andExpect(jsonPath("$result.inProgressEstimate", is(40)))
+				.andExpect(jsonPath("$result.doneEstimate", is(0)));
+	}
 }
@@ -0,0 +1,148 @@
+package com.capitalone.dashboard.rest;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.config.TestConfig;
+import com.capitalone.dashboard.config.WebMVCConfig;
+import com.capitalone.dashboard.model.RequestLog;
+import com.capitalone.dashboard.request.RequestLogSearchRequest;
+import com.capitalone.dashboard.service.RequestLogService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestConfig.class, WebMVCConfig.class})
+@WebAppConfiguration
+public class RequestLogControllerTest {
+
+    private static final String API_KEY = "secret";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext wac;
+
+    @Autowired
+    private RequestLogService requestLogService;
+
+    @Autowired
+    private ApiSettings settings;
+
+    @Before
+    public void before() {
+        reset(requestLogService);
+        settings.setRequestLogApiKey(API_KEY);
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    }
+
+    @Test
+    public void requestLogs_oneLinePerLog() throws Exception {
+        when(requestLogService.search(any(RequestLogSearchRequest.class)))
+                .thenReturn(iterator(requestLog("/build", 2L), requestLog("/build", 1L)));
+
+        String body = mockMvc.perform(get("/requestlog?endpoint=/build&client=10.0.0.1&from=1&max=10")
+                .header(RequestLogController.API_KEY_HEADER, API_KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, is(2));
+        assertThat(lines[0], containsString("\"timestamp\":2"));
+        assertThat(lines[1], containsString("\"timestamp\":1"));
+        assertThat(body.endsWith("\n"), is(true));
+
+        ArgumentCaptor<RequestLogSearchRequest> request = ArgumentCaptor.forClass(RequestLogSearchRequest.class);
+        verify(requestLogService).search(request.capture());
+        assertThat(request.getValue().getEndpoint(), is("/build"));
+        assertThat(request.getValue().getClient(), is("10.0.0.1"));
+        assertThat(request.getValue().getFrom(), is(1L));
+        assertThat(request.getValue().getMax(), is(10));
+    }
+
+    @Test
+    public void requestLogs_maxTooLarge_badRequest() throws Exception {
+        mockMvc.perform(get("/requestlog?max=1000000").header(RequestLogController.API_KEY_HEADER, API_KEY))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void requestLogs_noApiKey_forbidden() throws Exception {
+        mockMvc.perform(get("/requestlog"))
+                .andExpect(status().isForbidden());
+        verify(requestLogService, never()).search(any(RequestLogSearchRequest.class));
+    }
+
+    @Test
+    public void requestLogs_wrongApiKey_forbidden() throws Exception {
+        mockMvc.perform(get("/requestlog").header(RequestLogController.API_KEY_HEADER, "guess"))
+                .andExpect(status().isForbidden());
+        verify(requestLogService, never()).search(any(RequestLogSearchRequest.class));
+    }
+
+    @Test
+    public void requestLogs_noApiKeyConfigured_forbidden() throws Exception {
+        settings.setRequestLogApiKey(null);
+
+        mockMvc.perform(get("/requestlog").header(RequestLogController.API_KEY_HEADER, ""))
+                .andExpect(status().isForbidden());
+        verify(requestLogService, never()).search(any(RequestLogSearchRequest.class));
+    }
+
+    private static RequestLog requestLog(String endpoint, long timestamp) {
+        RequestLog requestLog = new RequestLog();
+        requestLog.setEndpoint(endpoint);
+        requestLog.setMethod("POST");
+        requestLog.setResponseCode(200);
+        requestLog.setTimestamp(timestamp);
+        return requestLog;
+    }
+
+    private static CloseableIterator<RequestLog> iterator(RequestLog... requestLogs) {
+        final Iterator<RequestLog> iterator = Arrays.asList(requestLogs).iterator();
+        return new CloseableIterator<RequestLog>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public RequestLog next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
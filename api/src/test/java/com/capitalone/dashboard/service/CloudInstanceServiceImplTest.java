@@ -1,14 +1,18 @@
 package com.capitalone.dashboard.service;
 
 import com.capitalone.dashboard.misc.HygieiaException;
+import com.capitalone.dashboard.model.CloudHistoryResolution;
 import com.capitalone.dashboard.model.CloudInstance;
 import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
 import com.capitalone.dashboard.model.NameValue;
 import com.capitalone.dashboard.repository.CloudInstanceHistoryRepository;
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRollupRepository;
 import com.capitalone.dashboard.repository.CloudInstanceRepository;
 import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.request.CloudInstanceCreateRequest;
+import com.capitalone.dashboard.request.CloudInstanceHistoryRequest;
 import com.capitalone.dashboard.request.CloudInstanceListRefreshRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.Resources;
@@ -19,12 +23,14 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -41,6 +47,8 @@ public class CloudInstanceServiceImplTest {
     @Mock
     private CloudInstanceHistoryRepository cloudInstanceHistoryRepository;
     @Mock
+    private CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
+    @Mock
     private CloudInstanceRepository cloudInstanceRepository;
     @Mock
     private CollectorRepository collectorRepository;
@@ -51,7 +59,7 @@ public class CloudInstanceServiceImplTest {
     private static CloudInstance testInstance12345678;
     private static CloudInstance testInstance9876543;
     private static CloudInstanceHistory testInstanceHistory;
-    private static Collection<CloudInstance> collectionInstance;
+    private static List<CloudInstance> collectionInstance;
     private static Collection<CloudInstanceHistory> collectionHistory;
 
 
@@ -110,12 +118,20 @@ public class CloudInstanceServiceImplTest {
         NameValue nv = new NameValue("MYEnvironment", "MYONLYENVIRONMENT");
         ArrayList<NameValue> nvList = new ArrayList<>();
         nvList.add(nv);
-        when(cloudInstanceRepository.findByTagNameAndValue("MYEnvironment", "MYONLYENVIRONMENT")).thenReturn(collectionInstance);
+        when(cloudInstanceRepository.findByAnyTag(nvList, null)).thenReturn(collectionInstance);
         Collection<CloudInstance> result = cloudInstanceService.getInstanceDetailsByTags(nvList);
         assertThat(result, hasSize(2));
         assertArrayEquals(collectionInstance.toArray(), result.toArray());
     }
 
+    @Test
+    public void getInstanceDetailsByTagsPage() throws Exception {
+        List<NameValue> nvList = Arrays.asList(new NameValue("MYEnvironment", "MYONLYENVIRONMENT"));
+        when(cloudInstanceRepository.findByAnyTag(nvList, new PageRequest(1, 50))).thenReturn(collectionInstance);
+        Collection<CloudInstance> result = cloudInstanceService.getInstanceDetailsByTags(nvList, 1, 50);
+        assertThat(result, is(collectionInstance));
+    }
+
 
     @Test
     public void getInstanceHistoryByAccount() throws Exception {
@@ -124,6 +140,33 @@ public class CloudInstanceServiceImplTest {
         assertThat(result, is(collectionHistory));
     }
 
+    @Test
+    public void getInstanceHistoryByAccountRollups() throws Exception {
+        long to = 10 * CloudHistoryResolution.DAY.getLength() + 5;
+        CloudInstanceHistoryRequest request = new CloudInstanceHistoryRequest();
+        request.setResolution(CloudHistoryResolution.DAY);
+        request.setFrom(2 * CloudHistoryResolution.DAY.getLength() + 5);
+        request.setTo(to);
+        List<CloudInstanceHistoryRollup> rollups = Arrays.asList(new CloudInstanceHistoryRollup());
+        when(cloudInstanceHistoryRollupRepository.findRollups("123456789", CloudHistoryResolution.DAY,
+                2 * CloudHistoryResolution.DAY.getLength(), to)).thenReturn(rollups);
+
+        assertThat(cloudInstanceService.getInstanceHistoryByAccount("123456789", request), is(rollups));
+    }
+
+    @Test
+    public void getInstanceHistoryByAccountRollupsLimitsRange() throws Exception {
+        long to = 2000 * CloudHistoryResolution.HOUR.getLength();
+        CloudInstanceHistoryRequest request = new CloudInstanceHistoryRequest();
+        request.setFrom(0L);
+        request.setTo(to);
+
+        cloudInstanceService.getInstanceHistoryByAccount("123456789", request);
+
+        verify(cloudInstanceHistoryRollupRepository).findRollups("123456789", CloudHistoryResolution.HOUR,
+                1000 * CloudHistoryResolution.HOUR.getLength(), to);
+    }
+
     @Test
     public void refreshInstances() throws Exception {
         when(cloudInstanceRepository.findByAccountNumber("123456789")).thenReturn(collectionInstance);
@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.event.TeamDashboardIndex;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.Application;
 import com.capitalone.dashboard.model.Collector;
@@ -55,6 +56,8 @@ public class DashboardServiceTest {
     private CollectorItemRepository collectorItemRepository;
     @Mock
     private ServiceRepository serviceRepository;
+    @Mock
+    private TeamDashboardIndex teamDashboardIndex;
     @InjectMocks
     private DashboardServiceImpl dashboardService;
 
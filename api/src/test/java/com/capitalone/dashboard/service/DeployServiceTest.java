@@ -47,7 +47,7 @@ public class DeployServiceTest {
         EnvironmentComponent c_qa_ui = makeEnvComponent("QA", "UI", "1.1", true);
         EnvironmentComponent c_prod_api = makeEnvComponent("PROD", "API", "1.0", true);
         EnvironmentComponent c_prod_ui = makeEnvComponent("PROD", "UI", "1.0", true);
-        when(environmentComponentRepository.findByCollectorItemId(item.getId()))
+        when(environmentComponentRepository.findLatestByCollectorItemId(item.getId()))
                 .thenReturn(Arrays.asList(c_qa_api, c_qa_ui, c_prod_api, c_prod_ui));
 
         EnvironmentStatus s_qa_api_s1 = makeEnvironmentStatus("QA", "API", "s1", true);
@@ -135,6 +135,38 @@ public class DeployServiceTest {
         assertThat(server.isOnline(), is(true));
     }
 
+    @org.junit.Test
+    public void getDeployStatus_keepsLatestComponentIgnoringCase() {
+        ObjectId compId = ObjectId.get();
+        Component component = new Component();
+        CollectorItem item = new CollectorItem();
+        item.setId(ObjectId.get());
+        item.setCollectorId(ObjectId.get());
+        component.getCollectorItems().put(CollectorType.Deployment, Arrays.asList(item));
+        when(componentRepository.findOne(compId)).thenReturn(component);
+        when(collectorRepository.findOne(item.getCollectorId())).thenReturn(new Collector());
+
+        EnvironmentComponent c_qa_api_old = makeEnvComponent("QA", "API", "1.0", true);
+        c_qa_api_old.setAsOfDate(1L);
+        EnvironmentComponent c_qa_api_new = makeEnvComponent("QA", "api", "1.1", true);
+        c_qa_api_new.setAsOfDate(2L);
+        when(environmentComponentRepository.findLatestByCollectorItemId(item.getId()))
+                .thenReturn(Arrays.asList(c_qa_api_old, c_qa_api_new));
+        when(environmentStatusRepository.findByCollectorItemId(item.getId()))
+                .thenReturn(Arrays.asList(makeEnvironmentStatus("QA", "api", "s1", false)));
+
+        DataResponse<List<Environment>> result = deployService.getDeployStatus(compId);
+
+        assertThat(result.getResult(), hasSize(1));
+        Environment env = result.getResult().get(0);
+        assertThat(env.getUnits(), hasSize(1));
+        DeployableUnit unit = env.getUnits().get(0);
+        assertThat(unit.getName(), is("api"));
+        assertThat(unit.getVersion(), is("1.1"));
+        assertThat(unit.getServers(), hasSize(1));
+        assertThat(unit.getServers().get(0).isOnline(), is(false));
+    }
+
     private EnvironmentComponent makeEnvComponent(String envName, String name, String version, boolean deployed) {
         EnvironmentComponent comp = new EnvironmentComponent();
         comp.setEnvironmentName(envName);
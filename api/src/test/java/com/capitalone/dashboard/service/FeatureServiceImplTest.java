@@ -6,6 +6,8 @@ import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.DataResponse;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureEstimate;
+import com.capitalone.dashboard.model.SprintSummary;
 import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.FeatureRepository;
@@ -18,6 +20,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.query.Criteria;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -33,6 +36,7 @@ import javax.xml.bind.DatatypeConverter;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -378,8 +382,7 @@ public class FeatureServiceImplTest {
 	public void testGetFeatureEstimates_ManySameSuperFeatures_OneSuperFeatureRs() {
 		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
 		when(collectorRepository.findOne(mockItem2.getCollectorId())).thenReturn(mockJiraCollector);
-		when(featureRepository.getInProgressFeaturesEstimatesByTeamId((String) notNull(),
-				(String) notNull())).thenReturn(Arrays.asList(mockJiraFeature, mockJiraFeature2));
+		when(featureRepository.sumEstimatesByEpic(any(Criteria.class))).thenReturn(Arrays.asList(epicEstimate()));
 
 		DataResponse<List<Feature>> result = featureService.getFeatureEstimates(mockComponentId,
 				mockJiraFeature.getsTeamID(), Optional.empty(), Optional.empty());
@@ -395,8 +398,7 @@ public class FeatureServiceImplTest {
 	public void testGetFeatureEstimates_ManySameSuperFeatures_OneSuperFeatureRs_Hours() {
 		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
 		when(collectorRepository.findOne(mockItem2.getCollectorId())).thenReturn(mockJiraCollector);
-		when(featureRepository.getInProgressFeaturesEstimatesByTeamId((String) notNull(),
-				(String) notNull())).thenReturn(Arrays.asList(mockJiraFeature, mockJiraFeature2));
+		when(featureRepository.sumEstimatesByEpic(any(Criteria.class))).thenReturn(Arrays.asList(epicEstimate()));
 
 		DataResponse<List<Feature>> result = featureService.getFeatureEstimates(mockComponentId,
 				mockJiraFeature.getsTeamID(), Optional.empty(), Optional.of("hours"));
@@ -412,7 +414,7 @@ public class FeatureServiceImplTest {
 	public void testGetCurrentSprintDetail_ValidKanbanTeam_ShowKanban() {
 		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
 		when(collectorRepository.findOne(mockItem3.getCollectorId())).thenReturn(mockJiraCollector);
-		when(featureRepository.getCurrentSprintDetail((String) notNull(), (String) notNull()))
+		when(featureRepository.getCurrentSprintDetail((String) notNull(), (Date) notNull()))
 				.thenReturn(Arrays.asList(mockJiraFeature3));
 
 		DataResponse<List<Feature>> result = featureService.getCurrentSprintDetail(mockComponentId,
@@ -424,4 +426,74 @@ public class FeatureServiceImplTest {
 				"The total super feature estimate should be the sum total of any similar super features present in the response",
 				result.getResult().get(0).getsSprintName(), equalTo(KANBAN_SPRINT_ID));
 	}
+
+	@Test
+	public void testGetTotalEstimate_SummedByRepository() {
+		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
+		when(collectorRepository.findOne(mockItem2.getCollectorId())).thenReturn(mockJiraCollector);
+		FeatureEstimate total = new FeatureEstimate();
+		total.setStoryPoints(21);
+		total.setEstimateTime(150);
+		when(featureRepository.sumEstimates(any(Criteria.class))).thenReturn(total);
+
+		assertThat(featureService.getTotalEstimate(mockComponentId, mockJiraFeature.getsTeamID(),
+				Optional.empty(), Optional.empty()).getResult().get(0).getsEstimate(), equalTo("21"));
+		assertThat(featureService.getTotalEstimate(mockComponentId, mockJiraFeature.getsTeamID(),
+				Optional.empty(), Optional.of("hours")).getResult().get(0).getsEstimate(), equalTo("2"));
+	}
+
+	@Test
+	public void testGetSprintSummary_OneReadOfTheSprint() {
+		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
+		when(collectorRepository.findOne(mockItem2.getCollectorId())).thenReturn(mockJiraCollector);
+		mockJiraFeature2.setsStatus("Accepted");
+		when(featureRepository.queryByOrderBySStatusDesc((String) notNull(), (Date) notNull()))
+				.thenReturn(Arrays.asList(mockJiraFeature, mockJiraFeature2));
+
+		SprintSummary summary = featureService.getSprintSummary(mockComponentId,
+				mockJiraFeature.getsTeamID(), Optional.empty(), Optional.empty()).getResult();
+		assertThat(summary.getStories(), hasSize(2));
+		assertThat(summary.getEpicEstimates(), hasSize(1));
+		assertThat(summary.getEpicEstimates().get(0).getsEstimate(), equalTo("80"));
+		assertThat(summary.getTotalEstimate(), equalTo(80));
+		assertThat(summary.getInProgressEstimate(), equalTo(40));
+		assertThat(summary.getDoneEstimate(), equalTo(40));
+
+		SprintSummary hours = featureService.getSprintSummary(mockComponentId,
+				mockJiraFeature.getsTeamID(), Optional.empty(), Optional.of("hours")).getResult();
+		assertThat(hours.getTotalEstimate(), equalTo(5));
+		assertThat(hours.getInProgressEstimate(), equalTo(2));
+		verify(componentRepository, times(2)).findOne(mockComponentId);
+		verify(featureRepository, never()).sumEstimates(any(Criteria.class));
+		verify(featureRepository, never()).sumEstimatesByEpic(any(Criteria.class));
+	}
+
+	@Test
+	public void testGetSprintSummary_CachedUntilCollectorRuns() {
+		when(componentRepository.findOne(mockComponentId)).thenReturn(mockComponent);
+		when(collectorRepository.findOne(mockItem2.getCollectorId())).thenReturn(mockJiraCollector);
+		when(featureRepository.queryByOrderBySStatusDesc((String) notNull(), (Date) notNull()))
+				.thenReturn(Arrays.asList(mockJiraFeature, mockJiraFeature2));
+
+		String teamId = mockJiraFeature.getsTeamID();
+		DataResponse<SprintSummary> first = featureService.getSprintSummary(mockComponentId, teamId,
+				Optional.empty(), Optional.empty());
+		assertThat(featureService.getSprintSummary(mockComponentId, teamId, Optional.empty(),
+				Optional.empty()), sameInstance(first));
+		verify(featureRepository, times(1)).queryByOrderBySStatusDesc((String) notNull(), (Date) notNull());
+
+		mockJiraCollector.setLastExecuted(System.currentTimeMillis());
+		assertThat(featureService.getSprintSummary(mockComponentId, teamId, Optional.empty(),
+				Optional.empty()), not(sameInstance(first)));
+		verify(featureRepository, times(2)).queryByOrderBySStatusDesc((String) notNull(), (Date) notNull());
+	}
+
+	private FeatureEstimate epicEstimate() {
+		FeatureEstimate estimate = new FeatureEstimate(mockJiraFeature.getsEpicID(),
+				mockJiraFeature.getsEpicNumber(), mockJiraFeature.getsEpicName());
+		estimate.setStoryPoints(Integer.valueOf(mockJiraFeature.getsEstimate())
+				+ Integer.valueOf(mockJiraFeature2.getsEstimate()));
+		estimate.setEstimateTime(mockJiraFeature.getsEstimateTime() + mockJiraFeature2.getsEstimateTime());
+		return estimate;
+	}
 }
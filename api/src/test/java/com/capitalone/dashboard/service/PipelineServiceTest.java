@@ -1,16 +1,18 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.event.PipelineResponseUpdater;
 import com.capitalone.dashboard.model.*;
 import com.capitalone.dashboard.repository.CollectorItemRepository;
 import com.capitalone.dashboard.repository.DashboardRepository;
 import com.capitalone.dashboard.repository.PipelineRepository;
+import com.capitalone.dashboard.repository.PipelineResponseRepository;
 import com.capitalone.dashboard.request.PipelineSearchRequest;
 import org.apache.commons.lang.NotImplementedException;
 import org.bson.types.ObjectId;
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -18,6 +20,10 @@ import java.util.*;
 
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.junit.Assert.assertEquals;
 
@@ -30,9 +36,17 @@ public class PipelineServiceTest {
     private DashboardRepository dashboardRepository;
     @Mock
     private CollectorItemRepository collectorItemRepository;
-    @InjectMocks
+    @Mock
+    private PipelineResponseRepository pipelineResponseRepository;
+
     private PipelineServiceImpl pipelineService;
 
+    @Before
+    public void setUp() {
+        PipelineResponseUpdater pipelineResponseUpdater = new PipelineResponseUpdater(collectorItemRepository, dashboardRepository, pipelineResponseRepository);
+        pipelineService = new PipelineServiceImpl(pipelineRepository, pipelineResponseRepository, pipelineResponseUpdater);
+    }
+
     @Test
     public void search() throws Exception {
         ObjectId dashboardCollectorItemId = ObjectId.get();
@@ -75,6 +89,77 @@ public class PipelineServiceTest {
         assertThat(actual.getStages().get(PipelineStageType.Commit).size(), is(0));
     }
 
+    @Test
+    public void search_commitsInLatestStageWithAllStageTimestamps() throws Exception {
+        ObjectId dashboardCollectorItemId = ObjectId.get();
+        PipelineSearchRequest request = new PipelineSearchRequest();
+        request.setCollectorItemId(Collections.singletonList(dashboardCollectorItemId));
+
+        Dashboard dashboard = makeTeamDashboard("template", "title", "appName", "comp1");
+        dashboard.getWidgets().add(makePipelineWidget("DEV", "QA", null, null, "PROD"));
+        dashboard.setId(ObjectId.get());
+        CollectorItem dashboardCollectorItem = makeDashboardCollectorItem(dashboard);
+        dashboardCollectorItem.setId(dashboardCollectorItemId);
+
+        Pipeline pipeline = makePipeline(dashboardCollectorItem);
+        pipeline.addCommit(PipelineStageType.Commit.name(), makePipelineCommit("sha0", 1L));
+        pipeline.addCommit(PipelineStageType.Build.name(), makePipelineCommit("sha0", 2L));
+        pipeline.addCommit("dev", makePipelineCommit("sha0", 3L));
+        pipeline.addCommit(PipelineStageType.Commit.name(), makePipelineCommit("sha1", 4L));
+
+        when(pipelineRepository.findByCollectorItemId(dashboardCollectorItemId)).thenReturn(pipeline);
+        when(collectorItemRepository.findOne(dashboardCollectorItemId)).thenReturn(dashboardCollectorItem);
+        when(dashboardRepository.findOne(dashboard.getId())).thenReturn(dashboard);
+
+        PipelineResponse actual = ((List<PipelineResponse>) pipelineService.search(request)).get(0);
+
+        List<PipelineResponseCommit> commitStage = actual.getStages().get(PipelineStageType.Commit);
+        assertThat(commitStage.size(), is(1));
+        assertThat(commitStage.get(0).getScmRevisionNumber(), is("sha1"));
+        assertThat(actual.getStages().get(PipelineStageType.Build).size(), is(0));
+
+        List<PipelineResponseCommit> devStage = actual.getStages().get(PipelineStageType.Dev);
+        assertThat(devStage.size(), is(1));
+        Map<String, Long> timestamps = devStage.get(0).getProcessedTimestamps();
+        assertThat(timestamps.get(PipelineStageType.Commit.name()), is(1L));
+        assertThat(timestamps.get(PipelineStageType.Build.name()), is(2L));
+        assertThat(timestamps.get(PipelineStageType.Dev.name()), is(3L));
+        assertThat(actual.getStages().get(PipelineStageType.QA).size(), is(0));
+        verify(pipelineResponseRepository, never()).save(any(PipelineResponse.class));
+    }
+
+    @Test
+    public void search_storedResponse_notRecomputed() throws Exception {
+        ObjectId dashboardCollectorItemId = ObjectId.get();
+        PipelineSearchRequest request = new PipelineSearchRequest();
+        request.setCollectorItemId(Collections.singletonList(dashboardCollectorItemId));
+
+        PipelineResponse stored = new PipelineResponse();
+        stored.setCollectorItemId(dashboardCollectorItemId);
+        stored.setLastUpdated(5L);
+        long now = System.currentTimeMillis();
+        PipelineResponseCommit recent = new PipelineResponseCommit(makePipelineCommit("sha0", now));
+        recent.addNewPipelineProcessedTimestamp(PipelineStageType.Prod.name(), now);
+        PipelineResponseCommit old = new PipelineResponseCommit(makePipelineCommit("sha1", 1L));
+        old.addNewPipelineProcessedTimestamp(PipelineStageType.Prod.name(), 1L);
+        stored.addToStage(PipelineStageType.Prod, recent);
+        stored.addToStage(PipelineStageType.Prod, old);
+        when(pipelineResponseRepository.findOne(dashboardCollectorItemId)).thenReturn(stored);
+
+        List<PipelineResponse> pipelineResponses = (List<PipelineResponse>) pipelineService.search(request);
+
+        List<PipelineResponseCommit> prod = pipelineResponses.get(0).getStages().get(PipelineStageType.Prod);
+        assertThat(prod.size(), is(1));
+        assertThat(prod.get(0).getScmRevisionNumber(), is("sha0"));
+        assertThat(stored.getStages().get(PipelineStageType.Prod).size(), is(2));
+        verifyZeroInteractions(pipelineRepository, dashboardRepository, collectorItemRepository);
+
+        String eTag = pipelineService.getETag(request, pipelineResponses);
+        assertThat(pipelineService.getETag(request, pipelineResponses), is(eTag));
+        stored.setLastUpdated(6L);
+        assertThat(pipelineService.getETag(request, Collections.singletonList(stored)), is(not(eTag)));
+    }
+
     private Widget makePipelineWidget(String devName, String qaName, String intName, String perfName, String prodName){
         Widget pipelineWidget = new Widget();
         pipelineWidget.setName("pipeline");
@@ -3,13 +3,11 @@ package com.capitalone.dashboard.collector;
 
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.BambooCollector;
 import com.capitalone.dashboard.model.BambooJob;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.BuildRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.BambooCollectorRepository;
 import com.capitalone.dashboard.repository.BambooJobRepository;
 import org.apache.commons.lang3.StringUtils;
@@ -42,7 +40,7 @@ public class BambooCollectorTask extends CollectorTask<BambooCollector> {
     private final BuildRepository buildRepository;
     private final BambooClient bambooClient;
     private final BambooSettings bambooSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public BambooCollectorTask(TaskScheduler taskScheduler,
@@ -50,14 +48,14 @@ public class BambooCollectorTask extends CollectorTask<BambooCollector> {
                                BambooJobRepository bambooJobRepository,
                                BuildRepository buildRepository, BambooClient bambooClient,
                                BambooSettings bambooSettings,
-                               ComponentRepository dbComponentRepository) {
+                               DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "Bamboo");
         this.bambooCollectorRepository = bambooCollectorRepository;
         this.bambooJobRepository = bambooJobRepository;
         this.buildRepository = buildRepository;
         this.bambooClient = bambooClient;
         this.bambooSettings = bambooSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -115,33 +113,7 @@ public class BambooCollectorTask extends CollectorTask<BambooCollector> {
      */
 
     private void clean(BambooCollector collector, List<BambooJob> existingJobs) {
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-
-            if (CollectionUtils.isEmpty(comp.getCollectorItems())) continue;
-
-            List<CollectorItem> itemList = comp.getCollectorItems().get(CollectorType.Build);
-
-            if (CollectionUtils.isEmpty(itemList)) continue;
-
-            for (CollectorItem ci : itemList) {
-                if (collector.getId().equals(ci.getCollectorId())) {
-                    uniqueIDs.add(ci.getId());
-                }
-            }
-        }
-        List<BambooJob> stateChangeJobList = new ArrayList<>();
-        for (BambooJob job : existingJobs) {
-            if ((job.isEnabled() && !uniqueIDs.contains(job.getId())) ||  // if it was enabled but not on a dashboard
-                    (!job.isEnabled() && uniqueIDs.contains(job.getId()))) { // OR it was disabled and now on a dashboard
-                job.setEnabled(uniqueIDs.contains(job.getId()));
-                stateChangeJobList.add(job);
-            }
-        }
-        if (!CollectionUtils.isEmpty(stateChangeJobList)) {
-            bambooJobRepository.save(stateChangeJobList);
-        }
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Build, existingJobs);
     }
 
     /**
@@ -193,10 +165,12 @@ public class BambooCollectorTask extends CollectorTask<BambooCollector> {
 //            LOG.info("Enabled Job Name: " + job.getJobName());
             if (job.isPushed()) {LOG.info("Job Pushed already: " + job.getJobName());continue;}
 //            LOG.info("No of builds by job:"+ buildsByJob.get(job));
-            for (Build buildSummary : nullSafe(buildsByJob.get(job))) {
+            Set<Build> buildSummaries = nullSafe(buildsByJob.get(job));
+            Set<String> existingNumbers = buildRepository.findExistingNumbers(job.getId(), buildSummaries);
+            for (Build buildSummary : buildSummaries) {
 //              LOG.info("Build Summary: " + buildSummary
 //                  .getBuildUrl());
-                if (isNewBuild(job, buildSummary)) {
+                if (existingNumbers.add(buildSummary.getNumber())) {
 //                    LOG.info("Build is new: " + buildSummary
 //                        .getBuildUrl());
 
@@ -282,9 +256,4 @@ public class BambooCollectorTask extends CollectorTask<BambooCollector> {
         return bambooJobRepository.findJob(collector.getId(),
                 job.getInstanceUrl(), job.getJobName());
     }
-
-    private boolean isNewBuild(BambooJob job, Build build) {
-        return buildRepository.findByCollectorItemIdAndNumber(job.getId(),
-                build.getNumber()) == null;
-    }
 }
@@ -4,13 +4,13 @@ import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStatus;
 import com.capitalone.dashboard.model.BambooJob;
 import com.capitalone.dashboard.model.SCM;
+import com.capitalone.dashboard.util.JsonCursor;
 import com.capitalone.dashboard.util.Supplier;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,11 +18,16 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -31,7 +36,9 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.LinkedHashMap;
@@ -40,7 +47,8 @@ import java.util.Date;
 
 /**
  * BambooClient implementation that uses RestTemplate and JSONSimple to
- * fetch information from Bamboo instances.
+ * fetch information from Bamboo instances. Responses are read with a
+ * {@link JsonCursor} straight from the response stream.
  */
 @Component
 public class DefaultBambooClient implements BambooClient {
@@ -58,128 +66,42 @@ public class DefaultBambooClient implements BambooClient {
         this.rest = restOperationsSupplier.get();
         this.settings = settings;
     }
-    @SuppressWarnings("PMD.ExcessiveMethodLength")
     @Override
-    public Map<BambooJob, Set<Build>> getInstanceJobs(String instanceUrl) {
+    public Map<BambooJob, Set<Build>> getInstanceJobs(final String instanceUrl) {
         Map<BambooJob, Set<Build>> result = new LinkedHashMap<>();
         try {
             String url = joinURL(instanceUrl, JOBS_URL_SUFFIX);
-            ResponseEntity<String> responseEntity = makeRestCall(url);
-            String returnJSON = responseEntity.getBody();
-            // LOG.info(returnJSON);
-            JSONParser parser = new JSONParser();
-
-            try {
-                 JSONObject object = (JSONObject) parser.parse(returnJSON);
-
-                for (Object job : getJsonArray((JSONObject)object.get("plans"), "plan")) {
-                    JSONObject jsonJob = (JSONObject) job;
-
-                    final String planName = getString(jsonJob, "key");
-                    JSONObject link=(JSONObject)jsonJob.get("link");
-                    final String planURL = getString(link, "href");
-
-                    LOG.info("Plan:" + planName);
-                    LOG.info("PlanURL: " + planURL);
-
-                    // In terms of Bamboo this is the plan not job
-                    BambooJob bambooJob = new BambooJob();
-                    bambooJob.setInstanceUrl(instanceUrl);
-                    bambooJob.setJobName(planName);
-                    bambooJob.setJobUrl(planURL);
-
-                    // Finding out the results of the top-level plan 
-
-                    String resultUrl = joinURL(instanceUrl,JOBS_RESULT_SUFFIX);
-                    resultUrl = joinURL(resultUrl,planName);
-//                    LOG.info("Job:" + planName);
-//                    LOG.info("Result URL:"+ resultUrl);
-                    responseEntity = makeRestCall(resultUrl);
-                    returnJSON = responseEntity.getBody();
-//                    LOG.info("Result :"+ returnJSON);
-                    jsonJob = (JSONObject) parser.parse(returnJSON);
-
-                    Set<Build> builds = new LinkedHashSet<>();
-                    for (Object build : getJsonArray((JSONObject)jsonJob.get("results"), "result")) {
-                        JSONObject jsonBuild = (JSONObject) build;
-//                        LOG.info("Entered each build for job : "+ planName);
-                        // A basic Build object. This will be fleshed out later if this is a new Build.
-                        String dockerLocalHostIP = settings.getDockerLocalHostIP();
-                        String buildNumber = jsonBuild.get("buildNumber").toString();
-                        if (!"0".equals(buildNumber)) {
-//                            LOG.info("BuildNO " + buildNumber + " for planName: " + planName);
-                            Build bambooBuild = new Build();
-                            bambooBuild.setNumber(buildNumber);
-                            String buildURL = joinURL(resultUrl,buildNumber); //getString(jsonBuild, "url");
-//                            LOG.info(buildURL);
-                            //Modify localhost if Docker Natting is being done
-                            if (!dockerLocalHostIP.isEmpty()) {
-                                buildURL = buildURL.replace("localhost", dockerLocalHostIP);
-                                LOG.debug("Adding build & Updated URL to map LocalHost for Docker: " + buildURL);
-                            } else {
-                                LOG.debug(" Adding Build: " + buildURL);
+            List<BambooJob> plans = makeRestCall(url, new ResponseExtractor<List<BambooJob>>() {
+                @Override
+                public List<BambooJob> extractData(ClientHttpResponse response) throws IOException {
+                    List<BambooJob> jobs = new ArrayList<>();
+                    try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                        if (cursor.enterArray("plans", "plan")) {
+                            JSONObject jsonJob;
+                            while ((jsonJob = cursor.nextObject()) != null) {
+                                jobs.add(bambooJob(instanceUrl, jsonJob));
                             }
-
-                            bambooBuild.setBuildUrl(buildURL);
-                            builds.add(bambooBuild);
                         }
+                    } catch (JsonProcessingException e) {
+                        LOG.error("Parsing jobs on instance: " + instanceUrl, e);
                     }
-                    // add the builds to the job
-                    result.put(bambooJob, builds);
-
-                    //But we might have many branches and subplans in them so we have to find them out as well
-                    String branchesUrl= joinURL(planURL,"/branch");
-                    responseEntity = makeRestCall(branchesUrl);
-                    returnJSON = responseEntity.getBody();
-                    JSONObject jsonBranches = (JSONObject) parser.parse(returnJSON);
-
-                    for (Object branch : getJsonArray((JSONObject)jsonBranches.get("branches"), "branch")) {
-                        JSONObject branchObject=(JSONObject) branch;
-                        String subPlan=branchObject.get("key").toString();
-                        // Figure out nested jobs under the branches
-
-                        resultUrl = joinURL(instanceUrl,JOBS_RESULT_SUFFIX);
-                        resultUrl = joinURL(resultUrl,subPlan);
-                        LOG.info("sub Plan:" + subPlan);
-                        LOG.info("sub plan-Result URL:"+ resultUrl);
-                        responseEntity = makeRestCall(resultUrl);
-                        returnJSON = responseEntity.getBody();
-    //                    LOG.info("Result :"+ returnJSON);
-                        jsonJob = (JSONObject) parser.parse(returnJSON);
-
-                        for (Object build : getJsonArray((JSONObject)jsonJob.get("results"), "result")) {
-                            JSONObject jsonBuild = (JSONObject) build;
-                           LOG.info("Entered each build for nested plan : "+ subPlan);
-                            // A basic Build object. This will be fleshed out later if this is a new Build.
-                            String dockerLocalHostIP = settings.getDockerLocalHostIP();
-                            String buildNumber = jsonBuild.get("buildNumber").toString();
-                            if (!"0".equals(buildNumber)) {
-    //                            LOG.info("BuildNO " + buildNumber + " for planName: " + planName);
-                                Build bambooBuild = new Build();
-                                bambooBuild.setNumber(buildNumber);
-                                String buildURL = joinURL(resultUrl,buildNumber); //getString(jsonBuild, "url");
-    //                            LOG.info(buildURL);
-                                //Modify localhost if Docker Natting is being done
-                                if (!dockerLocalHostIP.isEmpty()) {
-                                    buildURL = buildURL.replace("localhost", dockerLocalHostIP);
-                                    LOG.debug("Adding build & Updated URL to map LocalHost for Docker: " + buildURL);
-                                } else {
-                                    LOG.debug(" Adding Build: " + buildURL);
-                                }
-
-                                bambooBuild.setBuildUrl(buildURL);
-                                builds.add(bambooBuild);
-                            }
-                        }
-                        // add the builds to the job
-                        result.put(bambooJob, builds);
-
-                        // Ended with nested branches
-                    }
-
+                    return jobs;
+                }
+            });
+
+            for (BambooJob bambooJob : plans) {
+                // Finding out the results of the top-level plan
+                Set<Build> builds = new LinkedHashSet<>();
+                addResults(instanceUrl, bambooJob.getJobName(), builds);
+                // add the builds to the job
+                result.put(bambooJob, builds);
+
+                //But we might have many branches and subplans in them so we have to find them out as well
+                for (String subPlan : getBranchKeys(joinURL(bambooJob.getJobUrl(), "/branch"))) {
+                    // Figure out nested jobs under the branches
+                    LOG.info("sub Plan:" + subPlan);
+                    addResults(instanceUrl, subPlan, builds);
                 }
-            } catch (ParseException e) {
-                LOG.error("Parsing jobs on instance: " + instanceUrl, e);
             }
         } catch (RestClientException rce) {
             LOG.error("client exception loading jobs", rce);
@@ -190,22 +112,109 @@ public class DefaultBambooClient implements BambooClient {
         return result;
     }
 
+    private BambooJob bambooJob(String instanceUrl, JSONObject jsonJob) {
+        final String planName = getString(jsonJob, "key");
+        JSONObject link = (JSONObject) jsonJob.get("link");
+        final String planURL = getString(link, "href");
+
+        LOG.info("Plan:" + planName);
+        LOG.info("PlanURL: " + planURL);
+
+        // In terms of Bamboo this is the plan not job
+        BambooJob bambooJob = new BambooJob();
+        bambooJob.setInstanceUrl(instanceUrl);
+        bambooJob.setJobName(planName);
+        bambooJob.setJobUrl(planURL);
+        return bambooJob;
+    }
+
+    /**
+     * Streams the results of a plan (or plan branch) into the given builds.
+     */
+    private void addResults(String instanceUrl, String planKey, final Set<Build> builds) throws MalformedURLException {
+        final String resultUrl = joinURL(joinURL(instanceUrl, JOBS_RESULT_SUFFIX), planKey);
+        LOG.debug("Result URL:" + resultUrl);
+        makeRestCall(resultUrl, new ResponseExtractor<Void>() {
+            @Override
+            public Void extractData(ClientHttpResponse response) throws IOException {
+                try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                    if (cursor.enterArray("results", "result")) {
+                        JSONObject jsonBuild;
+                        while ((jsonBuild = cursor.nextObject()) != null) {
+                            addBuild(resultUrl, jsonBuild, builds);
+                        }
+                    }
+                } catch (JsonProcessingException e) {
+                    LOG.error("Parsing results: " + resultUrl, e);
+                }
+                return null;
+            }
+        });
+    }
+
+    // A basic Build object. This will be fleshed out later if this is a new Build.
+    private void addBuild(String resultUrl, JSONObject jsonBuild, Set<Build> builds) throws MalformedURLException {
+        String dockerLocalHostIP = settings.getDockerLocalHostIP();
+        String buildNumber = jsonBuild.get("buildNumber").toString();
+        if (!"0".equals(buildNumber)) {
+            Build bambooBuild = new Build();
+            bambooBuild.setNumber(buildNumber);
+            String buildURL = joinURL(resultUrl, buildNumber);
+            //Modify localhost if Docker Natting is being done
+            if (!dockerLocalHostIP.isEmpty()) {
+                buildURL = buildURL.replace("localhost", dockerLocalHostIP);
+                LOG.debug("Adding build & Updated URL to map LocalHost for Docker: " + buildURL);
+            } else {
+                LOG.debug(" Adding Build: " + buildURL);
+            }
+
+            bambooBuild.setBuildUrl(buildURL);
+            builds.add(bambooBuild);
+        }
+    }
+
+    private List<String> getBranchKeys(final String branchesUrl) {
+        return makeRestCall(branchesUrl, new ResponseExtractor<List<String>>() {
+            @Override
+            public List<String> extractData(ClientHttpResponse response) throws IOException {
+                List<String> keys = new ArrayList<>();
+                try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                    if (cursor.enterArray("branches", "branch")) {
+                        JSONObject branch;
+                        while ((branch = cursor.nextObject()) != null) {
+                            keys.add(branch.get("key").toString());
+                        }
+                    }
+                } catch (JsonProcessingException e) {
+                    LOG.error("Parsing branches: " + branchesUrl, e);
+                }
+                return keys;
+            }
+        });
+    }
+
     @Override
-    public Build getBuildDetails(String buildUrl, String instanceUrl) {
+    public Build getBuildDetails(final String buildUrl, String instanceUrl) {
         try {
             String newUrl = rebuildJobUrl(buildUrl, instanceUrl);
             String url = joinURL(newUrl, BUILD_DETAILS_URL_SUFFIX);
 //            LOG.info("Build Details URL:"+ url);
-            ResponseEntity<String> result = makeRestCall(url);
-            String resultJSON = result.getBody();
-//            LOG.info("Build Details :"+ resultJSON);
-            if (StringUtils.isEmpty(resultJSON)) {
+            JSONObject buildJson = makeRestCall(url, new ResponseExtractor<JSONObject>() {
+                @Override
+                public JSONObject extractData(ClientHttpResponse response) throws IOException {
+                    try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                        return cursor.readObject();
+                    } catch (JsonProcessingException e) {
+                        LOG.error("Parsing build: " + buildUrl, e);
+                        return null;
+                    }
+                }
+            });
+            if (buildJson == null) {
                 LOG.error("Error getting build details for. URL=" + url);
                 return null;
             }
-            JSONParser parser = new JSONParser();
             try {
-                JSONObject buildJson = (JSONObject) parser.parse(resultJSON);
                 Boolean finished = (Boolean) buildJson.get("finished");
                 // Ignore jobs that are building
                 if (finished) {
@@ -388,6 +397,32 @@ public class DefaultBambooClient implements BambooClient {
 
     }
 
+    /**
+     * Same as {@link #makeRestCall(String)} but hands the response body to the extractor as a
+     * stream instead of reading it into a String first.
+     */
+    protected <T> T makeRestCall(String sUrl, ResponseExtractor<T> extractor) {
+        URI thisuri = URI.create(sUrl);
+        String userInfo = thisuri.getUserInfo();
+
+        //get userinfo from URI or settings (in spring properties)
+        if (StringUtils.isEmpty(userInfo) && (this.settings.getUsername() != null) && (this.settings.getApiKey() != null)) {
+            userInfo = this.settings.getUsername() + ":" + this.settings.getApiKey();
+        }
+        final HttpHeaders headers = StringUtils.isNotEmpty(userInfo) ? createHeaders(userInfo) : null;
+        // Basic Auth only.
+        RequestCallback callback = null;
+        if (headers != null) {
+            callback = new RequestCallback() {
+                @Override
+                public void doWithRequest(ClientHttpRequest request) throws IOException {
+                    request.getHeaders().putAll(headers);
+                }
+            };
+        }
+        return rest.execute(thisuri, HttpMethod.GET, callback, extractor);
+    }
+
     protected HttpHeaders createHeaders(final String userInfo) {
         byte[] encodedAuth = Base64.encodeBase64(
                 userInfo.getBytes(StandardCharsets.US_ASCII));
@@ -1,11 +1,9 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.BambooCollector;
 import com.capitalone.dashboard.model.BambooJob;
 import com.capitalone.dashboard.repository.BuildRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.BambooCollectorRepository;
 import com.capitalone.dashboard.repository.BambooJobRepository;
 import com.google.common.collect.Sets;
@@ -42,7 +40,7 @@ public class BambooCollectorTaskTests {
     @Mock private BuildRepository buildRepository;
     @Mock private BambooClient bambooClient;
     @Mock private BambooSettings bambooSettings;
-    @Mock private ComponentRepository dbComponentRepository;
+    @Mock private DashboardCollectorItemService dashboardCollectorItemService;
 
     @InjectMocks private BambooCollectorTask task;
 
@@ -51,7 +49,6 @@ public class BambooCollectorTaskTests {
 
     @Test
     public void collect_noBuildServers_nothingAdded() {
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(new BambooCollector());
         verifyZeroInteractions(bambooClient, buildRepository);
     }
@@ -59,7 +56,6 @@ public class BambooCollectorTaskTests {
     @Test
     public void collect_noJobsOnServer_nothingAdded() {
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(new HashMap<BambooJob, Set<Build>>());
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collectorWithOneServer());
 
         verify(bambooClient).getInstanceJobs(SERVER1);
@@ -69,7 +65,6 @@ public class BambooCollectorTaskTests {
     @Test
     public void collect_twoJobs_jobsAdded() {
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(twoJobsWithTwoBuilds(SERVER1, NICENAME1));
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collectorWithOneServer());
         verify(bambooJobRepository, times(1)).save(anyListOf(BambooJob.class));
     }
@@ -81,14 +76,12 @@ public class BambooCollectorTaskTests {
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job));
         when(bambooJobRepository.findJob(collector.getId(), SERVER1, job.getJobName()))
                 .thenReturn(job);
-        when(dbComponentRepository.findAll()).thenReturn(components());
 
         task.collect(collector);
 
         verify(bambooJobRepository, never()).save(job);
     }
 
-
     @Test
     public void delete_job() {
         BambooCollector collector = collectorWithOneServer();
@@ -104,7 +97,6 @@ public class BambooCollectorTaskTests {
         udId.add(collector.getId());
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job1));
         when(bambooJobRepository.findByCollectorIdIn(udId)).thenReturn(jobs);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
         List<BambooJob> delete = new ArrayList<>();
         delete.add(job2);
@@ -123,7 +115,6 @@ public class BambooCollectorTaskTests {
         udId.add(collector.getId());
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job1));
         when(bambooJobRepository.findByCollectorIdIn(udId)).thenReturn(jobs);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
         verify(bambooJobRepository, never()).delete(anyListOf(BambooJob.class));
     }
@@ -135,7 +126,6 @@ public class BambooCollectorTaskTests {
         Build build = build("JOB1_1", "JOB1_1_URL");
 
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
 
         verify(buildRepository, never()).save(build);
@@ -150,8 +140,7 @@ public class BambooCollectorTaskTests {
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
         when(bambooJobRepository.findEnabledJobs(collector.getId(), SERVER1))
                 .thenReturn(Arrays.asList(job));
-        when(buildRepository.findByCollectorItemIdAndNumber(job.getId(), build.getNumber())).thenReturn(build);
-        when(dbComponentRepository.findAll()).thenReturn(components());
+        when(buildRepository.findExistingNumbers(job.getId(), Sets.newHashSet(build))).thenReturn(Sets.newHashSet(build.getNumber()));
         task.collect(collector);
 
         verify(buildRepository, never()).save(build);
@@ -166,9 +155,8 @@ public class BambooCollectorTaskTests {
         when(bambooClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
         when(bambooJobRepository.findEnabledJobs(collector.getId(), SERVER1))
                 .thenReturn(Arrays.asList(job));
-        when(buildRepository.findByCollectorItemIdAndNumber(job.getId(), build.getNumber())).thenReturn(null);
+        when(buildRepository.findExistingNumbers(job.getId(), Sets.newHashSet(build))).thenReturn(new HashSet<String>());
         when(bambooClient.getBuildDetails(build.getBuildUrl(), job.getInstanceUrl())).thenReturn(build);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
 
         verify(buildRepository, times(1)).save(build);
@@ -206,14 +194,4 @@ public class BambooCollectorTaskTests {
         build.setBuildUrl(url);
         return build;
     }
-
-    private ArrayList<com.capitalone.dashboard.model.Component> components() {
-    	ArrayList<com.capitalone.dashboard.model.Component> cArray = new ArrayList<com.capitalone.dashboard.model.Component>();
-    	com.capitalone.dashboard.model.Component c = new Component();
-    	c.setId(new ObjectId());
-    	c.setName("COMPONENT1");
-    	c.setOwner("JOHN");
-    	cArray.add(c);
-    	return cArray;
-    }
 }
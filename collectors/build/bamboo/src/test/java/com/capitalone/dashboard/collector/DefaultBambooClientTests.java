@@ -11,18 +11,24 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -158,14 +164,37 @@ public class DefaultBambooClientTests {
 
     @Test
     public void instanceJobs_emptyResponse_returnsEmptyMap() {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>("{\"plans\":{\"plan\":[]}}", HttpStatus.OK));
+        stubStreamingCall("{\"plans\":{\"plan\":[]}}");
 
         Map<BambooJob, Set<Build>> jobs = bambooClient.getInstanceJobs(URL_TEST);
 
         assertThat(jobs.size(), is(0));
     }
 
+    @Test
+    public void instanceJobs_planWithBranch_streamsResults() {
+        stubStreamingCall(URI.create("http://bamboo/rest/api/latest/plan?expand=plans&max-result=2000"),
+                "{\"plans\":{\"size\":1,\"plan\":[{\"key\":\"PRJ-PLAN\",\"link\":{\"href\":\"http://bamboo/rest/api/latest/plan/PRJ-PLAN\"}}]}}");
+        stubStreamingCall(URI.create("http://bamboo/rest/api/latest/result/PRJ-PLAN"),
+                "{\"results\":{\"result\":[{\"buildNumber\":2},{\"buildNumber\":1}]}}");
+        stubStreamingCall(URI.create("http://bamboo/rest/api/latest/plan/PRJ-PLAN/branch"),
+                "{\"branches\":{\"branch\":[{\"key\":\"PRJ-PLAN0\"}]}}");
+        stubStreamingCall(URI.create("http://bamboo/rest/api/latest/result/PRJ-PLAN0"),
+                "{\"results\":{\"result\":[{\"buildNumber\":5}]}}");
+
+        Map<BambooJob, Set<Build>> jobs = bambooClient.getInstanceJobs("http://bamboo");
+
+        assertThat(jobs.size(), is(1));
+        BambooJob job = jobs.keySet().iterator().next();
+        assertJob(job, "PRJ-PLAN", "http://bamboo/rest/api/latest/plan/PRJ-PLAN");
+
+        Iterator<Build> buildIt = jobs.get(job).iterator();
+        assertBuild(buildIt.next(), "2", "http://bamboo/rest/api/latest/result/PRJ-PLAN/2");
+        assertBuild(buildIt.next(), "1", "http://bamboo/rest/api/latest/result/PRJ-PLAN/1");
+        assertBuild(buildIt.next(), "5", "http://bamboo/rest/api/latest/result/PRJ-PLAN0/5");
+        assertThat(buildIt.hasNext(), is(false));
+    }
+
     // @Test
     // public void instanceJobs_twoJobsTwoBuilds() throws Exception {
     //     when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
@@ -199,8 +228,7 @@ public class DefaultBambooClientTests {
 
     @Test
     public void buildDetails_full() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_full.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_full.json"));
 
         Build build = bambooClient.getBuildDetails("http://server/job/job2/2/", "http://server");
 
@@ -237,6 +265,31 @@ public class DefaultBambooClientTests {
         assertThat(build.getBuildUrl(), is(url));
     }
 
+    @SuppressWarnings("unchecked")
+    private void stubStreamingCall(String json) {
+        when(rest.execute(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(streamedBody(json));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubStreamingCall(URI uri, String json) {
+        when(rest.execute(eq(uri), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(streamedBody(json));
+    }
+
+    private Answer<Object> streamedBody(final String json) {
+        return new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ResponseExtractor<?> extractor = (ResponseExtractor<?>) invocation.getArguments()[3];
+                return extractor.extractData(new MockClientHttpResponse(
+                        json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+            }
+        };
+    }
+
     private String getJson(String fileName) throws IOException {
         InputStream inputStream = DefaultBambooClientTests.class.getResourceAsStream(fileName);
         return IOUtils.toString(inputStream);
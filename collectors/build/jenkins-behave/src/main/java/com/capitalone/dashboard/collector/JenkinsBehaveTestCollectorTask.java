@@ -1,13 +1,11 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.JenkinsBehaveTestCollector;
 import com.capitalone.dashboard.model.JenkinsJob;
 import com.capitalone.dashboard.model.TestResult;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.JenkinsBehaveTestCollectorRepository;
 import com.capitalone.dashboard.repository.JenkinsBehaveTestJobRepository;
 import com.capitalone.dashboard.repository.TestResultRepository;
@@ -30,7 +28,7 @@ public class JenkinsBehaveTestCollectorTask extends
     private final TestResultRepository testResultRepository;
     private final JenkinsClient jenkinsClient;
     private final JenkinsSettings jenkinsBehaveTestSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
     
     @Autowired
     public JenkinsBehaveTestCollectorTask(
@@ -40,14 +38,14 @@ public class JenkinsBehaveTestCollectorTask extends
             TestResultRepository testResultRepository,
             JenkinsClient jenkinsBehaveTestClient,
             JenkinsSettings jenkinsBehaveTestSettings,
-            ComponentRepository dbComponentRepository) {
+            DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "JenkinsCucumberTest");
         this.jenkinsBehaveTestCollectorRepository = jenkinsBehaveTestCollectorRepository;
         this.jenkinsBehaveTestJobRepository = jenkinsBehaveTestJobRepository;
         this.testResultRepository = testResultRepository;
         this.jenkinsClient = jenkinsBehaveTestClient;
         this.jenkinsBehaveTestSettings = jenkinsBehaveTestSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -133,7 +131,7 @@ public class JenkinsBehaveTestCollectorTask extends
                 if (result != null) {
                     result.setCollectorItemId(job.getId());
                     result.setTimestamp(System.currentTimeMillis());
-                    testResultRepository.save(result);
+                    testResultRepository.saveChunked(result, jenkinsBehaveTestSettings.getTestCasesPerChunk());
                     count++;
                 }
             }
@@ -171,22 +169,7 @@ public class JenkinsBehaveTestCollectorTask extends
         // First delete jobs that will be no longer collected because servers have moved etc.
         deleteUnwantedJobs(collector);
 
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if (comp.getCollectorItems() == null
-                    || comp.getCollectorItems().isEmpty()) continue;
-            List<CollectorItem> itemList = comp.getCollectorItems().get(
-                    CollectorType.Test);
-            if (itemList == null) continue;
-            for (CollectorItem ci : itemList) {
-                if (ci != null
-                        && ci.getCollectorId().equals(collector.getId())) {
-                    uniqueIDs.add(ci.getId());
-                }
-            }
-        }
-        
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Test);
     }
 
     private void deleteUnwantedJobs(JenkinsBehaveTestCollector collector) {
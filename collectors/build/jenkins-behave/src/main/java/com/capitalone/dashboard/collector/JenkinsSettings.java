@@ -19,6 +19,7 @@ public class JenkinsSettings {
     private String username;
     private String apiKey;
     private String dockerLocalHostIP; //null if not running in docker on http://localhost
+    private int testCasesPerChunk = 500;
     
     public String getCron() {
         return cron;
@@ -60,6 +61,14 @@ public class JenkinsSettings {
         this.apiKey = apiKey;
     }
     
+    public int getTestCasesPerChunk() {
+        return testCasesPerChunk;
+    }
+
+    public void setTestCasesPerChunk(int testCasesPerChunk) {
+        this.testCasesPerChunk = testCasesPerChunk;
+    }
+
     public void setDockerLocalHostIP(String dockerLocalHostIP) {
         this.dockerLocalHostIP = dockerLocalHostIP;
     }
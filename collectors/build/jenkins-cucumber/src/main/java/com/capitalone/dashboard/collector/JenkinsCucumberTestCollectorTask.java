@@ -1,13 +1,11 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.JenkinsCucumberTestCollector;
 import com.capitalone.dashboard.model.JenkinsJob;
 import com.capitalone.dashboard.model.TestResult;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.JenkinsCucumberTestCollectorRepository;
 import com.capitalone.dashboard.repository.JenkinsCucumberTestJobRepository;
 import com.capitalone.dashboard.repository.TestResultRepository;
@@ -33,7 +31,7 @@ public class JenkinsCucumberTestCollectorTask extends
     private final TestResultRepository testResultRepository;
     private final JenkinsClient jenkinsClient;
     private final JenkinsSettings jenkinsCucumberTestSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public JenkinsCucumberTestCollectorTask(
@@ -43,14 +41,14 @@ public class JenkinsCucumberTestCollectorTask extends
             TestResultRepository testResultRepository,
             JenkinsClient jenkinsCucumberTestClient,
             JenkinsSettings jenkinsCucumberTestSettings,
-            ComponentRepository dbComponentRepository) {
+            DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "JenkinsCucumberTest");
         this.jenkinsCucumberTestCollectorRepository = jenkinsCucumberTestCollectorRepository;
         this.jenkinsCucumberTestJobRepository = jenkinsCucumberTestJobRepository;
         this.testResultRepository = testResultRepository;
         this.jenkinsClient = jenkinsCucumberTestClient;
         this.jenkinsCucumberTestSettings = jenkinsCucumberTestSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -109,34 +107,7 @@ public class JenkinsCucumberTestCollectorTask extends
         // First delete jobs that will be no longer collected because servers have moved etc.
         deleteUnwantedJobs(collector);
 
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if (comp.getCollectorItems() == null
-                    || comp.getCollectorItems().isEmpty()) continue;
-            List<CollectorItem> itemList = comp.getCollectorItems().get(
-                    CollectorType.Test);
-            if (itemList == null) continue;
-            for (CollectorItem ci : itemList) {
-                if (ci != null
-                        && ci.getCollectorId().equals(collector.getId())) {
-                    uniqueIDs.add(ci.getId());
-                }
-
-            }
-        }
-
-        List<JenkinsJob> jobList = new ArrayList<>();
-        Set<ObjectId> udId = new HashSet<>();
-        udId.add(collector.getId());
-        for (JenkinsJob job : jenkinsCucumberTestJobRepository
-                .findByCollectorIdIn(udId)) {
-            if (job != null) {
-                job.setEnabled(uniqueIDs.contains(job.getId()));
-                jobList.add(job);
-            }
-        }
-        jenkinsCucumberTestJobRepository.save(jobList);
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Test);
     }
 
     private void deleteUnwantedJobs(JenkinsCucumberTestCollector collector) {
@@ -199,7 +170,7 @@ public class JenkinsCucumberTestCollectorTask extends
                 if (result != null) {
                     result.setCollectorItemId(job.getId());
                     result.setTimestamp(System.currentTimeMillis());
-                    testResultRepository.save(result);
+                    testResultRepository.saveChunked(result, jenkinsCucumberTestSettings.getTestCasesPerChunk());
                     count++;
                 }
             }
@@ -6,12 +6,12 @@ import com.capitalone.dashboard.model.HudsonJob;
 import com.capitalone.dashboard.model.RepoBranch;
 import com.capitalone.dashboard.model.SCM;
 import com.capitalone.dashboard.util.Supplier;
+import com.capitalone.dashboard.util.JsonCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +19,16 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -45,7 +50,8 @@ import java.util.regex.Pattern;
 
 /**
  * HudsonClient implementation that uses RestTemplate and JSONSimple to
- * fetch information from Hudson instances.
+ * fetch information from Hudson instances. Responses are read with a
+ * {@link JsonCursor} straight from the response stream.
  */
 @Component
 public class DefaultHudsonClient implements HudsonClient {
@@ -54,7 +60,9 @@ public class DefaultHudsonClient implements HudsonClient {
     private final RestOperations rest;
     private final HudsonSettings settings;
 
-    private static final String JOBS_URL_SUFFIX = "/api/json?tree=jobs[name,url,builds[number,url]]";
+    private static final String JOBS_URL_PREFIX = "/api/json?tree=jobs[name,url,builds[number,url]";
+    private static final String JOBS_URL_SUFFIX = JOBS_URL_PREFIX + "]";
+    private static final String BUILDS_URL_SUFFIX = "/api/json?tree=builds[number,url]";
 
     private static final String[] CHANGE_SET_ITEMS_TREE = new String[]{
             "user",
@@ -91,59 +99,22 @@ public class DefaultHudsonClient implements HudsonClient {
 
 
     @Override
-    public Map<HudsonJob, Set<Build>> getInstanceJobs(String instanceUrl) {
-        Map<HudsonJob, Set<Build>> result = new LinkedHashMap<>();
+    public Map<HudsonJob, Set<Build>> getInstanceJobs(final String instanceUrl) {
         try {
-            String url = joinURL(instanceUrl, JOBS_URL_SUFFIX);
-            ResponseEntity<String> responseEntity = makeRestCall(url);
-            String returnJSON = responseEntity.getBody();
-            JSONParser parser = new JSONParser();
-
-            try {
-                JSONObject object = (JSONObject) parser.parse(returnJSON);
-
-                for (Object job : getJsonArray(object, "jobs")) {
-                    JSONObject jsonJob = (JSONObject) job;
-
-                    final String jobName = getString(jsonJob, "name");
-                    final String jobURL = getString(jsonJob, "url");
-                    LOG.debug("Job:" + jobName);
-                    LOG.debug("jobURL: " + jobURL);
-                    
-                    HudsonJob hudsonJob = new HudsonJob();
-                    hudsonJob.setInstanceUrl(instanceUrl);
-                    hudsonJob.setJobName(jobName);
-                    hudsonJob.setJobUrl(jobURL);
-
-                    Set<Build> builds = new LinkedHashSet<>();
-                    for (Object build : getJsonArray(jsonJob, "builds")) {
-                        JSONObject jsonBuild = (JSONObject) build;
-
-                        // A basic Build object. This will be fleshed out later if this is a new Build.
-                        String dockerLocalHostIP = settings.getDockerLocalHostIP();
-                        String buildNumber = jsonBuild.get("number").toString();
-                        if (!"0".equals(buildNumber)) {
-                            Build hudsonBuild = new Build();
-                            hudsonBuild.setNumber(buildNumber);
-                            String buildURL = getString(jsonBuild, "url");
-
-                            //Modify localhost if Docker Natting is being done
-                            if (!dockerLocalHostIP.isEmpty()) {
-                                buildURL = buildURL.replace("localhost", dockerLocalHostIP);
-                                LOG.debug("Adding build & Updated URL to map LocalHost for Docker: " + buildURL);
-                            } else {
-                                LOG.debug(" Adding Build: " + buildURL);
-                            }
-
-                            hudsonBuild.setBuildUrl(buildURL);
-                            builds.add(hudsonBuild);
-                        }
+            String url = joinURL(instanceUrl, jobsUrlSuffix());
+            Map<HudsonJob, Set<Build>> result = makeRestCall(url, new ResponseExtractor<Map<HudsonJob, Set<Build>>>() {
+                @Override
+                public Map<HudsonJob, Set<Build>> extractData(ClientHttpResponse response) throws IOException {
+                    try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                        return readJobs(cursor, instanceUrl);
+                    } catch (JsonProcessingException e) {
+                        LOG.error("Parsing jobs on instance: " + instanceUrl, e);
+                        return null;
                     }
-                    // add the builds to the job
-                    result.put(hudsonJob, builds);
                 }
-            } catch (ParseException e) {
-                LOG.error("Parsing jobs on instance: " + instanceUrl, e);
+            });
+            if (result != null) {
+                return result;
             }
         } catch (RestClientException rce) {
             LOG.error("client exception loading jobs", rce);
@@ -151,44 +122,150 @@ public class DefaultHudsonClient implements HudsonClient {
         } catch (MalformedURLException mfe) {
             LOG.error("malformed url for loading jobs", mfe);
         }
+        return new LinkedHashMap<>();
+    }
+
+    @Override
+    public Set<Build> getBuilds(HudsonJob job, int limit) {
+        try {
+            String jobUrl = rebuildJobUrl(job.getJobUrl(), job.getInstanceUrl());
+            String suffix = limit > 0 ? BUILDS_URL_SUFFIX + range(limit) : BUILDS_URL_SUFFIX;
+            Set<Build> builds = makeRestCall(joinURL(jobUrl, suffix), new ResponseExtractor<Set<Build>>() {
+                @Override
+                public Set<Build> extractData(ClientHttpResponse response) throws IOException {
+                    try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                        Set<Build> result = new LinkedHashSet<>();
+                        if (cursor.enterArray("builds")) {
+                            addBuilds(cursor, result);
+                        }
+                        return result;
+                    }
+                }
+            });
+            if (builds != null) {
+                return builds;
+            }
+        } catch (RestClientException rce) {
+            LOG.error("Client exception loading builds for job: " + job.getJobUrl(), rce);
+        } catch (MalformedURLException | URISyntaxException | UnsupportedEncodingException e) {
+            LOG.error("Invalid url for loading builds for job: " + job.getJobUrl(), e);
+        }
+        return new LinkedHashSet<>();
+    }
+
+    private String jobsUrlSuffix() {
+        if (settings.isIncremental()) {
+            return JOBS_URL_PREFIX + range(settings.getBuildsPerJob()) + "]";
+        }
+        return JOBS_URL_SUFFIX;
+    }
+
+    // Jenkins tree range syntax {M,N}. Braces are not legal in a URI so they go out encoded.
+    private static String range(int limit) {
+        return "%7B0," + Math.max(1, limit) + "%7D";
+    }
+
+    /**
+     * Reads the jobs array of the instance json one job at a time, so the response is never
+     * held in memory as a whole.
+     */
+    private Map<HudsonJob, Set<Build>> readJobs(JsonCursor cursor, String instanceUrl) throws IOException {
+        Map<HudsonJob, Set<Build>> result = new LinkedHashMap<>();
+        if (!cursor.enterArray("jobs")) {
+            return result;
+        }
+        JSONObject jsonJob;
+        while ((jsonJob = cursor.nextObject()) != null) {
+            final String jobName = getString(jsonJob, "name");
+            final String jobURL = getString(jsonJob, "url");
+            LOG.debug("Job:" + jobName);
+            LOG.debug("jobURL: " + jobURL);
+
+            HudsonJob hudsonJob = new HudsonJob();
+            hudsonJob.setInstanceUrl(instanceUrl);
+            hudsonJob.setJobName(jobName);
+            hudsonJob.setJobUrl(jobURL);
+
+            Set<Build> builds = new LinkedHashSet<>();
+            for (Object build : getJsonArray(jsonJob, "builds")) {
+                addBuild((JSONObject) build, builds);
+            }
+            // add the builds to the job
+            result.put(hudsonJob, builds);
+        }
         return result;
     }
 
+    private void addBuilds(JsonCursor cursor, Set<Build> builds) throws IOException {
+        JSONObject jsonBuild;
+        while ((jsonBuild = cursor.nextObject()) != null) {
+            addBuild(jsonBuild, builds);
+        }
+    }
+
+    private void addBuild(JSONObject jsonBuild, Set<Build> builds) {
+        Object buildNumber = jsonBuild.get("number");
+        if (buildNumber != null && !"0".equals(buildNumber.toString())) {
+            builds.add(buildSummary(buildNumber.toString(), getString(jsonBuild, "url")));
+        }
+    }
+
+    // A basic Build object. This will be fleshed out later if this is a new Build.
+    private Build buildSummary(String buildNumber, String buildURL) {
+        String dockerLocalHostIP = settings.getDockerLocalHostIP();
+        Build hudsonBuild = new Build();
+        hudsonBuild.setNumber(buildNumber);
+
+        //Modify localhost if Docker Natting is being done
+        String url = buildURL;
+        if (!dockerLocalHostIP.isEmpty() && url != null) {
+            url = url.replace("localhost", dockerLocalHostIP);
+            LOG.debug("Adding build & Updated URL to map LocalHost for Docker: " + url);
+        } else {
+            LOG.debug(" Adding Build: " + url);
+        }
+
+        hudsonBuild.setBuildUrl(url);
+        return hudsonBuild;
+    }
+
     @Override
-    public Build getBuildDetails(String buildUrl, String instanceUrl) {
+    public Build getBuildDetails(final String buildUrl, String instanceUrl) {
         try {
             String newUrl = rebuildJobUrl(buildUrl, instanceUrl);
-            String url = joinURL(newUrl, BUILD_DETAILS_URL_SUFFIX);
-            ResponseEntity<String> result = makeRestCall(url);
-            String resultJSON = result.getBody();
-            if (StringUtils.isEmpty(resultJSON)) {
+            final String url = joinURL(newUrl, BUILD_DETAILS_URL_SUFFIX);
+            JSONObject buildJson = makeRestCall(url, new ResponseExtractor<JSONObject>() {
+                @Override
+                public JSONObject extractData(ClientHttpResponse response) throws IOException {
+                    try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                        return cursor.readObject();
+                    } catch (JsonProcessingException e) {
+                        LOG.error("Parsing build: " + buildUrl, e);
+                        return null;
+                    }
+                }
+            });
+            if (buildJson == null) {
                 LOG.error("Error getting build details for. URL=" + url);
                 return null;
             }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject buildJson = (JSONObject) parser.parse(resultJSON);
-                Boolean building = (Boolean) buildJson.get("building");
-                // Ignore jobs that are building
-                if (!building) {
-                    Build build = new Build();
-                    build.setNumber(buildJson.get("number").toString());
-                    build.setBuildUrl(buildUrl);
-                    build.setTimestamp(System.currentTimeMillis());
-                    build.setStartTime((Long) buildJson.get("timestamp"));
-                    build.setDuration((Long) buildJson.get("duration"));
-                    build.setEndTime(build.getStartTime() + build.getDuration());
-                    build.setBuildStatus(getBuildStatus(buildJson));
-                    build.setStartedBy(firstCulprit(buildJson));
-                    if (settings.isSaveLog()) {
-                        build.setLog(getLog(buildUrl));
-                    }
-                    addChangeSets(build, buildJson);
-                    return build;
+            Boolean building = (Boolean) buildJson.get("building");
+            // Ignore jobs that are building
+            if (!building) {
+                Build build = new Build();
+                build.setNumber(buildJson.get("number").toString());
+                build.setBuildUrl(buildUrl);
+                build.setTimestamp(System.currentTimeMillis());
+                build.setStartTime((Long) buildJson.get("timestamp"));
+                build.setDuration((Long) buildJson.get("duration"));
+                build.setEndTime(build.getStartTime() + build.getDuration());
+                build.setBuildStatus(getBuildStatus(buildJson));
+                build.setStartedBy(firstCulprit(buildJson));
+                if (settings.isSaveLog()) {
+                    build.setLog(getLog(buildUrl));
                 }
-
-            } catch (ParseException e) {
-                LOG.error("Parsing build: " + buildUrl, e);
+                addChangeSets(build, buildJson);
+                return build;
             }
         } catch (RestClientException rce) {
             LOG.error("Client exception loading build details: " + rce.getMessage() + ". URL =" + buildUrl);
@@ -416,12 +493,8 @@ public class DefaultHudsonClient implements HudsonClient {
 
     protected ResponseEntity<String> makeRestCall(String sUrl) throws MalformedURLException {
         URI thisuri = URI.create(sUrl);
-        String userInfo = thisuri.getUserInfo();
+        String userInfo = getUserInfo(thisuri);
 
-        //get userinfo from URI or settings (in spring properties)
-        if (StringUtils.isEmpty(userInfo) && (this.settings.getUsername() != null) && (this.settings.getApiKey() != null)) {
-            userInfo = this.settings.getUsername() + ":" + this.settings.getApiKey();
-        }
         // Basic Auth only.
         if (StringUtils.isNotEmpty(userInfo)) {
             return rest.exchange(thisuri, HttpMethod.GET,
@@ -434,6 +507,36 @@ public class DefaultHudsonClient implements HudsonClient {
 
     }
 
+    /**
+     * Same as {@link #makeRestCall(String)} but hands the response body to the extractor as a
+     * stream instead of reading it into a String first.
+     */
+    protected <T> T makeRestCall(String sUrl, ResponseExtractor<T> extractor) {
+        URI thisuri = URI.create(sUrl);
+        final String userInfo = getUserInfo(thisuri);
+
+        // Basic Auth only.
+        RequestCallback callback = null;
+        if (StringUtils.isNotEmpty(userInfo)) {
+            callback = new RequestCallback() {
+                @Override
+                public void doWithRequest(ClientHttpRequest request) throws IOException {
+                    request.getHeaders().putAll(createHeaders(userInfo));
+                }
+            };
+        }
+        return rest.execute(thisuri, HttpMethod.GET, callback, extractor);
+    }
+
+    //get userinfo from URI or settings (in spring properties)
+    private String getUserInfo(URI uri) {
+        String userInfo = uri.getUserInfo();
+        if (StringUtils.isEmpty(userInfo) && (this.settings.getUsername() != null) && (this.settings.getApiKey() != null)) {
+            userInfo = this.settings.getUsername() + ":" + this.settings.getApiKey();
+        }
+        return userInfo;
+    }
+
     protected HttpHeaders createHeaders(final String userInfo) {
         byte[] encodedAuth = Base64.encodeBase64(
                 userInfo.getBytes(StandardCharsets.US_ASCII));
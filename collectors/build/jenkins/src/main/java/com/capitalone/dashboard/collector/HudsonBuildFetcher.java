@@ -0,0 +1,158 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.HudsonJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans out {@link HudsonClient#getBuildDetails(String, String)} calls over a bounded
+ * worker pool. The pool never runs more than {@code maxThreads} requests at once and
+ * a single instance never sees more than {@code maxThreadsPerServer} of them. Fetched
+ * builds are queued until the caller takes them in batches for saving.
+ */
+class HudsonBuildFetcher implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(HudsonBuildFetcher.class);
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final HudsonClient hudsonClient;
+    private final int maxThreadsPerServer;
+    private final ExecutorService executor;
+    private final List<Future<?>> workers = new ArrayList<>();
+    private final BlockingQueue<Build> results = new LinkedBlockingQueue<>();
+    private final Queue<JobBuild> missed = new ConcurrentLinkedQueue<>();
+
+    HudsonBuildFetcher(HudsonClient hudsonClient, int maxThreads, int maxThreadsPerServer) {
+        this.hudsonClient = hudsonClient;
+        this.maxThreadsPerServer = Math.max(1, maxThreadsPerServer);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxThreads));
+    }
+
+    /**
+     * Queues the build summaries of one instance for fetching. Requests for the instance are
+     * shared by up to {@code maxThreadsPerServer} workers, which exit once the queue is empty.
+     *
+     * @param buildsByJob build summaries to fetch, keyed by the job they belong to
+     */
+    void submit(List<JobBuild> buildsByJob) {
+        if (buildsByJob.isEmpty()) {
+            return;
+        }
+        final Queue<JobBuild> pending = new ConcurrentLinkedQueue<>(buildsByJob);
+        int lanes = Math.min(maxThreadsPerServer, pending.size());
+        for (int i = 0; i < lanes; i++) {
+            workers.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    JobBuild request;
+                    while ((request = pending.poll()) != null) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            missed.add(request);
+                        } else {
+                            fetch(request);
+                        }
+                    }
+                }
+            }));
+        }
+    }
+
+    /**
+     * Takes up to {@code max} fetched builds. Waits briefly for the first one when
+     * {@code wait} is set, otherwise only returns what has already been fetched.
+     *
+     * @param max  maximum number of builds to return
+     * @param wait whether to wait for a build to become available
+     * @return fetched builds, possibly empty
+     */
+    List<Build> take(int max, boolean wait) {
+        List<Build> batch = new ArrayList<>();
+        if (wait) {
+            try {
+                Build first = results.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    return batch;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return batch;
+            }
+        }
+        results.drainTo(batch, Math.max(1, max) - batch.size());
+        return batch;
+    }
+
+    /**
+     * @return true when every submitted build has been fetched and taken
+     */
+    boolean isFinished() {
+        for (Future<?> worker : workers) {
+            if (!worker.isDone()) {
+                return false;
+            }
+        }
+        return results.isEmpty();
+    }
+
+    /**
+     * @return the submitted builds that could not be fetched, including ones still building
+     */
+    List<JobBuild> getMissed() {
+        return new ArrayList<>(missed);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void fetch(JobBuild request) {
+        HudsonJob job = request.getJob();
+        try {
+            Build build = hudsonClient.getBuildDetails(request.getBuild().getBuildUrl(), job.getInstanceUrl());
+            if (build != null) {
+                build.setCollectorItemId(job.getId());
+                results.add(build);
+            } else {
+                missed.add(request);
+            }
+        } catch (RuntimeException re) {
+            LOG.error("Unable to fetch build details. URL=" + request.getBuild().getBuildUrl(), re);
+            missed.add(request);
+        }
+    }
+
+    /**
+     * A build summary together with the job it belongs to.
+     */
+    static class JobBuild {
+        private final HudsonJob job;
+        private final Build build;
+
+        JobBuild(HudsonJob job, Build build) {
+            this.job = job;
+            this.build = build;
+        }
+
+        HudsonJob getJob() {
+            return job;
+        }
+
+        Build getBuild() {
+            return build;
+        }
+    }
+}
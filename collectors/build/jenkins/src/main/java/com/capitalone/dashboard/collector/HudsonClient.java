@@ -21,6 +21,16 @@ public interface HudsonClient {
      */
     Map<HudsonJob, Set<Build>> getInstanceJobs(String instanceUrl);
 
+    /**
+     * Fetches the most recent build summaries of a single job, newest first. At a minimum,
+     * the number and url of each Build will be populated.
+     *
+     * @param job   the job to list builds for
+     * @param limit maximum number of builds to return, or 0 for every retained build
+     * @return a summary of the latest builds of the job
+     */
+    Set<Build> getBuilds(HudsonJob job, int limit);
+
     /**
      * Fetch full populated build information for a build.
      *
@@ -2,16 +2,15 @@ package com.capitalone.dashboard.collector;
 
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.HudsonCollector;
 import com.capitalone.dashboard.model.HudsonJob;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.BuildRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.HudsonCollectorRepository;
 import com.capitalone.dashboard.repository.HudsonJobRepository;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
@@ -20,7 +19,9 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.RestClientException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,7 +40,7 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
     private final BuildRepository buildRepository;
     private final HudsonClient hudsonClient;
     private final HudsonSettings hudsonSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public HudsonCollectorTask(TaskScheduler taskScheduler,
@@ -47,14 +48,14 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
                                HudsonJobRepository hudsonJobRepository,
                                BuildRepository buildRepository, HudsonClient hudsonClient,
                                HudsonSettings hudsonSettings,
-                               ComponentRepository dbComponentRepository) {
+                               DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "Hudson");
         this.hudsonCollectorRepository = hudsonCollectorRepository;
         this.hudsonJobRepository = hudsonJobRepository;
         this.buildRepository = buildRepository;
         this.hudsonClient = hudsonClient;
         this.hudsonSettings = hudsonSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -84,22 +85,34 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
 
         clean(collector, existingJobs);
 
-        for (String instanceUrl : collector.getBuildServers()) {
-            logBanner(instanceUrl);
-            try {
-                Map<HudsonJob, Set<Build>> buildsByJob = hudsonClient
-                        .getInstanceJobs(instanceUrl);
-                log("Fetched jobs", start);
-                activeJobs.addAll(buildsByJob.keySet());
-                addNewJobs(buildsByJob.keySet(), existingJobs, collector);
-                addNewBuilds(enabledJobs(collector, instanceUrl), buildsByJob);
-                log("Finished", start);
-            } catch (RestClientException rce) {
-                activeServers.remove(instanceUrl); // since it was a rest exception, we will not delete this job  and wait for
-                // rest exceptions to clear up at a later run.
-                log("Error getting jobs for: " + instanceUrl, start);
+        int newBuilds = 0;
+        Map<HudsonJob, Integer> newestBuilds = new HashMap<>();
+        try (HudsonBuildFetcher fetcher = new HudsonBuildFetcher(hudsonClient,
+                hudsonSettings.getMaxThreads(), hudsonSettings.getMaxThreadsPerServer())) {
+            for (String instanceUrl : collector.getBuildServers()) {
+                logBanner(instanceUrl);
+                try {
+                    Map<HudsonJob, Set<Build>> buildsByJob = hudsonClient
+                            .getInstanceJobs(instanceUrl);
+                    log("Fetched jobs", start);
+                    activeJobs.addAll(buildsByJob.keySet());
+                    addNewJobs(buildsByJob.keySet(), existingJobs, collector);
+                    addNewBuilds(enabledJobs(collector, instanceUrl), buildsByJob, newestBuilds, fetcher);
+                    newBuilds += saveNewBuilds(fetcher, false);
+                    log("Finished", start);
+                } catch (RestClientException rce) {
+                    activeServers.remove(instanceUrl); // since it was a rest exception, we will not delete this job  and wait for
+                    // rest exceptions to clear up at a later run.
+                    log("Error getting jobs for: " + instanceUrl, start);
+                }
+            }
+            newBuilds += saveNewBuilds(fetcher, true);
+            if (hudsonSettings.isIncremental() && !Thread.currentThread().isInterrupted()) {
+                updateLastBuildNumbers(newestBuilds, fetcher.getMissed());
             }
         }
+        log("New builds", start, newBuilds);
+
         // Delete jobs that will be no longer collected because servers have moved etc.
         deleteUnwantedJobs(activeJobs, existingJobs, activeServers, collector);
     }
@@ -112,33 +125,7 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
      */
 
     private void clean(HudsonCollector collector, List<HudsonJob> existingJobs) {
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-
-            if (CollectionUtils.isEmpty(comp.getCollectorItems())) continue;
-
-            List<CollectorItem> itemList = comp.getCollectorItems().get(CollectorType.Build);
-
-            if (CollectionUtils.isEmpty(itemList)) continue;
-
-            for (CollectorItem ci : itemList) {
-                if (collector.getId().equals(ci.getCollectorId())) {
-                    uniqueIDs.add(ci.getId());
-                }
-            }
-        }
-        List<HudsonJob> stateChangeJobList = new ArrayList<>();
-        for (HudsonJob job : existingJobs) {
-            if ((job.isEnabled() && !uniqueIDs.contains(job.getId())) ||  // if it was enabled but not on a dashboard
-                    (!job.isEnabled() && uniqueIDs.contains(job.getId()))) { // OR it was disabled and now on a dashboard
-                job.setEnabled(uniqueIDs.contains(job.getId()));
-                stateChangeJobList.add(job);
-            }
-        }
-        if (!CollectionUtils.isEmpty(stateChangeJobList)) {
-            hudsonJobRepository.save(stateChangeJobList);
-        }
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Build, existingJobs);
     }
 
     /**
@@ -176,31 +163,140 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
     }
 
     /**
-     * Iterates over the enabled build jobs and adds new builds to the database.
+     * Iterates over the enabled build jobs and queues their new builds for fetching.
      *
      * @param enabledJobs list of enabled {@link HudsonJob}s
      * @param buildsByJob maps a {@link HudsonJob} to a set of {@link Build}s.
+     * @param newestBuilds collects the newest listed build number per job in incremental mode
+     * @param fetcher     the {@link HudsonBuildFetcher} that fetches build details
      */
     private void addNewBuilds(List<HudsonJob> enabledJobs,
-                              Map<HudsonJob, Set<Build>> buildsByJob) {
-        long start = System.currentTimeMillis();
-        int count = 0;
-
+                              Map<HudsonJob, Set<Build>> buildsByJob,
+                              Map<HudsonJob, Integer> newestBuilds,
+                              HudsonBuildFetcher fetcher) {
+        List<HudsonBuildFetcher.JobBuild> newBuilds = new ArrayList<>();
         for (HudsonJob job : enabledJobs) {
             if (job.isPushed()) continue;
-            for (Build buildSummary : nullSafe(buildsByJob.get(job))) {
-                if (isNewBuild(job, buildSummary)) {
-                    Build build = hudsonClient.getBuildDetails(buildSummary
-                            .getBuildUrl(), job.getInstanceUrl());
-                    if (build != null) {
-                        build.setCollectorItemId(job.getId());
-                        buildRepository.save(build);
-                        count++;
-                    }
+            Set<Build> buildSummaries = nullSafe(buildsByJob.get(job));
+            if (hudsonSettings.isIncremental()) {
+                buildSummaries = newerBuilds(job, buildSummaries, newestBuilds);
+            }
+            Set<String> existingNumbers = buildRepository.findExistingNumbers(job.getId(), buildSummaries);
+            for (Build buildSummary : buildSummaries) {
+                if (existingNumbers.add(buildSummary.getNumber())) {
+                    newBuilds.add(new HudsonBuildFetcher.JobBuild(job, buildSummary));
                 }
             }
         }
-        log("New builds", start, count);
+        fetcher.submit(newBuilds);
+    }
+
+    /**
+     * Saves fetched builds in batches of {@link HudsonSettings#getSaveBatchSize()}.
+     *
+     * @param fetcher the {@link HudsonBuildFetcher} holding fetched builds
+     * @param waitForAll true to block until every queued build has been fetched and saved
+     * @return the number of builds saved
+     */
+    private int saveNewBuilds(HudsonBuildFetcher fetcher, boolean waitForAll) {
+        int count = 0;
+        int batchSize = Math.max(1, hudsonSettings.getSaveBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean finished = fetcher.isFinished();
+            List<Build> batch = fetcher.take(batchSize, waitForAll);
+            if (!batch.isEmpty()) {
+                buildRepository.save(batch);
+                count += batch.size();
+            } else if (finished || !waitForAll) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Narrows the listed builds of a job down to the ones after its last collected build. The
+     * instance listing only returns the latest {@link HudsonSettings#getBuildsPerJob()} builds,
+     * so when that window does not reach back to the last collected build the job is listed
+     * again with a range that covers the gap. When the newest listed build is below the last
+     * collected build, the build numbers were reset (e.g. the job was recreated) and the job is
+     * collected from scratch.
+     */
+    private Set<Build> newerBuilds(HudsonJob job, Set<Build> builds, Map<HudsonJob, Integer> newestBuilds) {
+        int lastBuildNumber = job.getLastBuildNumber();
+        int newest = 0;
+        int oldest = Integer.MAX_VALUE;
+        for (Build build : builds) {
+            int number = NumberUtils.toInt(build.getNumber());
+            newest = Math.max(newest, number);
+            oldest = Math.min(oldest, number);
+        }
+        if (!builds.isEmpty() && newest < lastBuildNumber) {
+            lastBuildNumber = 0;
+        }
+        if (newest <= lastBuildNumber) {
+            return new HashSet<>();
+        }
+
+        Set<Build> candidates = builds;
+        boolean complete = true;
+        if (builds.size() >= hudsonSettings.getBuildsPerJob() && oldest > lastBuildNumber + 1) {
+            Set<Build> catchUp = hudsonClient.getBuilds(job, lastBuildNumber == 0 ? 0 : newest - lastBuildNumber);
+            if (catchUp.isEmpty()) {
+                complete = false; // keep the gap open and retry on the next run
+            } else {
+                candidates = catchUp;
+            }
+        }
+        if (complete) {
+            newestBuilds.put(job, newest);
+        }
+
+        Set<Build> newer = new LinkedHashSet<>();
+        for (Build build : candidates) {
+            if (NumberUtils.toInt(build.getNumber()) > lastBuildNumber) {
+                newer.add(build);
+            }
+        }
+        return newer;
+    }
+
+    /**
+     * Moves each job's last collected build number to the newest listed build, but never past
+     * a build that could not be fetched yet (e.g. because it is still building). Only the build
+     * number is written, so concurrent changes to the jobs are kept.
+     *
+     * @param newestBuilds newest listed build number per job
+     * @param missed       builds that were not fetched during this run
+     */
+    private void updateLastBuildNumbers(Map<HudsonJob, Integer> newestBuilds,
+                                        List<HudsonBuildFetcher.JobBuild> missed) {
+        Map<HudsonJob, Integer> oldestMissed = new HashMap<>();
+        for (HudsonBuildFetcher.JobBuild jobBuild : missed) {
+            int number = NumberUtils.toInt(jobBuild.getBuild().getNumber());
+            Integer current = oldestMissed.get(jobBuild.getJob());
+            if (current == null || number < current) {
+                oldestMissed.put(jobBuild.getJob(), number);
+            }
+        }
+
+        Map<ObjectId, Integer> lastBuildNumbers = new HashMap<>();
+        for (Map.Entry<HudsonJob, Integer> entry : newestBuilds.entrySet()) {
+            HudsonJob job = entry.getKey();
+            int lastBuildNumber = entry.getValue();
+            Integer oldest = oldestMissed.get(job);
+            if (oldest != null) {
+                lastBuildNumber = Math.min(lastBuildNumber, oldest - 1);
+            }
+            // lower only after a reset, otherwise every listed build is above the stored number
+            if (lastBuildNumber != job.getLastBuildNumber()) {
+                job.setLastBuildNumber(lastBuildNumber);
+                lastBuildNumbers.put(job.getId(), lastBuildNumber);
+            }
+        }
+        if (!lastBuildNumbers.isEmpty()) {
+            hudsonJobRepository.updateLastBuildNumbers(lastBuildNumbers);
+        }
     }
 
     private Set<Build> nullSafe(Set<Build> builds) {
@@ -271,9 +367,4 @@ public class HudsonCollectorTask extends CollectorTask<HudsonCollector> {
         return hudsonJobRepository.findJob(collector.getId(),
                 job.getInstanceUrl(), job.getJobName());
     }
-
-    private boolean isNewBuild(HudsonJob job, Build build) {
-        return buildRepository.findByCollectorItemIdAndNumber(job.getId(),
-                build.getNumber()) == null;
-    }
 }
@@ -20,6 +20,11 @@ public class HudsonSettings {
     private String username;
     private String apiKey;
     private String dockerLocalHostIP; //null if not running in docker on http://localhost
+    private int maxThreads = 10;
+    private int maxThreadsPerServer = 2;
+    private int saveBatchSize = 100;
+    private boolean incremental = false;
+    private int buildsPerJob = 20;
 
     public String getCron() {
         return cron;
@@ -73,6 +78,46 @@ public class HudsonSettings {
         this.niceNames = niceNames;
     }
 
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public int getMaxThreadsPerServer() {
+        return maxThreadsPerServer;
+    }
+
+    public void setMaxThreadsPerServer(int maxThreadsPerServer) {
+        this.maxThreadsPerServer = maxThreadsPerServer;
+    }
+
+    public int getSaveBatchSize() {
+        return saveBatchSize;
+    }
+
+    public void setSaveBatchSize(int saveBatchSize) {
+        this.saveBatchSize = saveBatchSize;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getBuildsPerJob() {
+        return buildsPerJob;
+    }
+
+    public void setBuildsPerJob(int buildsPerJob) {
+        this.buildsPerJob = buildsPerJob;
+    }
+
 	//Docker NATs the real host localhost to 10.0.2.2 when running in docker
 	//as localhost is stored in the JSON payload from jenkins we need
 	//this hack to fix the addresses
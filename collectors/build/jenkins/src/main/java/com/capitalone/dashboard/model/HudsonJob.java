@@ -5,6 +5,17 @@ package com.capitalone.dashboard.model;
  */
 public class HudsonJob extends JobCollectorItem {
 
+    // highest build number below which every build has been collected
+    private int lastBuildNumber;
+
+    public int getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    public void setLastBuildNumber(int lastBuildNumber) {
+        this.lastBuildNumber = lastBuildNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,19 @@
+package com.capitalone.dashboard.repository;
+
+import org.bson.types.ObjectId;
+
+import java.util.Map;
+
+/**
+ * Targeted updates of {@link com.capitalone.dashboard.model.HudsonJob}s that only write the
+ * given fields, so concurrent changes to the rest of the job are kept.
+ */
+public interface HudsonJobRepositoryCustom {
+
+    /**
+     * Sets the last collected build number of jobs.
+     *
+     * @param lastBuildNumbers new last build number per job id
+     */
+    void updateLastBuildNumbers(Map<ObjectId, Integer> lastBuildNumbers);
+}
@@ -0,0 +1,32 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.HudsonJob;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+
+/**
+ * {@link HudsonJobRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class HudsonJobRepositoryImpl implements HudsonJobRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public HudsonJobRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void updateLastBuildNumbers(Map<ObjectId, Integer> lastBuildNumbers) {
+        for (Map.Entry<ObjectId, Integer> entry : lastBuildNumbers.entrySet()) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(entry.getKey())),
+                    Update.update("lastBuildNumber", entry.getValue()), HudsonJob.class);
+        }
+    }
+}
@@ -11,18 +11,24 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -158,8 +164,7 @@ public class DefaultHudsonClientTests {
 
     @Test
     public void instanceJobs_emptyResponse_returnsEmptyMap() {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>("", HttpStatus.OK));
+        stubStreamingCall("");
 
         Map<HudsonJob, Set<Build>> jobs = hudsonClient.getInstanceJobs(URL_TEST);
 
@@ -168,8 +173,7 @@ public class DefaultHudsonClientTests {
 
     @Test
     public void instanceJobs_twoJobsTwoBuilds() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("instanceJobs_twoJobsTwoBuilds.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("instanceJobs_twoJobsTwoBuilds.json"));
 
         Map<HudsonJob, Set<Build>> jobs = hudsonClient.getInstanceJobs(URL_TEST);
 
@@ -197,10 +201,41 @@ public class DefaultHudsonClientTests {
         assertThat(jobIt.hasNext(), is(false));
     }
 
+    @Test
+    public void instanceJobs_incremental_requestsBuildRange() throws Exception {
+        settings.setIncremental(true);
+        settings.setBuildsPerJob(5);
+        stubStreamingCall(getJson("instanceJobs_twoJobsTwoBuilds.json"));
+
+        Map<HudsonJob, Set<Build>> jobs = hudsonClient.getInstanceJobs("http://server");
+
+        assertThat(jobs.size(), is(2));
+        verify(rest).execute(eq(URI.create("http://server/api/json?tree=jobs[name,url,builds[number,url]%7B0,5%7D]")),
+                eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class));
+    }
+
+    @Test
+    public void builds_forJob_limitedRange() throws Exception {
+        stubStreamingCall("{\"builds\":[{\"number\":12,\"url\":\"http://server/job/job1/12/\"},"
+                + "{\"number\":11,\"url\":\"http://server/job/job1/11/\"}]}");
+        HudsonJob job = new HudsonJob();
+        job.setInstanceUrl("http://server");
+        job.setJobName("job1");
+        job.setJobUrl("http://server/job/job1/");
+
+        Set<Build> builds = hudsonClient.getBuilds(job, 2);
+
+        Iterator<Build> buildIt = builds.iterator();
+        assertBuild(buildIt.next(), "12", "http://server/job/job1/12/");
+        assertBuild(buildIt.next(), "11", "http://server/job/job1/11/");
+        assertThat(buildIt.hasNext(), is(false));
+        verify(rest).execute(eq(URI.create("http://server/job/job1/api/json?tree=builds[number,url]%7B0,2%7D")),
+                eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class));
+    }
+
     @Test
     public void buildDetails_full() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_full.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_full.json"));
 
         Build build = hudsonClient.getBuildDetails("http://server/job/job2/2/", "http://server");
 
@@ -235,8 +270,7 @@ public class DefaultHudsonClientTests {
 
     @Test
     public void buildDetails_withRepoBranch() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-branch.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-branch.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -254,8 +288,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withRepoOriginBranch() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-originBranch.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-originBranch.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -273,8 +306,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withRepoRemotesBranch() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-remotesBranch.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-remotesBranch.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -292,8 +324,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withRepoRefsRemotesBranch() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-refsRemotesBranch.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-refsRemotesBranch.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -311,8 +342,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withRepoMultipleBranches() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-multipleBranches.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-multipleBranches.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -332,8 +362,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withMultipleSCM() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withMultipleSCM.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withMultipleSCM.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -353,8 +382,7 @@ public class DefaultHudsonClientTests {
     
     @Test
     public void buildDetails_withMultipleRepos() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withMultipleRepos.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withMultipleRepos.json"));
         
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -374,8 +402,7 @@ public class DefaultHudsonClientTests {
 
     @Test
     public void buildDetails_withRepoNoRemoteUrl() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-noRemoteUrl.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-noRemoteUrl.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -391,8 +418,7 @@ public class DefaultHudsonClientTests {
 
     @Test
     public void buildDetails_withEmptyRemoteUrl() throws Exception {
-        when(rest.exchange(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getJson("buildDetails_withRepo-emptyRemoteUrl.json"), HttpStatus.OK));
+        stubStreamingCall(getJson("buildDetails_withRepo-emptyRemoteUrl.json"));
 
         Build build = hudsonClient.getBuildDetails("http://localhost/job/Hygieia-Common/179/", "http://localhost");
 
@@ -411,6 +437,20 @@ public class DefaultHudsonClientTests {
         assertThat(build.getBuildUrl(), is(url));
     }
 
+    @SuppressWarnings("unchecked")
+    private void stubStreamingCall(final String json) {
+        when(rest.execute(Matchers.any(URI.class), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        ResponseExtractor<?> extractor = (ResponseExtractor<?>) invocation.getArguments()[3];
+                        return extractor.extractData(new MockClientHttpResponse(
+                                json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+                    }
+                });
+    }
+
     private String getJson(String fileName) throws IOException {
         InputStream inputStream = DefaultHudsonClientTests.class.getResourceAsStream(fileName);
         return IOUtils.toString(inputStream);
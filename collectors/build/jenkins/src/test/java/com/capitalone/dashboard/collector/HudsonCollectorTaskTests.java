@@ -1,17 +1,17 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.Build;
-import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.HudsonCollector;
 import com.capitalone.dashboard.model.HudsonJob;
 import com.capitalone.dashboard.repository.BuildRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.HudsonCollectorRepository;
 import com.capitalone.dashboard.repository.HudsonJobRepository;
 import com.google.common.collect.Sets;
 import org.bson.types.ObjectId;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -19,13 +19,20 @@ import org.springframework.scheduling.TaskScheduler;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -42,7 +49,8 @@ public class HudsonCollectorTaskTests {
     @Mock private BuildRepository buildRepository;
     @Mock private HudsonClient hudsonClient;
     @Mock private HudsonSettings hudsonSettings;
-    @Mock private ComponentRepository dbComponentRepository;
+    @Mock private DashboardCollectorItemService dashboardCollectorItemService;
+    @Captor private ArgumentCaptor<List<Build>> savedBuilds;
 
     @InjectMocks private HudsonCollectorTask task;
 
@@ -51,7 +59,6 @@ public class HudsonCollectorTaskTests {
 
     @Test
     public void collect_noBuildServers_nothingAdded() {
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(new HudsonCollector());
         verifyZeroInteractions(hudsonClient, buildRepository);
     }
@@ -59,7 +66,6 @@ public class HudsonCollectorTaskTests {
     @Test
     public void collect_noJobsOnServer_nothingAdded() {
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(new HashMap<HudsonJob, Set<Build>>());
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collectorWithOneServer());
 
         verify(hudsonClient).getInstanceJobs(SERVER1);
@@ -69,7 +75,6 @@ public class HudsonCollectorTaskTests {
     @Test
     public void collect_twoJobs_jobsAdded() {
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(twoJobsWithTwoBuilds(SERVER1, NICENAME1));
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collectorWithOneServer());
         verify(hudsonJobRepository, times(1)).save(anyListOf(HudsonJob.class));
     }
@@ -81,14 +86,12 @@ public class HudsonCollectorTaskTests {
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job));
         when(hudsonJobRepository.findJob(collector.getId(), SERVER1, job.getJobName()))
                 .thenReturn(job);
-        when(dbComponentRepository.findAll()).thenReturn(components());
 
         task.collect(collector);
 
         verify(hudsonJobRepository, never()).save(job);
     }
 
-
     @Test
     public void delete_job() {
         HudsonCollector collector = collectorWithOneServer();
@@ -104,7 +107,6 @@ public class HudsonCollectorTaskTests {
         udId.add(collector.getId());
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job1));
         when(hudsonJobRepository.findByCollectorIdIn(udId)).thenReturn(jobs);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
         List<HudsonJob> delete = new ArrayList<>();
         delete.add(job2);
@@ -123,7 +125,6 @@ public class HudsonCollectorTaskTests {
         udId.add(collector.getId());
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job1));
         when(hudsonJobRepository.findByCollectorIdIn(udId)).thenReturn(jobs);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
         verify(hudsonJobRepository, never()).delete(anyListOf(HudsonJob.class));
     }
@@ -135,7 +136,6 @@ public class HudsonCollectorTaskTests {
         Build build = build("JOB1_1", "JOB1_1_URL");
 
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
 
         verify(buildRepository, never()).save(build);
@@ -150,8 +150,7 @@ public class HudsonCollectorTaskTests {
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
         when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
                 .thenReturn(Arrays.asList(job));
-        when(buildRepository.findByCollectorItemIdAndNumber(job.getId(), build.getNumber())).thenReturn(build);
-        when(dbComponentRepository.findAll()).thenReturn(components());
+        when(buildRepository.findExistingNumbers(job.getId(), Sets.newHashSet(build))).thenReturn(Sets.newHashSet(build.getNumber()));
         task.collect(collector);
 
         verify(buildRepository, never()).save(build);
@@ -166,12 +165,121 @@ public class HudsonCollectorTaskTests {
         when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build));
         when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
                 .thenReturn(Arrays.asList(job));
-        when(buildRepository.findByCollectorItemIdAndNumber(job.getId(), build.getNumber())).thenReturn(null);
+        when(buildRepository.findExistingNumbers(job.getId(), Sets.newHashSet(build))).thenReturn(new HashSet<String>());
         when(hudsonClient.getBuildDetails(build.getBuildUrl(), job.getInstanceUrl())).thenReturn(build);
-        when(dbComponentRepository.findAll()).thenReturn(components());
         task.collect(collector);
 
-        verify(buildRepository, times(1)).save(build);
+        verify(buildRepository, times(1)).save(Arrays.asList(build));
+    }
+
+    @Test
+    public void collect_jobEnabled_newBuilds_savedInBatches() {
+        HudsonCollector collector = collectorWithOneServer();
+        HudsonJob job = hudsonJob("JOB1", SERVER1, "JOB1_URL", NICENAME1);
+        Build build1 = build("JOB1_1", "JOB1_1_URL");
+        Build build2 = build("JOB1_2", "JOB1_2_URL");
+        Build build3 = build("JOB1_3", "JOB1_3_URL");
+
+        when(hudsonSettings.getMaxThreads()).thenReturn(4);
+        when(hudsonSettings.getMaxThreadsPerServer()).thenReturn(2);
+        when(hudsonSettings.getSaveBatchSize()).thenReturn(2);
+        when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build1, build2, build3));
+        when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonClient.getBuildDetails(build1.getBuildUrl(), job.getInstanceUrl())).thenReturn(build1);
+        when(hudsonClient.getBuildDetails(build2.getBuildUrl(), job.getInstanceUrl())).thenReturn(build2);
+        when(hudsonClient.getBuildDetails(build3.getBuildUrl(), job.getInstanceUrl())).thenReturn(build3);
+        task.collect(collector);
+
+        verify(buildRepository, atLeast(2)).save(savedBuilds.capture());
+        Set<Build> all = new HashSet<>();
+        for (List<Build> batch : savedBuilds.getAllValues()) {
+            assertTrue(batch.size() <= 2);
+            all.addAll(batch);
+        }
+        assertEquals(Sets.newHashSet(build1, build2, build3), all);
+    }
+
+    @Test
+    public void collect_incremental_onlyNewerBuildsFetched() {
+        HudsonCollector collector = collectorWithOneServer();
+        collector.setId(ObjectId.get());
+        HudsonJob job = hudsonJob("JOB1", SERVER1, "JOB1_URL", NICENAME1);
+        job.setCollectorId(collector.getId());
+        job.setLastBuildNumber(1);
+        Build build1 = build("1", "JOB1_1_URL");
+        Build build2 = build("2", "JOB1_2_URL");
+
+        when(hudsonJobRepository.findByCollectorIdIn(Sets.newHashSet(collector.getId())))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonSettings.isIncremental()).thenReturn(true);
+        when(hudsonSettings.getBuildsPerJob()).thenReturn(20);
+        when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build1, build2));
+        when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonClient.getBuildDetails(build2.getBuildUrl(), job.getInstanceUrl())).thenReturn(build2);
+        task.collect(collector);
+
+        verify(hudsonClient, never()).getBuildDetails(build1.getBuildUrl(), job.getInstanceUrl());
+        verify(hudsonClient, never()).getBuilds(eq(job), anyInt());
+        verify(buildRepository, times(1)).save(Arrays.asList(build2));
+        verify(hudsonJobRepository, times(1)).updateLastBuildNumbers(Collections.singletonMap(job.getId(), 2));
+        verify(hudsonJobRepository, never()).save(job);
+        assertEquals(2, job.getLastBuildNumber());
+    }
+
+    @Test
+    public void collect_incremental_buildStillRunning_lastBuildNumberHeldBack() {
+        HudsonCollector collector = collectorWithOneServer();
+        collector.setId(ObjectId.get());
+        HudsonJob job = hudsonJob("JOB1", SERVER1, "JOB1_URL", NICENAME1);
+        job.setCollectorId(collector.getId());
+        job.setLastBuildNumber(1);
+        Build build2 = build("2", "JOB1_2_URL");
+        Build build3 = build("3", "JOB1_3_URL");
+
+        when(hudsonJobRepository.findByCollectorIdIn(Sets.newHashSet(collector.getId())))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonSettings.isIncremental()).thenReturn(true);
+        when(hudsonSettings.getBuildsPerJob()).thenReturn(20);
+        when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build2, build3));
+        when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonClient.getBuildDetails(build2.getBuildUrl(), job.getInstanceUrl())).thenReturn(null);
+        when(hudsonClient.getBuildDetails(build3.getBuildUrl(), job.getInstanceUrl())).thenReturn(build3);
+        task.collect(collector);
+
+        verify(buildRepository, times(1)).save(Arrays.asList(build3));
+        verify(hudsonJobRepository, never()).updateLastBuildNumbers(anyMapOf(ObjectId.class, Integer.class));
+        assertEquals(1, job.getLastBuildNumber());
+    }
+
+    @Test
+    public void collect_incremental_buildNumbersReset_jobCollectedFromScratch() {
+        HudsonCollector collector = collectorWithOneServer();
+        collector.setId(ObjectId.get());
+        HudsonJob job = hudsonJob("JOB1", SERVER1, "JOB1_URL", NICENAME1);
+        job.setId(ObjectId.get());
+        job.setCollectorId(collector.getId());
+        job.setLastBuildNumber(40);
+        Build build1 = build("1", "JOB1_1_URL");
+        Build build2 = build("2", "JOB1_2_URL");
+
+        when(hudsonJobRepository.findByCollectorIdIn(Sets.newHashSet(collector.getId())))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonSettings.isIncremental()).thenReturn(true);
+        when(hudsonSettings.getBuildsPerJob()).thenReturn(20);
+        when(hudsonClient.getInstanceJobs(SERVER1)).thenReturn(oneJobWithBuilds(job, build1, build2));
+        when(hudsonJobRepository.findEnabledJobs(collector.getId(), SERVER1))
+                .thenReturn(Arrays.asList(job));
+        when(hudsonClient.getBuildDetails(build1.getBuildUrl(), job.getInstanceUrl())).thenReturn(build1);
+        when(hudsonClient.getBuildDetails(build2.getBuildUrl(), job.getInstanceUrl())).thenReturn(build2);
+        task.collect(collector);
+
+        verify(hudsonClient).getBuildDetails(build1.getBuildUrl(), job.getInstanceUrl());
+        verify(hudsonClient).getBuildDetails(build2.getBuildUrl(), job.getInstanceUrl());
+        verify(hudsonJobRepository, times(1)).updateLastBuildNumbers(Collections.singletonMap(job.getId(), 2));
+        assertEquals(2, job.getLastBuildNumber());
     }
 
     private HudsonCollector collectorWithOneServer() {
@@ -206,14 +314,4 @@ public class HudsonCollectorTaskTests {
         build.setBuildUrl(url);
         return build;
     }
-
-    private ArrayList<com.capitalone.dashboard.model.Component> components() {
-    	ArrayList<com.capitalone.dashboard.model.Component> cArray = new ArrayList<com.capitalone.dashboard.model.Component>();
-    	com.capitalone.dashboard.model.Component c = new Component();
-    	c.setId(new ObjectId());
-    	c.setName("COMPONENT1");
-    	c.setOwner("JOHN");
-    	cArray.add(c);
-    	return cArray;
-    }
 }
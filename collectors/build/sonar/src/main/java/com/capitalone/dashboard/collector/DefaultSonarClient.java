@@ -97,27 +97,7 @@ public class DefaultSonarClient implements SonarClient {
             JSONArray jsonArray = parseAsArray(url);
 
             if (!jsonArray.isEmpty()) {
-                JSONObject prjData = (JSONObject) jsonArray.get(0);
-
-                CodeQuality codeQuality = new CodeQuality();
-                codeQuality.setName(str(prjData, NAME));
-                codeQuality.setUrl(project.getInstanceUrl() + "/dashboard/index/" + project.getProjectId());
-                codeQuality.setType(CodeQualityType.StaticAnalysis);
-                codeQuality.setTimestamp(timestamp(prjData, DATE));
-                codeQuality.setVersion(str(prjData, VERSION));
-
-                for (Object metricObj : (JSONArray) prjData.get(MSR)) {
-                    JSONObject metricJson = (JSONObject) metricObj;
-
-                    CodeQualityMetric metric = new CodeQualityMetric(str(metricJson, KEY));
-                    metric.setValue(metricJson.get(VALUE));
-                    metric.setFormattedValue(str(metricJson, FORMATTED_VALUE));
-                    metric.setStatus(metricStatus(str(metricJson, ALERT)));
-                    metric.setStatusMessage(str(metricJson, ALERT_TEXT));
-                    codeQuality.getMetrics().add(metric);
-                }
-
-                return codeQuality;
+                return codeQuality(project.getInstanceUrl(), project.getProjectId(), (JSONObject) jsonArray.get(0));
             }
 
         } catch (ParseException e) {
@@ -129,6 +109,58 @@ public class DefaultSonarClient implements SonarClient {
         return null;
     }
 
+    @Override
+    public Map<String, CodeQuality> currentCodeQuality(List<SonarProject> projects) {
+        Map<String, CodeQuality> codeQualities = new HashMap<>();
+        if (projects.isEmpty()) {
+            return codeQualities;
+        }
+        String instanceUrl = projects.get(0).getInstanceUrl();
+        List<String> projectIds = new ArrayList<>();
+        for (SonarProject project : projects) {
+            projectIds.add(project.getProjectId());
+        }
+        String url = String.format(
+                instanceUrl + URL_RESOURCE_DETAILS, StringUtils.join(projectIds, ','), sonarSettings.getMetrics());
+
+        try {
+            for (Object obj : parseAsArray(url)) {
+                JSONObject prjData = (JSONObject) obj;
+                String projectId = str(prjData, ID);
+                codeQualities.put(projectId, codeQuality(instanceUrl, projectId, prjData));
+            }
+
+        } catch (ParseException e) {
+            LOG.error("Could not parse response from: " + url, e);
+        } catch (RestClientException rce) {
+            LOG.error(rce);
+        }
+
+        return codeQualities;
+    }
+
+    private CodeQuality codeQuality(String instanceUrl, String projectId, JSONObject prjData) {
+        CodeQuality codeQuality = new CodeQuality();
+        codeQuality.setName(str(prjData, NAME));
+        codeQuality.setUrl(instanceUrl + "/dashboard/index/" + projectId);
+        codeQuality.setType(CodeQualityType.StaticAnalysis);
+        codeQuality.setTimestamp(timestamp(prjData, DATE));
+        codeQuality.setVersion(str(prjData, VERSION));
+
+        for (Object metricObj : (JSONArray) prjData.get(MSR)) {
+            JSONObject metricJson = (JSONObject) metricObj;
+
+            CodeQualityMetric metric = new CodeQualityMetric(str(metricJson, KEY));
+            metric.setValue(metricJson.get(VALUE));
+            metric.setFormattedValue(str(metricJson, FORMATTED_VALUE));
+            metric.setStatus(metricStatus(str(metricJson, ALERT)));
+            metric.setStatusMessage(str(metricJson, ALERT_TEXT));
+            codeQuality.getMetrics().add(metric);
+        }
+
+        return codeQuality;
+    }
+
     private JSONArray parseAsArray(String url) throws ParseException {
         ResponseEntity<String> response = rest.exchange(url, HttpMethod.GET, this.httpHeaders, String.class);
         return (JSONArray) new JSONParser().parse(response.getBody());
@@ -4,6 +4,7 @@ import com.capitalone.dashboard.model.CodeQuality;
 import com.capitalone.dashboard.model.SonarProject;
 
 import java.util.List;
+import java.util.Map;
 
 public interface SonarClient {
 
@@ -11,4 +12,13 @@ public interface SonarClient {
 
     CodeQuality currentCodeQuality(SonarProject project);
 
+    /**
+     * Fetches the current code quality of several projects of the same Sonar instance in one request.
+     *
+     * @param projects projects of a single Sonar instance
+     * @return code quality by project id, without the projects Sonar has no data for and, if the
+     * request fails, empty
+     */
+    Map<String, CodeQuality> currentCodeQuality(List<SonarProject> projects);
+
 }
@@ -1,15 +1,15 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.CodeQuality;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.SonarCollector;
 import com.capitalone.dashboard.model.SonarProject;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.CodeQualityRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.SonarCollectorRepository;
 import com.capitalone.dashboard.repository.SonarProjectRepository;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bson.types.ObjectId;
@@ -18,14 +18,21 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Component
 public class SonarCollectorTask extends CollectorTask<SonarCollector> {
-    @SuppressWarnings({ "PMD.UnusedPrivateField", "unused" })
     private static final Log LOG = LogFactory.getLog(SonarCollectorTask.class);
 
     private final SonarCollectorRepository sonarCollectorRepository;
@@ -33,7 +40,8 @@ public class SonarCollectorTask extends CollectorTask<SonarCollector> {
     private final CodeQualityRepository codeQualityRepository;
     private final SonarClient sonarClient;
     private final SonarSettings sonarSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
+    private final ExecutorService executor;
 
     @Autowired
     public SonarCollectorTask(TaskScheduler taskScheduler,
@@ -42,14 +50,21 @@ public class SonarCollectorTask extends CollectorTask<SonarCollector> {
                               CodeQualityRepository codeQualityRepository,
                               SonarSettings sonarSettings,
                               SonarClient sonarClient,
-                              ComponentRepository dbComponentRepository) {
+                              DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "Sonar");
         this.sonarCollectorRepository = sonarCollectorRepository;
         this.sonarProjectRepository = sonarProjectRepository;
         this.codeQualityRepository = codeQualityRepository;
         this.sonarSettings = sonarSettings;
         this.sonarClient = sonarClient;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, sonarSettings.getThreads()),
+                new ThreadFactoryBuilder().setNameFormat("sonar-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 
     @Override
@@ -103,37 +118,8 @@ public class SonarCollectorTask extends CollectorTask<SonarCollector> {
 	 *            the {@link SonarCollector}
 	 */
 
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts") // agreed PMD, fixme
     private void clean(SonarCollector collector, List<SonarProject> existingProjects) {
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if (comp.getCollectorItems() != null && !comp.getCollectorItems().isEmpty()) {
-                List<CollectorItem> itemList = comp.getCollectorItems().get(
-                        CollectorType.CodeQuality);
-                if (itemList != null) {
-                    for (CollectorItem ci : itemList) {
-                        if (ci != null && ci.getCollectorId().equals(collector.getId())) {
-                            uniqueIDs.add(ci.getId());
-                        }
-                    }
-                }
-            }
-        }
-        List<SonarProject> stateChangeJobList = new ArrayList<>();
-        Set<ObjectId> udId = new HashSet<>();
-        udId.add(collector.getId());
-        for (SonarProject job : existingProjects) {
-            // collect the jobs that need to change state : enabled vs disabled.
-            if ((job.isEnabled() && !uniqueIDs.contains(job.getId())) ||  // if it was enabled but not on a dashboard
-                    (!job.isEnabled() && uniqueIDs.contains(job.getId()))) { // OR it was disabled and now on a dashboard
-                job.setEnabled(uniqueIDs.contains(job.getId()));
-                stateChangeJobList.add(job);
-            }
-        }
-        if (!CollectionUtils.isEmpty(stateChangeJobList)) {
-            sonarProjectRepository.save(stateChangeJobList);
-        }
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.CodeQuality, existingProjects);
     }
 
 
@@ -158,17 +144,83 @@ public class SonarCollectorTask extends CollectorTask<SonarCollector> {
         long start = System.currentTimeMillis();
         int count = 0;
 
-        for (SonarProject project : sonarProjects) {
-            CodeQuality codeQuality = sonarClient.currentCodeQuality(project);
-            if (codeQuality != null && isNewQualityData(project, codeQuality)) {
-                codeQuality.setCollectorItemId(project.getId());
-                codeQualityRepository.save(codeQuality);
-                count++;
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (final List<SonarProject> batch : Lists.partition(sonarProjects, Math.max(1, sonarSettings.getProjectsPerRequest()))) {
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return refreshData(batch);
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                count += futures.get(i).get();
+            } catch (ExecutionException e) {
+                LOG.error("Unable to refresh code quality", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<Integer> future : futures.subList(i, futures.size())) {
+                    future.cancel(true);
+                }
+                break;
             }
         }
         log("Updated", start, count);
     }
 
+    /**
+     * Fetches the code quality of a batch of projects in one request and saves the data points
+     * that are not stored yet.
+     *
+     * @return number of saved data points
+     */
+    private int refreshData(List<SonarProject> batch) {
+        Map<String, CodeQuality> codeQualities = currentCodeQuality(batch);
+        Map<ObjectId, CodeQuality> newQualities = new HashMap<>();
+        Map<ObjectId, Long> timestamps = new HashMap<>();
+        for (SonarProject project : batch) {
+            CodeQuality codeQuality = codeQualities.get(project.getProjectId());
+            if (codeQuality != null) {
+                codeQuality.setCollectorItemId(project.getId());
+                newQualities.put(project.getId(), codeQuality);
+                timestamps.put(project.getId(), codeQuality.getTimestamp());
+            }
+        }
+        newQualities.keySet().removeAll(codeQualityRepository.findCollectorItemIdsWithTimestamp(timestamps));
+        if (!newQualities.isEmpty()) {
+            codeQualityRepository.save(newQualities.values());
+        }
+        return newQualities.size();
+    }
+
+    /**
+     * Fetches the code quality of a batch of projects in one request. The projects the request
+     * failed for or left out are fetched one at a time, so that they are not skipped until the
+     * next run.
+     *
+     * @return code quality by project id
+     */
+    private Map<String, CodeQuality> currentCodeQuality(List<SonarProject> batch) {
+        Map<String, CodeQuality> codeQualities = new HashMap<>();
+        try {
+            codeQualities.putAll(sonarClient.currentCodeQuality(batch));
+        } catch (RuntimeException e) {
+            LOG.error("Unable to fetch code quality of " + batch.size() + " projects at once", e);
+        }
+        if (batch.size() > 1) {
+            for (SonarProject project : batch) {
+                if (!codeQualities.containsKey(project.getProjectId())) {
+                    CodeQuality codeQuality = sonarClient.currentCodeQuality(project);
+                    if (codeQuality != null) {
+                        codeQualities.put(project.getProjectId(), codeQuality);
+                    }
+                }
+            }
+        }
+        return codeQualities;
+    }
+
     private List<SonarProject> enabledProjects(SonarCollector collector, String instanceUrl) {
         return sonarProjectRepository.findEnabledProjects(collector.getId(), instanceUrl);
     }
@@ -198,9 +250,4 @@ public class SonarCollectorTask extends CollectorTask<SonarCollector> {
         return sonarProjectRepository.findSonarProject(
                 collector.getId(), application.getInstanceUrl(), application.getProjectId()) == null;
     }
-
-    private boolean isNewQualityData(SonarProject project, CodeQuality codeQuality) {
-        return codeQualityRepository.findByCollectorItemIdAndTimestamp(
-                project.getId(), codeQuality.getTimestamp()) == null;
-    }
 }
@@ -16,6 +16,8 @@ public class SonarSettings {
     private String password;
     private String metrics;
     private List<String> servers;
+    private int projectsPerRequest = 50;
+    private int threads = 4;
 
     public String getCron() {
         return cron;
@@ -56,4 +58,20 @@ public class SonarSettings {
     public void setServers(List<String> servers) {
         this.servers = servers;
     }
+
+    public int getProjectsPerRequest() {
+        return projectsPerRequest;
+    }
+
+    public void setProjectsPerRequest(int projectsPerRequest) {
+        this.projectsPerRequest = projectsPerRequest;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
 }
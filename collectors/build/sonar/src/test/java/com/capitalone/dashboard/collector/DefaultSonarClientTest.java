@@ -0,0 +1,151 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.CodeQuality;
+import com.capitalone.dashboard.model.CodeQualityMetric;
+import com.capitalone.dashboard.model.CodeQualityMetricStatus;
+import com.capitalone.dashboard.model.CodeQualityType;
+import com.capitalone.dashboard.model.SonarProject;
+import com.capitalone.dashboard.util.Supplier;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestOperations;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultSonarClientTest {
+
+    private static final String SONAR_URL = "http://sonar.company.com";
+    private static final String METRICS = "ncloc,violations";
+
+    @Mock private Supplier<RestOperations> restOperationsSupplier;
+    @Mock private RestOperations rest;
+    private DefaultSonarClient sonarClient;
+
+    @Before
+    public void init() {
+        when(restOperationsSupplier.get()).thenReturn(rest);
+        SonarSettings settings = new SonarSettings();
+        settings.setMetrics(METRICS);
+        sonarClient = new DefaultSonarClient(restOperationsSupplier, settings);
+    }
+
+    @Test
+    public void getProjects() throws Exception {
+        stubGet(SONAR_URL + "/api/resources?format=json", getJson("resources_metrics.json"));
+
+        List<SonarProject> projects = sonarClient.getProjects(SONAR_URL);
+
+        assertEquals(2, projects.size());
+        assertEquals("1001", projects.get(0).getProjectId());
+        assertEquals("Web", projects.get(0).getProjectName());
+        assertEquals(SONAR_URL, projects.get(0).getInstanceUrl());
+        assertEquals("1002", projects.get(1).getProjectId());
+    }
+
+    @Test
+    public void currentCodeQuality_severalProjects_oneRequestWithAllIds() throws Exception {
+        stubGet(SONAR_URL + "/api/resources?format=json&resource=1001,1002&metrics=" + METRICS + "&includealerts=true",
+                getJson("resources_metrics.json"));
+
+        Map<String, CodeQuality> codeQualities = sonarClient.currentCodeQuality(Arrays.asList(project("1001"), project("1002")));
+
+        assertEquals(2, codeQualities.size());
+        CodeQuality web = codeQualities.get("1001");
+        assertEquals("Web", web.getName());
+        assertEquals(SONAR_URL + "/dashboard/index/1001", web.getUrl());
+        assertEquals(CodeQualityType.StaticAnalysis, web.getType());
+        assertEquals("1.2", web.getVersion());
+        assertEquals(1464776130000L, web.getTimestamp());
+        Map<String, CodeQualityMetric> webMetrics = metricsByName(web);
+        assertEquals(12000.0, webMetrics.get("ncloc").getValue());
+        assertEquals("12,000", webMetrics.get("ncloc").getFormattedValue());
+        assertEquals(CodeQualityMetricStatus.Ok, webMetrics.get("ncloc").getStatus());
+        assertEquals(CodeQualityMetricStatus.Warning, webMetrics.get("violations").getStatus());
+        assertEquals("Violations > 10", webMetrics.get("violations").getStatusMessage());
+
+        CodeQuality api = codeQualities.get("1002");
+        assertEquals("API", api.getName());
+        assertEquals(SONAR_URL + "/dashboard/index/1002", api.getUrl());
+        assertEquals(CodeQualityMetricStatus.Alert, metricsByName(api).get("violations").getStatus());
+    }
+
+    @Test
+    public void currentCodeQuality_severalProjects_requestFails_empty() {
+        when(rest.exchange(startsWith(SONAR_URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        Map<String, CodeQuality> codeQualities = sonarClient.currentCodeQuality(Arrays.asList(project("1001"), project("1002")));
+
+        assertTrue(codeQualities.isEmpty());
+    }
+
+    @Test
+    public void currentCodeQuality_noProjects_noRequest() {
+        assertTrue(sonarClient.currentCodeQuality(Collections.<SonarProject>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void currentCodeQuality_oneProject() throws Exception {
+        stubGet(SONAR_URL + "/api/resources?format=json&resource=1001&metrics=" + METRICS + "&includealerts=true",
+                getJson("resources_metrics.json"));
+
+        CodeQuality codeQuality = sonarClient.currentCodeQuality(project("1001"));
+
+        assertEquals("Web", codeQuality.getName());
+        assertEquals(2, codeQuality.getMetrics().size());
+    }
+
+    @Test
+    public void currentCodeQuality_oneProject_noData() throws Exception {
+        stubGet(SONAR_URL + "/api/resources?format=json&resource=1001&metrics=" + METRICS + "&includealerts=true", "[]");
+
+        assertNull(sonarClient.currentCodeQuality(project("1001")));
+    }
+
+    private void stubGet(String url, String body) {
+        when(rest.exchange(eq(url), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+    }
+
+    private static SonarProject project(String projectId) {
+        SonarProject project = new SonarProject();
+        project.setInstanceUrl(SONAR_URL);
+        project.setProjectId(projectId);
+        return project;
+    }
+
+    private static Map<String, CodeQualityMetric> metricsByName(CodeQuality codeQuality) {
+        Map<String, CodeQualityMetric> metrics = new HashMap<>();
+        for (CodeQualityMetric metric : codeQuality.getMetrics()) {
+            metrics.put(metric.getName(), metric);
+        }
+        return metrics;
+    }
+
+    private String getJson(String fileName) throws IOException {
+        return IOUtils.toString(DefaultSonarClientTest.class.getResourceAsStream(fileName));
+    }
+}
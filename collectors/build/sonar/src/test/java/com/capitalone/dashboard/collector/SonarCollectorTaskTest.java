@@ -0,0 +1,169 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.CodeQuality;
+import com.capitalone.dashboard.model.SonarCollector;
+import com.capitalone.dashboard.model.SonarProject;
+import com.capitalone.dashboard.repository.CodeQualityRepository;
+import com.capitalone.dashboard.repository.SonarCollectorRepository;
+import com.capitalone.dashboard.repository.SonarProjectRepository;
+import com.google.common.collect.Iterables;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SonarCollectorTaskTest {
+
+    private static final String SONAR_URL = "http://sonar.company.com";
+
+    @Mock private TaskScheduler taskScheduler;
+    @Mock private SonarCollectorRepository sonarCollectorRepository;
+    @Mock private SonarProjectRepository sonarProjectRepository;
+    @Mock private CodeQualityRepository codeQualityRepository;
+    @Mock private SonarClient sonarClient;
+    @Mock private DashboardCollectorItemService dashboardCollectorItemService;
+
+    @Captor private ArgumentCaptor<Iterable<CodeQuality>> savedQualities;
+
+    private SonarCollectorTask task;
+    private SonarCollector collector;
+    private SonarProject project1;
+    private SonarProject project2;
+    private SonarProject project3;
+
+    @Before
+    public void setUp() {
+        SonarSettings settings = new SonarSettings();
+        settings.setProjectsPerRequest(2);
+        settings.setThreads(1);
+        task = new SonarCollectorTask(taskScheduler, sonarCollectorRepository, sonarProjectRepository,
+                codeQualityRepository, settings, sonarClient, dashboardCollectorItemService);
+
+        collector = SonarCollector.prototype(Collections.singletonList(SONAR_URL));
+        collector.setId(ObjectId.get());
+        project1 = project("1");
+        project2 = project("2");
+        project3 = project("3");
+        when(sonarProjectRepository.findEnabledProjects(collector.getId(), SONAR_URL))
+                .thenReturn(Arrays.asList(project1, project2, project3));
+    }
+
+    @After
+    public void tearDown() {
+        task.shutdown();
+    }
+
+    @Test
+    public void collect_fetchesProjectsInBatches() {
+        when(sonarClient.currentCodeQuality(Arrays.asList(project1, project2)))
+                .thenReturn(codeQualities(project1, project2));
+        when(sonarClient.currentCodeQuality(Collections.singletonList(project3)))
+                .thenReturn(codeQualities(project3));
+
+        task.collect(collector);
+
+        verify(sonarClient, never()).currentCodeQuality(any(SonarProject.class));
+        assertEquals(3, savedCount(2));
+    }
+
+    @Test
+    public void collect_batchFails_projectsFetchedOneAtATime() {
+        when(sonarClient.currentCodeQuality(Arrays.asList(project1, project2)))
+                .thenThrow(new ResourceAccessException("connection reset"));
+        when(sonarClient.currentCodeQuality(Collections.singletonList(project3)))
+                .thenReturn(codeQualities(project3));
+        when(sonarClient.currentCodeQuality(project1)).thenReturn(codeQuality(project1));
+        when(sonarClient.currentCodeQuality(project2)).thenReturn(codeQuality(project2));
+
+        task.collect(collector);
+
+        verify(sonarClient).currentCodeQuality(project1);
+        verify(sonarClient).currentCodeQuality(project2);
+        verify(sonarClient, never()).currentCodeQuality(project3);
+        assertEquals(3, savedCount(2));
+    }
+
+    @Test
+    public void collect_projectMissingFromBatch_fetchedAlone() {
+        when(sonarClient.currentCodeQuality(Arrays.asList(project1, project2)))
+                .thenReturn(codeQualities(project1));
+        when(sonarClient.currentCodeQuality(Collections.singletonList(project3)))
+                .thenReturn(new HashMap<String, CodeQuality>());
+        when(sonarClient.currentCodeQuality(project2)).thenReturn(codeQuality(project2));
+
+        task.collect(collector);
+
+        verify(sonarClient, never()).currentCodeQuality(project1);
+        verify(sonarClient).currentCodeQuality(project2);
+        verify(sonarClient, never()).currentCodeQuality(project3);
+        assertEquals(2, savedCount(1));
+    }
+
+    @Test
+    public void collect_storedDataPointsNotSavedAgain() {
+        when(sonarClient.currentCodeQuality(Arrays.asList(project1, project2)))
+                .thenReturn(codeQualities(project1, project2));
+        when(sonarClient.currentCodeQuality(Collections.singletonList(project3)))
+                .thenReturn(codeQualities(project3));
+        when(codeQualityRepository.findCollectorItemIdsWithTimestamp(anyMapOf(ObjectId.class, Long.class)))
+                .thenReturn(Collections.singleton(project1.getId()), Collections.singleton(project3.getId()));
+
+        task.collect(collector);
+
+        verify(codeQualityRepository).save(savedQualities.capture());
+        assertEquals(project2.getId(), Iterables.getOnlyElement(savedQualities.getValue()).getCollectorItemId());
+    }
+
+    private int savedCount(int saves) {
+        verify(codeQualityRepository, times(saves)).save(savedQualities.capture());
+        int count = 0;
+        for (Iterable<CodeQuality> saved : savedQualities.getAllValues()) {
+            count += Iterables.size(saved);
+        }
+        return count;
+    }
+
+    private static SonarProject project(String projectId) {
+        SonarProject project = new SonarProject();
+        project.setId(ObjectId.get());
+        project.setInstanceUrl(SONAR_URL);
+        project.setProjectId(projectId);
+        return project;
+    }
+
+    private static Map<String, CodeQuality> codeQualities(SonarProject... projects) {
+        Map<String, CodeQuality> codeQualities = new HashMap<>();
+        for (SonarProject project : projects) {
+            codeQualities.put(project.getProjectId(), codeQuality(project));
+        }
+        return codeQualities;
+    }
+
+    private static CodeQuality codeQuality(SonarProject project) {
+        CodeQuality codeQuality = new CodeQuality();
+        codeQuality.setName("project " + project.getProjectId());
+        codeQuality.setTimestamp(1L);
+        return codeQuality;
+    }
+}
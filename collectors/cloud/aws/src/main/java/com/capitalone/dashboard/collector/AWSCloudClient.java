@@ -21,9 +21,19 @@ public interface AWSCloudClient {
 	 *
 	 */
     Map<String, List<CloudInstance>> getCloundInstances(CloudInstanceRepository repository);
+
+    /**
+     * Pages through the instances of all accounts and hands every page to the handler.
+     */
+    void getCloudInstances(CloudInstanceRepository repository, CloudPageHandler<CloudInstance> handler);
     CloudVirtualNetwork getCloudVPC(CloudVirtualNetworkRepository repository);
     CloudSubNetwork getCloudSubnet(CloudSubNetworkRepository repository);
     Map<String, List<CloudVolumeStorage>> getCloudVolumes(Map<String, String> instanceToAccountMap);
+
+    /**
+     * Pages through the volumes of all accounts and hands every page to the handler.
+     */
+    void getCloudVolumes(Map<String, String> instanceToAccountMap, CloudPageHandler<CloudVolumeStorage> handler);
     Double get24HourInstanceEstimatedCharge();
 
     void setEc2Client(AmazonEC2Client ec2Client);
@@ -31,6 +41,12 @@ public interface AWSCloudClient {
 
     void setAutoScalingClient(AmazonAutoScaling autoScalingClient) ;
 
+    /*
+     * The metric averages below are queried from the start of the hour of their start time, and
+     * reused for aws.metricCacheMinutes when the same metric of the same instance is queried again
+     * from the same hour.
+     */
+
     /* Averages CPUUtil every minute for the last hour */
     @SuppressWarnings("PMD.UnusedFormalParameter")
     Double getInstanceCPUSinceLastRun(String instanceId, long lastUpdated);
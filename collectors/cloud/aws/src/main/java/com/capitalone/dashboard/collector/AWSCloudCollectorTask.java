@@ -37,10 +37,12 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -119,46 +121,77 @@ public class AWSCloudCollectorTask extends CollectorTask<AWSCloudCollector> {
         log("Starting AWS collection...");
         log("Collecting AWS Cloud Data...");
 
-        Map<String, List<CloudInstance>> accountToInstnaceMap = collectInstances();
-
-        Map<String, String> instanceToAccountMap = new HashMap<>();
-        for (String account : accountToInstnaceMap.keySet()) {
-            Collection<CloudInstance> instanceList = accountToInstnaceMap.get(account);
-            for (CloudInstance ci : instanceList) {
-                instanceToAccountMap.put(ci.getInstanceId(), account);
-            }
-        }
+        Map<String, String> instanceToAccountMap = collectInstances();
         collectVolume(instanceToAccountMap);
 
         log("Finished Cloud collection.");
     }
 
-    private Map<String, List<CloudInstance>> collectInstances() {
-        Map<String, List<CloudInstance>> cloudInstanceMap = awsClient.getCloundInstances(cloudInstanceRepository);
-        for (String account : cloudInstanceMap.keySet()) {
-            Collection<CloudInstance> collectedInstances = cloudInstanceMap.get(account);
-            Set<CloudInstance> saveList = new HashSet<>();
-            Collection<CloudInstance> deleteList = cloudInstanceRepository.findByAccountNumber(account); //Potential Delete List
-            for (CloudInstance current : collectedInstances) {
-                CloudInstance existing = cloudInstanceRepository.findByInstanceId(current.getInstanceId());
-                if (existing != null) {  // if it is a still in-use instance, do not delete it
-                    if (!CollectionUtils.isEmpty(deleteList)) {
-                        deleteList.remove(existing);
+    /**
+     * Reconciles and totals each page of instances as the AWS client reads it. Once all pages are
+     * read, the stored instances of an account that were not collected are deleted and the
+     * account's history is saved.
+     *
+     * @return account number by instance id of the collected instances
+     */
+    private Map<String, String> collectInstances() {
+        final Map<String, String> instanceToAccountMap = new HashMap<>();
+        final Map<String, Set<String>> instanceIdsByAccount = new LinkedHashMap<>();
+        final Map<String, InstanceHistoryTotals> totalsByAccount = new HashMap<>();
+        awsClient.getCloudInstances(cloudInstanceRepository, new CloudPageHandler<CloudInstance>() {
+            @Override
+            public void handle(Map<String, List<CloudInstance>> page) {
+                for (Map.Entry<String, List<CloudInstance>> entry : page.entrySet()) {
+                    String account = entry.getKey();
+                    if (!instanceIdsByAccount.containsKey(account)) {
+                        instanceIdsByAccount.put(account, new HashSet<String>());
+                        totalsByAccount.put(account, new InstanceHistoryTotals());
+                    }
+                    reconcileInstances(entry.getValue());
+                    for (CloudInstance instance : entry.getValue()) {
+                        instanceToAccountMap.put(instance.getInstanceId(), account);
+                        instanceIdsByAccount.get(account).add(instance.getInstanceId());
+                        totalsByAccount.get(account).add(instance);
                     }
-                    saveList.add(updateWithExisting(existing, current));
                 }
-                saveList.add(current);
             }
+        });
 
-            if (!CollectionUtils.isEmpty(saveList)) {
-                cloudInstanceRepository.save(saveList);
-            }
-            if (!CollectionUtils.isEmpty(deleteList)) {
-                cloudInstanceRepository.delete(deleteList);
+        for (Map.Entry<String, Set<String>> entry : instanceIdsByAccount.entrySet()) {
+            String account = entry.getKey();
+            int deleted = cloudInstanceRepository.deleteByAccountNumberExcept(account, entry.getValue());
+            log("Account " + account + ": " + entry.getValue().size() + " instances collected, " + deleted + " deleted");
+            saveAggregatedHistory(account, totalsByAccount.get(account));
+        }
+        return instanceToAccountMap;
+    }
+
+    /**
+     * Matches a page of collected instances with the stored ones by instance id and writes the
+     * inserts and updates in one bulk write.
+     */
+    private void reconcileInstances(Collection<CloudInstance> collectedInstances) {
+        Map<String, CloudInstance> collectedById = new LinkedHashMap<>();
+        for (CloudInstance current : collectedInstances) {
+            collectedById.put(current.getInstanceId(), current);
+        }
+
+        Map<String, CloudInstance> existingById = new HashMap<>();
+        for (CloudInstance existing : cloudInstanceRepository.findByInstanceIdIn(new ArrayList<>(collectedById.keySet()))) {
+            existingById.put(existing.getInstanceId(), existing);
+        }
+
+        List<CloudInstance> inserts = new ArrayList<>();
+        List<CloudInstance> updates = new ArrayList<>();
+        for (CloudInstance current : collectedById.values()) {
+            CloudInstance existing = existingById.get(current.getInstanceId());
+            if (existing == null) {
+                inserts.add(current);
+            } else {
+                updates.add(updateWithExisting(existing, current));
             }
-            saveAggregatedHistory(account, cloudInstanceMap.get(account));
         }
-        return cloudInstanceMap;
+        cloudInstanceRepository.bulkWrite(inserts, updates, Collections.<CloudInstance>emptyList());
     }
 
 
@@ -170,19 +203,43 @@ public class AWSCloudCollectorTask extends CollectorTask<AWSCloudCollector> {
     }
 
 
-    private void saveAggregatedHistory(String account, List<CloudInstance> instances) {
-        int unTaggedCount = 0;
-        int stoppedCount = 0;
-        int totalCount = 0;
-        int expiredImageCount = 0;
-        double totalCpu = 0.0;
-        double totalDiskRead = 0.0;
-        double totalDiskWrite = 0.0;
-        double totalNetworkIn = 0.0;
-        double totalNetworkOut = 0.0;
+    private void saveAggregatedHistory(String account, InstanceHistoryTotals totals) {
+        if (totals.totalCount > 0) {
+            int totalCount = totals.totalCount;
+            CloudInstanceHistory history = new CloudInstanceHistory();
+            history.setAccountNumber(account);
+            history.setTime(System.currentTimeMillis());
+            history.setTotal(totalCount);
+            history.setStopped(totals.stoppedCount);
+            history.setExpiredImage(totals.expiredImageCount);
+            history.setCpu(totals.totalCpu / totalCount);
+            history.setDiskRead(totals.totalDiskRead / totalCount);
+            history.setDiskWrite(totals.totalDiskWrite / totalCount);
+            history.setNetworkOut(totals.totalNetworkOut / totalCount);
+            history.setNetworkIn(totals.totalNetworkIn / totalCount);
+            history.setNonTagged(totals.unTaggedCount);
+            //assumption: the estimated charge gets the full account's charge
+            history.setEstimatedCharge(awsClient.get24HourInstanceEstimatedCharge());
+            cloudInstanceHistoryRepository.save(history);
+        }
+    }
 
+    /**
+     * Running totals of the instances of an account, for its {@link CloudInstanceHistory}.
+     */
+    private static final class InstanceHistoryTotals {
+        private final long today = System.currentTimeMillis();
+        private int unTaggedCount;
+        private int stoppedCount;
+        private int totalCount;
+        private int expiredImageCount;
+        private double totalCpu;
+        private double totalDiskRead;
+        private double totalDiskWrite;
+        private double totalNetworkIn;
+        private double totalNetworkOut;
 
-        for (CloudInstance rd : instances) {
+        void add(CloudInstance rd) {
             totalCount = totalCount + 1;
             totalCpu = totalCpu + rd.getCpuUtilization();
             totalDiskRead = totalDiskRead + rd.getDiskRead();
@@ -196,28 +253,10 @@ public class AWSCloudCollectorTask extends CollectorTask<AWSCloudCollector> {
             if (!rd.isTagged()) {
                 unTaggedCount = unTaggedCount + 1;
             }
-            Date expirationDate = new Date(rd.getImageExpirationDate());
-            Date today = new Date();
-            if (today.after(expirationDate)) {
+            if (today > rd.getImageExpirationDate()) {
                 expiredImageCount = expiredImageCount + 1;
             }
         }
-        if (totalCount > 0) {
-            CloudInstanceHistory history = new CloudInstanceHistory();
-            history.setAccountNumber(account);
-            history.setTime(System.currentTimeMillis());
-            history.setTotal(totalCount);
-            history.setStopped(stoppedCount);
-            history.setCpu(totalCpu / totalCount);
-            history.setDiskRead(totalDiskRead / totalCount);
-            history.setDiskWrite(totalDiskWrite / totalCount);
-            history.setNetworkOut(totalNetworkOut / totalCount);
-            history.setNetworkIn(totalNetworkIn / totalCount);
-            history.setNonTagged(unTaggedCount);
-            //assumption: the estimated charge gets the full account's charge
-            history.setEstimatedCharge(awsClient.get24HourInstanceEstimatedCharge());
-            cloudInstanceHistoryRepository.save(history);
-        }
     }
 
 
@@ -233,15 +272,26 @@ public class AWSCloudCollectorTask extends CollectorTask<AWSCloudCollector> {
         cloudSubNetworkRepository.save(cloudSubNetwork);
     }
 
+    /**
+     * Replaces the stored volumes of every account with the collected ones, a page at a time. The
+     * stored volumes of an account are deleted before its first page is saved.
+     */
     private void collectVolume(Map<String, String> instanceToAccountMap) {
-        Map<String, List<CloudVolumeStorage>> accountVolume = awsClient.getCloudVolumes(instanceToAccountMap);
-        for (String account : accountVolume.keySet()) {
-            Collection<CloudVolumeStorage> existing = cloudVolumeRepository.findByAccountNumber(account);
-            if (!CollectionUtils.isEmpty(existing)) {
-                cloudVolumeRepository.delete(existing);
+        final Set<String> replacedAccounts = new HashSet<>();
+        awsClient.getCloudVolumes(instanceToAccountMap, new CloudPageHandler<CloudVolumeStorage>() {
+            @Override
+            public void handle(Map<String, List<CloudVolumeStorage>> page) {
+                for (Map.Entry<String, List<CloudVolumeStorage>> entry : page.entrySet()) {
+                    if (replacedAccounts.add(entry.getKey())) {
+                        Collection<CloudVolumeStorage> existing = cloudVolumeRepository.findByAccountNumber(entry.getKey());
+                        if (!CollectionUtils.isEmpty(existing)) {
+                            cloudVolumeRepository.delete(existing);
+                        }
+                    }
+                    cloudVolumeRepository.save(entry.getValue());
+                }
             }
-            cloudVolumeRepository.save(accountVolume.get(account));
-        }
+        });
     }
 
     @Override
@@ -24,6 +24,14 @@ public class AWSCloudSettings {
 
     private int historyDays;
 
+    private int metricThreads = 10;
+    private double metricRequestsPerSecond = 20;
+    private int metricCacheMinutes = 60;
+
+    private String ec2Endpoint;
+    private String cloudWatchEndpoint;
+    private String autoScalingEndpoint;
+
 	public List<String> getValidTagKey() {
 		return validTagKey;
 	}
@@ -83,4 +91,52 @@ public class AWSCloudSettings {
     public List<String> getProtectedFields() {
         return protectedFields;
     }
+
+    public int getMetricThreads() {
+        return metricThreads;
+    }
+
+    public void setMetricThreads(int metricThreads) {
+        this.metricThreads = metricThreads;
+    }
+
+    public double getMetricRequestsPerSecond() {
+        return metricRequestsPerSecond;
+    }
+
+    public void setMetricRequestsPerSecond(double metricRequestsPerSecond) {
+        this.metricRequestsPerSecond = metricRequestsPerSecond;
+    }
+
+    public int getMetricCacheMinutes() {
+        return metricCacheMinutes;
+    }
+
+    public void setMetricCacheMinutes(int metricCacheMinutes) {
+        this.metricCacheMinutes = metricCacheMinutes;
+    }
+
+    public String getEc2Endpoint() {
+        return ec2Endpoint;
+    }
+
+    public void setEc2Endpoint(String ec2Endpoint) {
+        this.ec2Endpoint = ec2Endpoint;
+    }
+
+    public String getCloudWatchEndpoint() {
+        return cloudWatchEndpoint;
+    }
+
+    public void setCloudWatchEndpoint(String cloudWatchEndpoint) {
+        this.cloudWatchEndpoint = cloudWatchEndpoint;
+    }
+
+    public String getAutoScalingEndpoint() {
+        return autoScalingEndpoint;
+    }
+
+    public void setAutoScalingEndpoint(String autoScalingEndpoint) {
+        this.autoScalingEndpoint = autoScalingEndpoint;
+    }
 }
@@ -0,0 +1,17 @@
+package com.capitalone.dashboard.collector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the resources of one page of an AWS describe call as soon as the page is read.
+ *
+ * @param <T> resource type
+ */
+public interface CloudPageHandler<T> {
+
+    /**
+     * @param page resources of the page, keyed by account number
+     */
+    void handle(Map<String, List<T>> page);
+}
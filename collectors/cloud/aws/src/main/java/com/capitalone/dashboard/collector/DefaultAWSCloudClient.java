@@ -6,6 +6,7 @@ import com.amazonaws.auth.profile.ProfileCredentialsProvider;
 import com.amazonaws.services.autoscaling.AmazonAutoScaling;
 import com.amazonaws.services.autoscaling.AmazonAutoScalingClient;
 import com.amazonaws.services.autoscaling.model.AutoScalingInstanceDetails;
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingInstancesRequest;
 import com.amazonaws.services.autoscaling.model.DescribeAutoScalingInstancesResult;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClient;
 import com.amazonaws.services.cloudwatch.model.Datapoint;
@@ -13,7 +14,9 @@ import com.amazonaws.services.cloudwatch.model.Dimension;
 import com.amazonaws.services.cloudwatch.model.GetMetricStatisticsRequest;
 import com.amazonaws.services.cloudwatch.model.GetMetricStatisticsResult;
 import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.DescribeVolumesRequest;
 import com.amazonaws.services.ec2.model.DescribeVolumesResult;
 import com.amazonaws.services.ec2.model.GroupIdentifier;
 import com.amazonaws.services.ec2.model.Instance;
@@ -30,6 +33,8 @@ import com.capitalone.dashboard.model.NameValue;
 import com.capitalone.dashboard.repository.CloudInstanceRepository;
 import com.capitalone.dashboard.repository.CloudSubNetworkRepository;
 import com.capitalone.dashboard.repository.CloudVirtualNetworkRepository;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,12 +43,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -59,14 +70,30 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
     private static AmazonCloudWatchClient cloudWatchClient;
     private static AmazonAutoScaling autoScalingClient;
     private static final String NO_ACCOUNT = "NOACCOUNT";
+    private static final int INSTANCE_PAGE_SIZE = 1000;
+    private static final int VOLUME_PAGE_SIZE = 500;
+
+    private final ExecutorService metricExecutor;
+    private final RateLimiter metricRateLimiter;
+    private final ConcurrentMap<String, Double> metricCache = new ConcurrentHashMap<>();
+    private long metricCacheWindow;
 
 
     @Autowired
     public DefaultAWSCloudClient(AWSCloudSettings settings) {
         this.settings = settings;
+        this.metricExecutor = Executors.newFixedThreadPool(Math.max(1, settings.getMetricThreads()),
+                new ThreadFactoryBuilder().setNameFormat("aws-metrics-%d").setDaemon(true).build());
+        this.metricRateLimiter = settings.getMetricRequestsPerSecond() > 0
+                ? RateLimiter.create(settings.getMetricRequestsPerSecond()) : null;
         setClients();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        metricExecutor.shutdownNow();
+    }
+
 
     public final void setClients() {
         System.getProperties().put("http.proxyHost", settings.getProxyHost());
@@ -82,6 +109,17 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
                 new ProfileCredentialsProvider(settings.getProfile())));
         autoScalingClient = new AmazonAutoScalingClient(new AWSCredentialsProviderChain(new InstanceProfileCredentialsProvider(),
                 new ProfileCredentialsProvider(settings.getProfile())));
+
+        // Endpoint overrides, e.g. to run against a local stub of the AWS APIs
+        if (!StringUtils.isEmpty(settings.getEc2Endpoint())) {
+            ec2Client.setEndpoint(settings.getEc2Endpoint());
+        }
+        if (!StringUtils.isEmpty(settings.getCloudWatchEndpoint())) {
+            cloudWatchClient.setEndpoint(settings.getCloudWatchEndpoint());
+        }
+        if (!StringUtils.isEmpty(settings.getAutoScalingEndpoint())) {
+            autoScalingClient.setEndpoint(settings.getAutoScalingEndpoint());
+        }
     }
 
     /**
@@ -92,47 +130,117 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
      */
     @Override
     public Map<String, List<CloudInstance>> getCloundInstances(CloudInstanceRepository repository) {
-        DescribeInstancesResult instanceResult = ec2Client.describeInstances();
-        DescribeAutoScalingInstancesResult autoScaleResult = autoScalingClient.describeAutoScalingInstances();
-        List<AutoScalingInstanceDetails> autoScalingInstanceDetails = autoScaleResult.getAutoScalingInstances();
-        Map<String, String> autoScaleMap = new HashMap<>();
-        for (AutoScalingInstanceDetails ai : autoScalingInstanceDetails) {
-            autoScaleMap.put(ai.getInstanceId(), ai.getAutoScalingGroupName());
-        }
+        final Map<String, List<CloudInstance>> returnList = new HashMap<>();
+        getCloudInstances(repository, new CloudPageHandler<CloudInstance>() {
+            @Override
+            public void handle(Map<String, List<CloudInstance>> page) {
+                addAll(returnList, page);
+            }
+        });
+        return returnList;
+    }
 
-        Map<String, List<Instance>> ownerInstanceMap = new HashMap<>();
+    /**
+     * Calls AWS API a page at a time, following NextToken, and hands the instance details of every
+     * page to the handler once their metrics are collected.
+     *
+     * @param repository CloudInstanceRepository
+     * @param handler    receives the instances of each page by account
+     */
+    @Override
+    public void getCloudInstances(CloudInstanceRepository repository, CloudPageHandler<CloudInstance> handler) {
+        Map<String, String> autoScaleMap = getAutoScaleGroups();
+        DescribeInstancesRequest request = new DescribeInstancesRequest().withMaxResults(INSTANCE_PAGE_SIZE);
+        int count = 0;
+        do {
+            DescribeInstancesResult instanceResult = ec2Client.describeInstances(request);
+            Map<String, List<CloudInstance>> page = new HashMap<>();
+            List<CloudInstance> pageInstances = new ArrayList<>();
+            for (Reservation currRes : instanceResult.getReservations()) {
+                for (Instance currInstance : currRes.getInstances()) {
+                    CloudInstance object = getCloudInstanceDetails(currRes.getOwnerId(), currInstance, autoScaleMap);
+                    add(page, currRes.getOwnerId(), object);
+                    pageInstances.add(object);
+                }
+            }
+            count = count + pageInstances.size();
+            LOGGER.info("Collecting metrics for " + pageInstances.size() + " instances, " + count + " so far");
+            collectMetrics(pageInstances, repository);
+            if (!page.isEmpty()) {
+                handler.handle(page);
+            }
+            request.setNextToken(instanceResult.getNextToken());
+        } while (!StringUtils.isEmpty(request.getNextToken()));
+    }
 
-        List<Instance> instanceList = new ArrayList<>();
-        List<Reservation> reservations = instanceResult.getReservations();
-        for (Reservation currRes : reservations) {
-            List<Instance> currInstanceList = currRes.getInstances();
-            if (CollectionUtils.isEmpty(ownerInstanceMap.get(currRes.getOwnerId()))) {
-                ownerInstanceMap.put(currRes.getOwnerId(), currRes.getInstances());
-            } else {
-                ownerInstanceMap.get(currRes.getOwnerId()).addAll(currRes.getInstances());
+    /* Auto scaling group names by instance id, across all pages */
+    private Map<String, String> getAutoScaleGroups() {
+        Map<String, String> autoScaleMap = new HashMap<>();
+        DescribeAutoScalingInstancesRequest request = new DescribeAutoScalingInstancesRequest();
+        do {
+            DescribeAutoScalingInstancesResult autoScaleResult = autoScalingClient.describeAutoScalingInstances(request);
+            for (AutoScalingInstanceDetails ai : autoScaleResult.getAutoScalingInstances()) {
+                autoScaleMap.put(ai.getInstanceId(), ai.getAutoScalingGroupName());
             }
-            instanceList.addAll(currInstanceList);
+            request.setNextToken(autoScaleResult.getNextToken());
+        } while (!StringUtils.isEmpty(request.getNextToken()));
+        return autoScaleMap;
+    }
+
+    /**
+     * Fills out the CloudWatch metrics of a page of instances. The requests of an instance
+     * are made by one of the metric threads, all requests share the metric rate limit, and results
+     * are cached for the metric cache window so that repeated queries of the same window skip
+     * CloudWatch.
+     *
+     * @param instances  instances to fill out
+     * @param repository CloudInstanceRepository, to look up when the instances were last updated
+     */
+    private void collectMetrics(List<CloudInstance> instances, CloudInstanceRepository repository) {
+        if (instances.isEmpty()) {
+            return;
+        }
+        List<String> instanceIds = new ArrayList<>();
+        for (CloudInstance instance : instances) {
+            instanceIds.add(instance.getInstanceId());
+        }
+        final Map<String, Long> lastUpdatedById = new HashMap<>();
+        for (CloudInstance existing : repository.findByInstanceIdIn(instanceIds)) {
+            lastUpdatedById.put(existing.getInstanceId(), existing.getLastUpdatedDate());
         }
 
-        Map<String, List<CloudInstance>> returnList = new HashMap<>();
-        int i = 0;
-        for (String acct : ownerInstanceMap.keySet()) {
-            ArrayList<CloudInstance> rawDataList = new ArrayList<>();
-            for (Instance currInstance : ownerInstanceMap.get(acct)) {
-                i = i + 1;
-                LOGGER.info("Collecting instance details for " + i + " of "
-                        + instanceList.size() + ". Instance ID=" + currInstance.getInstanceId());
-                CloudInstance object = getCloudInstanceDetails(acct,
-                        currInstance, autoScaleMap, repository);
-                rawDataList.add(object);
-            }
-            if (CollectionUtils.isEmpty(returnList.get(acct))) {
-                returnList.put(acct, rawDataList);
-            } else {
-                returnList.get(acct).addAll(rawDataList);
+        List<Future<?>> futures = new ArrayList<>();
+        for (final CloudInstance instance : instances) {
+            futures.add(metricExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Long lastUpdated = lastUpdatedById.get(instance.getInstanceId());
+                    setMetrics(instance, lastUpdated == null ? System.currentTimeMillis() : lastUpdated);
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                LOGGER.error("Unable to collect metrics. Instance ID=" + instances.get(i).getInstanceId(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<?> future : futures.subList(i, futures.size())) {
+                    future.cancel(true);
+                }
+                return;
             }
         }
-        return returnList;
+    }
+
+    private void setMetrics(CloudInstance instance, long lastUpdated) {
+        String instanceId = instance.getInstanceId();
+        instance.setCpuUtilization(getInstanceCPUSinceLastRun(instanceId, lastUpdated));
+        instance.setNetworkIn(getLastHourInstanceNetworkIn(instanceId, lastUpdated));
+        instance.setNetworkOut(getLastHourIntanceNetworkOut(instanceId, lastUpdated));
+        instance.setDiskRead(getLastHourInstanceDiskRead(instanceId, lastUpdated));
+        instance.setDiskWrite(getLastInstanceHourDiskWrite(instanceId));
     }
 
     /**
@@ -140,28 +248,16 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
      *
      * @param account      Cloud Account
      * @param currInstance Cloud Instance
-     * @param repository   CloundInstnceRepository
-     * @return A single CloundInstance
+     * @return A single CloundInstance, without metrics
      */
     private CloudInstance getCloudInstanceDetails(String account,
-                                                  Instance currInstance, Map<String, String> autoScaleMap, CloudInstanceRepository repository) {
-
-        long lastUpdated = System.currentTimeMillis();
-        CloudInstance instance = repository.findByInstanceId(currInstance.getInstanceId());
-        if (instance != null) {
-            lastUpdated = instance.getLastUpdatedDate();
-        }
+                                                  Instance currInstance, Map<String, String> autoScaleMap) {
         CloudInstance object = new CloudInstance();
         object.setAccountNumber(account);
         object.setLastUpdatedDate(System.currentTimeMillis());
         object.setAge(getInstanceAge(currInstance));
-        object.setCpuUtilization(getInstanceCPUSinceLastRun(currInstance.getInstanceId(), lastUpdated));
         object.setIsTagged(isInstanceTagged(currInstance));
         object.setIsStopped(isInstanceStopped(currInstance));
-        object.setNetworkIn(getLastHourInstanceNetworkIn(currInstance.getInstanceId(), lastUpdated));
-        object.setNetworkOut(getLastHourIntanceNetworkOut(currInstance.getInstanceId(), lastUpdated));
-        object.setDiskRead(getLastHourInstanceDiskRead(currInstance.getInstanceId(), lastUpdated));
-        object.setDiskWrite(getLastInstanceHourDiskWrite(currInstance.getInstanceId()));
         // rest of the details
         object.setImageId(currInstance.getImageId());
         object.setInstanceId(currInstance.getInstanceId());
@@ -198,51 +294,91 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
      * @param instanceToAccountMap
      * @return Map of account number and a list of Volumes
      */
-
+    @Override
     public Map<String, List<CloudVolumeStorage>> getCloudVolumes(Map<String, String> instanceToAccountMap) {
-        Map<String, List<CloudVolumeStorage>> returnMap = new HashMap<>();
-        DescribeVolumesResult volumeResult = ec2Client.describeVolumes();
-        for (Volume v : volumeResult.getVolumes()) {
-            CloudVolumeStorage object = new CloudVolumeStorage();
-            for (VolumeAttachment va : v.getAttachments()) {
-                object.getAttachInstances().add(va.getInstanceId());
+        final Map<String, List<CloudVolumeStorage>> returnMap = new HashMap<>();
+        getCloudVolumes(instanceToAccountMap, new CloudPageHandler<CloudVolumeStorage>() {
+            @Override
+            public void handle(Map<String, List<CloudVolumeStorage>> page) {
+                addAll(returnMap, page);
             }
-            String account = NO_ACCOUNT;
-            //Get any instance id if any and get corresponding account number
-            if (!CollectionUtils.isEmpty(object.getAttachInstances()) &&
-                    !StringUtils.isEmpty(instanceToAccountMap.get(object.getAttachInstances().get(0)))) {
-                account = instanceToAccountMap.get(object.getAttachInstances().get(0));
+        });
+        return returnMap;
+    }
+
+    /**
+     * Calls AWS API a page at a time, following NextToken, and hands the volumes of every page to
+     * the handler.
+     *
+     * @param instanceToAccountMap account number by instance id, for the attached instances
+     * @param handler              receives the volumes of each page by account
+     */
+    @Override
+    public void getCloudVolumes(Map<String, String> instanceToAccountMap, CloudPageHandler<CloudVolumeStorage> handler) {
+        DescribeVolumesRequest request = new DescribeVolumesRequest().withMaxResults(VOLUME_PAGE_SIZE);
+        do {
+            DescribeVolumesResult volumeResult = ec2Client.describeVolumes(request);
+            Map<String, List<CloudVolumeStorage>> page = new HashMap<>();
+            for (Volume v : volumeResult.getVolumes()) {
+                CloudVolumeStorage object = getCloudVolumeDetails(v, instanceToAccountMap);
+                add(page, object.getAccountNumber(), object);
             }
-            object.setAccountNumber(account);
-            object.setZone(v.getAvailabilityZone());
-            object.setAccountNumber(account);
-            object.setCreationDate(v.getCreateTime().getTime());
-            object.setEncrypted(v.isEncrypted());
-            object.setSize(v.getSize());
-            object.setStatus(v.getState());
-            object.setType(v.getVolumeType());
-            object.setVolumeId(v.getVolumeId());
-            List<Tag> tags = v.getTags();
-            if (!CollectionUtils.isEmpty(tags)) {
-                for (Tag tag : tags) {
-                    NameValue nv = new NameValue(tag.getKey(), tag.getValue());
-                    object.getTags().add(nv);
-                }
+            if (!page.isEmpty()) {
+                handler.handle(page);
             }
-            if (CollectionUtils.isEmpty(returnMap.get(object.getAccountNumber()))) {
-                List<CloudVolumeStorage> temp = new ArrayList<>();
-                temp.add(object);
-                returnMap.put(account, temp);
-            } else {
-                returnMap.get(account).add(object);
+            request.setNextToken(volumeResult.getNextToken());
+        } while (!StringUtils.isEmpty(request.getNextToken()));
+    }
+
+    private CloudVolumeStorage getCloudVolumeDetails(Volume v, Map<String, String> instanceToAccountMap) {
+        CloudVolumeStorage object = new CloudVolumeStorage();
+        for (VolumeAttachment va : v.getAttachments()) {
+            object.getAttachInstances().add(va.getInstanceId());
+        }
+        String account = NO_ACCOUNT;
+        //Get any instance id if any and get corresponding account number
+        if (!CollectionUtils.isEmpty(object.getAttachInstances()) &&
+                !StringUtils.isEmpty(instanceToAccountMap.get(object.getAttachInstances().get(0)))) {
+            account = instanceToAccountMap.get(object.getAttachInstances().get(0));
+        }
+        object.setAccountNumber(account);
+        object.setZone(v.getAvailabilityZone());
+        object.setCreationDate(v.getCreateTime().getTime());
+        object.setEncrypted(v.isEncrypted());
+        object.setSize(v.getSize());
+        object.setStatus(v.getState());
+        object.setType(v.getVolumeType());
+        object.setVolumeId(v.getVolumeId());
+        List<Tag> tags = v.getTags();
+        if (!CollectionUtils.isEmpty(tags)) {
+            for (Tag tag : tags) {
+                NameValue nv = new NameValue(tag.getKey(), tag.getValue());
+                object.getTags().add(nv);
             }
         }
-        return returnMap;
+        return object;
     }
 
 
     //Helper methods
 
+    private static <T> void add(Map<String, List<T>> byAccount, String account, T item) {
+        List<T> items = byAccount.get(account);
+        if (items == null) {
+            items = new ArrayList<>();
+            byAccount.put(account, items);
+        }
+        items.add(item);
+    }
+
+    private static <T> void addAll(Map<String, List<T>> byAccount, Map<String, List<T>> page) {
+        for (Map.Entry<String, List<T>> entry : page.entrySet()) {
+            for (T item : entry.getValue()) {
+                add(byAccount, entry.getKey(), item);
+            }
+        }
+    }
+
     /* Gets the age in days of an instance */
     private static int getInstanceAge(Instance myInstance) {
         Date launchDate = myInstance.getLaunchTime();
@@ -256,149 +392,95 @@ public class DefaultAWSCloudClient implements AWSCloudClient {
     @SuppressWarnings("PMD.UnusedFormalParameter")
     @Override
     public Double getInstanceCPUSinceLastRun(String instanceId, long lastUpdated) {
-
-//        long offsetInMilliseconds = Math.min(ONE_DAY_MILLI_SECOND,System.currentTimeMillis() - lastUpdated);
-        Dimension instanceDimension = new Dimension().withName("InstanceId")
-                .withValue(instanceId);
-
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_YEAR, -1);
-//        long oneDayAgo = cal.getTimeInMillis();
-
-        GetMetricStatisticsRequest request = new GetMetricStatisticsRequest()
-                .withMetricName("CPUUtilization")
-                .withNamespace("AWS/EC2")
-                .withPeriod(60 * 60)
-                // one hour
-                .withDimensions(instanceDimension)
-                // to get metrics a specific
-                // instance
-                .withStatistics("Average")
-                .withStartTime(new Date(new Date().getTime() - 1440 * 1000))
-                .withEndTime(new Date());
-        GetMetricStatisticsResult result = cloudWatchClient
-                .getMetricStatistics(request);
-        // to read data
-        List<Datapoint> datapoints = result.getDatapoints();
-        if (CollectionUtils.isEmpty(datapoints)) return 0.0;
-        Datapoint datapoint = datapoints.get(0);
-        return datapoint.getAverage();
+        return getMetricAverage(instanceId, "CPUUtilization", new Date(new Date().getTime() - 1440 * 1000));
     }
 
     /* Averages CPUUtil every minute for the last hour */
     @Override
     public Double getLastHourInstanceNetworkIn(String instanceId,
                                                long lastUpdated) {
-        long offsetInMilliseconds = Math.min(ONE_DAY_MILLI_SECOND,
-                System.currentTimeMillis() - lastUpdated);
-        Dimension instanceDimension = new Dimension().withName("InstanceId")
-                .withValue(instanceId);
-        GetMetricStatisticsRequest request = new GetMetricStatisticsRequest()
-                .withMetricName("NetworkIn")
-                .withNamespace("AWS/EC2")
-                .withPeriod(60 * 60)
-                // one hour
-                .withDimensions(instanceDimension)
-                // to get metrics a specific
-                // instance
-                .withStatistics("Average")
-                .withStartTime(
-                        new Date(new Date().getTime() - offsetInMilliseconds))
-                .withEndTime(new Date());
-        GetMetricStatisticsResult result = cloudWatchClient
-                .getMetricStatistics(request);
-        // to read data
-        List<Datapoint> datapoints = result.getDatapoints();
-        if (CollectionUtils.isEmpty(datapoints)) return 0.0;
-        Datapoint datapoint = datapoints.get(0);
-        return datapoint.getAverage();
+        return getMetricAverage(instanceId, "NetworkIn", sinceLastRun(lastUpdated));
     }
 
     /* Averages CPUUtil every minute for the last hour */
     @Override
     public Double getLastHourIntanceNetworkOut(String instanceId, long lastUpdated) {
-        long offsetInMilliseconds = Math.min(ONE_DAY_MILLI_SECOND,
-                System.currentTimeMillis() - lastUpdated);
-        Dimension instanceDimension = new Dimension().withName("InstanceId")
-                .withValue(instanceId);
-        GetMetricStatisticsRequest request = new GetMetricStatisticsRequest()
-                .withMetricName("NetworkOut")
-                .withNamespace("AWS/EC2")
-                .withPeriod(60 * 60)
-                // one hour
-                .withDimensions(instanceDimension)
-                // to get metrics a specific
-                // instance
-                .withStatistics("Average")
-                .withStartTime(new Date(new Date().getTime() - offsetInMilliseconds))
-                .withEndTime(new Date());
-        GetMetricStatisticsResult result = cloudWatchClient
-                .getMetricStatistics(request);
-
-        // to read data
-        List<Datapoint> datapoints = result.getDatapoints();
-        if (CollectionUtils.isEmpty(datapoints)) return 0.0;
-        Datapoint datapoint = datapoints.get(0);
-        return datapoint.getAverage();
+        return getMetricAverage(instanceId, "NetworkOut", sinceLastRun(lastUpdated));
     }
 
     /* Averages CPUUtil every minute for the last hour */
     @Override
     public Double getLastHourInstanceDiskRead(String instanceId,
                                               long lastUpdated) {
+        return getMetricAverage(instanceId, "DiskReadBytes", sinceLastRun(lastUpdated));
+    }
 
+    /* Averages CPUUtil every minute for the last hour */
+    @Override
+    public Double getLastInstanceHourDiskWrite(String instanceId) {
+        return getMetricAverage(instanceId, "DiskWriteBytes", DateTime.now().minusHours(1).toDate());
+    }
 
+    /* Start of the window since the last run, at most one day ago */
+    private static Date sinceLastRun(long lastUpdated) {
         long offsetInMilliseconds = Math.min(ONE_DAY_MILLI_SECOND,
                 System.currentTimeMillis() - lastUpdated);
+        return new Date(new Date().getTime() - offsetInMilliseconds);
+    }
+
+    /*
+     * Hourly average of an EC2 metric of an instance from the start of the hour of startTime until
+     * now. Starting on the hour lets consecutive runs within an hour ask for the same window, so
+     * results are cached for the metric cache window keyed by instance, metric and start hour.
+     * Requests are throttled by the metric rate limit.
+     */
+    private Double getMetricAverage(String instanceId, String metricName, Date startTime) {
+        int period = 60 * 60;
+        long periodMillis = TimeUnit.SECONDS.toMillis(period);
+        Date periodStart = new Date(startTime.getTime() - startTime.getTime() % periodMillis);
+        String cacheKey = instanceId + '/' + metricName + '/' + periodStart.getTime();
+        long cacheMillis = TimeUnit.MINUTES.toMillis(settings.getMetricCacheMinutes());
+        if (cacheMillis > 0) {
+            expireMetricCache(System.currentTimeMillis() / cacheMillis);
+            Double cached = metricCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
         Dimension instanceDimension = new Dimension().withName("InstanceId")
                 .withValue(instanceId);
         GetMetricStatisticsRequest request = new GetMetricStatisticsRequest()
-                .withMetricName("DiskReadBytes")
+                .withMetricName(metricName)
                 .withNamespace("AWS/EC2")
-                .withPeriod(60 * 60)
+                .withPeriod(period)
                 // one hour
                 .withDimensions(instanceDimension)
                 // to get metrics a specific
                 // instance
                 .withStatistics("Average")
-                .withStartTime(
-                        new Date(new Date().getTime() - offsetInMilliseconds))
+                .withStartTime(periodStart)
                 .withEndTime(new Date());
+        if (metricRateLimiter != null) {
+            metricRateLimiter.acquire();
+        }
         GetMetricStatisticsResult result = cloudWatchClient
                 .getMetricStatistics(request);
-
         // to read data
         List<Datapoint> datapoints = result.getDatapoints();
-        if (CollectionUtils.isEmpty(datapoints)) return 0.0;
-        Datapoint datapoint = datapoints.get(0);
-        return datapoint.getAverage();
+        Double average = CollectionUtils.isEmpty(datapoints) ? 0.0 : datapoints.get(0).getAverage();
+        if (cacheMillis > 0) {
+            metricCache.put(cacheKey, average);
+        }
+        return average;
     }
 
-    /* Averages CPUUtil every minute for the last hour */
-    @Override
-    public Double getLastInstanceHourDiskWrite(String instanceId) {
-        Dimension instanceDimension = new Dimension().withName("InstanceId")
-                .withValue(instanceId);
-        GetMetricStatisticsRequest request = new GetMetricStatisticsRequest()
-                .withMetricName("DiskWriteBytes")
-                .withNamespace("AWS/EC2")
-                .withPeriod(60 * 60)
-                // one hour
-                .withDimensions(instanceDimension)
-                // to get metrics a specific
-                // instance
-                .withStatistics("Average")
-                .withStartTime(DateTime.now().minusHours(1).toDate())
-                .withEndTime(new Date());
-        GetMetricStatisticsResult result = cloudWatchClient
-                .getMetricStatistics(request);
-
-        // to read data
-        List<Datapoint> datapoints = result.getDatapoints();
-        if (CollectionUtils.isEmpty(datapoints)) return 0.0;
-        Datapoint datapoint = datapoints.get(0);
-        return datapoint.getAverage();
+    /* Drops the cached metrics once the cache window has moved on */
+    private synchronized void expireMetricCache(long window) {
+        if (window != metricCacheWindow) {
+            metricCache.clear();
+            metricCacheWindow = window;
+        }
     }
 
     /* If the instance is tagged with correct */
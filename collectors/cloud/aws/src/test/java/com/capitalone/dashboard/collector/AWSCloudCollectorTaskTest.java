@@ -0,0 +1,148 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.CloudInstance;
+import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.repository.AWSConfigRepository;
+import com.capitalone.dashboard.repository.BaseCollectorRepository;
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRepository;
+import com.capitalone.dashboard.repository.CloudInstanceRepository;
+import com.capitalone.dashboard.repository.CloudSubNetworkRepository;
+import com.capitalone.dashboard.repository.CloudVirtualNetworkRepository;
+import com.capitalone.dashboard.repository.CloudVolumeRepository;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AWSCloudCollectorTaskTest {
+
+    private static final String ACCOUNT1 = "123456789123";
+    private static final String ACCOUNT2 = "234567891234";
+
+    @Mock private TaskScheduler taskScheduler;
+    @Mock private BaseCollectorRepository<AWSCloudCollector> collectorRepository;
+    @Mock private AWSCloudSettings cloudSettings;
+    @Mock private AWSCloudClient cloudClient;
+    @Mock private AWSConfigRepository awsConfigRepository;
+    @Mock private CloudInstanceRepository cloudInstanceRepository;
+    @Mock private CloudVirtualNetworkRepository cloudVirtualNetworkRepository;
+    @Mock private CloudSubNetworkRepository cloudSubNetworkRepository;
+    @Mock private CloudVolumeRepository cloudVolumeRepository;
+    @Mock private CloudInstanceHistoryRepository cloudInstanceHistoryRepository;
+
+    @Captor private ArgumentCaptor<Collection<CloudInstance>> inserts;
+    @Captor private ArgumentCaptor<Collection<CloudInstance>> updates;
+    @Captor private ArgumentCaptor<CloudInstanceHistory> histories;
+
+    @InjectMocks private AWSCloudCollectorTask task;
+
+    @Test
+    public void collect_insertsNewInstancesAndUpdatesStoredOnes() {
+        CloudInstance stored = instance(ACCOUNT1, "i-2");
+        stored.setId(ObjectId.get());
+        stored.setImageExpirationDate(5L);
+        stored.setImageApproved(true);
+        when(cloudInstanceRepository.findByInstanceIdIn(Arrays.asList("i-1", "i-2")))
+                .thenReturn(Collections.singletonList(stored));
+        stubInstancePages(page(ACCOUNT1, instance(ACCOUNT1, "i-1"), instance(ACCOUNT1, "i-2")));
+
+        task.collect(AWSCloudCollector.prototype());
+
+        verify(cloudInstanceRepository).bulkWrite(inserts.capture(), updates.capture(),
+                eq(Collections.<CloudInstance>emptyList()));
+        assertEquals(1, inserts.getValue().size());
+        assertEquals("i-1", inserts.getValue().iterator().next().getInstanceId());
+        assertEquals(1, updates.getValue().size());
+        CloudInstance updated = updates.getValue().iterator().next();
+        assertEquals("i-2", updated.getInstanceId());
+        assertEquals(stored.getId(), updated.getId());
+        assertEquals(5L, updated.getImageExpirationDate());
+        assertTrue(updated.isImageApproved());
+    }
+
+    @Test
+    public void collect_deletesInstancesNotCollectedPerAccount() {
+        stubInstancePages(
+                page(ACCOUNT1, instance(ACCOUNT1, "i-1")),
+                page(ACCOUNT1, instance(ACCOUNT1, "i-2")),
+                page(ACCOUNT2, instance(ACCOUNT2, "i-3")));
+
+        task.collect(AWSCloudCollector.prototype());
+
+        verify(cloudInstanceRepository, times(3)).bulkWrite(anyCollectionOf(CloudInstance.class),
+                anyCollectionOf(CloudInstance.class), anyCollectionOf(CloudInstance.class));
+        verify(cloudInstanceRepository).deleteByAccountNumberExcept(ACCOUNT1, new HashSet<>(Arrays.asList("i-1", "i-2")));
+        verify(cloudInstanceRepository).deleteByAccountNumberExcept(ACCOUNT2, Collections.singleton("i-3"));
+        verify(cloudInstanceHistoryRepository, times(2)).save(histories.capture());
+        assertEquals(ACCOUNT1, histories.getAllValues().get(0).getAccountNumber());
+        assertEquals(2, histories.getAllValues().get(0).getTotal());
+        assertEquals(ACCOUNT2, histories.getAllValues().get(1).getAccountNumber());
+        assertEquals(1, histories.getAllValues().get(1).getTotal());
+    }
+
+    @Test
+    public void collect_noInstances_nothingDeleted() {
+        task.collect(AWSCloudCollector.prototype());
+
+        verify(cloudInstanceRepository, never()).deleteByAccountNumberExcept(anyString(), anyCollectionOf(String.class));
+        verify(cloudInstanceRepository, never()).findByInstanceIdIn(anyListOf(String.class));
+        verify(cloudInstanceHistoryRepository, never()).save(any(CloudInstanceHistory.class));
+    }
+
+    @SafeVarargs
+    private final void stubInstancePages(final Map<String, List<CloudInstance>>... pages) {
+        doAnswer(new Answer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(InvocationOnMock invocation) {
+                CloudPageHandler<CloudInstance> handler = (CloudPageHandler<CloudInstance>) invocation.getArguments()[1];
+                for (Map<String, List<CloudInstance>> page : pages) {
+                    handler.handle(page);
+                }
+                return null;
+            }
+        }).when(cloudClient).getCloudInstances(eq(cloudInstanceRepository), any(CloudPageHandler.class));
+    }
+
+    private static Map<String, List<CloudInstance>> page(String account, CloudInstance... instances) {
+        Map<String, List<CloudInstance>> page = new LinkedHashMap<>();
+        page.put(account, Arrays.asList(instances));
+        return page;
+    }
+
+    private static CloudInstance instance(String account, String instanceId) {
+        CloudInstance instance = new CloudInstance();
+        instance.setAccountNumber(account);
+        instance.setInstanceId(instanceId);
+        return instance;
+    }
+}
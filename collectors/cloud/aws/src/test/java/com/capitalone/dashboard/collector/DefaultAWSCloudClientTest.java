@@ -1,12 +1,15 @@
 package com.capitalone.dashboard.collector;
 
 import com.amazonaws.services.autoscaling.AmazonAutoScaling;
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingInstancesRequest;
 import com.amazonaws.services.autoscaling.model.DescribeAutoScalingInstancesResult;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClient;
 import com.amazonaws.services.cloudwatch.model.GetMetricStatisticsRequest;
 import com.amazonaws.services.cloudwatch.model.GetMetricStatisticsResult;
 import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.DescribeVolumesRequest;
 import com.amazonaws.services.ec2.model.DescribeVolumesResult;
 import com.capitalone.dashboard.model.CloudInstance;
 import com.capitalone.dashboard.model.CloudVolumeStorage;
@@ -17,15 +20,18 @@ import com.google.gson.Gson;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
@@ -100,8 +106,8 @@ public class DefaultAWSCloudClientTest {
 
     @Test
     public void getCloundInstances() throws Exception {
-        when(ec2Client.describeInstances()).thenReturn(describeInstancesResult);
-        when(autoScalingClient.describeAutoScalingInstances()).thenReturn(describeAutoScalingInstancesResult);
+        when(ec2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(describeInstancesResult);
+        when(autoScalingClient.describeAutoScalingInstances(any(DescribeAutoScalingInstancesRequest.class))).thenReturn(describeAutoScalingInstancesResult);
 
         when(settings.getProxyHost()).thenReturn("http://myproxy.com");
         when(settings.getProxyPort()).thenReturn("8080");
@@ -149,10 +155,86 @@ public class DefaultAWSCloudClientTest {
     }
 
 
+    @Test
+    public void getMetricReusesMetricOfSameHour() throws Exception {
+        when(settings.getProxyHost()).thenReturn("http://myproxy.com");
+        when(settings.getProxyPort()).thenReturn("8080");
+        when(settings.getProfile()).thenReturn("ABCDEG");
+        when(settings.getNonProxy()).thenReturn("localhost");
+        when(settings.getMetricCacheMinutes()).thenReturn(60);
+
+        defaultAWSCloudClient = new DefaultAWSCloudClient(settings);
+        defaultAWSCloudClient.setCloudWatchClient(cloudWatchClient);
+        when(cloudWatchClient.getMetricStatistics(any(GetMetricStatisticsRequest.class))).thenReturn(cpuMetric);
+        long hour = TimeUnit.HOURS.toMillis(1);
+        long previousHour = System.currentTimeMillis() / hour * hour - hour;
+
+        // two runs within the same hour
+        assertEquals(defaultAWSCloudClient.getLastHourInstanceNetworkIn("i-12345678", previousHour + TimeUnit.MINUTES.toMillis(10)), new Double(1.263));
+        assertEquals(defaultAWSCloudClient.getLastHourInstanceNetworkIn("i-12345678", previousHour + TimeUnit.MINUTES.toMillis(20)), new Double(1.263));
+        ArgumentCaptor<GetMetricStatisticsRequest> request = ArgumentCaptor.forClass(GetMetricStatisticsRequest.class);
+        verify(cloudWatchClient, times(1)).getMetricStatistics(request.capture());
+        assertEquals(previousHour, request.getValue().getStartTime().getTime());
+    }
+
+    @Test
+    public void getMetricRequestsMetricOfOtherHour() throws Exception {
+        when(settings.getProxyHost()).thenReturn("http://myproxy.com");
+        when(settings.getProxyPort()).thenReturn("8080");
+        when(settings.getProfile()).thenReturn("ABCDEG");
+        when(settings.getNonProxy()).thenReturn("localhost");
+        when(settings.getMetricCacheMinutes()).thenReturn(60);
+
+        defaultAWSCloudClient = new DefaultAWSCloudClient(settings);
+        defaultAWSCloudClient.setCloudWatchClient(cloudWatchClient);
+        when(cloudWatchClient.getMetricStatistics(any(GetMetricStatisticsRequest.class))).thenReturn(cpuMetric);
+        long hour = TimeUnit.HOURS.toMillis(1);
+        long previousHour = System.currentTimeMillis() / hour * hour - hour;
+
+        defaultAWSCloudClient.getLastHourInstanceNetworkIn("i-12345678", previousHour + TimeUnit.MINUTES.toMillis(10));
+        defaultAWSCloudClient.getLastHourInstanceNetworkIn("i-12345678", previousHour - TimeUnit.MINUTES.toMillis(50));
+        defaultAWSCloudClient.getLastHourIntanceNetworkOut("i-12345678", previousHour + TimeUnit.MINUTES.toMillis(10));
+        verify(cloudWatchClient, times(3)).getMetricStatistics(any(GetMetricStatisticsRequest.class));
+    }
+
+    @Test
+    public void getCloudInstancesFollowsNextToken() throws Exception {
+        DescribeInstancesResult firstPage = new DescribeInstancesResult()
+                .withReservations(describeInstancesResult.getReservations())
+                .withNextToken("page2");
+        when(ec2Client.describeInstances(any(DescribeInstancesRequest.class)))
+                .thenReturn(firstPage, describeInstancesResult);
+        when(autoScalingClient.describeAutoScalingInstances(any(DescribeAutoScalingInstancesRequest.class)))
+                .thenReturn(describeAutoScalingInstancesResult);
+
+        when(settings.getProxyHost()).thenReturn("http://myproxy.com");
+        when(settings.getProxyPort()).thenReturn("8080");
+        when(settings.getProfile()).thenReturn("ABCDEG");
+        when(settings.getNonProxy()).thenReturn("localhost");
+
+        defaultAWSCloudClient = new DefaultAWSCloudClient(settings);
+        defaultAWSCloudClient.setEc2Client(ec2Client);
+        defaultAWSCloudClient.setAutoScalingClient(autoScalingClient);
+        defaultAWSCloudClient.setCloudWatchClient(cloudWatchClient);
+        when(cloudWatchClient.getMetricStatistics(any(GetMetricStatisticsRequest.class))).thenReturn(new GetMetricStatisticsResult());
+        final List<Map<String, List<CloudInstance>>> pages = new ArrayList<>();
+        defaultAWSCloudClient.getCloudInstances(cloudInstanceRepository, new CloudPageHandler<CloudInstance>() {
+            @Override
+            public void handle(Map<String, List<CloudInstance>> page) {
+                pages.add(page);
+            }
+        });
+
+        assertEquals(2, pages.size());
+        assertEquals(2, pages.get(0).get(ACCOUNT).size());
+        assertEquals(2, pages.get(1).get(ACCOUNT).size());
+        verify(ec2Client, times(2)).describeInstances(any(DescribeInstancesRequest.class));
+    }
+
     @Test
     public void getCloundInstancesEmpty() throws Exception {
-        when(ec2Client.describeInstances()).thenReturn(new DescribeInstancesResult());
-        when(autoScalingClient.describeAutoScalingInstances()).thenReturn(new DescribeAutoScalingInstancesResult());
+        when(ec2Client.describeInstances(any(DescribeInstancesRequest.class))).thenReturn(new DescribeInstancesResult());
+        when(autoScalingClient.describeAutoScalingInstances(any(DescribeAutoScalingInstancesRequest.class))).thenReturn(new DescribeAutoScalingInstancesResult());
 
         when(settings.getProxyHost()).thenReturn("http://myproxy.com");
         when(settings.getProxyPort()).thenReturn("8080");
@@ -171,7 +253,7 @@ public class DefaultAWSCloudClientTest {
 
     @Test
     public void getCloudVolumes() throws Exception {
-        when(ec2Client.describeVolumes()).thenReturn(describeVolumesResult);
+        when(ec2Client.describeVolumes(any(DescribeVolumesRequest.class))).thenReturn(describeVolumesResult);
         when(settings.getProxyHost()).thenReturn("http://myproxy.com");
         when(settings.getProxyPort()).thenReturn("8080");
         when(settings.getProfile()).thenReturn("ABCDEG");
@@ -217,7 +299,7 @@ public class DefaultAWSCloudClientTest {
 
     @Test
     public void getCloudVolumesEmpty() throws Exception {
-        when(ec2Client.describeVolumes()).thenReturn(new DescribeVolumesResult());
+        when(ec2Client.describeVolumes(any(DescribeVolumesRequest.class))).thenReturn(new DescribeVolumesResult());
         when(settings.getProxyHost()).thenReturn("http://myproxy.com");
         when(settings.getProxyPort()).thenReturn("8080");
         when(settings.getProfile()).thenReturn("ABCDEG");
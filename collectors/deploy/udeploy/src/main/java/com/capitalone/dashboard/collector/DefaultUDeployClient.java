@@ -4,32 +4,43 @@ import com.capitalone.dashboard.model.Environment;
 import com.capitalone.dashboard.model.EnvironmentComponent;
 import com.capitalone.dashboard.model.UDeployApplication;
 import com.capitalone.dashboard.model.UDeployEnvResCompData;
+import com.capitalone.dashboard.util.JsonCursor;
 import com.capitalone.dashboard.util.Supplier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Component
 public class DefaultUDeployClient implements UDeployClient {
@@ -37,84 +48,86 @@ public class DefaultUDeployClient implements UDeployClient {
 
     private final UDeploySettings uDeploySettings;
     private final RestOperations restOperations;
+    private final ExecutorService executor;
 
     @Autowired
     public DefaultUDeployClient(UDeploySettings uDeploySettings,
                                 Supplier<RestOperations> restOperationsSupplier) {
         this.uDeploySettings = uDeploySettings;
         this.restOperations = restOperationsSupplier.get();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, uDeploySettings.getMaxThreads()),
+                new ThreadFactoryBuilder().setNameFormat("udeploy-environments-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 
     @Override
-    public List<UDeployApplication> getApplications(String instanceUrl) {
-        List<UDeployApplication> applications = new ArrayList<>();
-
-        for (Object item : paresAsArray(makeRestCall(instanceUrl,
-                "deploy/application"))) {
-            JSONObject jsonObject = (JSONObject) item;
-            UDeployApplication application = new UDeployApplication();
-            application.setInstanceUrl(instanceUrl);
-            application.setApplicationName(str(jsonObject, "name"));
-            application.setApplicationId(str(jsonObject, "id"));
-            applications.add(application);
-        }
-        return applications;
+    public List<UDeployApplication> getApplications(final String instanceUrl) {
+        return readArrayOrEmpty(instanceUrl, "deploy/application", new ItemMapper<UDeployApplication>() {
+            @Override
+            public UDeployApplication map(JSONObject jsonObject) {
+                UDeployApplication application = new UDeployApplication();
+                application.setInstanceUrl(instanceUrl);
+                application.setApplicationName(str(jsonObject, "name"));
+                application.setApplicationId(str(jsonObject, "id"));
+                return application;
+            }
+        });
     }
 
     @Override
     public List<Environment> getEnvironments(UDeployApplication application) {
-        List<Environment> environments = new ArrayList<>();
         String url = "deploy/application/" + application.getApplicationId()
                 + "/environments/false";
 
-        for (Object item : paresAsArray(makeRestCall(
-                application.getInstanceUrl(), url))) {
-            JSONObject jsonObject = (JSONObject) item;
-            environments.add(new Environment(str(jsonObject, "id"), str(
-                    jsonObject, "name")));
-        }
-
-        return environments;
+        return readArray(application.getInstanceUrl(), url, new ItemMapper<Environment>() {
+            @Override
+            public Environment map(JSONObject jsonObject) {
+                return new Environment(str(jsonObject, "id"), str(
+                        jsonObject, "name"));
+            }
+        });
     }
 
-    @SuppressWarnings("PMD.AvoidCatchingNPE")
     @Override
     public List<EnvironmentComponent> getEnvironmentComponents(
-            UDeployApplication application, Environment environment) {
-        List<EnvironmentComponent> components = new ArrayList<>();
+            final UDeployApplication application, final Environment environment) {
         String url = "deploy/environment/" + environment.getId()
                 + "/latestDesiredInventory";
-        try {
-            for (Object item : paresAsArray(makeRestCall(
-                    application.getInstanceUrl(), url))) {
-                JSONObject jsonObject = (JSONObject) item;
-
-                JSONObject versionObject = (JSONObject) jsonObject
-                        .get("version");
-                JSONObject componentObject = (JSONObject) jsonObject
-                        .get("component");
-                JSONObject complianceObject = (JSONObject) jsonObject
-                        .get("compliancy");
-
-                EnvironmentComponent component = new EnvironmentComponent();
-                component.setEnvironmentID(environment.getId());
-                component.setEnvironmentName(environment.getName());
-                component.setEnvironmentUrl(normalizeUrl(
-                        application.getInstanceUrl(), "/#environment/"
-                                + environment.getId()));
-                component.setComponentID(str(componentObject, "id"));
-                component.setComponentName(str(componentObject, "name"));
-                component.setComponentVersion(str(versionObject, "name"));
-                component.setDeployed(complianceObject.get("correctCount")
-                        .equals(complianceObject.get("desiredCount")));
-                component.setAsOfDate(date(jsonObject, "date"));
-                components.add(component);
+        return readArrayOrEmpty(application.getInstanceUrl(), url, new ItemMapper<EnvironmentComponent>() {
+            @SuppressWarnings("PMD.AvoidCatchingNPE")
+            @Override
+            public EnvironmentComponent map(JSONObject jsonObject) {
+                try {
+                    JSONObject versionObject = (JSONObject) jsonObject
+                            .get("version");
+                    JSONObject componentObject = (JSONObject) jsonObject
+                            .get("component");
+                    JSONObject complianceObject = (JSONObject) jsonObject
+                            .get("compliancy");
+
+                    EnvironmentComponent component = new EnvironmentComponent();
+                    component.setEnvironmentID(environment.getId());
+                    component.setEnvironmentName(environment.getName());
+                    component.setEnvironmentUrl(normalizeUrl(
+                            application.getInstanceUrl(), "/#environment/"
+                                    + environment.getId()));
+                    component.setComponentID(str(componentObject, "id"));
+                    component.setComponentName(str(componentObject, "name"));
+                    component.setComponentVersion(str(versionObject, "name"));
+                    component.setDeployed(complianceObject.get("correctCount")
+                            .equals(complianceObject.get("desiredCount")));
+                    component.setAsOfDate(date(jsonObject, "date"));
+                    return component;
+                } catch (NullPointerException npe) {
+                    LOGGER.info("No Environment data found, No components deployed");
+                    return null;
+                }
             }
-        } catch (NullPointerException npe) {
-            LOGGER.info("No Environment data found, No components deployed");
-        }
-
-        return components;
+        });
     }
 
     // Called by DefaultEnvironmentStatusUpdater
@@ -128,13 +141,6 @@ public class DefaultUDeployClient implements UDeployClient {
                 + environment.getId() + "/noncompliantResources";
         String urlAllResources = "deploy/environment/" + environment.getId()
                 + "/resources";
-
-        ResponseEntity<String> nonCompliantResourceResponse = makeRestCall(
-                application.getInstanceUrl(), urlNonCompliantResources);
-        JSONArray nonCompliantResourceJSON = paresAsArray(nonCompliantResourceResponse);
-        ResponseEntity<String> allResourceResponse = makeRestCall(
-                application.getInstanceUrl(), urlAllResources);
-        JSONArray allResourceJSON = paresAsArray(allResourceResponse);
 /**
  * New logic - Dec16/2015
  * json has generic parent->children relationship that can be N deep where N can be anything.
@@ -149,61 +155,114 @@ public class DefaultUDeployClient implements UDeployClient {
  */
 
         // Failed to deploy list:
-        Set<String> failedComponents = getFailedComponents(nonCompliantResourceJSON);
+        Set<String> failedComponents = getFailedComponents(application, urlNonCompliantResources);
+        // Only the deployed leaves of each resource tree are kept while the response is read
+        List<JSONObject> deployedChildren = getDeployedChildren(application, urlAllResources);
         Map<String, List<String>> versionFileMap = new HashMap<>();
-        for (Object item : allResourceJSON) {
-            JSONObject jsonObject = (JSONObject) item;
-            if (jsonObject == null) continue;
-            JSONArray childArray = getLowestLevelChildren(jsonObject, new JSONArray());
-            if (childArray.isEmpty()) continue;
-            for (Object child : childArray) {
-                JSONObject childObject = (JSONObject) child;
-                JSONArray jsonVersions = (JSONArray) childObject.get("versions");
-                if (jsonVersions == null || jsonVersions.size() == 0) continue;
-                JSONObject versionObject = (JSONObject) jsonVersions.get(0);
-                // get version fileTree and build data.
-                List<String> physicalFileNames = versionFileMap.get(str(versionObject, "id"));
-                if (CollectionUtils.isEmpty(physicalFileNames)) {
-                    physicalFileNames = getPhysicalFileList(application, versionObject);
-                    versionFileMap.put(str(versionObject, "id"), physicalFileNames);
+        for (JSONObject childObject : deployedChildren) {
+            JSONArray jsonVersions = (JSONArray) childObject.get("versions");
+            JSONObject versionObject = (JSONObject) jsonVersions.get(0);
+            // get version fileTree and build data.
+            List<String> physicalFileNames = versionFileMap.get(str(versionObject, "id"));
+            if (CollectionUtils.isEmpty(physicalFileNames)) {
+                physicalFileNames = getPhysicalFileList(application, versionObject);
+                versionFileMap.put(str(versionObject, "id"), physicalFileNames);
+            }
+            for (String fileName : physicalFileNames) {
+                environmentStatuses.add(buildUdeployEnvResCompData(environment, application, versionObject, fileName, childObject, failedComponents));
+            }
+        }
+        return environmentStatuses;
+    }
+
+    @Override
+    public Map<Environment, List<UDeployEnvResCompData>> getEnvironmentResourceStatusData(
+            final UDeployApplication application, List<Environment> environments) {
+        Map<Environment, Future<List<UDeployEnvResCompData>>> futures = new LinkedHashMap<>();
+        for (final Environment environment : environments) {
+            futures.put(environment, executor.submit(new Callable<List<UDeployEnvResCompData>>() {
+                @Override
+                public List<UDeployEnvResCompData> call() {
+                    return getEnvironmentResourceStatusData(application, environment);
                 }
-                for (String fileName : physicalFileNames) {
-                    environmentStatuses.add(buildUdeployEnvResCompData(environment, application, versionObject, fileName, childObject, failedComponents));
+            }));
+        }
+
+        Map<Environment, List<UDeployEnvResCompData>> dataByEnvironment = new LinkedHashMap<>();
+        for (Map.Entry<Environment, Future<List<UDeployEnvResCompData>>> entry : futures.entrySet()) {
+            try {
+                dataByEnvironment.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<List<UDeployEnvResCompData>> future : futures.values()) {
+                    future.cancel(true);
                 }
+                break;
+            } catch (ExecutionException e) {
+                LOGGER.error("Unable to fetch environment " + entry.getKey().getName()
+                        + " of application " + application.getApplicationName(), e.getCause());
             }
         }
-        return environmentStatuses;
+        return dataByEnvironment;
     }
 
-    private List<String> getPhysicalFileList(UDeployApplication application, JSONObject versionObject) {
-        List<String> list = new ArrayList<>();
-        String fileTreeUrl = "deploy/version/" + str(versionObject, "id") + "/fileTree";
-        ResponseEntity<String> fileTreeResponse = makeRestCall(
-                application.getInstanceUrl(), fileTreeUrl);
-        JSONArray fileTreeJson = paresAsArray(fileTreeResponse);
-        for (Object f : fileTreeJson) {
-            JSONObject fileJson = (JSONObject) f;
-            list.add(cleanFileName(str(fileJson, "name"), str(versionObject, "name")));
+    private List<JSONObject> getDeployedChildren(UDeployApplication application, String urlAllResources) {
+        List<List<JSONObject>> childrenByResource = readArray(application.getInstanceUrl(), urlAllResources,
+                new ItemMapper<List<JSONObject>>() {
+                    @Override
+                    public List<JSONObject> map(JSONObject jsonObject) {
+                        List<JSONObject> deployed = new ArrayList<>();
+                        for (Object child : getLowestLevelChildren(jsonObject, new JSONArray())) {
+                            JSONObject childObject = (JSONObject) child;
+                            JSONArray jsonVersions = (JSONArray) childObject.get("versions");
+                            if (jsonVersions != null && !jsonVersions.isEmpty()) {
+                                deployed.add(childObject);
+                            }
+                        }
+                        return deployed;
+                    }
+                });
+        List<JSONObject> children = new ArrayList<>();
+        for (List<JSONObject> resourceChildren : childrenByResource) {
+            children.addAll(resourceChildren);
         }
-        return list;
+        return children;
     }
 
-    private Set<String> getFailedComponents(JSONArray nonCompliantResourceJSON) {
-        HashSet<String> failedComponents = new HashSet<>();
-        for (Object nonCompItem : nonCompliantResourceJSON) {
-            JSONArray nonCompChildrenArray = (JSONArray) ((JSONObject) nonCompItem)
-                    .get("children");
-            for (Object nonCompChildItem : nonCompChildrenArray) {
-                JSONObject nonCompChildObject = (JSONObject) nonCompChildItem;
-                JSONObject nonCompVersionObject = (JSONObject) nonCompChildObject
-                        .get("version");
-                if (nonCompVersionObject == null) continue;
-                JSONObject nonCompComponentObject =
-                        (JSONObject) nonCompVersionObject.get("component");
-                if (nonCompComponentObject != null) {
-                    failedComponents.add(str(nonCompComponentObject, "name"));
-                }
+    private List<String> getPhysicalFileList(UDeployApplication application, final JSONObject versionObject) {
+        String fileTreeUrl = "deploy/version/" + str(versionObject, "id") + "/fileTree";
+        return readArray(application.getInstanceUrl(), fileTreeUrl, new ItemMapper<String>() {
+            @Override
+            public String map(JSONObject fileJson) {
+                return cleanFileName(str(fileJson, "name"), str(versionObject, "name"));
             }
+        });
+    }
+
+    private Set<String> getFailedComponents(UDeployApplication application, String urlNonCompliantResources) {
+        HashSet<String> failedComponents = new HashSet<>();
+        List<List<String>> failedByResource = readArray(application.getInstanceUrl(), urlNonCompliantResources,
+                new ItemMapper<List<String>>() {
+                    @Override
+                    public List<String> map(JSONObject nonCompItem) {
+                        List<String> failed = new ArrayList<>();
+                        JSONArray nonCompChildrenArray = (JSONArray) nonCompItem.get("children");
+                        for (Object nonCompChildItem : nonCompChildrenArray) {
+                            JSONObject nonCompChildObject = (JSONObject) nonCompChildItem;
+                            JSONObject nonCompVersionObject = (JSONObject) nonCompChildObject
+                                    .get("version");
+                            if (nonCompVersionObject == null) continue;
+                            JSONObject nonCompComponentObject =
+                                    (JSONObject) nonCompVersionObject.get("component");
+                            if (nonCompComponentObject != null) {
+                                failed.add(str(nonCompComponentObject, "name"));
+                            }
+                        }
+                        return failed;
+                    }
+                });
+        for (List<String> failed : failedByResource) {
+            failedComponents.addAll(failed);
         }
         return failedComponents;
     }
@@ -254,19 +313,55 @@ public class DefaultUDeployClient implements UDeployClient {
     }
     // ////// Helpers
 
-    private ResponseEntity<String> makeRestCall(String instanceUrl,
-                                                String endpoint) {
+    /**
+     * Calls an endpoint that answers with a JSON array and maps its items one at a time as
+     * they are read off the response stream.
+     *
+     * @throws RestClientException if the endpoint could not be called, so that callers can tell a
+     * failed call from an empty result
+     */
+    private <T> List<T> readArray(String instanceUrl, String endpoint, final ItemMapper<T> mapper) {
         String url = normalizeUrl(instanceUrl, "/rest/" + endpoint);
-        ResponseEntity<String> response = null;
-        try {
-            response = restOperations.exchange(url, HttpMethod.GET,
-                    new HttpEntity<>(createHeaders()), String.class);
+        List<T> items = restOperations.execute(url, HttpMethod.GET, new RequestCallback() {
+            @Override
+            public void doWithRequest(ClientHttpRequest request) throws IOException {
+                request.getHeaders().putAll(createHeaders());
+            }
+        }, new ResponseExtractor<List<T>>() {
+            @Override
+            public List<T> extractData(ClientHttpResponse response) throws IOException {
+                List<T> result = new ArrayList<>();
+                try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+                    if (cursor.enterArray()) {
+                        JSONObject item;
+                        while ((item = cursor.nextObject()) != null) {
+                            T mapped = mapper.map(item);
+                            if (mapped != null) {
+                                result.add(mapped);
+                            }
+                        }
+                    }
+                } catch (JsonProcessingException pe) {
+                    LOGGER.error(pe.getMessage());
+                }
+                return result;
+            }
+        });
+        return items == null ? new ArrayList<T>() : items;
+    }
 
+    /**
+     * Like {@link #readArray(String, String, ItemMapper)}, but logs a failed call and answers
+     * with an empty list.
+     */
+    private <T> List<T> readArrayOrEmpty(String instanceUrl, String endpoint, ItemMapper<T> mapper) {
+        try {
+            return readArray(instanceUrl, endpoint, mapper);
         } catch (RestClientException re) {
-            LOGGER.error("Error with REST url: " + url);
+            LOGGER.error("Error with REST url: " + normalizeUrl(instanceUrl, "/rest/" + endpoint));
             LOGGER.error(re.getMessage());
+            return new ArrayList<>();
         }
-        return response;
     }
 
     private String normalizeUrl(String instanceUrl, String remainder) {
@@ -285,18 +380,6 @@ public class DefaultUDeployClient implements UDeployClient {
         return headers;
     }
 
-    private JSONArray paresAsArray(ResponseEntity<String> response) {
-        if (response == null)
-            return new JSONArray();
-        try {
-            return (JSONArray) new JSONParser().parse(response.getBody());
-        } catch (ParseException pe) {
-            LOGGER.debug(response.getBody());
-            LOGGER.error(pe.getMessage());
-        }
-        return new JSONArray();
-    }
-
     private String str(JSONObject json, String key) {
         Object value = json.get(key);
         return value == null ? null : value.toString();
@@ -306,4 +389,11 @@ public class DefaultUDeployClient implements UDeployClient {
         Object value = jsonObject.get(key);
         return value == null ? 0 : (long) value;
     }
+
+    private interface ItemMapper<T> {
+        /**
+         * @return the mapped item, or null to leave it out
+         */
+        T map(JSONObject item);
+    }
 }
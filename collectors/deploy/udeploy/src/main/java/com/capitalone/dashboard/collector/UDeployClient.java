@@ -7,6 +7,7 @@ import com.capitalone.dashboard.model.UDeployApplication;
 import com.capitalone.dashboard.model.UDeployEnvResCompData;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Client for fetching information from UDeploy.
@@ -26,6 +27,7 @@ public interface UDeployClient {
      *
      * @param application a {@link UDeployApplication}
      * @return list of {@link Environment}s
+     * @throws org.springframework.web.client.RestClientException if the environments could not be fetched
      */
     List<Environment> getEnvironments(UDeployApplication application);
 
@@ -44,6 +46,19 @@ public interface UDeployClient {
      * @param application a {@link UDeployApplication}
      * @param environment an {@link Environment}
      * @return list of {@link EnvironmentStatus}es
+     * @throws org.springframework.web.client.RestClientException if the data could not be fetched
      */
     List<UDeployEnvResCompData> getEnvironmentResourceStatusData(UDeployApplication application, Environment environment);
+
+    /**
+     * Fetches the {@link UDeployEnvResCompData} of several {@link Environment}s of a
+     * {@link UDeployApplication} concurrently.
+     *
+     * @param application a {@link UDeployApplication}
+     * @param environments {@link Environment}s of the application
+     * @return data per environment, in the order of the environments. Environments whose data
+     * could not be fetched are left out.
+     */
+    Map<Environment, List<UDeployEnvResCompData>> getEnvironmentResourceStatusData(UDeployApplication application,
+                                                                                   List<Environment> environments);
 }
@@ -1,6 +1,5 @@
 package com.capitalone.dashboard.collector;
 
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Environment;
 import com.capitalone.dashboard.model.EnvironmentComponent;
@@ -9,13 +8,10 @@ import com.capitalone.dashboard.model.UDeployApplication;
 import com.capitalone.dashboard.model.UDeployCollector;
 import com.capitalone.dashboard.model.UDeployEnvResCompData;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.EnvironmentComponentRepository;
 import com.capitalone.dashboard.repository.EnvironmentStatusRepository;
 import com.capitalone.dashboard.repository.UDeployApplicationRepository;
 import com.capitalone.dashboard.repository.UDeployCollectorRepository;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import org.apache.commons.lang3.StringUtils;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -23,10 +19,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,7 +37,6 @@ import java.util.Set;
  */
 @Component
 public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
-    @SuppressWarnings({"unused", "PMD.UnusedPrivateField"})
     private static final Logger LOGGER = LoggerFactory.getLogger(UDeployCollectorTask.class);
 
     private final UDeployCollectorRepository uDeployCollectorRepository;
@@ -46,7 +47,7 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
     private final EnvironmentComponentRepository envComponentRepository;
     private final EnvironmentStatusRepository environmentStatusRepository;
 
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public UDeployCollectorTask(TaskScheduler taskScheduler,
@@ -55,7 +56,7 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
                                 EnvironmentComponentRepository envComponentRepository,
                                 EnvironmentStatusRepository environmentStatusRepository,
                                 UDeploySettings uDeploySettings, UDeployClient uDeployClient,
-                                ComponentRepository dbComponentRepository) {
+                                DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "UDeploy");
         this.uDeployCollectorRepository = uDeployCollectorRepository;
         this.uDeployApplicationRepository = uDeployApplicationRepository;
@@ -63,7 +64,7 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
         this.uDeployClient = uDeployClient;
         this.envComponentRepository = envComponentRepository;
         this.environmentStatusRepository = environmentStatusRepository;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -104,31 +105,9 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
      *
      * @param collector the {@link UDeployCollector}
      */
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
     private void clean(UDeployCollector collector) {
         deleteUnwantedJobs(collector);
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if (comp.getCollectorItems() == null || comp.getCollectorItems().isEmpty()) continue;
-            List<CollectorItem> itemList = comp.getCollectorItems().get(
-                    CollectorType.Deployment);
-            if (itemList == null) continue;
-            for (CollectorItem ci : itemList) {
-                if (ci == null) continue;
-                uniqueIDs.add(ci.getId());
-            }
-        }
-        List<UDeployApplication> appList = new ArrayList<>();
-        Set<ObjectId> udId = new HashSet< >();
-        udId.add(collector.getId());
-        for (UDeployApplication app : uDeployApplicationRepository.findByCollectorIdIn(udId)) {
-            if (app != null) {
-                app.setEnabled(uniqueIDs.contains(app.getId()));
-                appList.add(app);
-            }
-        }
-        uDeployApplicationRepository.save(appList);
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Deployment);
     }
 
     private void deleteUnwantedJobs(UDeployCollector collector) {
@@ -191,7 +170,8 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
 
     /**
      * For each {@link UDeployApplication}, update the current
-     * {@link EnvironmentComponent}s and {@link EnvironmentStatus}.
+     * {@link EnvironmentComponent}s and {@link EnvironmentStatus}. Only new,
+     * changed and removed documents are written.
      *
      * @param uDeployApplications list of {@link UDeployApplication}s
      */
@@ -201,33 +181,100 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
             List<EnvironmentStatus> statusList = new ArrayList<>();
             long startApp = System.currentTimeMillis();
 
-            for (Environment environment : uDeployClient
-                    .getEnvironments(application)) {
-
-                List<UDeployEnvResCompData> combinedDataList = uDeployClient
-                        .getEnvironmentResourceStatusData(application,
-                                environment);
-
+            List<Environment> environments;
+            try {
+                environments = uDeployClient.getEnvironments(application);
+            } catch (RestClientException re) {
+                // keep what is stored for the application until its environments can be listed
+                LOGGER.error("Unable to fetch environments of application " + application.getApplicationName(), re);
+                continue;
+            }
+            Map<Environment, List<UDeployEnvResCompData>> dataByEnvironment = uDeployClient
+                    .getEnvironmentResourceStatusData(application, environments);
+            // keep what is stored for environments that could not be fetched this run
+            Set<String> missedEnvironments = new HashSet<>();
+            for (Environment environment : environments) {
+                List<UDeployEnvResCompData> combinedDataList = dataByEnvironment.get(environment);
+                if (combinedDataList == null) {
+                    missedEnvironments.add(environment.getName());
+                    continue;
+                }
                 compList.addAll(getEnvironmentComponent(combinedDataList, environment, application));
                 statusList.addAll(getEnvironmentStatus(combinedDataList));
             }
             if (!compList.isEmpty()) {
-                List<EnvironmentComponent> existingComponents = envComponentRepository
-                        .findByCollectorItemId(application.getId());
-                envComponentRepository.delete(existingComponents);
-                envComponentRepository.save(compList);
+                updateComponents(application, compList, missedEnvironments);
             }
             if (!statusList.isEmpty()) {
-                List<EnvironmentStatus> existingStatuses = environmentStatusRepository
-                        .findByCollectorItemId(application.getId());
-                environmentStatusRepository.delete(existingStatuses);
-                environmentStatusRepository.save(statusList);
+                updateStatuses(application, statusList, missedEnvironments);
             }
 
             log(" " + application.getApplicationName(), startApp);
         }
     }
 
+    private void updateComponents(UDeployApplication application, List<EnvironmentComponent> compList,
+                                  Set<String> missedEnvironments) {
+        ExistingDocuments<EnvironmentComponent> existingComponents = new ExistingDocuments<>();
+        for (EnvironmentComponent existing : envComponentRepository.findByCollectorItemId(application.getId())) {
+            if (!missedEnvironments.contains(existing.getEnvironmentName())) {
+                existingComponents.add(key(existing), existing);
+            }
+        }
+
+        List<EnvironmentComponent> saveList = new ArrayList<>();
+        for (EnvironmentComponent component : compList) {
+            EnvironmentComponent existing = existingComponents.take(key(component));
+            if (existing == null) {
+                saveList.add(component);
+            } else if (changed(component, existing)) {
+                component.setId(existing.getId());
+                saveList.add(component);
+            }
+        }
+        List<EnvironmentComponent> deleteList = existingComponents.remaining();
+
+        if (!deleteList.isEmpty()) {
+            envComponentRepository.delete(deleteList);
+        }
+        if (!saveList.isEmpty()) {
+            envComponentRepository.save(saveList);
+        }
+        LOGGER.debug("{} components: {} saved, {} deleted", application.getApplicationName(),
+                saveList.size(), deleteList.size());
+    }
+
+    private void updateStatuses(UDeployApplication application, List<EnvironmentStatus> statusList,
+                                Set<String> missedEnvironments) {
+        ExistingDocuments<EnvironmentStatus> existingStatuses = new ExistingDocuments<>();
+        for (EnvironmentStatus existing : environmentStatusRepository.findByCollectorItemId(application.getId())) {
+            if (!missedEnvironments.contains(existing.getEnvironmentName())) {
+                existingStatuses.add(key(existing), existing);
+            }
+        }
+
+        List<EnvironmentStatus> saveList = new ArrayList<>();
+        for (EnvironmentStatus status : statusList) {
+            EnvironmentStatus existing = existingStatuses.take(key(status));
+            if (existing == null) {
+                saveList.add(status);
+            } else if (changed(status, existing)) {
+                status.setId(existing.getId());
+                saveList.add(status);
+            }
+        }
+        List<EnvironmentStatus> deleteList = existingStatuses.remaining();
+
+        if (!deleteList.isEmpty()) {
+            environmentStatusRepository.delete(deleteList);
+        }
+        if (!saveList.isEmpty()) {
+            environmentStatusRepository.save(saveList);
+        }
+        LOGGER.debug("{} statuses: {} saved, {} deleted", application.getApplicationName(),
+                saveList.size(), deleteList.size());
+    }
+
     private List<UDeployApplication> enabledApplications(
             UDeployCollector collector, String instanceUrl) {
         return uDeployApplicationRepository.findEnabledApplications(
@@ -272,52 +319,55 @@ public class UDeployCollectorTask extends CollectorTask<UDeployCollector> {
                 application.getApplicationId()) == null;
     }
 
-    @SuppressWarnings("unused")
-	private boolean changed(EnvironmentStatus status, EnvironmentStatus existing) {
-        return existing.isOnline() != status.isOnline();
-    }
-
-    @SuppressWarnings("unused")
-	private EnvironmentStatus findExistingStatus(
-            final EnvironmentStatus proposed,
-            List<EnvironmentStatus> existingStatuses) {
-
-        return Iterables.tryFind(existingStatuses,
-                new Predicate<EnvironmentStatus>() {
-                    @Override
-                    public boolean apply(EnvironmentStatus existing) {
-                        return existing.getEnvironmentName().equals(
-                                proposed.getEnvironmentName())
-                                && existing.getComponentName().equals(
-                                proposed.getComponentName())
-                                && existing.getResourceName().equals(
-                                proposed.getResourceName());
-                    }
-                }).orNull();
+    private boolean changed(EnvironmentStatus status, EnvironmentStatus existing) {
+        return existing.isOnline() != status.isOnline()
+                || !StringUtils.equals(existing.getComponentID(), status.getComponentID());
     }
 
-    @SuppressWarnings("unused")
-	private boolean changed(EnvironmentComponent component,
+    private boolean changed(EnvironmentComponent component,
                             EnvironmentComponent existing) {
         return existing.isDeployed() != component.isDeployed()
-                || existing.getAsOfDate() != component.getAsOfDate() || !existing.getComponentVersion().equalsIgnoreCase(component.getComponentVersion());
+                || existing.getAsOfDate() != component.getAsOfDate()
+                || !StringUtils.equalsIgnoreCase(existing.getComponentVersion(), component.getComponentVersion())
+                || !StringUtils.equals(existing.getEnvironmentUrl(), component.getEnvironmentUrl());
+    }
+
+    private static List<String> key(EnvironmentComponent component) {
+        return Arrays.asList(component.getEnvironmentName(), component.getComponentName());
     }
 
-    @SuppressWarnings("unused")
-	private EnvironmentComponent findExistingComponent(
-            final EnvironmentComponent proposed,
-            List<EnvironmentComponent> existingComponents) {
-
-        return Iterables.tryFind(existingComponents,
-                new Predicate<EnvironmentComponent>() {
-                    @Override
-                    public boolean apply(EnvironmentComponent existing) {
-                        return existing.getEnvironmentName().equals(
-                                proposed.getEnvironmentName())
-                                && existing.getComponentName().equals(
-                                proposed.getComponentName());
-
-                    }
-                }).orNull();
+    private static List<String> key(EnvironmentStatus status) {
+        return Arrays.asList(status.getEnvironmentName(), status.getComponentName(), status.getResourceName());
+    }
+
+    /**
+     * Stored documents of an application grouped by key. A component deployed to several
+     * resources of an environment is stored once per resource, so a key can hold several
+     * documents. Whatever is not taken by a collected document is left for deletion.
+     */
+    private static class ExistingDocuments<T> {
+        private final Map<List<String>, Deque<T>> documentsByKey = new HashMap<>();
+
+        void add(List<String> key, T document) {
+            Deque<T> documents = documentsByKey.get(key);
+            if (documents == null) {
+                documents = new ArrayDeque<>();
+                documentsByKey.put(key, documents);
+            }
+            documents.add(document);
+        }
+
+        T take(List<String> key) {
+            Deque<T> documents = documentsByKey.get(key);
+            return documents == null ? null : documents.poll();
+        }
+
+        List<T> remaining() {
+            List<T> remaining = new ArrayList<>();
+            for (Deque<T> documents : documentsByKey.values()) {
+                remaining.addAll(documents);
+            }
+            return remaining;
+        }
     }
 }
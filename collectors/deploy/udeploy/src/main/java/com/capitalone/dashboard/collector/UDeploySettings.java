@@ -15,6 +15,7 @@ public class UDeploySettings {
     private String username;
     private String password;
     private List<String> servers;
+    private int maxThreads = 4;
 
     public String getCron() {
         return cron;
@@ -47,4 +48,12 @@ public class UDeploySettings {
     public void setServers(List<String> servers) {
         this.servers = servers;
     }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
 }
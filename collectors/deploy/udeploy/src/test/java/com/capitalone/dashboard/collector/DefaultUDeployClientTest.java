@@ -10,16 +10,23 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.springframework.http.HttpEntity;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
@@ -50,8 +57,7 @@ public class DefaultUDeployClientTest {
         String instanceUrl = "http://udeploy.com/";
         String appListUrl = "http://udeploy.com/rest/deploy/application";
 
-        when(rest.exchange(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appJson, HttpStatus.OK));
+        stubStreamingCall(appListUrl, appJson);
         List<UDeployApplication> apps = defaultUDeployClient.getApplications(instanceUrl);
         assertThat(apps.size(), is(2));
         assertThat(apps.get(0).getApplicationName(), is("AA-JPetstore"));
@@ -65,15 +71,13 @@ public class DefaultUDeployClientTest {
         String instanceUrl = "http://udeploy.com/";
         String appListUrl = "http://udeploy.com/rest/deploy/application";
 
-        when(rest.exchange(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appJson, HttpStatus.OK));
+        stubStreamingCall(appListUrl, appJson);
         List<UDeployApplication> apps = defaultUDeployClient.getApplications(instanceUrl);
 
         String environments = getJson("environments.json");
         String envUrl = "http://udeploy.com/rest/deploy/application/ad88482e-3577-44cd-a6d8-00056062260b/environments/false";
 
-        when(rest.exchange(eq(envUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(environments, HttpStatus.OK));
+        stubStreamingCall(envUrl, environments);
 
         List<Environment> envs = defaultUDeployClient.getEnvironments(apps.get(0));
 
@@ -94,8 +98,7 @@ public class DefaultUDeployClientTest {
         String instanceUrl = "http://udeploy.com/";
         String appListUrl = "http://udeploy.com/rest/deploy/application";
 
-        when(rest.exchange(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appJson, HttpStatus.OK));
+        stubStreamingCall(appListUrl, appJson);
         List<UDeployApplication> apps = defaultUDeployClient.getApplications(instanceUrl);
 
         String resourceUrl = "http://udeploy.com/rest/deploy/environment/e32de740-160b-4ffb-a63f-0690607d9903/resources";
@@ -110,23 +113,18 @@ public class DefaultUDeployClientTest {
         String fileTree1url = "http://udeploy.com/rest/deploy/version/b9f9ccee-8f08-4c0f-bc22-c68cf4e2089a/fileTree";
         String fileTree2url = "http://udeploy.com/rest/deploy/version/d5fcb7b2-60d5-478a-a4cd-1ec6660e60b9/fileTree";
 
-        when(rest.exchange(eq(envUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(environments, HttpStatus.OK));
+        stubStreamingCall(envUrl, environments);
 
         List<Environment> envs = defaultUDeployClient.getEnvironments(apps.get(0));
 
 
-        when(rest.exchange(eq(resourceUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(resourceJson, HttpStatus.OK));
+        stubStreamingCall(resourceUrl, resourceJson);
 
-        when(rest.exchange(eq(nonCompUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(nonComplianceJson, HttpStatus.OK));
+        stubStreamingCall(nonCompUrl, nonComplianceJson);
 
-        when(rest.exchange(eq(fileTree1url), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(fileTree1, HttpStatus.OK));
+        stubStreamingCall(fileTree1url, fileTree1);
 
-        when(rest.exchange(eq(fileTree2url), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(fileTree2, HttpStatus.OK));
+        stubStreamingCall(fileTree2url, fileTree2);
 
         List<UDeployEnvResCompData> data = defaultUDeployClient.getEnvironmentResourceStatusData(apps.get(0), envs.get(0));
 
@@ -143,9 +141,61 @@ public class DefaultUDeployClientTest {
         assertThat(data.get(1).isOnline(), is(true));
         assertThat(data.get(1).getEnvironmentName(), is("Team1"));
 
+        Map<Environment, List<UDeployEnvResCompData>> dataByEnvironment =
+                defaultUDeployClient.getEnvironmentResourceStatusData(apps.get(0), envs.subList(0, 1));
+        assertThat(dataByEnvironment.size(), is(1));
+        assertThat(dataByEnvironment.get(envs.get(0)).size(), is(2));
     }
 
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void getEnvironmentResourceStatusData_failedEnvironmentLeftOut() throws Exception {
+        UDeployApplication application = new UDeployApplication();
+        application.setInstanceUrl("http://udeploy.com/");
+        Environment fetched = new Environment("env-1", "DEV");
+        Environment failed = new Environment("env-2", "QA");
+        stubStreamingCall("http://udeploy.com/rest/deploy/environment/env-1/resources", "[]");
+        stubStreamingCall("http://udeploy.com/rest/deploy/environment/env-1/noncompliantResources", "[]");
+        when(rest.execute(eq("http://udeploy.com/rest/deploy/environment/env-2/noncompliantResources"),
+                eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("timed out"));
+
+        Map<Environment, List<UDeployEnvResCompData>> dataByEnvironment =
+                defaultUDeployClient.getEnvironmentResourceStatusData(application, Arrays.asList(fetched, failed));
+
+        assertThat(dataByEnvironment.size(), is(1));
+        assertThat(dataByEnvironment.containsKey(fetched), is(true));
+        assertThat(dataByEnvironment.containsKey(failed), is(false));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(expected = ResourceAccessException.class)
+    public void getEnvironments_failedCallThrows() {
+        UDeployApplication application = new UDeployApplication();
+        application.setInstanceUrl("http://udeploy.com/");
+        application.setApplicationId("app-1");
+        when(rest.execute(eq("http://udeploy.com/rest/deploy/application/app-1/environments/false"),
+                eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("timed out"));
+
+        defaultUDeployClient.getEnvironments(application);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubStreamingCall(String url, final String json) {
+        when(rest.execute(eq(url), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        ResponseExtractor<?> extractor = (ResponseExtractor<?>) invocation.getArguments()[3];
+                        return extractor.extractData(new MockClientHttpResponse(
+                                json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+                    }
+                });
+    }
+
     private String getJson(String fileName) throws IOException {
         InputStream inputStream = DefaultUDeployClientTest.class.getResourceAsStream(fileName);
         return IOUtils.toString(inputStream);
@@ -0,0 +1,174 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.Environment;
+import com.capitalone.dashboard.model.EnvironmentComponent;
+import com.capitalone.dashboard.model.EnvironmentStatus;
+import com.capitalone.dashboard.model.UDeployApplication;
+import com.capitalone.dashboard.model.UDeployCollector;
+import com.capitalone.dashboard.model.UDeployEnvResCompData;
+import com.capitalone.dashboard.repository.EnvironmentComponentRepository;
+import com.capitalone.dashboard.repository.EnvironmentStatusRepository;
+import com.capitalone.dashboard.repository.UDeployApplicationRepository;
+import com.capitalone.dashboard.repository.UDeployCollectorRepository;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UDeployCollectorTaskTest {
+
+    private static final String SERVER = "http://udeploy.com";
+
+    @Mock private TaskScheduler taskScheduler;
+    @Mock private UDeployCollectorRepository uDeployCollectorRepository;
+    @Mock private UDeployApplicationRepository uDeployApplicationRepository;
+    @Mock private EnvironmentComponentRepository envComponentRepository;
+    @Mock private EnvironmentStatusRepository environmentStatusRepository;
+    @Mock private UDeploySettings uDeploySettings;
+    @Mock private UDeployClient uDeployClient;
+    @Mock private DashboardCollectorItemService dashboardCollectorItemService;
+
+    @InjectMocks private UDeployCollectorTask task;
+
+    private UDeployCollector collector;
+    private UDeployApplication application;
+    private Environment environment;
+
+    @Before
+    public void setUp() {
+        collector = UDeployCollector.prototype(Collections.singletonList(SERVER));
+        collector.setId(ObjectId.get());
+        application = new UDeployApplication();
+        application.setId(ObjectId.get());
+        application.setInstanceUrl(SERVER);
+        application.setApplicationName("app");
+        environment = new Environment("env-1", "DEV");
+
+        when(uDeployApplicationRepository.findEnabledApplications(collector.getId(), SERVER))
+                .thenReturn(Collections.singletonList(application));
+        when(uDeployClient.getEnvironments(application)).thenReturn(Collections.singletonList(environment));
+    }
+
+    @Test
+    public void collect_writesOnlyChangedComponentsAndStatuses() {
+        stubEnvironmentData(data("web.war", "1.0", "res1", true), data("api.war", "2.0", "res1", true));
+        EnvironmentComponent unchanged = component("web.war", "1.0");
+        EnvironmentComponent outdated = component("api.war", "1.0");
+        EnvironmentComponent removed = component("old.war", "1.0");
+        when(envComponentRepository.findByCollectorItemId(application.getId()))
+                .thenReturn(Arrays.asList(unchanged, outdated, removed));
+        EnvironmentStatus unchangedStatus = status("web.war", "res1", true);
+        when(environmentStatusRepository.findByCollectorItemId(application.getId()))
+                .thenReturn(Collections.singletonList(unchangedStatus));
+
+        task.collect(collector);
+
+        ArgumentCaptor<List<EnvironmentComponent>> savedComponents = listCaptor();
+        verify(envComponentRepository).save(savedComponents.capture());
+        assertEquals(1, savedComponents.getValue().size());
+        assertEquals("api.war", savedComponents.getValue().get(0).getComponentName());
+        assertEquals(outdated.getId(), savedComponents.getValue().get(0).getId());
+        verify(envComponentRepository).delete(Collections.singletonList(removed));
+
+        ArgumentCaptor<List<EnvironmentStatus>> savedStatuses = listCaptor();
+        verify(environmentStatusRepository).save(savedStatuses.capture());
+        assertEquals(1, savedStatuses.getValue().size());
+        assertEquals("api.war", savedStatuses.getValue().get(0).getComponentName());
+        verify(environmentStatusRepository, never()).delete(anyListOf(EnvironmentStatus.class));
+    }
+
+    @Test
+    public void collect_environmentNotFetched_keepsStoredComponents() {
+        Environment other = new Environment("env-2", "QA");
+        when(uDeployClient.getEnvironments(application)).thenReturn(Arrays.asList(environment, other));
+        stubEnvironmentData(data("web.war", "1.0", "res1", true));
+        EnvironmentComponent otherEnvironment = component("web.war", "1.0");
+        otherEnvironment.setEnvironmentName("QA");
+        when(envComponentRepository.findByCollectorItemId(application.getId()))
+                .thenReturn(Arrays.asList(component("web.war", "1.0"), otherEnvironment));
+
+        task.collect(collector);
+
+        verify(envComponentRepository, never()).save(anyListOf(EnvironmentComponent.class));
+        verify(envComponentRepository, never()).delete(anyListOf(EnvironmentComponent.class));
+    }
+
+    @Test
+    public void collect_environmentsNotListed_keepsStoredDocuments() {
+        when(uDeployClient.getEnvironments(application)).thenThrow(new ResourceAccessException("timed out"));
+
+        task.collect(collector);
+
+        verify(uDeployClient, never()).getEnvironmentResourceStatusData(eq(application), anyListOf(Environment.class));
+        verify(envComponentRepository, never()).delete(anyListOf(EnvironmentComponent.class));
+        verify(environmentStatusRepository, never()).delete(anyListOf(EnvironmentStatus.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArgumentCaptor<List<T>> listCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    }
+
+    private void stubEnvironmentData(UDeployEnvResCompData... data) {
+        Map<Environment, List<UDeployEnvResCompData>> dataByEnvironment =
+                Collections.singletonMap(environment, Arrays.asList(data));
+        when(uDeployClient.getEnvironmentResourceStatusData(eq(application), anyListOf(Environment.class)))
+                .thenReturn(dataByEnvironment);
+    }
+
+    private UDeployEnvResCompData data(String componentName, String version, String resource, boolean online) {
+        UDeployEnvResCompData data = new UDeployEnvResCompData();
+        data.setCollectorItemId(application.getId());
+        data.setEnvironmentName(environment.getName());
+        data.setComponentName(componentName);
+        data.setComponentVersion(version);
+        data.setResourceName(resource);
+        data.setDeployed(true);
+        data.setOnline(online);
+        data.setAsOfDate(1L);
+        return data;
+    }
+
+    private EnvironmentComponent component(String componentName, String version) {
+        EnvironmentComponent component = new EnvironmentComponent();
+        component.setId(ObjectId.get());
+        component.setCollectorItemId(application.getId());
+        component.setEnvironmentName(environment.getName());
+        component.setEnvironmentUrl(SERVER + "/#environment/" + environment.getId());
+        component.setComponentName(componentName);
+        component.setComponentVersion(version);
+        component.setDeployed(true);
+        component.setAsOfDate(1L);
+        return component;
+    }
+
+    private EnvironmentStatus status(String componentName, String resource, boolean online) {
+        EnvironmentStatus status = new EnvironmentStatus();
+        status.setId(ObjectId.get());
+        status.setCollectorItemId(application.getId());
+        status.setEnvironmentName(environment.getName());
+        status.setComponentName(componentName);
+        status.setResourceName(resource);
+        status.setOnline(online);
+        return status;
+    }
+}
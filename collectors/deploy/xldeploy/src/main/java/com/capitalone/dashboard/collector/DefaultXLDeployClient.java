@@ -1,8 +1,7 @@
 package com.capitalone.dashboard.collector;
 
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.ParseException;
@@ -23,12 +22,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 import org.w3c.dom.Document;
@@ -65,10 +67,10 @@ public class DefaultXLDeployClient implements XLDeployClient {
 	public List<XLDeployApplication> getApplications(String instanceUrl) {
 		List<XLDeployApplication> applications = new ArrayList<>();
 		
-		ResponseEntity<String> res = makeRestCall(instanceUrl, "repository/query?type=" + UDM_APPLICATION + "&resultsPerPage=-1");
+		Document res = makeRestCall(instanceUrl, "repository/query?type=" + UDM_APPLICATION + "&resultsPerPage=-1");
 		
 		if (res != null) {
-			for (Node n : parseAsList(res.getBody(), "ci")) {
+			for (Node n : parseAsList(res, "ci")) {
 				String nRef = attr(n, "ref");
 				String nType = attr(n, "type");
 				String nName = nRef != null && nRef.matches(".*/[^/]+")? nRef.substring(nRef.lastIndexOf('/') + 1) : null;
@@ -91,10 +93,10 @@ public class DefaultXLDeployClient implements XLDeployClient {
 		List<Environment> environments = new ArrayList<>();
 		
 		// http://localhost:4516/deployit/repository/query?type=udm.Environment
-		ResponseEntity<String> res = makeRestCall(instanceUrl, "repository/query?type=" + UDM_ENVIRONMENT + "&resultsPerPage=-1");
+		Document res = makeRestCall(instanceUrl, "repository/query?type=" + UDM_ENVIRONMENT + "&resultsPerPage=-1");
 		
 		if (res != null) {
-			for (Node n : parseAsList(res.getBody(), "ci")) {
+			for (Node n : parseAsList(res, "ci")) {
 				String nRef = attr(n, "ref");
 				String nType = attr(n, "type");
 				String nName = nRef != null && nRef.matches(".*/[^/]+")? nRef.substring(nRef.lastIndexOf('/') + 1) : null;
@@ -129,12 +131,10 @@ public class DefaultXLDeployClient implements XLDeployClient {
 		
 		
 		
-		ResponseEntity<String> res = makeRestPost(applications.get(0).getInstanceUrl(), 
+		Document doc = makeRestPost(applications.get(0).getInstanceUrl(), 
 				"internal/reports/tasks?filterType=" + paramFilterType + "&begin=" + paramBeginDate + "&end=" + paramEndDate, body);
 		
-		if (res != null) {
-			Document doc = doc(res.getBody());
-			
+		if (doc != null) {
 			for (Node line : asList(doc.getElementsByTagName("lines"))) {
 				Node values = null;
 				for (int i = 0; i < line.getChildNodes().getLength(); ++i) {
@@ -184,35 +184,41 @@ public class DefaultXLDeployClient implements XLDeployClient {
 	
 	// ////// Helpers
 	
-    private ResponseEntity<String> makeRestCall(String instanceUrl, String endpoint) {
-        String url = normalizeUrl(instanceUrl, "/deployit/" + endpoint);
-        ResponseEntity<String> response = null;
-        try {
-            response = restOperations.exchange(url, HttpMethod.GET,
-                    new HttpEntity<>(createHeaders()), String.class);
-
-        } catch (RestClientException re) {
-            LOGGER.error("Error with REST url: " + url);
-            LOGGER.error(re.getMessage());
-        }
-        return response;
+    private Document makeRestCall(String instanceUrl, String endpoint) {
+        return execute(instanceUrl, endpoint, HttpMethod.GET, null);
     }
     
-    private ResponseEntity<String> makeRestPost(String instanceUrl, String endpoint, Object body) {
+    private Document makeRestPost(String instanceUrl, String endpoint, String body) {
+        return execute(instanceUrl, endpoint, HttpMethod.POST, body);
+    }
+    
+    /**
+     * Sends the request and builds the XML document straight from the response stream, so the
+     * body is never held as a String next to its DOM.
+     */
+    private Document execute(String instanceUrl, String endpoint, HttpMethod method, final String body) {
         String url = normalizeUrl(instanceUrl, "/deployit/" + endpoint);
-        ResponseEntity<String> response = null;
         try {
-        	HttpHeaders headers = createHeaders();
-        	headers.setContentType(MediaType.APPLICATION_XML);
-        	
-            response = restOperations.exchange(url, HttpMethod.POST,
-                    new HttpEntity<>(body, headers), String.class);
-
+            return restOperations.execute(url, method, new RequestCallback() {
+                @Override
+                public void doWithRequest(ClientHttpRequest request) throws IOException {
+                    request.getHeaders().putAll(createHeaders());
+                    if (body != null) {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_XML);
+                        StreamUtils.copy(body, StandardCharsets.UTF_8, request.getBody());
+                    }
+                }
+            }, new ResponseExtractor<Document>() {
+                @Override
+                public Document extractData(ClientHttpResponse response) throws IOException {
+                    return doc(response.getBody());
+                }
+            });
         } catch (RestClientException re) {
             LOGGER.error("Error with REST url: " + url);
             LOGGER.error(re.getMessage());
         }
-        return response;
+        return null;
     }
 
     private String normalizeUrl(String instanceUrl, String remainder) {
@@ -232,13 +238,11 @@ public class DefaultXLDeployClient implements XLDeployClient {
     }
     
     // for convenience
-    private List<Node> parseAsList(String body, String tagname) {
-    	if (body == null) {
+    private List<Node> parseAsList(Document doc, String tagname) {
+    	if (doc == null) {
     		return Collections.<Node>emptyList();
     	}
     	
-    	Document doc = doc(body);
-    	
     	NodeList nl = null;
     	
     	if (tagname != null) {
@@ -256,31 +260,16 @@ public class DefaultXLDeployClient implements XLDeployClient {
     	return rt;
     }
     
-    private Document doc(String entity) {
-		Reader reader = null;
-		
+    private Document doc(InputStream entity) {
 		try {
-			reader = new StringReader(entity);
-
 			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			Document d = builder.parse(new InputSource(reader));
-			
-			return d;
+			return builder.parse(new InputSource(entity));
 		} catch (ParserConfigurationException e) {
 			LOGGER.error("Failed to convert to XML DOC", e);
-			LOGGER.debug(entity);
 		} catch (SAXException e) {
 			LOGGER.error("Failed to convert to XML DOC", e);
-			LOGGER.debug(entity);
 		} catch (IOException e) {
 			LOGGER.error("Failed to convert to XML DOC", e);
-			LOGGER.debug(entity);
-		} finally {
-			if (reader != null) { try {
-				reader.close();
-			} catch (IOException e) {
-				LOGGER.error("Failed to close Reader", e);
-			} }
 		}
 		
 		 
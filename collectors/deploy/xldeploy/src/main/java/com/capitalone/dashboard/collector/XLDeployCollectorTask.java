@@ -22,7 +22,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.EnvironmentComponent;
 import com.capitalone.dashboard.model.EnvironmentStatus;
@@ -30,7 +29,6 @@ import com.capitalone.dashboard.model.XLDeployApplication;
 import com.capitalone.dashboard.model.XLDeployApplicationHistoryItem;
 import com.capitalone.dashboard.model.XLDeployCollector;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.EnvironmentStatusRepository;
 import com.capitalone.dashboard.repository.XLDeployApplicationRepository;
 import com.capitalone.dashboard.repository.XLDeployCollectorRepository;
@@ -61,7 +59,7 @@ public class XLDeployCollectorTask extends CollectorTask<XLDeployCollector>{
     @SuppressWarnings({"unused", "PMD.SingularField"}) // might need in future
 	private final EnvironmentStatusRepository environmentStatusRepository;
 
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 	
     @Autowired
 	public XLDeployCollectorTask(TaskScheduler taskScheduler,
@@ -70,7 +68,7 @@ public class XLDeployCollectorTask extends CollectorTask<XLDeployCollector>{
 									XLDeployEnvironmentComponentRepository envComponentRepository,
 						            EnvironmentStatusRepository environmentStatusRepository,
 						            XLDeploySettings xlDeploySettings, XLDeployClient xlDeployClient,
-						            ComponentRepository dbComponentRepository) {
+						            DashboardCollectorItemService dashboardCollectorItemService) {
 		super(taskScheduler, "XLDeploy");
 		this.xlDeployCollectorRepository = xlDeployCollectorRepository;
 		this.xlDeployApplicationRepository = xlDeployApplicationRepository;
@@ -78,7 +76,7 @@ public class XLDeployCollectorTask extends CollectorTask<XLDeployCollector>{
 		this.xlDeploySettings = xlDeploySettings;
         this.envComponentRepository = envComponentRepository;
         this.environmentStatusRepository = environmentStatusRepository;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
 	}
 	
     @Override
@@ -119,31 +117,9 @@ public class XLDeployCollectorTask extends CollectorTask<XLDeployCollector>{
      *
      * @param collector the {@link XLDeployCollector}
      */
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
     private void clean(XLDeployCollector collector) {
-    	deleteUnwantedJobs(collector);
-        Set<ObjectId> uniqueIDs = new HashSet<>();
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if (comp.getCollectorItems() == null || comp.getCollectorItems().isEmpty()) continue;
-            List<CollectorItem> itemList = comp.getCollectorItems().get(
-                    CollectorType.Deployment);
-            if (itemList == null) continue;
-            for (CollectorItem ci : itemList) {
-                if (ci == null) continue;
-                uniqueIDs.add(ci.getId());
-            }
-        }
-        List<XLDeployApplication> appList = new ArrayList<>();
-        Set<ObjectId> udId = new HashSet< >();
-        udId.add(collector.getId());
-        for (XLDeployApplication app : xlDeployApplicationRepository.findByCollectorIdIn(udId)) {
-            if (app != null) {
-                app.setEnabled(uniqueIDs.contains(app.getId()));
-                appList.add(app);
-            }
-        }
-        xlDeployApplicationRepository.save(appList);
+        deleteUnwantedJobs(collector);
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.Deployment);
     }
     
     private void deleteUnwantedJobs(XLDeployCollector collector) {
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.List;
 
@@ -15,14 +16,17 @@ import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.springframework.http.HttpEntity;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 
 import com.capitalone.dashboard.model.Environment;
@@ -52,8 +56,8 @@ public class DefaultXLDeployClientTest {
         String instanceUrl = "http://xldeploy.com:4516";
         String appListUrl = "http://xldeploy.com:4516/deployit/repository/query?type=udm.Application&resultsPerPage=-1";
 
-        when(rest.exchange(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appXml, HttpStatus.OK));
+        when(rest.execute(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(new StreamedResponse(appXml));
         List<XLDeployApplication> apps = defaultXLDeployClient.getApplications(instanceUrl);
         assertThat(apps.size(), is(2));
         assertThat(apps.get(0).getApplicationName(), is("Helloworld"));
@@ -70,8 +74,8 @@ public class DefaultXLDeployClientTest {
         String instanceUrl = "http://xldeploy.com:4516";
         String appListUrl = "http://xldeploy.com:4516/deployit/repository/query?type=udm.Environment&resultsPerPage=-1";
 
-        when(rest.exchange(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appXml, HttpStatus.OK));
+        when(rest.execute(eq(appListUrl), eq(HttpMethod.GET), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(new StreamedResponse(appXml));
         List<Environment> envs = defaultXLDeployClient.getEnvironments(instanceUrl);
         assertThat(envs.size(), is(2));
         assertThat(envs.get(0).getName(), is("Production"));
@@ -95,14 +99,13 @@ public class DefaultXLDeployClientTest {
     	app.setApplicationType("udm.Application");
     	app.setInstanceUrl(instanceUrl);
 
-        @SuppressWarnings("rawtypes")
-		ArgumentCaptor<HttpEntity> entCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+        StreamedResponse response = new StreamedResponse(appHistXml);
         
-        when(rest.exchange(matches(appListUrl), eq(HttpMethod.POST), entCaptor.capture(), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(appHistXml, HttpStatus.OK));
+        when(rest.execute(matches(appListUrl), eq(HttpMethod.POST), Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(response);
         List<XLDeployApplicationHistoryItem> hist = defaultXLDeployClient.getApplicationHistory(app, Calendar.getInstance().getTime(), Calendar.getInstance().getTime());
         
-        assertThat(((String)entCaptor.getValue().getBody()).replaceAll("(\r|\n|\t)", ""), is(appHistPostXml.replaceAll("(\r|\n|\t)", "")));
+        assertThat(response.getRequestBody().replaceAll("(\r|\n|\t)", ""), is(appHistPostXml.replaceAll("(\r|\n|\t)", "")));
         
         assertThat(hist.size(), is(2));
         assertThat(hist.get(0).getEnvironmentName(), is("QA01"));
@@ -123,4 +126,30 @@ public class DefaultXLDeployClientTest {
         InputStream inputStream = DefaultXLDeployClientTest.class.getResourceAsStream(fileName);
         return IOUtils.toString(inputStream);
     }
+    
+    /**
+     * Runs the request callback and hands the canned body to the response extractor, keeping
+     * what the client wrote to the request.
+     */
+    private static class StreamedResponse implements Answer<Object> {
+        private final String body;
+        private String requestBody;
+        
+        StreamedResponse(String body) {
+            this.body = body;
+        }
+        
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+            MockClientHttpRequest request = new MockClientHttpRequest();
+            ((RequestCallback) invocation.getArguments()[2]).doWithRequest(request);
+            requestBody = request.getBodyAsString();
+            ResponseExtractor<?> extractor = (ResponseExtractor<?>) invocation.getArguments()[3];
+            return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+        }
+        
+        String getRequestBody() {
+            return requestBody;
+        }
+    }
 }
@@ -1,8 +1,6 @@
 package com.capitalone.dashboard.client;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.IOException;
 import java.net.Authenticator;
 import java.net.InetSocketAddress;
@@ -14,7 +12,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -26,10 +23,7 @@ import java.util.Map;
 import java.util.Set;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
-import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +37,8 @@ import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.util.concurrent.Promise;
 import com.capitalone.dashboard.util.FeatureSettings;
 import com.capitalone.dashboard.util.FeatureWidgetQueries;
+import com.capitalone.dashboard.util.JsonCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.collect.Lists;
 
 /**
@@ -265,20 +261,11 @@ public class DefaultJiraClient implements JiraClient {
 			request.connect();
 			
 			InputStream in = (InputStream) request.getContent();
-			BufferedReader inReader = new BufferedReader(new InputStreamReader(in, Charset.forName("UTF-8")));
-			StringBuilder sb = new StringBuilder();
-		    
-			int cp;
-		    while ((cp = inReader.read()) != -1) {
-				sb.append((char) cp);		      
-		    } 
-            JSONParser parser = new JSONParser();
 
-            try {
-                JSONArray statuses = (JSONArray) parser.parse(sb.toString());
-
-                for (Object status : statuses) {
-                    JSONObject jsonStatus = (JSONObject) status;
+            try (JsonCursor statuses = new JsonCursor(in)) {
+                statuses.enterArray();
+                JSONObject jsonStatus;
+                while ((jsonStatus = statuses.nextObject()) != null) {
                     String statusName = (String) jsonStatus.get("name");
                     
                     Object statusCategory = jsonStatus.get("statusCategory");
@@ -298,7 +285,7 @@ public class DefaultJiraClient implements JiraClient {
 					
 					statusMap.put(statusName, statusCategoryName);					
                 }
-            } catch (ParseException pe) {
+            } catch (JsonProcessingException pe) {
                 LOGGER.error("Parser exception when parsing statuses", pe);
             } 
         } catch (org.springframework.web.client.RestClientException rce) {
@@ -3,21 +3,15 @@ package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.ChatOpsRepo;
 import com.capitalone.dashboard.model.Collector;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.ChatOpsRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
-import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 
 @Component
@@ -26,19 +20,19 @@ public class ChatOpsCollectorTask extends CollectorTask<Collector> {
     private final BaseCollectorRepository<Collector> collectorRepository;
     private final ChatOpsRepository chatOpsRepository;
     private final ChatOpsSettings chatOpsSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public ChatOpsCollectorTask(TaskScheduler taskScheduler,
                                 BaseCollectorRepository<Collector> collectorRepository,
                                 ChatOpsRepository chatOpsRepository,
                                 ChatOpsSettings chatOpsSettings,
-                                ComponentRepository dbComponentRepository) {
+                                DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "ChatOps");
         this.collectorRepository = collectorRepository;
         this.chatOpsRepository = chatOpsRepository;
         this.chatOpsSettings = chatOpsSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -61,40 +55,8 @@ public class ChatOpsCollectorTask extends CollectorTask<Collector> {
         return chatOpsSettings.getCron();
     }
 
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts") // agreed, fixme
     private void clean(Collector collector) {
-        Set<ObjectId> uniqueIDs = new HashSet<ObjectId>();
-
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository
-                .findAll()) {
-            if ((comp.getCollectorItems() != null)
-                    && !comp.getCollectorItems().isEmpty()) {
-                List<CollectorItem> itemList = comp.getCollectorItems().get(
-                        CollectorType.SCM);
-                if (itemList != null) {
-                    for (CollectorItem ci : itemList) {
-                        if ((ci != null) && (ci.getCollectorId().equals(collector.getId()))) {
-                            uniqueIDs.add(ci.getId());
-                        }
-                    }
-                }
-            }
-        }
-
-        /**
-         * Logic: Get all the collector items from the collector_item collection for this collector.
-         * If their id is in the unique set (above), keep them enabled; else, disable them.
-         */
-        List<ChatOpsRepo> repoList = new ArrayList<ChatOpsRepo>();
-        Set<ObjectId> gitID = new HashSet<ObjectId>();
-        gitID.add(collector.getId());
-        for (ChatOpsRepo repo : chatOpsRepository.findByCollectorIdIn(gitID)) {
-            if (repo != null) {
-                repo.setEnabled(uniqueIDs.contains(repo.getId()));
-                repoList.add(repo);
-            }
-        }
-        chatOpsRepository.save(repoList);
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.SCM);
     }
 
 
@@ -2,17 +2,14 @@ package com.capitalone.dashboard.collector;
 
 
 import com.capitalone.dashboard.model.Collector;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Commit;
 import com.capitalone.dashboard.model.GitRepo;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.GitRepoRepository;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
@@ -20,7 +17,6 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -36,7 +32,7 @@ public class GitCollectorTask extends CollectorTask<Collector> {
     private final CommitRepository commitRepository;
     private final GitClient gitClient;
     private final GitSettings gitSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public GitCollectorTask(TaskScheduler taskScheduler,
@@ -45,14 +41,14 @@ public class GitCollectorTask extends CollectorTask<Collector> {
                             CommitRepository commitRepository,
                             GitClient gitClient,
                             GitSettings gitSettings,
-                            ComponentRepository dbComponentRepository) {
+                            DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "Bitbucket");
         this.collectorRepository = collectorRepository;
         this.gitRepoRepository = gitRepoRepository;
         this.commitRepository = commitRepository;
         this.gitClient = gitClient;
         this.gitSettings = gitSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -82,36 +78,7 @@ public class GitCollectorTask extends CollectorTask<Collector> {
      */
 
     private void clean(Collector collector) {
-        Set<ObjectId> uniqueIDs = new HashSet<ObjectId>();
-        /**
-         * Logic: For each component, retrieve the collector item list of the type SCM.
-         * Store their IDs in a unique set ONLY if their collector IDs match with Bitbucket collectors ID.
-         */
-        for (com.capitalone.dashboard.model.Component comp : dbComponentRepository.findAll()) {
-            if (comp.getCollectorItems() == null || comp.getCollectorItems().isEmpty()) continue;
-            List<CollectorItem> itemList = comp.getCollectorItems().get(CollectorType.SCM);
-            if (itemList == null) continue;
-            for (CollectorItem ci : itemList) {
-                if (ci != null && ci.getCollectorId().equals(collector.getId())) {
-                    uniqueIDs.add(ci.getId());
-                }
-            }
-        }
-
-        /**
-         * Logic: Get all the collector items from the collector_item collection for this collector.
-         * If their id is in the unique set (above), keep them enabled; else, disable them.
-         */
-        List<GitRepo> repoList = new ArrayList<GitRepo>();
-        Set<ObjectId> gitID = new HashSet<ObjectId>();
-        gitID.add(collector.getId());
-        for (GitRepo repo : gitRepoRepository.findByCollectorIdIn(gitID)) {
-            if (repo != null) {
-                repo.setEnabled(uniqueIDs.contains(repo.getId()));
-                repoList.add(repo);
-            }
-        }
-        gitRepoRepository.save(repoList);
+        dashboardCollectorItemService.updateEnabled(collector, CollectorType.SCM);
     }
 
 
@@ -130,13 +97,14 @@ public class GitCollectorTask extends CollectorTask<Collector> {
             LOG.debug(repo.getOptions().toString() + "::" + repo.getBranch());
             
             List<Commit> commits = gitClient.getCommits(repo, firstRun);
+            Set<String> existingRevisions = commitRepository.findExistingRevisions(repo.getId(), commits);
             List<Commit> newCommits = new ArrayList<>();
             for (Commit commit : commits) {
             	if (LOG.isDebugEnabled()) {
             		LOG.debug(commit.getTimestamp() + ":::" + commit.getScmCommitLog());
             	}
             	
-                if (isNewCommit(repo, commit)) {
+                if (existingRevisions.add(commit.getScmRevisionNumber())) {
                     commit.setCollectorItemId(repo.getId());
                     newCommits.add(commit);
                 }
@@ -168,9 +136,4 @@ public class GitCollectorTask extends CollectorTask<Collector> {
     private List<GitRepo> enabledRepos(Collector collector) {
         return gitRepoRepository.findEnabledGitRepos(collector.getId());
     }
-
-    private boolean isNewCommit(GitRepo repo, Commit commit) {
-        return commitRepository.findByCollectorItemIdAndScmRevisionNumber(
-                repo.getId(), commit.getScmRevisionNumber()) == null;
-    }
 }
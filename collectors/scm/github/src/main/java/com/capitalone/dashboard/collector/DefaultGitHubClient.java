@@ -5,7 +5,9 @@ import com.capitalone.dashboard.model.CommitType;
 import com.capitalone.dashboard.model.GitHubRepo;
 import com.capitalone.dashboard.util.Encryption;
 import com.capitalone.dashboard.util.EncryptionException;
+import com.capitalone.dashboard.util.JsonCursor;
 import com.capitalone.dashboard.util.Supplier;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
@@ -13,17 +15,18 @@ import org.apache.commons.logging.LogFactory;
 import org.joda.time.DateTime;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestOperations;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -128,44 +131,13 @@ public class DefaultGitHubClient implements GitHubClient {
 		String queryUrlPage = queryUrl;
 		while (!lastPage) {
 			try {
-				ResponseEntity<String> response = makeRestCall(queryUrlPage, repo.getUserId(), decryptedPassword);
-				JSONArray jsonArray = paresAsArray(response);
-				for (Object item : jsonArray) {
-					JSONObject jsonObject = (JSONObject) item;
-					String sha = str(jsonObject, "sha");
-					JSONObject commitObject = (JSONObject) jsonObject.get("commit");
-					JSONObject authorObject = (JSONObject) commitObject.get("author");
-					String message = str(commitObject, "message");
-					String author = str(authorObject, "name");
-					long timestamp = new DateTime(str(authorObject, "date"))
-							.getMillis();
-                    JSONArray parents = (JSONArray) jsonObject.get("parents");
-					List<String> parentShas = new ArrayList<>();
-					if (parents != null) {
-						for (Object parentObj : parents) {
-							parentShas.add(str((JSONObject)parentObj, "sha"));
-						}
-					}
-                    
-					Commit commit = new Commit();
-					commit.setTimestamp(System.currentTimeMillis());
-					commit.setScmUrl(repo.getRepoUrl());
-                    commit.setScmBranch(repo.getBranch());
-					commit.setScmRevisionNumber(sha);
-					commit.setScmParentRevisionNumbers(parentShas);
-					commit.setScmAuthor(author);
-					commit.setScmCommitLog(message);
-					commit.setScmCommitTimestamp(timestamp);
-					commit.setNumberOfChanges(1);
-                    commit.setType(getCommitType(CollectionUtils.size(parents), message));
-					commits.add(commit);
-				}
-				if (CollectionUtils.isEmpty(jsonArray)) {
-					lastPage = true;
-				} else {
-					lastPage = isThisLastPage(response);
+				Boolean hasNextPage = makeRestCall(queryUrlPage, repo.getUserId(), decryptedPassword,
+						commitPageExtractor(repo, commits));
+				if (Boolean.TRUE.equals(hasNextPage)) {
 					pageNumber++;
 					queryUrlPage = queryUrl + "&page=" + pageNumber;
+				} else {
+					lastPage = true;
 				}
 
 			} catch (RestClientException re) {
@@ -177,6 +149,63 @@ public class DefaultGitHubClient implements GitHubClient {
 		return commits;
 	}
 
+	/**
+	 * Maps the commits of one page straight off the response stream.
+	 *
+	 * @return extractor answering whether there is a page after this one
+	 */
+	private ResponseExtractor<Boolean> commitPageExtractor(final GitHubRepo repo, final List<Commit> commits) {
+		return new ResponseExtractor<Boolean>() {
+			@Override
+			public Boolean extractData(ClientHttpResponse response) throws IOException {
+				int count = 0;
+				try (JsonCursor cursor = new JsonCursor(response.getBody())) {
+					if (cursor.enterArray()) {
+						JSONObject jsonObject;
+						while ((jsonObject = cursor.nextObject()) != null) {
+							commits.add(toCommit(repo, jsonObject));
+							count++;
+						}
+					}
+				} catch (JsonProcessingException pe) {
+					LOG.error(pe.getMessage());
+					return false;
+				}
+				return count > 0 && !isThisLastPage(response.getHeaders());
+			}
+		};
+	}
+
+	private Commit toCommit(GitHubRepo repo, JSONObject jsonObject) {
+		String sha = str(jsonObject, "sha");
+		JSONObject commitObject = (JSONObject) jsonObject.get("commit");
+		JSONObject authorObject = (JSONObject) commitObject.get("author");
+		String message = str(commitObject, "message");
+		String author = str(authorObject, "name");
+		long timestamp = new DateTime(str(authorObject, "date"))
+				.getMillis();
+		JSONArray parents = (JSONArray) jsonObject.get("parents");
+		List<String> parentShas = new ArrayList<>();
+		if (parents != null) {
+			for (Object parentObj : parents) {
+				parentShas.add(str((JSONObject)parentObj, "sha"));
+			}
+		}
+
+		Commit commit = new Commit();
+		commit.setTimestamp(System.currentTimeMillis());
+		commit.setScmUrl(repo.getRepoUrl());
+		commit.setScmBranch(repo.getBranch());
+		commit.setScmRevisionNumber(sha);
+		commit.setScmParentRevisionNumbers(parentShas);
+		commit.setScmAuthor(author);
+		commit.setScmCommitLog(message);
+		commit.setScmCommitTimestamp(timestamp);
+		commit.setNumberOfChanges(1);
+		commit.setType(getCommitType(CollectionUtils.size(parents), message));
+		return commit;
+	}
+
 	private CommitType getCommitType (int parentSize, String commitMessage ) {
 	    if (parentSize > 1) return CommitType.Merge;
         if (settings.getNotBuiltCommits() == null) return CommitType.New;
@@ -196,8 +225,7 @@ public class DefaultGitHubClient implements GitHubClient {
 		return cal.getTime();
 	}
 
-	private boolean isThisLastPage(ResponseEntity<String> response) {
-		HttpHeaders header = response.getHeaders();
+	private boolean isThisLastPage(HttpHeaders header) {
 		List<String> link = header.get("Link");
 		if (link == null || link.isEmpty()) {
 			return true;
@@ -212,19 +240,19 @@ public class DefaultGitHubClient implements GitHubClient {
 		return true;
 	}
 
-	private ResponseEntity<String> makeRestCall(String url, String userId,
-			String password) {
+	private <T> T makeRestCall(String url, final String userId,
+			final String password, ResponseExtractor<T> extractor) {
 		// Basic Auth only.
+		RequestCallback callback = null;
 		if (!"".equals(userId) && !"".equals(password)) {
-			return restOperations.exchange(url, HttpMethod.GET,
-					new HttpEntity<>(createHeaders(userId, password)),
-					String.class);
-
-		} else {
-			return restOperations.exchange(url, HttpMethod.GET, null,
-					String.class);
+			callback = new RequestCallback() {
+				@Override
+				public void doWithRequest(ClientHttpRequest request) throws IOException {
+					request.getHeaders().putAll(createHeaders(userId, password));
+				}
+			};
 		}
-
+		return restOperations.execute(url, HttpMethod.GET, callback, extractor);
 	}
 
 	private HttpHeaders createHeaders(final String userId, final String password) {
@@ -237,15 +265,6 @@ public class DefaultGitHubClient implements GitHubClient {
 		return headers;
 	}
 
-	private JSONArray paresAsArray(ResponseEntity<String> response) {
-		try {
-			return (JSONArray) new JSONParser().parse(response.getBody());
-		} catch (ParseException pe) {
-			LOG.error(pe.getMessage());
-		}
-		return new JSONArray();
-	}
-
 	private String str(JSONObject json, String key) {
 		Object value = json.get(key);
 		return value == null ? null : value.toString();
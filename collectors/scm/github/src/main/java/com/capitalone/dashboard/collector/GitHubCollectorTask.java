@@ -2,23 +2,18 @@ package com.capitalone.dashboard.collector;
 
 
 import com.capitalone.dashboard.model.Collector;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Commit;
 import com.capitalone.dashboard.model.GitHubRepo;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.GitHubRepoRepository;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -34,7 +29,7 @@ public class GitHubCollectorTask extends CollectorTask<Collector> {
     private final CommitRepository commitRepository;
     private final GitHubClient gitHubClient;
     private final GitHubSettings gitHubSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public GitHubCollectorTask(TaskScheduler taskScheduler,
@@ -43,14 +38,14 @@ public class GitHubCollectorTask extends CollectorTask<Collector> {
                                    CommitRepository commitRepository,
                                    GitHubClient gitHubClient,
                                    GitHubSettings gitHubSettings,
-                                   ComponentRepository dbComponentRepository) {
+                                   DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "GitHub");
         this.collectorRepository = collectorRepository;
         this.gitHubRepoRepository = gitHubRepoRepository;
         this.commitRepository = commitRepository;
         this.gitHubClient = gitHubClient;
         this.gitHubSettings = gitHubSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -79,40 +74,8 @@ public class GitHubCollectorTask extends CollectorTask<Collector> {
 	 * @param collector
 	 *            the {@link Collector}
 	 */
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts") // agreed, fixme
 	private void clean(Collector collector) {
-		Set<ObjectId> uniqueIDs = new HashSet<ObjectId>();
-		/**
-		 * Logic: For each component, retrieve the collector item list of the type SCM.
-		 * Store their IDs in a unique set ONLY if their collector IDs match with GitHub collectors ID.
-		 */
-		for (com.capitalone.dashboard.model.Component comp : dbComponentRepository.findAll()) {
-			if (comp.getCollectorItems() != null && !comp.getCollectorItems().isEmpty()) {
-				List<CollectorItem> itemList = comp.getCollectorItems().get(CollectorType.SCM);
-				if (itemList != null) {
-					for (CollectorItem ci : itemList) {
-						if (ci != null && ci.getCollectorId().equals(collector.getId())){
-							uniqueIDs.add(ci.getId());
-						}
-					}
-				}
-			}
-		}
-
-		/**
-		 * Logic: Get all the collector items from the collector_item collection for this collector.
-		 * If their id is in the unique set (above), keep them enabled; else, disable them.
-		 */
-		List<GitHubRepo> repoList = new ArrayList<>();
-		Set<ObjectId> gitID = new HashSet<>();
-		gitID.add(collector.getId());
-		for (GitHubRepo repo : gitHubRepoRepository.findByCollectorIdIn(gitID)) {
-			if (repo != null) {
-				repo.setEnabled(uniqueIDs.contains(repo.getId()));
-				repoList.add(repo);
-			}
-		}
-		gitHubRepoRepository.save(repoList);
+		dashboardCollectorItemService.updateEnabled(collector, CollectorType.SCM);
 	}
 
 
@@ -132,9 +95,11 @@ public class GitHubCollectorTask extends CollectorTask<Collector> {
             repo.removeLastUpdateDate();  //moved last update date to collector item. This is to clean old data.
             gitHubRepoRepository.save(repo);
             LOG.debug(repo.getOptions().toString()+"::"+repo.getBranch());
-            for (Commit commit : gitHubClient.getCommits(repo, firstRun)) {
+            List<Commit> commits = gitHubClient.getCommits(repo, firstRun);
+            Set<String> existingRevisions = commitRepository.findExistingRevisions(repo.getId(), commits);
+            for (Commit commit : commits) {
             	LOG.debug(commit.getTimestamp()+":::"+commit.getScmCommitLog());
-                if (isNewCommit(repo, commit)) {
+                if (existingRevisions.add(commit.getScmRevisionNumber())) {
                     commit.setCollectorItemId(repo.getId());
                     commitRepository.save(commit);
                     commitCount++;
@@ -154,10 +119,5 @@ public class GitHubCollectorTask extends CollectorTask<Collector> {
         return gitHubRepoRepository.findEnabledGitHubRepos(collector.getId());
     }
 
-    private boolean isNewCommit(GitHubRepo repo, Commit commit) {
-        return commitRepository.findByCollectorItemIdAndScmRevisionNumber(
-                repo.getId(), commit.getScmRevisionNumber()) == null;
-    }
-
 
 }
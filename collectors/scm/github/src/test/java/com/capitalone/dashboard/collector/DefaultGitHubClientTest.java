@@ -0,0 +1,152 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.CommitType;
+import com.capitalone.dashboard.model.GitHubRepo;
+import com.capitalone.dashboard.util.Supplier;
+import org.apache.commons.io.IOUtils;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestOperations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultGitHubClientTest {
+
+    private static final String COMMITS_URL = "https://api.github.com/repos/octocat/hello-world/commits?sha=master&since=";
+    private static final String NEXT_LINK = "<https://api.github.com/repositories/1/commits?page=2>; rel=\"next\"";
+
+    @Mock private Supplier<RestOperations> restOperationsSupplier;
+    @Mock private RestOperations rest;
+    private GitHubSettings settings;
+    private DefaultGitHubClient gitHubClient;
+    private GitHubRepo repo;
+
+    // response per page, in the order the pages are requested
+    private final Map<String, MockClientHttpResponse> pages = new LinkedHashMap<>();
+    private final List<String> requestedUrls = new ArrayList<>();
+
+    @Before
+    public void init() {
+        when(restOperationsSupplier.get()).thenReturn(rest);
+        settings = new GitHubSettings();
+        settings.setNotBuiltCommits(new String[] { "[skip ci]" });
+        gitHubClient = new DefaultGitHubClient(settings, restOperationsSupplier);
+
+        repo = new GitHubRepo();
+        repo.setRepoUrl("https://github.com/octocat/hello-world.git");
+        repo.setBranch("master");
+        repo.setUserId("");
+        repo.setPassword("");
+        stubStreamingCalls();
+    }
+
+    @Test
+    public void getCommits_followsNextLinkUntilLastPage() throws Exception {
+        pages.put("", page(getJson("commits_page1.json"), NEXT_LINK));
+        pages.put("&page=2", page(getJson("commits_page2.json"), null));
+
+        List<Commit> commits = gitHubClient.getCommits(repo, true);
+
+        assertEquals(3, commits.size());
+        assertEquals(2, requestedUrls.size());
+        assertTrue(requestedUrls.get(1).endsWith("&page=2"));
+
+        Commit first = commits.get(0);
+        assertEquals("6dcb09b5b57875f334f61aebed695e2e4193db5e", first.getScmRevisionNumber());
+        assertEquals("Monalisa Octocat", first.getScmAuthor());
+        assertEquals("Fix all the bugs", first.getScmCommitLog());
+        assertEquals(new DateTime("2016-03-01T16:13:30Z").getMillis(), first.getScmCommitTimestamp());
+        assertEquals(Arrays.asList("553c2077f0edc3d5dc5d17262f6aa498e69d6f8e"), first.getScmParentRevisionNumbers());
+        assertEquals("https://github.com/octocat/hello-world.git", first.getScmUrl());
+        assertEquals("master", first.getScmBranch());
+        assertEquals(CommitType.New, first.getType());
+
+        Commit merge = commits.get(1);
+        assertEquals(2, merge.getScmParentRevisionNumbers().size());
+        assertEquals(CommitType.Merge, merge.getType());
+
+        Commit notBuilt = commits.get(2);
+        assertEquals("7638417db6d59f3c431d3e1f261cc637155684cd", notBuilt.getScmRevisionNumber());
+        assertTrue(notBuilt.getScmParentRevisionNumbers().isEmpty());
+        assertEquals(CommitType.NotBuilt, notBuilt.getType());
+    }
+
+    @Test
+    public void getCommits_emptyPageEndsPagingDespiteNextLink() throws Exception {
+        pages.put("", page(getJson("commits_page1.json"), NEXT_LINK));
+        pages.put("&page=2", page("[]", NEXT_LINK));
+
+        List<Commit> commits = gitHubClient.getCommits(repo, true);
+
+        assertEquals(2, commits.size());
+        assertEquals(2, requestedUrls.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getCommits_noCommits() throws Exception {
+        pages.put("", page("[]", null));
+
+        assertTrue(gitHubClient.getCommits(repo, true).isEmpty());
+        verify(rest, times(1)).execute(startsWith(COMMITS_URL), eq(HttpMethod.GET),
+                Matchers.any(RequestCallback.class), Matchers.any(ResponseExtractor.class));
+    }
+
+    private MockClientHttpResponse page(String json, String link) {
+        MockClientHttpResponse response = new MockClientHttpResponse(
+                json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        if (link != null) {
+            response.getHeaders().add("Link", link);
+        }
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubStreamingCalls() {
+        when(rest.execute(startsWith(COMMITS_URL), eq(HttpMethod.GET), Matchers.any(RequestCallback.class),
+                Matchers.any(ResponseExtractor.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        String url = (String) invocation.getArguments()[0];
+                        requestedUrls.add(url);
+                        int pageStart = url.indexOf("&page=");
+                        String page = pageStart < 0 ? "" : url.substring(pageStart);
+                        ResponseExtractor<?> extractor = (ResponseExtractor<?>) invocation.getArguments()[3];
+                        return extractor.extractData(pages.get(page));
+                    }
+                });
+    }
+
+    private String getJson(String fileName) throws IOException {
+        return IOUtils.toString(DefaultGitHubClientTest.class.getResourceAsStream(fileName));
+    }
+}
@@ -2,22 +2,17 @@ package com.capitalone.dashboard.collector;
 
 
 import com.capitalone.dashboard.model.Collector;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Commit;
 import com.capitalone.dashboard.model.GitLabRepo;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import com.capitalone.dashboard.repository.GitLabRepoRepository;
@@ -34,7 +29,7 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
     private final CommitRepository commitRepository;
     private final GitLabClient gitLabClient;
     private final GitLabSettings gitLabSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public GitLabCollectorTask(TaskScheduler taskScheduler,
@@ -43,14 +38,14 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
                                    CommitRepository commitRepository,
                                    GitLabClient gitHubClient,
                                    GitLabSettings gitHubSettings,
-                                   ComponentRepository dbComponentRepository) {
+                                   DashboardCollectorItemService dashboardCollectorItemService) {
         super(taskScheduler, "GitLab");
         this.collectorRepository = collectorRepository;
         this.gitLabRepoRepository = gitHubRepoRepository;
         this.commitRepository = commitRepository;
         this.gitLabClient = gitHubClient;
         this.gitLabSettings = gitHubSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -73,12 +68,6 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
         return gitLabSettings.getCron();
     }
     
-    private List<CollectorItem> getScmCollectors( com.capitalone.dashboard.model.Component comp ) {
-        if (comp.getCollectorItems() != null && !comp.getCollectorItems().isEmpty())
-            return comp.getCollectorItems().get(CollectorType.SCM);
-        return null;
-    }
-
 	/**
 	 * Clean up unused deployment collector items
 	 *
@@ -86,36 +75,7 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
 	 *            the {@link Collector}
 	 */
 	private void clean(Collector collector) {
-		Set<ObjectId> uniqueIDs = new HashSet<>();
-		/**
-		 * Logic: For each component, retrieve the collector item list of the type SCM.
-		 * Store their IDs in a unique set ONLY if their collector IDs match with GitLab collectors ID.
-		 */
-		for (com.capitalone.dashboard.model.Component comp : dbComponentRepository.findAll()) {
-            List<CollectorItem> itemList = getScmCollectors(comp);
-            if (itemList != null) {
-                for (CollectorItem ci : itemList) {
-                    if (ci != null && ci.getCollectorId().equals(collector.getId())){
-                        uniqueIDs.add(ci.getId());
-                    }
-                }
-            }
-		}
-
-		/**
-		 * Logic: Get all the collector items from the collector_item collection for this collector.
-		 * If their id is in the unique set (above), keep them enabled; else, disable them.
-		 */
-		List<GitLabRepo> repoList = new ArrayList<>();
-		Set<ObjectId> gitID = new HashSet<>();
-		gitID.add(collector.getId());
-		for (GitLabRepo repo : gitLabRepoRepository.findByCollectorIdIn(gitID)) {
-			if (repo != null) {
-				repo.setEnabled(uniqueIDs.contains(repo.getId()));
-				repoList.add(repo);
-			}
-		}
-		gitLabRepoRepository.save(repoList);
+		dashboardCollectorItemService.updateEnabled(collector, CollectorType.SCM);
 	}
 
 
@@ -135,9 +95,11 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
             repo.removeLastUpdateDate();  //moved last update date to collector item. This is to clean old data.
             gitLabRepoRepository.save(repo);
             LOG.debug(repo.getOptions().toString()+"::"+repo.getBranch());
-            for (Commit commit : gitLabClient.getCommits(repo, firstRun)) {
+            List<Commit> commits = gitLabClient.getCommits(repo, firstRun);
+            Set<String> existingRevisions = commitRepository.findExistingRevisions(repo.getId(), commits);
+            for (Commit commit : commits) {
             	LOG.debug(commit.getTimestamp()+":::"+commit.getScmCommitLog());
-                if (isNewCommit(repo, commit)) {
+                if (existingRevisions.add(commit.getScmRevisionNumber())) {
                     commit.setCollectorItemId(repo.getId());
                     commitRepository.save(commit);
                     commitCount++;
@@ -157,10 +119,5 @@ public class GitLabCollectorTask extends CollectorTask<Collector> {
         return gitLabRepoRepository.findEnabledGitLabRepos(collector.getId());
     }
 
-    private boolean isNewCommit(GitLabRepo repo, Commit commit) {
-        return commitRepository.findByCollectorItemIdAndScmRevisionNumber(
-                repo.getId(), commit.getScmRevisionNumber()) == null;
-    }
-
 
 }
@@ -1,25 +1,20 @@
 package com.capitalone.dashboard.collector;
 
 import com.capitalone.dashboard.model.Collector;
-import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Commit;
 import com.capitalone.dashboard.model.SubversionRepo;
 import com.capitalone.dashboard.repository.BaseCollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.SubversionRepoRepository;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -36,14 +31,14 @@ public class SubversionCollectorTask extends CollectorTask<Collector> {
     private final CommitRepository commitRepository;
     private final SubversionClient subversionClient;
     private final SubversionSettings subversionSettings;
-    private final ComponentRepository dbComponentRepository;
+    private final DashboardCollectorItemService dashboardCollectorItemService;
 
     @Autowired
     public SubversionCollectorTask(TaskScheduler taskScheduler,
                                    BaseCollectorRepository<Collector> collectorRepository,
                                    SubversionRepoRepository subversionRepoRepository,
                                    CommitRepository commitRepository,
-                                   ComponentRepository dbComponentRepository,
+                                   DashboardCollectorItemService dashboardCollectorItemService,
                                    SubversionClient subversionClient,
                                    SubversionSettings subversionSettings) {
         super(taskScheduler, "Subversion");
@@ -52,7 +47,7 @@ public class SubversionCollectorTask extends CollectorTask<Collector> {
         this.commitRepository = commitRepository;
         this.subversionClient = subversionClient;
         this.subversionSettings = subversionSettings;
-        this.dbComponentRepository = dbComponentRepository;
+        this.dashboardCollectorItemService = dashboardCollectorItemService;
     }
 
     @Override
@@ -78,31 +73,8 @@ public class SubversionCollectorTask extends CollectorTask<Collector> {
 	/**
 	 * Clean up unused deployment collector items
 	 */
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts") // agreed PMD, fixme
 	private void clean(Collector collector) {
-		Set<ObjectId> uniqueIDs = new HashSet<>();
-		for (com.capitalone.dashboard.model.Component comp : dbComponentRepository.findAll()) {
-			if (comp.getCollectorItems() != null && !comp.getCollectorItems().isEmpty()) {
-				List<CollectorItem> itemList = comp.getCollectorItems().get(CollectorType.SCM);
-				if (itemList != null) {
-					for (CollectorItem ci : itemList) {
-						if (ci != null && ci.getCollectorId().equals(collector.getId())){
-							uniqueIDs.add(ci.getId());
-						}
-					}
-				}
-			}
-		}
-		List<SubversionRepo> repoList = new ArrayList<>();
-		Set<ObjectId> svnId = new HashSet<>();
-		svnId.add(collector.getId());
-		for (SubversionRepo repo : subversionRepoRepository.findByCollectorIdIn(svnId)) {
-			if (repo != null) {
-				repo.setEnabled(uniqueIDs.contains(repo.getId()));
-				repoList.add(repo);
-			}
-		}
-		subversionRepoRepository.save(repoList);
+		dashboardCollectorItemService.updateEnabled(collector, CollectorType.SCM);
 	}
 
     @Override
@@ -115,8 +87,10 @@ public class SubversionCollectorTask extends CollectorTask<Collector> {
 
         clean(collector);
         for (SubversionRepo repo : enabledRepos(collector)) {
-            for (Commit commit : subversionClient.getCommits(repo, startRevision(repo))) {
-                if (isNewCommit(repo, commit)) {
+            List<Commit> commits = subversionClient.getCommits(repo, startRevision(repo));
+            Set<String> existingRevisions = commitRepository.findExistingRevisions(repo.getId(), commits);
+            for (Commit commit : commits) {
+                if (existingRevisions.add(commit.getScmRevisionNumber())) {
                     commit.setCollectorItemId(repo.getId());
                     commitRepository.save(commit);
                     commitCount++;
@@ -147,9 +121,4 @@ public class SubversionCollectorTask extends CollectorTask<Collector> {
     private List<SubversionRepo> enabledRepos(Collector collector) {
         return subversionRepoRepository.findEnabledSubversionRepos(collector.getId());
     }
-
-    private boolean isNewCommit(SubversionRepo repo, Commit commit) {
-        return commitRepository.findByCollectorItemIdAndScmRevisionNumber(
-                repo.getId(), commit.getScmRevisionNumber()) == null;
-    }
 }
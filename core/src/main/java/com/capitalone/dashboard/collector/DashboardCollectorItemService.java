@@ -0,0 +1,92 @@
+package com.capitalone.dashboard.collector;
+
+import com.capitalone.dashboard.model.Collector;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the enabled flag of the collector items of a collector in line with the dashboards: items
+ * used by a dashboard component are enabled and collected, all others are disabled. Used by the
+ * clean phase of {@link CollectorTask}s.
+ */
+@Component
+public class DashboardCollectorItemService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardCollectorItemService.class);
+
+    private final ComponentRepository componentRepository;
+    private final CollectorItemRepository collectorItemRepository;
+
+    @Autowired
+    public DashboardCollectorItemService(ComponentRepository componentRepository,
+                                         CollectorItemRepository collectorItemRepository) {
+        this.componentRepository = componentRepository;
+        this.collectorItemRepository = collectorItemRepository;
+    }
+
+    /**
+     * Finds the collector items of a collector that are used by a dashboard component.
+     *
+     * @param collector collector
+     * @param type collector type the collector items are stored under in a component
+     * @return ids of the collector items on a dashboard
+     */
+    public Set<ObjectId> findDashboardCollectorItemIds(Collector collector, CollectorType type) {
+        return componentRepository.findCollectorItemIds(type, collector.getId());
+    }
+
+    /**
+     * Enables the collector items of a collector that are on a dashboard and disables the others,
+     * without reading them.
+     *
+     * @param collector collector
+     * @param type collector type the collector items are stored under in a component
+     */
+    public void updateEnabled(Collector collector, CollectorType type) {
+        Set<ObjectId> dashboardIds = findDashboardCollectorItemIds(collector, type);
+        int changed = collectorItemRepository.updateEnabled(collector.getId(), dashboardIds);
+        LOGGER.debug("{} collector items on a dashboard, {} changed state", dashboardIds.size(), changed);
+    }
+
+    /**
+     * Enables the given collector items that are on a dashboard and disables the others. The
+     * enabled flag of the items is updated too, and only items whose state changed are written.
+     *
+     * @param collector collector
+     * @param type collector type the collector items are stored under in a component
+     * @param items collector items of the collector
+     */
+    public <T extends CollectorItem> void updateEnabled(Collector collector, CollectorType type, Collection<T> items) {
+        Set<ObjectId> dashboardIds = findDashboardCollectorItemIds(collector, type);
+        List<ObjectId> enable = new ArrayList<>();
+        List<ObjectId> disable = new ArrayList<>();
+        for (T item : items) {
+            if (item == null) {
+                continue;
+            }
+            boolean onDashboard = dashboardIds.contains(item.getId());
+            if (item.isEnabled() != onDashboard) {
+                item.setEnabled(onDashboard);
+                (onDashboard ? enable : disable).add(item.getId());
+            }
+        }
+        if (!enable.isEmpty()) {
+            collectorItemRepository.setEnabled(enable, true);
+        }
+        if (!disable.isEmpty()) {
+            collectorItemRepository.setEnabled(disable, false);
+        }
+        LOGGER.debug("{} collector items enabled, {} disabled", enable.size(), disable.size());
+    }
+}
@@ -5,19 +5,16 @@ import com.capitalone.dashboard.model.BuildStatus;
 import com.capitalone.dashboard.model.Collector;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.Commit;
-import com.capitalone.dashboard.model.Component;
-import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.Pipeline;
 import com.capitalone.dashboard.model.PipelineCommit;
 import com.capitalone.dashboard.model.PipelineStageType;
 import com.capitalone.dashboard.model.RepoBranch;
 import com.capitalone.dashboard.model.SCM;
+import com.capitalone.dashboard.model.TeamDashboardCollectorItems;
 import com.capitalone.dashboard.repository.BuildRepository;
 import com.capitalone.dashboard.repository.CollectorItemRepository;
 import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
-import com.capitalone.dashboard.repository.DashboardRepository;
 import com.capitalone.dashboard.repository.PipelineRepository;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +22,7 @@ import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -33,23 +31,22 @@ import java.util.Set;
 
 @org.springframework.stereotype.Component
 public class BuildEventListener extends HygieiaMongoEventListener<Build> {
-    private final DashboardRepository dashboardRepository;
-    private final ComponentRepository componentRepository;
     private final BuildRepository buildRepository;
     private final CommitRepository commitRepository;
+    private final PipelineUpdateQueue pipelineUpdateQueue;
+    private final TeamDashboardIndex teamDashboardIndex;
 
     @Autowired
-    public BuildEventListener(DashboardRepository dashboardRepository,
-                              CollectorItemRepository collectorItemRepository,
-                              ComponentRepository componentRepository,
+    public BuildEventListener(CollectorItemRepository collectorItemRepository,
                               PipelineRepository pipelineRepository,
                               CollectorRepository collectorRepository,
-                              BuildRepository buildRepository, CommitRepository commitRepository) {
+                              BuildRepository buildRepository, CommitRepository commitRepository,
+                              PipelineUpdateQueue pipelineUpdateQueue, TeamDashboardIndex teamDashboardIndex) {
         super(collectorItemRepository, pipelineRepository, collectorRepository);
-        this.dashboardRepository = dashboardRepository;
-        this.componentRepository = componentRepository;
         this.buildRepository = buildRepository;
         this.commitRepository = commitRepository;
+        this.pipelineUpdateQueue = pipelineUpdateQueue;
+        this.teamDashboardIndex = teamDashboardIndex;
     }
 
     @Override
@@ -70,11 +67,9 @@ public class BuildEventListener extends HygieiaMongoEventListener<Build> {
      * @param failedBuild
      */
     private void processFailedBuild(Build failedBuild) {
-        List<Dashboard> teamDashboardsReferencingBuild = findAllDashboardsForBuild(failedBuild);
-        for (Dashboard teamDashboard : teamDashboardsReferencingBuild) {
-            Pipeline pipeline = getOrCreatePipeline(teamDashboard);
-            pipeline.addFailedBuild(failedBuild);
-            pipelineRepository.save(pipeline);
+        for (TeamDashboardCollectorItems teamDashboard : teamDashboardIndex.findByCollectorItemId(failedBuild.getCollectorItemId())) {
+            pipelineUpdateQueue.submit(teamDashboard.getPipelineCollectorItemId(),
+                    pipeline -> pipeline.addFailedBuild(failedBuild));
         }
     }
 
@@ -85,41 +80,45 @@ public class BuildEventListener extends HygieiaMongoEventListener<Build> {
      * @param build
      */
     private void processBuild(Build build) {
-        List<Dashboard> teamDashboardsReferencingBuild = findAllDashboardsForBuild(build);
-
         //for every team dashboard referencing the build, find the pipeline, put this commit in the build stage
-        for (Dashboard teamDashboard : teamDashboardsReferencingBuild) {
-            Pipeline pipeline = getOrCreatePipeline(teamDashboard);
+        for (TeamDashboardCollectorItems teamDashboard : teamDashboardIndex.findByCollectorItemId(build.getCollectorItemId())) {
+            pipelineUpdateQueue.submit(teamDashboard.getPipelineCollectorItemId(),
+                    pipeline -> addBuildToPipeline(build, pipeline));
+        }
+    }
 
-            for (SCM scm : build.getSourceChangeSet()) {
-                PipelineCommit commit = new PipelineCommit(scm, build.getTimestamp());
-                pipeline.addCommit(PipelineStageType.Build.name(), commit);
-            }
+    /**
+     * Puts the commits of a successful build in the build stage of a pipeline. Runs on the pipeline update worker.
+     *
+     * @param build
+     * @param pipeline
+     */
+    private void addBuildToPipeline(Build build, Pipeline pipeline) {
+        for (SCM scm : build.getSourceChangeSet()) {
+            PipelineCommit commit = new PipelineCommit(scm, build.getTimestamp());
+            pipeline.addCommit(PipelineStageType.Build.name(), commit);
+        }
 
-            boolean hasFailedBuilds = !pipeline.getFailedBuilds().isEmpty();
-            processPreviousFailedBuilds(build, pipeline);
-
-
-            /**
-             * If some build events are missed, here is an attempt to move commits to the build stage
-             * This also takes care of the problem with Jenkins first build change set being empty.
-             *
-             * Logic:
-             * If the build start time is after the scm commit, move the commit to build stage. Match the repo at the very least.
-             */
-            Map<String, PipelineCommit> commitStageCommits = pipeline.getCommitsByStage(PipelineStageType.Commit.name());
-            Map<String, PipelineCommit> buildStageCommits = pipeline.getCommitsByStage(PipelineStageType.Build.name());
-            for (String rev : commitStageCommits.keySet()) {
-                PipelineCommit commit = commitStageCommits.get(rev);
-                if ((commit.getScmCommitTimestamp() < build.getStartTime()) && !buildStageCommits.containsKey(rev) && isMoveCommitToBuild(build, commit)) {
-                    pipeline.addCommit(PipelineStageType.Build.name(), commit);
-                }
-            }
-            pipelineRepository.save(pipeline);
-            if (hasFailedBuilds) {
-                buildRepository.save(build);
+        List<SCM> failedBuildChangeSets = processPreviousFailedBuilds(build, pipeline);
+
+
+        /**
+         * If some build events are missed, here is an attempt to move commits to the build stage
+         * This also takes care of the problem with Jenkins first build change set being empty.
+         *
+         * Logic:
+         * If the build start time is after the scm commit, move the commit to build stage. Match the repo at the very least.
+         */
+        Map<String, PipelineCommit> commitStageCommits = pipeline.getCommitsByStage(PipelineStageType.Commit.name());
+        Map<String, PipelineCommit> buildStageCommits = pipeline.getCommitsByStage(PipelineStageType.Build.name());
+        for (String rev : commitStageCommits.keySet()) {
+            PipelineCommit commit = commitStageCommits.get(rev);
+            if ((commit.getScmCommitTimestamp() < build.getStartTime()) && !buildStageCommits.containsKey(rev) && isMoveCommitToBuild(build, commit)) {
+                pipeline.addCommit(PipelineStageType.Build.name(), commit);
             }
         }
+        // the collector may still be saving this build, so only its change set is written
+        buildRepository.addToSourceChangeSet(build.getId(), failedBuildChangeSets);
     }
 
 
@@ -151,14 +150,15 @@ public class BuildEventListener extends HygieiaMongoEventListener<Build> {
 
     /**
      * Iterate over failed builds, if the failed build collector item id matches the successful builds collector item id
-     * take all the commits from the changeset of the failed build and add them to the pipeline and also to the changeset
-     * of the successful build.  Then remove the failed build from the collection after it has been processed.
+     * take all the commits from the changeset of the failed build and add them to the pipeline.  Then remove the failed
+     * build from the collection after it has been processed.
      *
      * @param successfulBuild
      * @param pipeline
+     * @return the changesets of the failed builds, which belong to the changeset of the successful build
      */
-    private void processPreviousFailedBuilds(Build successfulBuild, Pipeline pipeline) {
-
+    private List<SCM> processPreviousFailedBuilds(Build successfulBuild, Pipeline pipeline) {
+        List<SCM> failedBuildChangeSets = new ArrayList<>();
         if (!pipeline.getFailedBuilds().isEmpty()) {
             Iterator<Build> failedBuilds = pipeline.getFailedBuilds().iterator();
 
@@ -168,28 +168,14 @@ public class BuildEventListener extends HygieiaMongoEventListener<Build> {
                     for (SCM scm : b.getSourceChangeSet()) {
                         PipelineCommit failedBuildCommit = new PipelineCommit(scm, successfulBuild.getTimestamp());
                         pipeline.addCommit(PipelineStageType.Build.name(), failedBuildCommit);
-                        successfulBuild.getSourceChangeSet().add(scm);
+                        failedBuildChangeSets.add(scm);
                     }
                     failedBuilds.remove();
 
                 }
             }
         }
-    }
-
-    /**
-     * Finds all of the dashboards for a given build way of the build by:
-     * 1. Get collector item id for the build
-     * 2. Get the build components referencing the build collectoritem
-     * 3. Find all dashboards whose application references the build components
-     *
-     * @param build
-     * @return
-     */
-    private List<Dashboard> findAllDashboardsForBuild(Build build) {
-        CollectorItem buildCollectorItem = collectorItemRepository.findOne(build.getCollectorItemId());
-        List<Component> components = componentRepository.findByBuildCollectorItemId(buildCollectorItem.getId());
-        return dashboardRepository.findByApplicationComponentsIn(components);
+        return failedBuildChangeSets;
     }
 
     private List<Commit> getCommitsFromCommitRepo(SCM scm) {
@@ -0,0 +1,30 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.repository.CloudInstanceHistoryRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the hour, day and week {@link com.capitalone.dashboard.model.CloudInstanceHistoryRollup}s
+ * up to date as {@link CloudInstanceHistory} records are written. History records are only ever
+ * inserted, so every save is added once. Records saved before the rollups existed are added by the
+ * API in the background.
+ */
+@Component
+public class CloudInstanceHistoryEventListener extends AbstractMongoEventListener<CloudInstanceHistory> {
+
+    private final CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
+
+    @Autowired
+    public CloudInstanceHistoryEventListener(CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository) {
+        this.cloudInstanceHistoryRollupRepository = cloudInstanceHistoryRollupRepository;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<CloudInstanceHistory> event) {
+        cloudInstanceHistoryRollupRepository.addToRollups(event.getSource());
+    }
+}
@@ -5,24 +5,21 @@ import com.capitalone.dashboard.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @org.springframework.stereotype.Component
 public class CommitEventListener extends HygieiaMongoEventListener<Commit> {
 
-    private final ComponentRepository componentRepository;
-    private final DashboardRepository dashboardRepository;
+    private final PipelineUpdateQueue pipelineUpdateQueue;
+    private final TeamDashboardIndex teamDashboardIndex;
 
     @Autowired
-    public CommitEventListener(ComponentRepository componentRepository,
-                               DashboardRepository dashboardRepository,
-                               CollectorRepository collectorRepository,
+    public CommitEventListener(CollectorRepository collectorRepository,
                                CollectorItemRepository collectorItemRepository,
-                               PipelineRepository pipelineRepository) {
+                               PipelineRepository pipelineRepository,
+                               PipelineUpdateQueue pipelineUpdateQueue,
+                               TeamDashboardIndex teamDashboardIndex) {
         super(collectorItemRepository, pipelineRepository, collectorRepository);
-        this.componentRepository = componentRepository;
-        this.dashboardRepository = dashboardRepository;
+        this.pipelineUpdateQueue = pipelineUpdateQueue;
+        this.teamDashboardIndex = teamDashboardIndex;
     }
 
     @Override
@@ -33,44 +30,16 @@ public class CommitEventListener extends HygieiaMongoEventListener<Commit> {
         // this commit is part of. But only if there is a build collector item
         // configured on that dashboard. Otherwise, the commit will be orphaned
         // in the commit stage.
-        findAllDashboardsForCommit(commit)
+        teamDashboardIndex.findByCollectorItemId(commit.getCollectorItemId())
                 .stream()
-                .filter(this::dashboardHasBuildCollector)
+                .filter(TeamDashboardCollectorItems::hasBuildCollector)
                 .forEach(teamDashboard -> {
                     if (CommitType.New.equals(commit.getType())) {
                         PipelineCommit pipelineCommit = new PipelineCommit(commit, commit.getScmCommitTimestamp());
-                        Pipeline pipeline = getOrCreatePipeline(teamDashboard);
-                        pipeline.addCommit(PipelineStageType.Commit.name(), pipelineCommit);
-                        pipelineRepository.save(pipeline);
+                        pipelineUpdateQueue.submit(teamDashboard.getPipelineCollectorItemId(),
+                                pipeline -> pipeline.addCommit(PipelineStageType.Commit.name(), pipelineCommit));
                     }
                 });
     }
 
-    /**
-     * Finds all dashboards for a commit by way of the SCM collector item id of the dashboard that is tied to the commit
-     * @param commit
-     * @return
-     */
-    private List<Dashboard> findAllDashboardsForCommit(Commit commit){
-        if (commit.getCollectorItemId() == null) return new ArrayList<>();
-        CollectorItem commitCollectorItem = collectorItemRepository.findOne(commit.getCollectorItemId());
-        List<Component> components = componentRepository.findBySCMCollectorItemId(commitCollectorItem.getId());
-        return dashboardRepository.findByApplicationComponentsIn(components);
-    }
-
-    /**
-     * Returns true if the provided dashboard has a build CollectorItem registered.
-     *
-     * @param teamDashboard a team Dashboard
-     * @return true if build CollectorItem found
-     */
-    private boolean dashboardHasBuildCollector(Dashboard teamDashboard) {
-        return teamDashboard.getApplication().getComponents()
-                .stream()
-                .anyMatch(c -> {
-                    List<CollectorItem> buildCollectorItems = c.getCollectorItems(CollectorType.Build);
-                    return buildCollectorItems != null && !buildCollectorItems.isEmpty();
-                });
-    }
-
 }
@@ -4,9 +4,13 @@ import com.capitalone.dashboard.model.Collector;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.Pipeline;
 import com.capitalone.dashboard.repository.CollectorItemRepository;
 import com.capitalone.dashboard.repository.CollectorRepository;
+import com.capitalone.dashboard.repository.PipelineRepository;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
 import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
@@ -16,19 +20,31 @@ import com.mongodb.DBObject;
 
 /**
  * Listens for Dashboard lifecycle events to create and delete Product collector CollectorItems
- * whenever a Team Dashboard is created or deleted.
+ * whenever a Team Dashboard is created or deleted. The stored pipeline response of a Team Dashboard
+ * and its entry in the {@link TeamDashboardIndex} are recomputed on every save, as its environment
+ * mappings and components may have changed.
  */
 @Component
 public class DashboardEventListener extends AbstractMongoEventListener<Dashboard> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardEventListener.class);
 
     private final CollectorRepository collectorRepository;
     private final CollectorItemRepository collectorItemRepository;
+    private final PipelineRepository pipelineRepository;
+    private final PipelineResponseUpdater pipelineResponseUpdater;
+    private final TeamDashboardIndex teamDashboardIndex;
 
     @Autowired
     public DashboardEventListener(CollectorRepository collectorRepository,
-                                  CollectorItemRepository collectorItemRepository) {
+                                  CollectorItemRepository collectorItemRepository,
+                                  PipelineRepository pipelineRepository,
+                                  PipelineResponseUpdater pipelineResponseUpdater,
+                                  TeamDashboardIndex teamDashboardIndex) {
         this.collectorRepository = collectorRepository;
         this.collectorItemRepository = collectorItemRepository;
+        this.pipelineRepository = pipelineRepository;
+        this.pipelineResponseUpdater = pipelineResponseUpdater;
+        this.teamDashboardIndex = teamDashboardIndex;
     }
 
     /**
@@ -58,6 +74,8 @@ public class DashboardEventListener extends AbstractMongoEventListener<Dashboard
         }
 
         collectorItemRepository.save(item);
+        teamDashboardIndex.update(dashboard, item.getId());
+        updatePipelineResponse(dashboard, item);
     }
 
     /**
@@ -72,6 +90,22 @@ public class DashboardEventListener extends AbstractMongoEventListener<Dashboard
         CollectorItem item = getDashboardCollectorItem(dashboardId, getProductCollector().getId());
         if (item != null) {
             collectorItemRepository.delete(item);
+            pipelineResponseUpdater.delete(item.getId());
+        }
+        teamDashboardIndex.remove(new ObjectId(dashboardId));
+    }
+
+    private void updatePipelineResponse(Dashboard dashboard, CollectorItem item) {
+        Pipeline pipeline = pipelineRepository.findByCollectorItemId(item.getId());
+        if (pipeline == null) {
+            pipeline = new Pipeline();
+            pipeline.setCollectorItemId(item.getId());
+        }
+        try {
+            pipelineResponseUpdater.update(pipeline, dashboard);
+        } catch (IllegalArgumentException e) {
+            // invalid environment mappings, the pipeline widget can not be shown until they are fixed
+            LOGGER.warn("Unable to update pipeline response for dashboard " + dashboard.getId() + ": " + e.getMessage());
         }
     }
 
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,27 +20,27 @@ import java.util.List;
 public class EnvironmentComponentEventListener extends HygieiaMongoEventListener<EnvironmentComponent> {
     private static final Logger LOGGER = LoggerFactory.getLogger(EnvironmentComponentEventListener.class);
 
-    private final DashboardRepository dashboardRepository;
-    private final ComponentRepository componentRepository;
     private final BinaryArtifactRepository binaryArtifactRepository;
     private final BuildRepository buildRepository;
     private final JobRepository<?> jobRepository;
+    private final PipelineResponseUpdater pipelineResponseUpdater;
+    private final TeamDashboardIndex teamDashboardIndex;
 
     @Autowired
-    public EnvironmentComponentEventListener(DashboardRepository dashboardRepository,
-                              CollectorItemRepository collectorItemRepository,
-                              ComponentRepository componentRepository,
+    public EnvironmentComponentEventListener(CollectorItemRepository collectorItemRepository,
                               BinaryArtifactRepository binaryArtifactRepository,
                               PipelineRepository pipelineRepository,
                               CollectorRepository collectorRepository,
                               BuildRepository buildRepository,
-                              JobRepository<?> jobRepository) {
+                              JobRepository<?> jobRepository,
+                              PipelineResponseUpdater pipelineResponseUpdater,
+                              TeamDashboardIndex teamDashboardIndex) {
         super(collectorItemRepository, pipelineRepository, collectorRepository);
-        this.dashboardRepository = dashboardRepository;
-        this.componentRepository = componentRepository;
         this.binaryArtifactRepository = binaryArtifactRepository;
         this.buildRepository = buildRepository;
         this.jobRepository = jobRepository;
+        this.pipelineResponseUpdater = pipelineResponseUpdater;
+        this.teamDashboardIndex = teamDashboardIndex;
     }
 
     @Override
@@ -60,17 +61,16 @@ public class EnvironmentComponentEventListener extends HygieiaMongoEventListener
      * @param environmentComponent
      */
     private void processEnvironmentComponent(EnvironmentComponent environmentComponent) {
-        List<Dashboard> dashboards = findTeamDashboardsForEnvironmentComponent(environmentComponent);
-
-        for (Dashboard dashboard : dashboards) {
-            Pipeline pipeline = getOrCreatePipeline(dashboard);
+        for (TeamDashboardCollectorItems teamDashboard : teamDashboardIndex.findByCollectorItemId(environmentComponent.getCollectorItemId())) {
+            Pipeline pipeline = getOrCreatePipeline(teamDashboard.getPipelineCollectorItemId());
 
         	if (LOGGER.isDebugEnabled()) {
         		LOGGER.debug("Attempting to update pipeline " + pipeline.getId());
         	}
             
             addCommitsToEnvironmentStage(environmentComponent, pipeline);
-            pipelineRepository.save(pipeline);
+            // re-read, other collector processes may have written the pipeline in the meantime
+            pipelineResponseUpdater.update(getOrCreatePipeline(teamDashboard.getPipelineCollectorItemId()));
         }
 
     }
@@ -106,6 +106,8 @@ public class EnvironmentComponentEventListener extends HygieiaMongoEventListener
         List<BinaryArtifact> sortedArtifacts = Lists.newArrayList(artifacts);
         Collections.sort(sortedArtifacts, BinaryArtifact.TIMESTAMP_COMPARATOR);
 
+        List<PipelineCommit> commits = new ArrayList<>();
+
         for(BinaryArtifact artifact : sortedArtifacts){
         	if (LOGGER.isDebugEnabled()) {
         		LOGGER.debug("Processing artifact " + artifact.getArtifactGroupId() + ":" + artifact.getArtifactName() + ":" + artifact.getArtifactVersion());
@@ -122,9 +124,11 @@ public class EnvironmentComponentEventListener extends HygieiaMongoEventListener
 				for (SCM scm : build.getSourceChangeSet()) {
 					PipelineCommit commit = new PipelineCommit(scm, environmentComponent.getAsOfDate());
 					pipeline.addCommit(environmentComponent.getEnvironmentName(), commit);
+					commits.add(commit);
 				}
         	}
         }
+        pipelineRepository.addCommits(pipeline.getCollectorItemId(), environmentComponent.getEnvironmentName(), commits);
 
         /**
          * Update last artifact on the pipeline
@@ -132,6 +136,7 @@ public class EnvironmentComponentEventListener extends HygieiaMongoEventListener
         if(sortedArtifacts != null && !sortedArtifacts.isEmpty()){
             BinaryArtifact lastArtifact = sortedArtifacts.get(sortedArtifacts.size() - 1);
             currentStage.setLastArtifact(lastArtifact);
+            pipelineRepository.setLastArtifact(pipeline.getCollectorItemId(), environmentComponent.getEnvironmentName(), lastArtifact);
         }
     }
     
@@ -186,19 +191,6 @@ public class EnvironmentComponentEventListener extends HygieiaMongoEventListener
     	return build;
     }
 
-    /**
-     * Finds team dashboards for a given environment componentby way of the deploy collector item
-     * @param environmentComponent
-     * @return
-     */
-    private List<Dashboard> findTeamDashboardsForEnvironmentComponent(EnvironmentComponent environmentComponent){
-        List<Dashboard> dashboards;
-        CollectorItem deploymentCollectorItem = collectorItemRepository.findOne(environmentComponent.getCollectorItemId());
-        List<Component> components = componentRepository.findByDeployCollectorItemId(deploymentCollectorItem.getId());
-        dashboards = dashboardRepository.findByApplicationComponentsIn(components);
-        return dashboards;
-    }
-    
     private static class ToCollectorId implements Function<Collector, ObjectId> {
         @Override
         public ObjectId apply(Collector input) {
@@ -58,10 +58,19 @@ public abstract class HygieiaMongoEventListener<T> extends AbstractMongoEventLis
      * @return
      */
     protected Pipeline getOrCreatePipeline(CollectorItem collectorItem) {
-        Pipeline pipeline = pipelineRepository.findByCollectorItemId(collectorItem.getId());
+        return getOrCreatePipeline(collectorItem.getId());
+    }
+
+    /**
+     * Finds or creates a pipeline for a dashboard collectoritem id
+     * @param collectorItemId
+     * @return
+     */
+    protected Pipeline getOrCreatePipeline(ObjectId collectorItemId) {
+        Pipeline pipeline = pipelineRepository.findByCollectorItemId(collectorItemId);
         if(pipeline == null){
             pipeline = new Pipeline();
-            pipeline.setCollectorItemId(collectorItem.getId());
+            pipeline.setCollectorItemId(collectorItemId);
         }
         return pipeline;
     }
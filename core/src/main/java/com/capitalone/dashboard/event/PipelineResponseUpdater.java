@@ -0,0 +1,225 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.EnvironmentStage;
+import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
+import com.capitalone.dashboard.model.PipelineResponse;
+import com.capitalone.dashboard.model.PipelineResponseCommit;
+import com.capitalone.dashboard.model.PipelineStageType;
+import com.capitalone.dashboard.model.Widget;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.PipelineResponseRepository;
+import com.capitalone.dashboard.util.PipelineUtils;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the stored {@link PipelineResponse} of every team dashboard up to date. The response is
+ * recomputed whenever the pipeline or the dashboard (and with it the environment mappings) is
+ * written, so reading the pipeline widget only has to fetch one document.
+ */
+@Component
+public class PipelineResponseUpdater {
+
+    private final CollectorItemRepository collectorItemRepository;
+    private final DashboardRepository dashboardRepository;
+    private final PipelineResponseRepository pipelineResponseRepository;
+
+    @Autowired
+    public PipelineResponseUpdater(CollectorItemRepository collectorItemRepository,
+                                   DashboardRepository dashboardRepository,
+                                   PipelineResponseRepository pipelineResponseRepository) {
+        this.collectorItemRepository = collectorItemRepository;
+        this.dashboardRepository = dashboardRepository;
+        this.pipelineResponseRepository = pipelineResponseRepository;
+    }
+
+    /**
+     * Recomputes and stores the response of a pipeline, looking up its team dashboard
+     * @param pipeline
+     * @return the stored response, or null if the team dashboard of the pipeline no longer exists
+     */
+    public PipelineResponse update(Pipeline pipeline) {
+        Dashboard dashboard = findDashboard(pipeline);
+        return dashboard == null ? null : update(pipeline, dashboard);
+    }
+
+    /**
+     * Computes the response of a pipeline, looking up its team dashboard, without storing it
+     * @param pipeline
+     * @return the response, or null if the team dashboard of the pipeline no longer exists
+     */
+    public PipelineResponse compute(Pipeline pipeline) {
+        Dashboard dashboard = findDashboard(pipeline);
+        return dashboard == null ? null : buildPipelineResponse(pipeline, dashboard);
+    }
+
+    /**
+     * Recomputes and stores the response of a pipeline for its team dashboard
+     * @param pipeline
+     * @param dashboard
+     * @return the stored response
+     */
+    public PipelineResponse update(Pipeline pipeline, Dashboard dashboard) {
+        PipelineResponse pipelineResponse = buildPipelineResponse(pipeline, dashboard);
+        pipelineResponse.setLastUpdated(System.currentTimeMillis());
+        pipelineResponseRepository.save(pipelineResponse);
+        return pipelineResponse;
+    }
+
+    /**
+     * Removes the stored response of a team dashboard collector item
+     * @param collectorItemId
+     */
+    public void delete(ObjectId collectorItemId) {
+        pipelineResponseRepository.delete(collectorItemId);
+    }
+
+    private Dashboard findDashboard(Pipeline pipeline) {
+        CollectorItem dashboardCollectorItem = collectorItemRepository.findOne(pipeline.getCollectorItemId());
+        if (dashboardCollectorItem == null || dashboardCollectorItem.getOptions().get("dashboardId") == null) {
+            return null;
+        }
+        return dashboardRepository.findOne(new ObjectId((String) dashboardCollectorItem.getOptions().get("dashboardId")));
+    }
+
+    private PipelineResponse buildPipelineResponse(Pipeline pipeline, Dashboard dashboard){
+        PipelineResponse pipelineResponse = new PipelineResponse();
+        pipelineResponse.setCollectorItemId(pipeline.getCollectorItemId());
+
+        Map<PipelineStageType, Map<String, PipelineCommit>> commitsByStage = findCommitsByStage(dashboard, pipeline);
+        Map<String, CommitStages> stagesByRevision = indexStagesByRevision(commitsByStage);
+
+        /**
+         * iterate over the pipeline stages (which are ordered as defined in the enum)
+         * **/
+        for(PipelineStageType stage : PipelineStageType.values()){
+            pipelineResponse.getStages().put(stage, findNotPropagatedCommits(commitsByStage.get(stage), stage, stagesByRevision));
+        }
+
+        pipelineResponse.setUnmappedStages(findUnmappedEnvironments(dashboard));
+        return pipelineResponse;
+    }
+
+    /**
+     * finds any environments for a dashboard that aren't mapped.
+     * @param dashboard
+     * @return
+     */
+    private List<PipelineStageType> findUnmappedEnvironments(Dashboard dashboard){
+
+
+        Map<String, String> environmentMappings= new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for(Widget widget : dashboard.getWidgets()) {
+            if (widget.getName().equalsIgnoreCase("pipeline")) {
+                HashMap<?,?> gh = (HashMap<?,?>) widget.getOptions().get("mappings");
+                if (gh == null) {
+                    continue;
+                }
+                for (Map.Entry<?, ?> entry : gh.entrySet()) {
+                    environmentMappings.put((String) entry.getKey(), (String) entry.getValue());
+                }
+            }
+        }
+
+        List<PipelineStageType> unmappedNames = new ArrayList<>();
+        for(PipelineStageType stage : PipelineStageType.values()){
+            if(!stage.equals(PipelineStageType.Build) && !stage.equals(PipelineStageType.Commit)){
+                String mappedName = environmentMappings.get(stage.name());
+                if(mappedName == null || mappedName.isEmpty()){
+                    unmappedNames.add(stage);
+                }
+            }
+
+        }
+
+        return unmappedNames;
+    }
+
+    /**
+     * Gets the commits of every pipeline stage, taking into account the mappings for environment stages. The
+     * environment mappings and the stage names are resolved once for the whole pipeline.
+     * @param dashboard
+     * @param pipeline
+     * @return map of stage to a map of scm revision number and pipeline commit
+     */
+    private Map<PipelineStageType, Map<String, PipelineCommit>> findCommitsByStage(Dashboard dashboard, Pipeline pipeline) {
+        Map<PipelineStageType, String> environmentMappings = dashboard.findEnvironmentMappings();
+        Map<String, EnvironmentStage> stages = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        stages.putAll(pipeline.getStages());
+
+        Map<PipelineStageType, Map<String, PipelineCommit>> commitsByStage = new EnumMap<>(PipelineStageType.class);
+        for(PipelineStageType stageType : PipelineStageType.values()){
+            String mappedName = (stageType.equals(PipelineStageType.Build) || stageType.equals(PipelineStageType.Commit)) ? stageType.name() : environmentMappings.get(stageType);
+            EnvironmentStage stage = mappedName != null ? stages.get(mappedName) : null;
+            Map<String, PipelineCommit> commitMap = new HashMap<>();
+            if(stage != null){
+                commitMap = PipelineUtils.commitSetToMap(stage.getCommits());
+            }
+            commitsByStage.put(stageType, commitMap);
+        }
+        return commitsByStage;
+    }
+
+    /**
+     * Indexes, for every commit in the pipeline, the time it entered each stage and the last stage it reached
+     * @param commitsByStage
+     * @return map of scm revision number and the stages of the commit
+     */
+    private Map<String, CommitStages> indexStagesByRevision(Map<PipelineStageType, Map<String, PipelineCommit>> commitsByStage){
+        Map<String, CommitStages> stagesByRevision = new HashMap<>();
+        for(PipelineStageType stageType : PipelineStageType.values()){
+            for(PipelineCommit commit : commitsByStage.get(stageType).values()){
+                CommitStages commitStages = stagesByRevision.get(commit.getScmRevisionNumber());
+                if(commitStages == null){
+                    commitStages = new CommitStages();
+                    stagesByRevision.put(commit.getScmRevisionNumber(), commitStages);
+                }
+                commitStages.lastStage = stageType;
+                commitStages.timestamps.put(stageType.name(), commit.getTimestamp());
+            }
+        }
+        return stagesByRevision;
+    }
+
+    /**
+     * get the commits for a given stage by finding which commits havent passed to a later stage
+     * @param stageCommits commits of the current stage
+     * @param stage current stage
+     * @param stagesByRevision stages of every commit in the pipeline
+     * @return a list of all commits as pipeline response commits that havent moved past the current stage
+     */
+    private List<PipelineResponseCommit> findNotPropagatedCommits(Map<String, PipelineCommit> stageCommits, PipelineStageType stage, Map<String, CommitStages> stagesByRevision){
+        List<PipelineResponseCommit> notPropagatedCommits = new ArrayList<>();
+        for(Map.Entry<String,PipelineCommit> entry : stageCommits.entrySet()){
+            CommitStages commitStages = stagesByRevision.get(entry.getKey());
+            if(commitStages.lastStage.equals(stage)){
+                PipelineResponseCommit commit = new PipelineResponseCommit(entry.getValue());
+                commit.getProcessedTimestamps().putAll(commitStages.timestamps);
+                notPropagatedCommits.add(commit);
+            }
+        }
+        return notPropagatedCommits;
+    }
+
+    /**
+     * The stages a single commit went through
+     */
+    private static class CommitStages {
+        /** furthest stage the commit reached */
+        private PipelineStageType lastStage;
+        /** time the commit entered each stage, by stage name */
+        private final Map<String, Long> timestamps = new HashMap<>();
+    }
+}
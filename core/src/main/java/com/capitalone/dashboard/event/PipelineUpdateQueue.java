@@ -0,0 +1,346 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.EnvironmentStage;
+import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
+import com.capitalone.dashboard.repository.PipelineRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies pipeline changes off the save path of the documents that cause them. Event listeners
+ * submit an update keyed by the team dashboard collector item of the pipeline; a single worker
+ * collects updates for a short window, groups them per pipeline and applies each group to one
+ * read of the pipeline document. Only what the group changed is written back, through the atomic
+ * updates of {@link PipelineRepository}, so pipelines also written by other processes do not lose
+ * changes. The stored {@link com.capitalone.dashboard.model.PipelineResponse} of a pipeline is
+ * refreshed after its changes have been written.
+ * <p>
+ * The queue is bounded. When it is full, submitting blocks until the worker catches up, so a
+ * collector saving faster than pipelines can be written is slowed down instead of losing updates.
+ * Queue depth, lag and throughput are published over JMX.
+ */
+@Component
+@ManagedResource(objectName = "com.capitalone.dashboard:type=PipelineUpdateQueue")
+public class PipelineUpdateQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineUpdateQueue.class);
+
+    private static final long SHUTDOWN_WAIT_MS = 30000;
+
+    private final PipelineRepository pipelineRepository;
+    private final PipelineResponseUpdater pipelineResponseUpdater;
+    private final long coalesceMillis;
+    private final BlockingQueue<PendingUpdate> queue;
+    // updates submitted by the worker itself, e.g. from documents saved while applying a batch
+    private final Queue<PendingUpdate> overflow = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong appliedUpdates = new AtomicLong();
+    private final AtomicLong pipelineWrites = new AtomicLong();
+    private volatile long lastBatchLagMillis;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    @Autowired
+    public PipelineUpdateQueue(PipelineRepository pipelineRepository,
+                               PipelineResponseUpdater pipelineResponseUpdater,
+                               @Value("${pipelineUpdate.queueCapacity:10000}") int queueCapacity,
+                               @Value("${pipelineUpdate.coalesceMillis:500}") long coalesceMillis) {
+        this.pipelineRepository = pipelineRepository;
+        this.pipelineResponseUpdater = pipelineResponseUpdater;
+        this.coalesceMillis = Math.max(0, coalesceMillis);
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * A change to a single pipeline.
+     */
+    public interface PipelineUpdate {
+        void apply(Pipeline pipeline);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "pipeline-updates");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker once everything submitted so far has been applied.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(SHUTDOWN_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            LOGGER.warn("Pipeline update worker did not finish, " + getQueueDepth() + " updates not applied");
+        }
+        worker = null;
+    }
+
+    /**
+     * Queues an update for the pipeline of a team dashboard.
+     *
+     * @param pipelineCollectorItemId team dashboard collector item id of the pipeline
+     * @param update                  change to apply to the pipeline
+     */
+    public void submit(ObjectId pipelineCollectorItemId, PipelineUpdate update) {
+        PendingUpdate pending = new PendingUpdate(pipelineCollectorItemId, update);
+        if (Thread.currentThread() == worker) {
+            // never block the worker on its own queue
+            if (!queue.offer(pending)) {
+                overflow.add(pending);
+            }
+            return;
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while queueing an update for pipeline " + pipelineCollectorItemId + ", update dropped");
+        }
+    }
+
+    /**
+     * Applies everything that is queued on the calling thread.
+     */
+    public void flush() {
+        List<PendingUpdate> batch = new ArrayList<>();
+        drainTo(batch);
+        while (!batch.isEmpty()) {
+            apply(batch);
+            batch.clear();
+            drainTo(batch);
+        }
+    }
+
+    /**
+     * @return number of updates waiting to be applied
+     */
+    @ManagedAttribute
+    public int getQueueDepth() {
+        return queue.size() + overflow.size();
+    }
+
+    /**
+     * @return age in milliseconds of the oldest update still waiting, 0 if none
+     */
+    @ManagedAttribute
+    public long getLagMillis() {
+        PendingUpdate oldest = overflow.peek();
+        if (oldest == null) {
+            oldest = queue.peek();
+        }
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.submitted;
+    }
+
+    /**
+     * @return time in milliseconds the oldest update of the last applied batch had waited
+     */
+    @ManagedAttribute
+    public long getLastBatchLagMillis() {
+        return lastBatchLagMillis;
+    }
+
+    /**
+     * @return number of updates applied since startup
+     */
+    @ManagedAttribute
+    public long getAppliedUpdates() {
+        return appliedUpdates.get();
+    }
+
+    /**
+     * @return number of pipeline document updates since startup
+     */
+    @ManagedAttribute
+    public long getPipelineWrites() {
+        return pipelineWrites.get();
+    }
+
+    private void run() {
+        List<PendingUpdate> batch = new ArrayList<>();
+        while (running || getQueueDepth() > 0) {
+            try {
+                PendingUpdate first = overflow.poll();
+                if (first == null) {
+                    first = queue.poll(coalesceMillis + 100, TimeUnit.MILLISECONDS);
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // wait out the window so updates for the same pipeline land in one write
+                long windowEnd = first.submitted + coalesceMillis;
+                long wait = windowEnd - System.currentTimeMillis();
+                if (running && wait > 0) {
+                    Thread.sleep(wait);
+                }
+                drainTo(batch);
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drainTo(batch);
+                apply(batch);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to apply pipeline updates", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainTo(List<PendingUpdate> batch) {
+        PendingUpdate pending;
+        while ((pending = overflow.poll()) != null) {
+            batch.add(pending);
+        }
+        queue.drainTo(batch);
+    }
+
+    private void apply(List<PendingUpdate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long oldest = Long.MAX_VALUE;
+        Map<ObjectId, List<PipelineUpdate>> updatesByPipeline = new LinkedHashMap<>();
+        for (PendingUpdate pending : batch) {
+            oldest = Math.min(oldest, pending.submitted);
+            List<PipelineUpdate> updates = updatesByPipeline.get(pending.pipelineCollectorItemId);
+            if (updates == null) {
+                updates = new ArrayList<>();
+                updatesByPipeline.put(pending.pipelineCollectorItemId, updates);
+            }
+            updates.add(pending.update);
+        }
+        lastBatchLagMillis = System.currentTimeMillis() - oldest;
+
+        for (Map.Entry<ObjectId, List<PipelineUpdate>> entry : updatesByPipeline.entrySet()) {
+            try {
+                Pipeline pipeline = getOrCreatePipeline(entry.getKey());
+                PipelineSnapshot before = new PipelineSnapshot(pipeline);
+                for (PipelineUpdate update : entry.getValue()) {
+                    update.apply(pipeline);
+                }
+                if (before.writeChanges(pipeline, pipelineRepository)) {
+                    pipelineWrites.incrementAndGet();
+                    // other collector processes write the same pipeline, so the response is built
+                    // from what is stored now rather than from this process' view of it
+                    pipelineResponseUpdater.update(getOrCreatePipeline(entry.getKey()));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to update pipeline " + entry.getKey(), e);
+            }
+            appliedUpdates.addAndGet(entry.getValue().size());
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Applied " + batch.size() + " updates to " + updatesByPipeline.size()
+                    + " pipelines, lag " + lastBatchLagMillis + " ms, queue depth " + getQueueDepth());
+        }
+    }
+
+    private Pipeline getOrCreatePipeline(ObjectId pipelineCollectorItemId) {
+        Pipeline pipeline = pipelineRepository.findByCollectorItemId(pipelineCollectorItemId);
+        if (pipeline == null) {
+            pipeline = new Pipeline();
+            pipeline.setCollectorItemId(pipelineCollectorItemId);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Commits and failed builds of a pipeline before a group of updates ran, used to find what
+     * the group added and removed.
+     */
+    private static class PipelineSnapshot {
+        private final Map<String, Set<PipelineCommit>> commitsByStage = new HashMap<>();
+        private final Set<Build> failedBuilds;
+
+        PipelineSnapshot(Pipeline pipeline) {
+            for (Map.Entry<String, EnvironmentStage> stage : pipeline.getStages().entrySet()) {
+                commitsByStage.put(stage.getKey(), new HashSet<>(stage.getValue().getCommits()));
+            }
+            failedBuilds = new HashSet<>(pipeline.getFailedBuilds());
+        }
+
+        /**
+         * @return true if anything changed and was written
+         */
+        boolean writeChanges(Pipeline pipeline, PipelineRepository repository) {
+            boolean changed = false;
+            for (Map.Entry<String, EnvironmentStage> stage : pipeline.getStages().entrySet()) {
+                Set<PipelineCommit> added = new HashSet<>(stage.getValue().getCommits());
+                Set<PipelineCommit> existing = commitsByStage.get(stage.getKey());
+                if (existing != null) {
+                    added.removeAll(existing);
+                }
+                if (!added.isEmpty()) {
+                    repository.addCommits(pipeline.getCollectorItemId(), stage.getKey(), added);
+                    changed = true;
+                }
+            }
+
+            Set<Build> addedBuilds = new HashSet<>(pipeline.getFailedBuilds());
+            addedBuilds.removeAll(failedBuilds);
+            if (!addedBuilds.isEmpty()) {
+                repository.addFailedBuilds(pipeline.getCollectorItemId(), addedBuilds);
+                changed = true;
+            }
+            Set<Build> removedBuilds = new HashSet<>(failedBuilds);
+            removedBuilds.removeAll(pipeline.getFailedBuilds());
+            if (!removedBuilds.isEmpty()) {
+                repository.removeFailedBuilds(pipeline.getCollectorItemId(), removedBuilds);
+                changed = true;
+            }
+            return changed;
+        }
+    }
+
+    private static class PendingUpdate {
+        private final ObjectId pipelineCollectorItemId;
+        private final PipelineUpdate update;
+        private final long submitted = System.currentTimeMillis();
+
+        PendingUpdate(ObjectId pipelineCollectorItemId, PipelineUpdate update) {
+            this.pipelineCollectorItemId = pipelineCollectorItemId;
+            this.update = update;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.Collector;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.TeamDashboardCollectorItems;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.CollectorRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.TeamDashboardCollectorItemsRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reverse index from collector item to the team dashboards, and their pipelines, whose components
+ * use it. The index is persisted as {@link TeamDashboardCollectorItems} and cached in memory, so
+ * finding the pipelines a saved build, commit or deployment belongs to is a map lookup.
+ * <p>
+ * Dashboard and component changes made in this process clear the cache right away. Changes made by
+ * another process, e.g. the API while a collector is running, are picked up once cached entries
+ * expire after {@code teamDashboardIndex.cacheMillis}.
+ */
+@org.springframework.stereotype.Component
+public class TeamDashboardIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TeamDashboardIndex.class);
+
+    private final TeamDashboardCollectorItemsRepository teamDashboardCollectorItemsRepository;
+    private final DashboardRepository dashboardRepository;
+    private final CollectorRepository collectorRepository;
+    private final CollectorItemRepository collectorItemRepository;
+    private final long cacheMillis;
+
+    private final ConcurrentMap<ObjectId, CachedDashboards> cache = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    @Autowired
+    public TeamDashboardIndex(TeamDashboardCollectorItemsRepository teamDashboardCollectorItemsRepository,
+                              DashboardRepository dashboardRepository,
+                              CollectorRepository collectorRepository,
+                              CollectorItemRepository collectorItemRepository,
+                              @Value("${teamDashboardIndex.cacheMillis:60000}") long cacheMillis) {
+        this.teamDashboardCollectorItemsRepository = teamDashboardCollectorItemsRepository;
+        this.dashboardRepository = dashboardRepository;
+        this.collectorRepository = collectorRepository;
+        this.collectorItemRepository = collectorItemRepository;
+        this.cacheMillis = cacheMillis;
+    }
+
+    /**
+     * Finds the team dashboards with a component that uses a collector item.
+     *
+     * @param collectorItemId collector item id of a build, commit or deployment
+     * @return team dashboards using the collector item
+     */
+    public List<TeamDashboardCollectorItems> findByCollectorItemId(ObjectId collectorItemId) {
+        if (collectorItemId == null) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        CachedDashboards cached = cache.get(collectorItemId);
+        if (cached != null && now - cached.loaded < cacheMillis) {
+            return cached.dashboards;
+        }
+
+        initialize();
+        List<TeamDashboardCollectorItems> dashboards = Collections.unmodifiableList(
+                teamDashboardCollectorItemsRepository.findByCollectorItemIds(collectorItemId));
+        cache.put(collectorItemId, new CachedDashboards(dashboards, now));
+        return dashboards;
+    }
+
+    /**
+     * Indexes the collector items of a team dashboard.
+     *
+     * @param dashboard team dashboard
+     * @param pipelineCollectorItemId team dashboard collector item id of the dashboard
+     */
+    public void update(Dashboard dashboard, ObjectId pipelineCollectorItemId) {
+        if (DashboardType.Product.equals(dashboard.getType())) {
+            return;
+        }
+        TeamDashboardCollectorItems teamDashboard = new TeamDashboardCollectorItems();
+        teamDashboard.setDashboardId(dashboard.getId());
+        teamDashboard.setPipelineCollectorItemId(pipelineCollectorItemId);
+        if (dashboard.getApplication() != null) {
+            for (Component component : dashboard.getApplication().getComponents()) {
+                for (List<CollectorItem> items : component.getCollectorItems().values()) {
+                    for (CollectorItem item : items) {
+                        teamDashboard.getCollectorItemIds().add(item.getId());
+                    }
+                }
+                List<CollectorItem> buildItems = component.getCollectorItems(CollectorType.Build);
+                if (buildItems != null && !buildItems.isEmpty()) {
+                    teamDashboard.setBuildCollector(true);
+                }
+            }
+        }
+        teamDashboardCollectorItemsRepository.save(teamDashboard);
+        cache.clear();
+    }
+
+    /**
+     * Re-indexes the team dashboards using a component, after its collector items changed.
+     *
+     * @param component component
+     */
+    public void update(Component component) {
+        for (Dashboard dashboard : dashboardRepository.findByApplicationComponentsIn(Collections.singletonList(component))) {
+            TeamDashboardCollectorItems existing = teamDashboardCollectorItemsRepository.findOne(dashboard.getId());
+            ObjectId pipelineCollectorItemId = existing != null
+                    ? existing.getPipelineCollectorItemId() : findPipelineCollectorItemId(dashboard);
+            if (pipelineCollectorItemId != null) {
+                update(dashboard, pipelineCollectorItemId);
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted team dashboard from the index.
+     *
+     * @param dashboardId team dashboard id
+     */
+    public void remove(ObjectId dashboardId) {
+        teamDashboardCollectorItemsRepository.delete(dashboardId);
+        cache.clear();
+    }
+
+    /**
+     * Re-indexes all team dashboards the first time the index is used by this process. Entries are
+     * saved by dashboard id, so dashboards indexed before, e.g. by {@link #update(Dashboard, ObjectId)}
+     * right after upgrading from a version without the index, are overwritten rather than skipped.
+     */
+    private synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        int indexed = 0;
+        for (Dashboard dashboard : dashboardRepository.findTeamDashboards()) {
+            ObjectId pipelineCollectorItemId = findPipelineCollectorItemId(dashboard);
+            if (pipelineCollectorItemId != null) {
+                update(dashboard, pipelineCollectorItemId);
+                indexed++;
+            }
+        }
+        LOGGER.info("Indexed collector items of " + indexed + " team dashboards");
+        initialized = true;
+    }
+
+    private ObjectId findPipelineCollectorItemId(Dashboard dashboard) {
+        List<Collector> productCollectors = collectorRepository.findByCollectorType(CollectorType.Product);
+        if (productCollectors.isEmpty()) {
+            return null;
+        }
+        CollectorItem teamDashboardCollectorItem = collectorItemRepository.findTeamDashboardCollectorItemsByCollectorIdAndDashboardId(
+                productCollectors.get(0).getId(), dashboard.getId().toString());
+        return teamDashboardCollectorItem == null ? null : teamDashboardCollectorItem.getId();
+    }
+
+    private static class CachedDashboards {
+        private final List<TeamDashboardCollectorItems> dashboards;
+        private final long loaded;
+
+        CachedDashboards(List<TeamDashboardCollectorItems> dashboards, long loaded) {
+            this.dashboards = dashboards;
+            this.loaded = loaded;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.capitalone.dashboard.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucket sizes of {@link CloudInstanceHistoryRollup}s. Buckets start at UTC hour, day and
+ * Monday boundaries.
+ */
+public enum CloudHistoryResolution {
+    HOUR(TimeUnit.HOURS.toMillis(1), 0),
+    DAY(TimeUnit.DAYS.toMillis(1), 0),
+    // 1970-01-01 was a Thursday, so weeks are shifted to start on the following Monday
+    WEEK(TimeUnit.DAYS.toMillis(7), TimeUnit.DAYS.toMillis(4));
+
+    private final long length;
+    private final long offset;
+
+    CloudHistoryResolution(long length, long offset) {
+        this.length = length;
+        this.offset = offset;
+    }
+
+    /**
+     * @return bucket length in milliseconds
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @param time time in milliseconds
+     * @return start of the bucket the time falls in
+     */
+    public long bucketStart(long time) {
+        return Math.floorDiv(time - offset, length) * length + offset;
+    }
+
+    public static CloudHistoryResolution fromString(String value) {
+        for (CloudHistoryResolution resolution : values()) {
+            if (resolution.toString().equalsIgnoreCase(value)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException(value + " is not a valid CloudHistoryResolution.");
+    }
+}
@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.model;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -11,6 +12,7 @@ import java.util.Objects;
  * Represents an EC2 instance from AWS
  */
 @Document(collection = "cloud_instance")
+@CompoundIndex(name = "tags_name_value", def = "{'tags.name' : 1, 'tags.value' : 1}")
 public class CloudInstance extends BaseModel{
     @Indexed
     private String instanceId;
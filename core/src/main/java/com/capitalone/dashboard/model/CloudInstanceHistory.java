@@ -23,6 +23,9 @@ public class CloudInstanceHistory extends BaseModel{
     private double networkIn;
     private double networkOut;
     private String currency = "USD";
+    /** true once the record has been added to its {@link CloudInstanceHistoryRollup}s */
+    @Indexed
+    private boolean rolledUp;
 
     public String getAccountNumber() {
         return accountNumber;
@@ -88,6 +91,14 @@ public class CloudInstanceHistory extends BaseModel{
         this.currency = currency;
     }
 
+    public boolean isRolledUp() {
+        return rolledUp;
+    }
+
+    public void setRolledUp(boolean rolledUp) {
+        this.rolledUp = rolledUp;
+    }
+
     public double getCpu() {
         return cpu;
     }
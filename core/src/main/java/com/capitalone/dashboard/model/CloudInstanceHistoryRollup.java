@@ -0,0 +1,209 @@
+package com.capitalone.dashboard.model;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * {@link CloudInstanceHistory} of an account aggregated over an hour, day or week. Counts and
+ * charge are the latest values of the bucket, metrics are averaged over its samples.
+ */
+@Document(collection = "cloud_instance_history_rollups")
+@CompoundIndex(name = "account_resolution_time", def = "{'accountNumber' : 1, 'resolution' : 1, 'time' : 1}", unique = true)
+public class CloudInstanceHistoryRollup extends BaseModel {
+    private String accountNumber;
+    private CloudHistoryResolution resolution;
+    private long time;
+    private long latestTime;
+    private int samples;
+    private int total;
+    private int nonTagged;
+    private int stopped;
+    private int expiredImage;
+    private double estimatedCharge;
+    private double cpuMin;
+    private double cpuMax;
+    private double cpuTotal;
+    private double diskReadTotal;
+    private double diskWriteTotal;
+    private double networkInTotal;
+    private double networkOutTotal;
+    private String currency = "USD";
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public CloudHistoryResolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(CloudHistoryResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    /**
+     * @return start of the bucket
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * @return time of the latest {@link CloudInstanceHistory} record in the bucket, which the
+     * counts and charge are taken from
+     */
+    public long getLatestTime() {
+        return latestTime;
+    }
+
+    public void setLatestTime(long latestTime) {
+        this.latestTime = latestTime;
+    }
+
+    /**
+     * @return number of {@link CloudInstanceHistory} records in the bucket
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getNonTagged() {
+        return nonTagged;
+    }
+
+    public void setNonTagged(int nonTagged) {
+        this.nonTagged = nonTagged;
+    }
+
+    public int getStopped() {
+        return stopped;
+    }
+
+    public void setStopped(int stopped) {
+        this.stopped = stopped;
+    }
+
+    public int getExpiredImage() {
+        return expiredImage;
+    }
+
+    public void setExpiredImage(int expiredImage) {
+        this.expiredImage = expiredImage;
+    }
+
+    public double getEstimatedCharge() {
+        return estimatedCharge;
+    }
+
+    public void setEstimatedCharge(double estimatedCharge) {
+        this.estimatedCharge = estimatedCharge;
+    }
+
+    public double getCpuMin() {
+        return cpuMin;
+    }
+
+    public void setCpuMin(double cpuMin) {
+        this.cpuMin = cpuMin;
+    }
+
+    public double getCpuMax() {
+        return cpuMax;
+    }
+
+    public void setCpuMax(double cpuMax) {
+        this.cpuMax = cpuMax;
+    }
+
+    public double getCpuTotal() {
+        return cpuTotal;
+    }
+
+    public void setCpuTotal(double cpuTotal) {
+        this.cpuTotal = cpuTotal;
+    }
+
+    public double getDiskReadTotal() {
+        return diskReadTotal;
+    }
+
+    public void setDiskReadTotal(double diskReadTotal) {
+        this.diskReadTotal = diskReadTotal;
+    }
+
+    public double getDiskWriteTotal() {
+        return diskWriteTotal;
+    }
+
+    public void setDiskWriteTotal(double diskWriteTotal) {
+        this.diskWriteTotal = diskWriteTotal;
+    }
+
+    public double getNetworkInTotal() {
+        return networkInTotal;
+    }
+
+    public void setNetworkInTotal(double networkInTotal) {
+        this.networkInTotal = networkInTotal;
+    }
+
+    public double getNetworkOutTotal() {
+        return networkOutTotal;
+    }
+
+    public void setNetworkOutTotal(double networkOutTotal) {
+        this.networkOutTotal = networkOutTotal;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public double getCpu() {
+        return average(cpuTotal);
+    }
+
+    public double getDiskRead() {
+        return average(diskReadTotal);
+    }
+
+    public double getDiskWrite() {
+        return average(diskWriteTotal);
+    }
+
+    public double getNetworkIn() {
+        return average(networkInTotal);
+    }
+
+    public double getNetworkOut() {
+        return average(networkOutTotal);
+    }
+
+    private double average(double sum) {
+        return samples == 0 ? 0.0 : sum / samples;
+    }
+}
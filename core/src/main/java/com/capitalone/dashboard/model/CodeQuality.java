@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.model;
 
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.HashSet;
@@ -19,6 +20,7 @@ import java.util.Set;
  *
  */
 @Document(collection="code_quality")
+@CompoundIndex(name = "collectorItemId_timestamp", def = "{'collectorItemId' : 1, 'timestamp' : 1}")
 public class CodeQuality extends BaseModel {
     private ObjectId collectorItemId;
     private long timestamp;
@@ -16,10 +16,14 @@
 
 package com.capitalone.dashboard.model;
 
+import com.capitalone.dashboard.util.FeatureValues;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -31,6 +35,10 @@ import java.util.List;
  * 
  */
 @Document(collection = "feature")
+@CompoundIndexes({
+	@CompoundIndex(name = "team_sprint_dates", def = "{'sTeamID' : 1, 'isDeleted' : 1, 'sprintBeginDateValue' : 1, 'sprintEndDateValue' : 1}"),
+	@CompoundIndex(name = "team_changeDate", def = "{'sTeamID' : 1, 'isDeleted' : 1, 'changeDateValue' : 1}")
+})
 public class Feature extends BaseModel {
 	private ObjectId collectorId;
 	/*
@@ -83,6 +91,14 @@ public class Feature extends BaseModel {
 	@Indexed
 	private String sSprintID;
 
+	/*
+	 * Typed copies of the string dates and estimate, set along with them
+	 */
+	private Date changeDateValue;
+	private Date sprintBeginDateValue;
+	private Date sprintEndDateValue;
+	private Integer estimateValue;
+
 	/*
 	 * Epic data
 	 */
@@ -162,6 +178,7 @@ public class Feature extends BaseModel {
 
 	public void setsEstimate(String sEstimate) {
 		this.sEstimate = sEstimate;
+		this.estimateValue = FeatureValues.toEstimate(sEstimate);
 	}
 
 	public Integer getsEstimateTime() {
@@ -210,6 +227,7 @@ public class Feature extends BaseModel {
 
 	public void setChangeDate(String changeDate) {
 		this.changeDate = changeDate;
+		this.changeDateValue = FeatureValues.toDate(changeDate);
 	}
 
 	public List<String> getsOwnersID() {
@@ -358,6 +376,7 @@ public class Feature extends BaseModel {
 
 	public void setsSprintBeginDate(String sSprintBeginDate) {
 		this.sSprintBeginDate = sSprintBeginDate;
+		this.sprintBeginDateValue = FeatureValues.toDate(sSprintBeginDate);
 	}
 
 	public String getsSprintBeginDate() {
@@ -366,6 +385,7 @@ public class Feature extends BaseModel {
 
 	public void setsSprintEndDate(String sSprintEndDate) {
 		this.sSprintEndDate = sSprintEndDate;
+		this.sprintEndDateValue = FeatureValues.toDate(sSprintEndDate);
 	}
 
 	public String getsSprintEndDate() {
@@ -475,4 +495,20 @@ public class Feature extends BaseModel {
 	public List<String> getsOwnersIsDeleted() {
 		return this.sOwnersIsDeleted;
 	}
+
+	public Date getChangeDateValue() {
+		return changeDateValue;
+	}
+
+	public Date getSprintBeginDateValue() {
+		return sprintBeginDateValue;
+	}
+
+	public Date getSprintEndDateValue() {
+		return sprintEndDateValue;
+	}
+
+	public Integer getEstimateValue() {
+		return estimateValue;
+	}
 }
@@ -0,0 +1,69 @@
+package com.capitalone.dashboard.model;
+
+/**
+ * Estimate totals of a set of {@link Feature}s, either all of them or those of one epic.
+ */
+public class FeatureEstimate {
+    private String epicId;
+    private String epicNumber;
+    private String epicName;
+
+    /**
+     * Sum of the story point estimates
+     */
+    private int storyPoints;
+
+    /**
+     * Sum of the time estimates in minutes
+     */
+    private int estimateTime;
+
+    public FeatureEstimate() {
+    }
+
+    public FeatureEstimate(String epicId, String epicNumber, String epicName) {
+        this.epicId = epicId;
+        this.epicNumber = epicNumber;
+        this.epicName = epicName;
+    }
+
+    public String getEpicId() {
+        return epicId;
+    }
+
+    public void setEpicId(String epicId) {
+        this.epicId = epicId;
+    }
+
+    public String getEpicNumber() {
+        return epicNumber;
+    }
+
+    public void setEpicNumber(String epicNumber) {
+        this.epicNumber = epicNumber;
+    }
+
+    public String getEpicName() {
+        return epicName;
+    }
+
+    public void setEpicName(String epicName) {
+        this.epicName = epicName;
+    }
+
+    public int getStoryPoints() {
+        return storyPoints;
+    }
+
+    public void setStoryPoints(int storyPoints) {
+        this.storyPoints = storyPoints;
+    }
+
+    public int getEstimateTime() {
+        return estimateTime;
+    }
+
+    public void setEstimateTime(int estimateTime) {
+        this.estimateTime = estimateTime;
+    }
+}
@@ -1,5 +1,7 @@
 package com.capitalone.dashboard.model;
 
+import java.util.Objects;
+
 public class PipelineCommit extends SCM{
 
     public PipelineCommit() {
@@ -27,13 +29,13 @@ public class PipelineCommit extends SCM{
     public boolean equals(Object o) {
         if(o instanceof PipelineCommit){
             PipelineCommit toCompareTo = (PipelineCommit) o;
-            return this.scmRevisionNumber.equals(toCompareTo.scmRevisionNumber);
+            return Objects.equals(this.scmRevisionNumber, toCompareTo.scmRevisionNumber);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return (int) (timestamp ^ (timestamp >>> 32));
+        return Objects.hashCode(scmRevisionNumber);
     }
 }
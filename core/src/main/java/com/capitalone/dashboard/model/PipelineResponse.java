@@ -1,17 +1,27 @@
 package com.capitalone.dashboard.model;
 
 import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Pipeline of a team dashboard as shown by the pipeline widget. Stored per team dashboard
+ * collector item and kept up to date as the pipeline and the dashboard change.
+ */
+@Document(collection="pipeline_responses")
 public class PipelineResponse {
     private String name;
+    @Id
     private ObjectId collectorItemId;
     private List<PipelineStageType> unmappedStages;
     private Map<PipelineStageType, List<PipelineResponseCommit>> stages = new HashMap<>();
+    /** time the stored response was last computed */
+    private long lastUpdated;
 
     public String getName() {
         return name;
@@ -37,6 +47,14 @@ public class PipelineResponse {
         this.stages = stages;
     }
 
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
     public List<PipelineStageType> getUnmappedStages() {
         return unmappedStages;
     }
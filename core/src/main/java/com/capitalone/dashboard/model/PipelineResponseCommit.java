@@ -5,6 +5,9 @@ import java.util.Map;
 
 public class PipelineResponseCommit extends SCM {
 
+    public PipelineResponseCommit() {
+    }
+
     public PipelineResponseCommit(SCM scm) {
     	super(scm);
     }
@@ -2,7 +2,14 @@ package com.capitalone.dashboard.model;
 
 import org.springframework.data.mongodb.core.mapping.Document;
 
-
+import java.util.Date;
+
+/**
+ * A logged API request. The indexes of the collection, including the TTL index on {@code created}
+ * that expires old requests, are created in the background by
+ * {@link com.capitalone.dashboard.repository.RequestLogRepositoryCustom#ensureIndexes(long)} rather
+ * than declared here, as the collection can be too large for a foreground index build.
+ */
 @Document(collection = "requests")
 public class RequestLog extends BaseModel {
     private String client;
@@ -17,6 +24,7 @@ public class RequestLog extends BaseModel {
     private Object responseBody;
     private int responseCode;
     private long timestamp;
+    private Date created;
 
     public String getClient() {
         return client;
@@ -74,6 +82,14 @@ public class RequestLog extends BaseModel {
         this.timestamp = timestamp;
     }
 
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(Date created) {
+        this.created = created;
+    }
+
     public int getResponseCode() {
         return responseCode;
     }
@@ -0,0 +1,62 @@
+package com.capitalone.dashboard.model;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The collector items used by the components of a team {@link Dashboard}, together with the
+ * collector item of the dashboard's {@link Pipeline}. Lets event listeners find the pipelines a
+ * saved build, commit or deployment belongs to without going through components and dashboards.
+ */
+@Document(collection="team_dashboard_collector_items")
+public class TeamDashboardCollectorItems {
+    /** id of the team dashboard */
+    @Id
+    private ObjectId dashboardId;
+
+    /** team dashboard collector item id, which identifies the pipeline of the dashboard */
+    private ObjectId pipelineCollectorItemId;
+
+    /** true if a component of the dashboard has a build collector item */
+    private boolean buildCollector;
+
+    @Indexed
+    private Set<ObjectId> collectorItemIds = new HashSet<>();
+
+    public ObjectId getDashboardId() {
+        return dashboardId;
+    }
+
+    public void setDashboardId(ObjectId dashboardId) {
+        this.dashboardId = dashboardId;
+    }
+
+    public ObjectId getPipelineCollectorItemId() {
+        return pipelineCollectorItemId;
+    }
+
+    public void setPipelineCollectorItemId(ObjectId pipelineCollectorItemId) {
+        this.pipelineCollectorItemId = pipelineCollectorItemId;
+    }
+
+    public boolean hasBuildCollector() {
+        return buildCollector;
+    }
+
+    public void setBuildCollector(boolean buildCollector) {
+        this.buildCollector = buildCollector;
+    }
+
+    public Set<ObjectId> getCollectorItemIds() {
+        return collectorItemIds;
+    }
+
+    public void setCollectorItemIds(Set<ObjectId> collectorItemIds) {
+        this.collectorItemIds = collectorItemIds;
+    }
+}
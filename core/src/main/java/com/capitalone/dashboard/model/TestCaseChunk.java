@@ -0,0 +1,106 @@
+package com.capitalone.dashboard.model;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A slice of the {@link TestCase}s of one {@link TestSuite} of a chunked {@link TestResult}. The
+ * result document keeps the capability and suite summaries, the test cases are stored in chunks
+ * keyed by the id of the result and the position of their suite.
+ */
+@Document(collection = "test_case_chunks")
+@CompoundIndex(name = "testResultId_capabilityIndex_suiteIndex_chunk",
+        def = "{'testResultId' : 1, 'capabilityIndex' : 1, 'suiteIndex' : 1, 'chunk' : 1}")
+public class TestCaseChunk extends BaseModel {
+    /**
+     * ID of the {@link TestResult}
+     */
+    private ObjectId testResultId;
+
+    /**
+     * Generation of the chunk, see {@link TestResult#getChunkGeneration()}
+     */
+    private ObjectId generation;
+
+    /**
+     * Position of the {@link TestCapability} in the test result
+     */
+    private int capabilityIndex;
+
+    /**
+     * Position of the {@link TestSuite} in the test capability
+     */
+    private int suiteIndex;
+
+    /**
+     * Position of this chunk among the chunks of the test suite
+     */
+    private int chunk;
+
+    private Collection<TestCase> testCases = new ArrayList<>();
+
+    public TestCaseChunk() {
+    }
+
+    public TestCaseChunk(ObjectId testResultId, ObjectId generation, int capabilityIndex, int suiteIndex,
+                         int chunk, Collection<TestCase> testCases) {
+        this.testResultId = testResultId;
+        this.generation = generation;
+        this.capabilityIndex = capabilityIndex;
+        this.suiteIndex = suiteIndex;
+        this.chunk = chunk;
+        this.testCases = testCases;
+    }
+
+    public ObjectId getTestResultId() {
+        return testResultId;
+    }
+
+    public void setTestResultId(ObjectId testResultId) {
+        this.testResultId = testResultId;
+    }
+
+    public ObjectId getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(ObjectId generation) {
+        this.generation = generation;
+    }
+
+    public int getCapabilityIndex() {
+        return capabilityIndex;
+    }
+
+    public void setCapabilityIndex(int capabilityIndex) {
+        this.capabilityIndex = capabilityIndex;
+    }
+
+    public int getSuiteIndex() {
+        return suiteIndex;
+    }
+
+    public void setSuiteIndex(int suiteIndex) {
+        this.suiteIndex = suiteIndex;
+    }
+
+    public int getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(int chunk) {
+        this.chunk = chunk;
+    }
+
+    public Collection<TestCase> getTestCases() {
+        return testCases;
+    }
+
+    public void setTestCases(Collection<TestCase> testCases) {
+        this.testCases = testCases;
+    }
+}
@@ -96,6 +96,18 @@ public class TestResult extends BaseModel {
      */
     private Collection<TestCapability> testCapabilities = new ArrayList<>();
 
+    /**
+     * True if the {@link TestCase}s of the suites are stored as {@link TestCaseChunk}s instead of
+     * being embedded in this document
+     */
+    private boolean chunked;
+
+    /**
+     * Generation of the {@link TestCaseChunk}s holding the test cases of a chunked test result.
+     * Chunks of other generations are left over from an earlier or interrupted save.
+     */
+    private ObjectId chunkGeneration;
+
     public ObjectId getCollectorItemId() {
         return collectorItemId;
     }
@@ -204,6 +216,22 @@ public class TestResult extends BaseModel {
         return testCapabilities;
     }
 
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    public void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    public ObjectId getChunkGeneration() {
+        return chunkGeneration;
+    }
+
+    public void setChunkGeneration(ObjectId chunkGeneration) {
+        this.chunkGeneration = chunkGeneration;
+    }
+
     public ObjectId getBuildId() {
         return buildId;
     }
@@ -11,7 +11,7 @@ import java.util.List;
 /**
  * Repository for {@link Build} data.
  */
-public interface BuildRepository extends CrudRepository<Build, ObjectId>, QueryDslPredicateExecutor<Build> {
+public interface BuildRepository extends CrudRepository<Build, ObjectId>, QueryDslPredicateExecutor<Build>, BuildRepositoryCustom {
 
     /**
      * Finds the {@link Build} with the given number for a specific {@link com.capitalone.dashboard.model.CollectorItem}.
@@ -0,0 +1,37 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.SCM;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Custom {@link com.capitalone.dashboard.model.Build} queries that can not be expressed as
+ * derived repository methods.
+ */
+public interface BuildRepositoryCustom {
+
+    /**
+     * Finds which of the given builds are already stored for a
+     * {@link com.capitalone.dashboard.model.CollectorItem}, by build number. Only the build
+     * number is read back from the database. The returned set is modifiable, so collectors
+     * can add the numbers they save to skip duplicates within a run.
+     *
+     * @param collectorItemId collector item id
+     * @param builds candidate builds
+     * @return the numbers of {@code builds} that are already stored
+     */
+    Set<String> findExistingNumbers(ObjectId collectorItemId, Collection<Build> builds);
+
+    /**
+     * Adds change sets to the source change set of a stored build. Only the change set is
+     * written, so concurrent saves of the rest of the build are kept, and no save event is
+     * published for the build.
+     *
+     * @param buildId build id
+     * @param changeSets change sets to add, revisions already in the change set are skipped
+     */
+    void addToSourceChangeSet(ObjectId buildId, Collection<SCM> changeSets);
+}
@@ -0,0 +1,58 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.SCM;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link BuildRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class BuildRepositoryImpl implements BuildRepositoryCustom {
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BuildRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<String> findExistingNumbers(ObjectId collectorItemId, Collection<Build> builds) {
+        Set<String> existing = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        for (Build build : builds) {
+            candidates.add(build.getNumber());
+        }
+        for (int i = 0; i < candidates.size(); i += IN_CLAUSE_SIZE) {
+            List<String> chunk = candidates.subList(i, Math.min(i + IN_CLAUSE_SIZE, candidates.size()));
+            Query query = new Query(Criteria.where("collectorItemId").is(collectorItemId).and("number").in(chunk));
+            query.fields().include("number");
+            for (Build build : mongoTemplate.find(query, Build.class)) {
+                existing.add(build.getNumber());
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public void addToSourceChangeSet(ObjectId buildId, Collection<SCM> changeSets) {
+        for (SCM scm : changeSets) {
+            // matched by revision, the rest of a change set may differ between builds
+            Query notInChangeSet = new Query(Criteria.where("_id").is(buildId)
+                    .and("sourceChangeSet.scmRevisionNumber").ne(scm.getScmRevisionNumber()));
+            mongoTemplate.updateFirst(notInChangeSet, new Update().push("sourceChangeSet", scm), Build.class);
+        }
+    }
+}
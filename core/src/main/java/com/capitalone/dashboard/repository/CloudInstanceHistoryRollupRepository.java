@@ -0,0 +1,13 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
+import org.bson.types.ObjectId;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * {@link CloudInstanceHistoryRollup} repository.
+ */
+public interface CloudInstanceHistoryRollupRepository extends
+        CrudRepository<CloudInstanceHistoryRollup, ObjectId>,
+        CloudInstanceHistoryRollupRepositoryCustom {
+}
@@ -0,0 +1,44 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CloudHistoryResolution;
+import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
+
+import java.util.List;
+
+/**
+ * {@link CloudInstanceHistoryRollup} queries and updates that cannot be expressed as derived or
+ * annotated queries.
+ */
+public interface CloudInstanceHistoryRollupRepositoryCustom {
+
+    /**
+     * Adds a {@link CloudInstanceHistory} record to the hour, day and week rollups it falls in,
+     * creating them when needed. A stored record is marked as rolled up first and skipped if it
+     * already was, so it is added at most once.
+     *
+     * @param history history record
+     * @return false if the record was rolled up before
+     */
+    boolean addToRollups(CloudInstanceHistory history);
+
+    /**
+     * Adds the stored {@link CloudInstanceHistory} records that are not rolled up yet, e.g. those
+     * saved before the rollups existed, to their rollups.
+     *
+     * @return number of records added
+     */
+    int addMissingToRollups();
+
+    /**
+     * Finds the rollups of an account whose bucket starts within a time range.
+     *
+     * @param accountNumber account number
+     * @param resolution bucket size
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return rollups ordered by time
+     */
+    List<CloudInstanceHistoryRollup> findRollups(String accountNumber, CloudHistoryResolution resolution,
+                                                 long from, long to);
+}
@@ -0,0 +1,97 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CloudHistoryResolution;
+import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * {@link CloudInstanceHistoryRollupRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class CloudInstanceHistoryRollupRepositoryImpl implements CloudInstanceHistoryRollupRepositoryCustom {
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CloudInstanceHistoryRollupRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean addToRollups(CloudInstanceHistory history) {
+        if (history.getId() != null && mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(history.getId()).and("rolledUp").ne(true)),
+                Update.update("rolledUp", true), CloudInstanceHistory.class).getN() == 0) {
+            return false;
+        }
+        // Spring Data's Update has no $min/$max in this version, so the update is built directly
+        DBObject update = new BasicDBObject()
+                .append("$inc", new BasicDBObject("samples", 1)
+                        .append("cpuTotal", history.getCpu())
+                        .append("diskReadTotal", history.getDiskRead())
+                        .append("diskWriteTotal", history.getDiskWrite())
+                        .append("networkInTotal", history.getNetworkIn())
+                        .append("networkOutTotal", history.getNetworkOut()))
+                .append("$min", new BasicDBObject("cpuMin", history.getCpu()))
+                .append("$max", new BasicDBObject("cpuMax", history.getCpu()));
+        // records may be added out of order, e.g. by addMissingToRollups, so the counts and charge
+        // are only taken from a record later than the one they were taken from before
+        Update latest = Update.update("latestTime", history.getTime())
+                .set("total", history.getTotal())
+                .set("nonTagged", history.getNonTagged())
+                .set("stopped", history.getStopped())
+                .set("expiredImage", history.getExpiredImage())
+                .set("estimatedCharge", history.getEstimatedCharge())
+                .set("currency", history.getCurrency());
+
+        for (CloudHistoryResolution resolution : CloudHistoryResolution.values()) {
+            Criteria bucket = Criteria.where("accountNumber").is(history.getAccountNumber())
+                    .and("resolution").is(resolution.name())
+                    .and("time").is(resolution.bucketStart(history.getTime()));
+            mongoTemplate.upsert(new Query(bucket), new BasicUpdate(update), CloudInstanceHistoryRollup.class);
+            mongoTemplate.updateFirst(new Query(bucket.orOperator(
+                    Criteria.where("latestTime").exists(false),
+                    Criteria.where("latestTime").lte(history.getTime()))),
+                    latest, CloudInstanceHistoryRollup.class);
+        }
+        return true;
+    }
+
+    @Override
+    public int addMissingToRollups() {
+        // added records are marked as rolled up, so each batch is read from the start
+        Query query = new Query(Criteria.where("rolledUp").ne(true))
+                .with(new Sort(Sort.Direction.ASC, "time")).limit(BATCH_SIZE);
+        int added = 0;
+        List<CloudInstanceHistory> batch;
+        while (!(batch = mongoTemplate.find(query, CloudInstanceHistory.class)).isEmpty()) {
+            for (CloudInstanceHistory history : batch) {
+                if (addToRollups(history)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public List<CloudInstanceHistoryRollup> findRollups(String accountNumber, CloudHistoryResolution resolution,
+                                                        long from, long to) {
+        Query query = new Query(Criteria.where("accountNumber").is(accountNumber)
+                .and("resolution").is(resolution.name())
+                .and("time").gte(from).lt(to))
+                .with(new Sort(Sort.Direction.ASC, "time"));
+        return mongoTemplate.find(query, CloudInstanceHistoryRollup.class);
+    }
+}
@@ -12,7 +12,8 @@ import java.util.List;
 
 public interface CloudInstanceRepository extends
         CrudRepository<CloudInstance, ObjectId>,
-        QueryDslPredicateExecutor<CloudInstance> {
+        QueryDslPredicateExecutor<CloudInstance>,
+        CloudInstanceRepositoryCustom {
 
     @Query(value = "{instanceId : ?0}")
     CloudInstance findByInstanceId(String instanceId);
@@ -0,0 +1,44 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CloudInstance;
+import com.capitalone.dashboard.model.NameValue;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link CloudInstance} writes that cannot be expressed with {@link org.springframework.data.repository.CrudRepository}.
+ */
+public interface CloudInstanceRepositoryCustom {
+
+    /**
+     * Applies inserts, replacements and deletes of {@link CloudInstance}s in a single unordered bulk
+     * write. Inserted instances without an id are assigned one.
+     *
+     * @param inserts instances to insert
+     * @param updates instances with an id whose stored document is replaced
+     * @param deletes instances with an id to delete
+     */
+    void bulkWrite(Collection<CloudInstance> inserts, Collection<CloudInstance> updates,
+                   Collection<CloudInstance> deletes);
+
+    /**
+     * Deletes the {@link CloudInstance}s of an account other than the given ones.
+     *
+     * @param accountNumber account number
+     * @param instanceIds ids of the instances to keep
+     * @return number of deleted instances
+     */
+    int deleteByAccountNumberExcept(String accountNumber, Collection<String> instanceIds);
+
+    /**
+     * Finds the {@link CloudInstance}s that have any of the given tags, in a single query. Only the
+     * fields shown by the cloud widget are read.
+     *
+     * @param tags tags, matched on both name and value of the same tag
+     * @param pageable page of instances to read, ordered by instance id, or null for all of them
+     * @return instances having any of the tags
+     */
+    List<CloudInstance> findByAnyTag(Collection<NameValue> tags, Pageable pageable);
+}
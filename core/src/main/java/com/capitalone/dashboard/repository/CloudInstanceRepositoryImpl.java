@@ -0,0 +1,91 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CloudInstance;
+import com.capitalone.dashboard.model.NameValue;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link CloudInstanceRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class CloudInstanceRepositoryImpl implements CloudInstanceRepositoryCustom {
+    private static final String[] WIDGET_FIELDS = {
+            "instanceId", "accountNumber", "instanceType", "imageId", "imageExpirationDate", "imageApproved",
+            "isMonitored", "isStopped", "isTagged", "privateIp", "subnetId", "age", "status", "cpuUtilization",
+            "lastUpdatedDate", "autoScaleName", "tags"
+    };
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CloudInstanceRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void bulkWrite(Collection<CloudInstance> inserts, Collection<CloudInstance> updates,
+                          Collection<CloudInstance> deletes) {
+        if (inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        BulkWriteOperation bulk = mongoTemplate.getCollection(mongoTemplate.getCollectionName(CloudInstance.class))
+                .initializeUnorderedBulkOperation();
+        for (CloudInstance instance : inserts) {
+            if (instance.getId() == null) {
+                instance.setId(ObjectId.get());
+            }
+            bulk.insert(toDBObject(instance));
+        }
+        for (CloudInstance instance : updates) {
+            bulk.find(new BasicDBObject("_id", instance.getId())).replaceOne(toDBObject(instance));
+        }
+        for (CloudInstance instance : deletes) {
+            bulk.find(new BasicDBObject("_id", instance.getId())).removeOne();
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public int deleteByAccountNumberExcept(String accountNumber, Collection<String> instanceIds) {
+        Query query = new Query(Criteria.where("accountNumber").is(accountNumber).and("instanceId").nin(instanceIds));
+        return mongoTemplate.remove(query, CloudInstance.class).getN();
+    }
+
+    @Override
+    public List<CloudInstance> findByAnyTag(Collection<NameValue> tags, Pageable pageable) {
+        if (tags.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Criteria> anyTag = new ArrayList<>();
+        for (NameValue tag : tags) {
+            anyTag.add(Criteria.where("tags").elemMatch(Criteria.where("name").is(tag.getName()).and("value").is(tag.getValue())));
+        }
+        Query query = new Query(new Criteria().orOperator(anyTag.toArray(new Criteria[anyTag.size()])))
+                .with(new Sort(Sort.Direction.ASC, "instanceId"));
+        if (pageable != null) {
+            query.with(pageable);
+        }
+        for (String field : WIDGET_FIELDS) {
+            query.fields().include(field);
+        }
+        return mongoTemplate.find(query, CloudInstance.class);
+    }
+
+    private DBObject toDBObject(CloudInstance instance) {
+        DBObject dbObject = new BasicDBObject();
+        mongoTemplate.getConverter().write(instance, dbObject);
+        return dbObject;
+    }
+}
@@ -8,7 +8,8 @@ import org.springframework.data.repository.CrudRepository;
 /**
  * Repository for {@link CodeQuality} data.
  */
-public interface CodeQualityRepository extends CrudRepository<CodeQuality, ObjectId>, QueryDslPredicateExecutor<CodeQuality> {
+public interface CodeQualityRepository extends CrudRepository<CodeQuality, ObjectId>, QueryDslPredicateExecutor<CodeQuality>,
+        CodeQualityRepositoryCustom {
 
     /**
      * Finds the {@link CodeQuality} data point at the given timestamp for a specific
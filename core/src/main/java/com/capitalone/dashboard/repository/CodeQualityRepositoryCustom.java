@@ -0,0 +1,22 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CodeQuality;
+import org.bson.types.ObjectId;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link CodeQuality} queries that are not expressible as derived queries.
+ */
+public interface CodeQualityRepositoryCustom {
+
+    /**
+     * Finds which collector items already have a {@link CodeQuality} data point at a given
+     * timestamp, in a single query.
+     *
+     * @param timestamps timestamp to look for, by collector item id
+     * @return ids of the collector items that have a data point at their timestamp
+     */
+    Set<ObjectId> findCollectorItemIdsWithTimestamp(Map<ObjectId, Long> timestamps);
+}
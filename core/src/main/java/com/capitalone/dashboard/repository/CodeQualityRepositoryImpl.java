@@ -0,0 +1,44 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CodeQuality;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link CodeQualityRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class CodeQualityRepositoryImpl implements CodeQualityRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CodeQualityRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<ObjectId> findCollectorItemIdsWithTimestamp(Map<ObjectId, Long> timestamps) {
+        Set<ObjectId> collectorItemIds = new HashSet<>();
+        if (timestamps.isEmpty()) {
+            return collectorItemIds;
+        }
+        List<Criteria> atTimestamp = new ArrayList<>();
+        for (Map.Entry<ObjectId, Long> entry : timestamps.entrySet()) {
+            atTimestamp.add(Criteria.where("collectorItemId").is(entry.getKey()).and("timestamp").is(entry.getValue()));
+        }
+        Query query = new Query(new Criteria().orOperator(atTimestamp.toArray(new Criteria[atTimestamp.size()])));
+        query.fields().include("collectorItemId");
+        for (CodeQuality codeQuality : mongoTemplate.find(query, CodeQuality.class)) {
+            collectorItemIds.add(codeQuality.getCollectorItemId());
+        }
+        return collectorItemIds;
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 /**
  * A {@link CollectorItem} repository
  */
-public interface CollectorItemRepository extends BaseCollectorItemRepository<CollectorItem> {
+public interface CollectorItemRepository extends BaseCollectorItemRepository<CollectorItem>, CollectorItemRepositoryCustom {
 
     //// FIXME: 1/20/16 I really hate this dashboard specific method in the collectoritem repository, should we move the dashboardcollectoritem repository into core?
     @Query(value="{'options.dashboardId': ?1, 'collectorId': ?0 }")
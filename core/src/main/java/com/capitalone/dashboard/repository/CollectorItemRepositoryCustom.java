@@ -0,0 +1,30 @@
+package com.capitalone.dashboard.repository;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+
+/**
+ * Bulk updates of {@link com.capitalone.dashboard.model.CollectorItem}s. Each method writes all
+ * matching collector items with multi-document updates instead of saving them one by one.
+ */
+public interface CollectorItemRepositoryCustom {
+
+    /**
+     * Enables the given collector items of a collector and disables all its other collector items.
+     * Collector items already in the right state are not written.
+     *
+     * @param collectorId {@link com.capitalone.dashboard.model.Collector} id
+     * @param enabledIds ids of the collector items to enable
+     * @return number of collector items whose state changed
+     */
+    int updateEnabled(ObjectId collectorId, Collection<ObjectId> enabledIds);
+
+    /**
+     * Sets the enabled flag of collector items.
+     *
+     * @param ids collector item ids
+     * @param enabled new state
+     */
+    void setEnabled(Collection<ObjectId> ids, boolean enabled);
+}
@@ -0,0 +1,49 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CollectorItem;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link CollectorItemRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class CollectorItemRepositoryImpl implements CollectorItemRepositoryCustom {
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CollectorItemRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int updateEnabled(ObjectId collectorId, Collection<ObjectId> enabledIds) {
+        Query enable = new Query(Criteria.where("collectorId").is(collectorId)
+                .and("_id").in(enabledIds)
+                .and("enabled").ne(true));
+        Query disable = new Query(Criteria.where("collectorId").is(collectorId)
+                .and("_id").nin(enabledIds)
+                .and("enabled").is(true));
+        return mongoTemplate.updateMulti(enable, Update.update("enabled", true), CollectorItem.class).getN()
+                + mongoTemplate.updateMulti(disable, Update.update("enabled", false), CollectorItem.class).getN();
+    }
+
+    @Override
+    public void setEnabled(Collection<ObjectId> ids, boolean enabled) {
+        List<ObjectId> all = new ArrayList<>(ids);
+        for (int i = 0; i < all.size(); i += IN_CLAUSE_SIZE) {
+            List<ObjectId> chunk = all.subList(i, Math.min(i + IN_CLAUSE_SIZE, all.size()));
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(chunk)),
+                    Update.update("enabled", enabled), CollectorItem.class);
+        }
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 /**
  * Repository for {@link Commit} data.
  */
-public interface CommitRepository extends CrudRepository<Commit, ObjectId>, QueryDslPredicateExecutor<Commit> {
+public interface CommitRepository extends CrudRepository<Commit, ObjectId>, QueryDslPredicateExecutor<Commit>, CommitRepositoryCustom {
 
     /**
      * Finds the {@link Commit} with the given revision number for a specific
@@ -0,0 +1,26 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Commit;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Custom {@link com.capitalone.dashboard.model.Commit} queries that can not be expressed as
+ * derived repository methods.
+ */
+public interface CommitRepositoryCustom {
+
+    /**
+     * Finds which of the given commits are already stored for a
+     * {@link com.capitalone.dashboard.model.CollectorItem}, by revision number. Only the
+     * revision number is read back from the database. The returned set is modifiable, so
+     * collectors can add the revisions they save to skip duplicates within a run.
+     *
+     * @param collectorItemId collector item id
+     * @param commits candidate commits
+     * @return the revision numbers of {@code commits} that are already stored
+     */
+    Set<String> findExistingRevisions(ObjectId collectorItemId, Collection<Commit> commits);
+}
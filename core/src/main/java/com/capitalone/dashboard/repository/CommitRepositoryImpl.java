@@ -0,0 +1,46 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Commit;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link CommitRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class CommitRepositoryImpl implements CommitRepositoryCustom {
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CommitRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<String> findExistingRevisions(ObjectId collectorItemId, Collection<Commit> commits) {
+        Set<String> existing = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        for (Commit commit : commits) {
+            candidates.add(commit.getScmRevisionNumber());
+        }
+        for (int i = 0; i < candidates.size(); i += IN_CLAUSE_SIZE) {
+            List<String> chunk = candidates.subList(i, Math.min(i + IN_CLAUSE_SIZE, candidates.size()));
+            Query query = new Query(Criteria.where("collectorItemId").is(collectorItemId).and("scmRevisionNumber").in(chunk));
+            query.fields().include("scmRevisionNumber");
+            for (Commit commit : mongoTemplate.find(query, Commit.class)) {
+                existing.add(commit.getScmRevisionNumber());
+            }
+        }
+        return existing;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.List;
 /**
  * {@link Component} repository.
  */
-public interface ComponentRepository extends CrudRepository<Component, ObjectId> {
+public interface ComponentRepository extends CrudRepository<Component, ObjectId>, ComponentRepositoryCustom {
 
 
     @Query(value = "{'collectorItems.SCM._id': ?0}")
@@ -0,0 +1,24 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CollectorType;
+import org.bson.types.ObjectId;
+
+import java.util.Set;
+
+/**
+ * Queries of {@link com.capitalone.dashboard.model.Component}s that read only the collector items
+ * they need instead of whole component documents.
+ */
+public interface ComponentRepositoryCustom {
+
+    /**
+     * Finds the ids of the collector items of a collector that are used by a component. The query
+     * runs against an index on the collector id of the collector items of the given type and only
+     * reads those collector items.
+     *
+     * @param type collector type the collector items are stored under
+     * @param collectorId {@link com.capitalone.dashboard.model.Collector} id
+     * @return ids of the collector items of the collector used by a component
+     */
+    Set<ObjectId> findCollectorItemIds(CollectorType type, ObjectId collectorId);
+}
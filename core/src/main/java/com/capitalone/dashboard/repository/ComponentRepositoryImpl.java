@@ -0,0 +1,62 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link ComponentRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class ComponentRepositoryImpl implements ComponentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<CollectorType> indexedTypes = Collections.synchronizedSet(EnumSet.noneOf(CollectorType.class));
+
+    @Autowired
+    public ComponentRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<ObjectId> findCollectorItemIds(CollectorType type, ObjectId collectorId) {
+        String itemsPath = "collectorItems." + type.name();
+        ensureIndex(type, itemsPath + ".collectorId");
+
+        Query query = new Query(Criteria.where(itemsPath + ".collectorId").is(collectorId));
+        query.fields().include(itemsPath);
+
+        Set<ObjectId> ids = new HashSet<>();
+        for (Component component : mongoTemplate.find(query, Component.class)) {
+            List<CollectorItem> items = component.getCollectorItems(type);
+            if (items == null) {
+                continue;
+            }
+            for (CollectorItem item : items) {
+                // a component can use collector items of several collectors of the same type
+                if (item != null && collectorId.equals(item.getCollectorId())) {
+                    ids.add(item.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void ensureIndex(CollectorType type, String path) {
+        if (indexedTypes.add(type)) {
+            mongoTemplate.indexOps(Component.class).ensureIndex(new Index().on(path, Sort.Direction.ASC));
+        }
+    }
+}
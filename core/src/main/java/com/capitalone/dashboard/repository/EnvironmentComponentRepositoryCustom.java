@@ -0,0 +1,22 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.EnvironmentComponent;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+
+/**
+ * {@link EnvironmentComponent} queries that cannot be expressed as derived or annotated queries.
+ */
+public interface EnvironmentComponentRepositoryCustom {
+
+    /**
+     * Finds the latest {@link EnvironmentComponent} by asOfDate of every environment and component
+     * name of a collector item, so that historical deployments are not read.
+     *
+     * @param collectorItemId collector item id
+     * @return latest {@link EnvironmentComponent}s, ordered by first insertion of each environment
+     * and component
+     */
+    List<EnvironmentComponent> findLatestByCollectorItemId(ObjectId collectorItemId);
+}
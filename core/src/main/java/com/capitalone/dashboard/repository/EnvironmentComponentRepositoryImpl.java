@@ -0,0 +1,51 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.EnvironmentComponent;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link EnvironmentComponentRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class EnvironmentComponentRepositoryImpl implements EnvironmentComponentRepositoryCustom {
+    private static final String LATEST = "latest";
+    private static final String FIRST_ID = "firstId";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public EnvironmentComponentRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<EnvironmentComponent> findLatestByCollectorItemId(ObjectId collectorItemId) {
+        Aggregation aggregation = newAggregation(
+                match(where("collectorItemId").is(collectorItemId)),
+                sort(Sort.Direction.DESC, "asOfDate"),
+                group("environmentName", "componentName")
+                        .first(Aggregation.ROOT).as(LATEST)
+                        .min("_id").as(FIRST_ID),
+                sort(Sort.Direction.ASC, FIRST_ID));
+
+        List<EnvironmentComponent> latest = new ArrayList<>();
+        String collection = mongoTemplate.getCollectionName(EnvironmentComponent.class);
+        for (DBObject result : mongoTemplate.aggregate(aggregation, collection, DBObject.class)) {
+            latest.add(mongoTemplate.getConverter().read(EnvironmentComponent.class, (DBObject) result.get(LATEST)));
+        }
+        return latest;
+    }
+}
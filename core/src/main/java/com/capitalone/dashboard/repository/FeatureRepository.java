@@ -16,6 +16,7 @@
 
 package com.capitalone.dashboard.repository;
 
+import java.util.Date;
 import java.util.List;
 
 import org.bson.types.ObjectId;
@@ -29,7 +30,7 @@ import com.capitalone.dashboard.model.Feature;
  * Repository for {@link FeatureCollector}.
  */
 public interface FeatureRepository extends CrudRepository<Feature, ObjectId>,
-		QueryDslPredicateExecutor<Feature> {
+		QueryDslPredicateExecutor<Feature>, FeatureRepositoryCustom {
 	/**
 	 * This essentially returns the max change date from the collection, based
 	 * on the last change date (or default delta change date property) available
@@ -48,50 +49,21 @@ public interface FeatureRepository extends CrudRepository<Feature, ObjectId>,
 	@Query(value = "{'sId' : ?0}", fields = "{'sId' : 1}")
 	List<Feature> getFeatureIdById(String sId);
 
+	// Sprint lookups compare the typed sprint dates, see the team_sprint_dates index of Feature
 	// Scrum-only (Legacy)
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}}, {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}")
-	List<Feature> queryByOrderBySStatusDesc(String sTeamID, String currentISODateTime);
+	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}}, {'sprintBeginDateValue' : {$lte : ?1}} , {'sprintEndDateValue' : {$gte : ?1}}]}")
+	List<Feature> queryByOrderBySStatusDesc(String sTeamID, Date now);
 
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sSprintID' : 1, 'sSprintName' : 1,'sSprintBeginDate' : 1, 'sSprintEndDate' : 1}")
-	List<Feature> getCurrentSprintDetail(String sTeamID, String currentISODateTime);
+	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sprintBeginDateValue' : {$lte : ?1}} , {'sprintEndDateValue' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sSprintID' : 1, 'sSprintName' : 1,'sSprintBeginDate' : 1, 'sSprintEndDate' : 1}")
+	List<Feature> getCurrentSprintDetail(String sTeamID, Date now);
 
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sEpicID' :-1 }", fields = "{'sEpicID' : 1,'sEpicNumber' : 1,'sEpicName' : 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getInProgressFeaturesEstimatesByTeamId(String sTeamID, String currentISODateTime);
-
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogTotal(String sTeamID, String currentISODateTime);
-
-	@Query(value = "{'sTeamID' : ?0 , $and : [{'isDeleted' : 'False'} , {'sState' : 'Active'}] , $or : [{'sStatus' : 'In Progress'} , {'sStatus' : 'Waiting'} , {'sStatus' : 'Impeded'}] , $and : [{'sSprintID' : {$ne : null}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogInProgress(String sTeamID, String currentISODateTime);
-
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False' , $or : [{'sStatus' : 'Done'} , {'sStatus' : 'Accepted'}] , $and : [{'sSprintID' : {$ne : null}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogDone(String sTeamID, String currentISODateTime);
-	
 	// Kanban or Scrum only
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}}, {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}")
-	List<Feature> queryByOrderBySStatusDesc(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
-
-	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sSprintID' : 1, 'sSprintName' : 1,'sSprintBeginDate' : 1, 'sSprintEndDate' : 1}")
-	List<Feature> getCurrentSprintDetail(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
-
-	@Query(value = " {'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null} , {'sSprintID' : {?2 : ?3}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sEpicID' :-1 }", fields = "{'sEpicID' : 1,'sEpicNumber' : 1,'sEpicName' : 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getInProgressFeaturesEstimatesByTeamId(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
-
-    @Query(value = " {'sTeamID' : ?0 , 'isDeleted' : 'False', $or : [{'sStatus' : 'In Progress'} , {'sStatus' : 'Waiting'} , {'sStatus' : 'Impeded'}] , $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?3 : ?4}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?2}}]}, $orderby: { 'sEpicID' :-1 }", fields = "{'sEpicID' : 1, 'sEpicNumber' : 1, 'sEpicName' : 1, 'sEstimate' : 1, 'sEstimateTime' : 1}")
-    List<Feature> getInProgressKanbanFeaturesEstimatesByTeamId(String sTeamID, String startISODateTime, String currentISODateTime, String agileTypeAggregate, String agileType);
-    
-	@Query(value = " {'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogTotal(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
+	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}}, {'sprintBeginDateValue' : {$lte : ?1}} , {'sprintEndDateValue' : {$gte : ?1}}]}")
+	List<Feature> queryByOrderBySStatusDesc(String sTeamID, Date now, String agileTypeAggregate, String agileType);
 
-    @Query(value = " {'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?3 : ?4}} , {'changeDate' : {$gte : ?1}}, {'sStatus' : 'Done'}]}", fields = "{'sStatus' : 1, 'sEstimate' : 1, 'sEstimateTime' : 1}")
-    List<Feature> getKanbanThroughput(String sTeamID, String oneMonthAgoTime, String currentISODateTime, String agileTypeAggregate, String agileType);
-    
-	@Query(value = " {'sTeamID' : ?0 , $and : [{'isDeleted' : 'False'} , {'sState' : 'Active'}] , $or : [{'sStatus' : 'In Progress'} , {'sStatus' : 'Waiting'} , {'sStatus' : 'Impeded'}] , $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogInProgress(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
+	@Query(value = "{'sTeamID' : ?0 , 'isDeleted' : 'False', $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}} , {'sprintBeginDateValue' : {$lte : ?1}} , {'sprintEndDateValue' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sSprintID' : 1, 'sSprintName' : 1,'sSprintBeginDate' : 1, 'sSprintEndDate' : 1}")
+	List<Feature> getCurrentSprintDetail(String sTeamID, Date now, String agileTypeAggregate, String agileType);
 
-	@Query(value = " {'sTeamID' : ?0 , 'isDeleted' : 'False' , $or : [{'sStatus' : 'Done'} , {'sStatus' : 'Accepted'}] , $and : [{'sSprintID' : {$ne : null}} , {'sSprintID' : {?2 : ?3}} , {'sSprintBeginDate' : {$lte : ?1}} , {'sSprintEndDate' : {$gte : ?1}}]}, $orderby: { 'sStatus' :-1 }", fields = "{'sStatus': 1,'sEstimate' : 1,'sEstimateTime' : 1}")
-	List<Feature> getSprintBacklogDone(String sTeamID, String currentISODateTime, String agileTypeAggregate, String agileType);
-	
 	@Query(value = " {'sNumber' : ?0 }")
 	List<Feature> getStoryByNumber(String sNumber);
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureEstimate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+/**
+ * {@link Feature} queries that cannot be expressed as derived or annotated queries.
+ */
+public interface FeatureRepositoryCustom {
+
+    /**
+     * Sums the estimates of the features matching the criteria in an aggregation, so that the
+     * features themselves are not read.
+     *
+     * @param criteria criteria the features match
+     * @return estimate totals, zero if no feature matches
+     */
+    FeatureEstimate sumEstimates(Criteria criteria);
+
+    /**
+     * Sums the estimates of the features matching the criteria per epic in an aggregation.
+     * Features without an epic are left out.
+     *
+     * @param criteria criteria the features match
+     * @return estimate totals of each epic
+     */
+    List<FeatureEstimate> sumEstimatesByEpic(Criteria criteria);
+
+    /**
+     * Sets the typed date and estimate values of the features written before
+     * {@link Feature} had them, from their string values.
+     *
+     * @return number of features updated
+     */
+    int populateTypedValues();
+}
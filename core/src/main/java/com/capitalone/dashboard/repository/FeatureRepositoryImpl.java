@@ -0,0 +1,137 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureEstimate;
+import com.capitalone.dashboard.util.FeatureValues;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link FeatureRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class FeatureRepositoryImpl implements FeatureRepositoryCustom {
+    private static final String EPIC_ID = "sEpicID";
+    private static final String ESTIMATE = "estimateValue";
+    private static final String STORY_POINTS = "storyPoints";
+    private static final String ESTIMATE_TIME = "estimateTime";
+    private static final String EPIC_NUMBER = "epicNumber";
+    private static final String EPIC_NAME = "epicName";
+    private static final int STRING_TYPE = 2;
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public FeatureRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public FeatureEstimate sumEstimates(Criteria criteria) {
+        Aggregation aggregation = newAggregation(
+                match(criteria),
+                group().sum(ESTIMATE).as(STORY_POINTS).sum("sEstimateTime").as(ESTIMATE_TIME));
+
+        FeatureEstimate total = new FeatureEstimate();
+        for (DBObject result : aggregate(aggregation)) {
+            add(total, result);
+        }
+        return total;
+    }
+
+    @Override
+    public List<FeatureEstimate> sumEstimatesByEpic(Criteria criteria) {
+        Aggregation aggregation = newAggregation(
+                match(new Criteria().andOperator(criteria, where(EPIC_ID).nin(null, ""))),
+                group(EPIC_ID).sum(ESTIMATE).as(STORY_POINTS).sum("sEstimateTime").as(ESTIMATE_TIME)
+                        .first("sEpicNumber").as(EPIC_NUMBER)
+                        .first("sEpicName").as(EPIC_NAME));
+
+        List<FeatureEstimate> byEpic = new ArrayList<>();
+        for (DBObject result : aggregate(aggregation)) {
+            FeatureEstimate epic = new FeatureEstimate((String) result.get("_id"), (String) result.get(EPIC_NUMBER),
+                    (String) result.get(EPIC_NAME));
+            add(epic, result);
+            byEpic.add(epic);
+        }
+        return byEpic;
+    }
+
+    @Override
+    public int populateTypedValues() {
+        DBObject untyped = new Query(new Criteria().orOperator(
+                untyped("changeDate", "changeDateValue"),
+                untyped("sSprintBeginDate", "sprintBeginDateValue"),
+                untyped("sSprintEndDate", "sprintEndDateValue"),
+                untyped("sEstimate", ESTIMATE))).getQueryObject();
+        DBObject fields = new BasicDBObject("changeDate", 1).append("sSprintBeginDate", 1)
+                .append("sSprintEndDate", 1).append("sEstimate", 1);
+
+        DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Feature.class));
+        int updated = 0;
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        int pending = 0;
+        try (DBCursor cursor = collection.find(untyped, fields)) {
+            for (DBObject feature : cursor) {
+                BasicDBObject values = new BasicDBObject();
+                putIfNotNull(values, "changeDateValue", FeatureValues.toDate((String) feature.get("changeDate")));
+                putIfNotNull(values, "sprintBeginDateValue", FeatureValues.toDate((String) feature.get("sSprintBeginDate")));
+                putIfNotNull(values, "sprintEndDateValue", FeatureValues.toDate((String) feature.get("sSprintEndDate")));
+                putIfNotNull(values, ESTIMATE, FeatureValues.toEstimate((String) feature.get("sEstimate")));
+                if (values.isEmpty()) {
+                    continue;
+                }
+                bulk.find(new BasicDBObject("_id", feature.get("_id"))).updateOne(new BasicDBObject("$set", values));
+                if (++pending == BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = collection.initializeUnorderedBulkOperation();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+
+    // the string value is set but its typed copy is not
+    private static Criteria untyped(String field, String typedField) {
+        return where(field).type(STRING_TYPE).and(typedField).exists(false);
+    }
+
+    private static void putIfNotNull(DBObject values, String field, Object value) {
+        if (value != null) {
+            values.put(field, value);
+        }
+    }
+
+    private Iterable<DBObject> aggregate(Aggregation aggregation) {
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Feature.class), DBObject.class);
+    }
+
+    private static void add(FeatureEstimate estimate, DBObject result) {
+        estimate.setStoryPoints(estimate.getStoryPoints() + intValue(result.get(STORY_POINTS)));
+        estimate.setEstimateTime(estimate.getEstimateTime() + intValue(result.get(ESTIMATE_TIME)));
+    }
+
+    private static int intValue(Object sum) {
+        return sum == null ? 0 : ((Number) sum).intValue();
+    }
+}
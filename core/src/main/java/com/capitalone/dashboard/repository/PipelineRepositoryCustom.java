@@ -0,0 +1,53 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.BinaryArtifact;
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.PipelineCommit;
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+
+/**
+ * Targeted updates of a {@link com.capitalone.dashboard.model.Pipeline}. Each method changes only
+ * the given part of the pipeline document in a single atomic update, so concurrent writers do not
+ * overwrite each other and the cost of a write does not grow with the size of the pipeline. The
+ * pipeline document is created if it does not exist yet.
+ */
+public interface PipelineRepositoryCustom {
+
+    /**
+     * Adds commits to a stage of a pipeline. Commits already in the stage, matched by revision
+     * number, are left as they are.
+     *
+     * @param collectorItemId team dashboard collector item id of the pipeline
+     * @param stage stage name
+     * @param commits commits to add
+     */
+    void addCommits(ObjectId collectorItemId, String stage, Collection<PipelineCommit> commits);
+
+    /**
+     * Adds builds to the failed builds of a pipeline. Builds already in the failed builds, matched
+     * by id, are left as they are.
+     *
+     * @param collectorItemId team dashboard collector item id of the pipeline
+     * @param builds failed builds
+     */
+    void addFailedBuilds(ObjectId collectorItemId, Collection<Build> builds);
+
+    /**
+     * Removes builds, matched by id, from the failed builds of a pipeline.
+     *
+     * @param collectorItemId team dashboard collector item id of the pipeline
+     * @param builds builds to remove
+     */
+    void removeFailedBuilds(ObjectId collectorItemId, Collection<Build> builds);
+
+    /**
+     * Sets the last artifact processed by a stage of a pipeline.
+     *
+     * @param collectorItemId team dashboard collector item id of the pipeline
+     * @param stage stage name
+     * @param artifact last artifact
+     */
+    void setLastArtifact(ObjectId collectorItemId, String stage, BinaryArtifact artifact);
+}
@@ -0,0 +1,105 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.BinaryArtifact;
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
+import com.mongodb.BasicDBObject;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PipelineRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class PipelineRepositoryImpl implements PipelineRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PipelineRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void addCommits(ObjectId collectorItemId, String stage, Collection<PipelineCommit> commits) {
+        Map<Object, Object> byRevision = new LinkedHashMap<>();
+        for (PipelineCommit commit : commits) {
+            if (!byRevision.containsKey(commit.getScmRevisionNumber())) {
+                byRevision.put(commit.getScmRevisionNumber(), commit);
+            }
+        }
+        addMissing(collectorItemId, stagePath(stage, "commits"), "scmRevisionNumber", byRevision);
+    }
+
+    @Override
+    public void addFailedBuilds(ObjectId collectorItemId, Collection<Build> builds) {
+        Map<Object, Object> byId = new LinkedHashMap<>();
+        for (Build build : builds) {
+            if (!byId.containsKey(build.getId())) {
+                byId.put(build.getId(), build);
+            }
+        }
+        addMissing(collectorItemId, "failedBuilds", "_id", byId);
+    }
+
+    @Override
+    public void removeFailedBuilds(ObjectId collectorItemId, Collection<Build> builds) {
+        List<ObjectId> ids = new ArrayList<>();
+        for (Build build : builds) {
+            ids.add(build.getId());
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Update update = new Update().pull("failedBuilds", new BasicDBObject("_id", new BasicDBObject("$in", ids)));
+        mongoTemplate.updateFirst(byCollectorItemId(collectorItemId), update, Pipeline.class);
+    }
+
+    @Override
+    public void setLastArtifact(ObjectId collectorItemId, String stage, BinaryArtifact artifact) {
+        Update update = new Update().set(stagePath(stage, "lastArtifact"), artifact);
+        mongoTemplate.upsert(byCollectorItemId(collectorItemId), update, Pipeline.class);
+    }
+
+    /**
+     * Pushes the values whose key is not yet in the array at the given path. {@code $addToSet} compares
+     * whole documents, so it would add a second copy of an element whose other fields have changed.
+     * When none of the keys is in the array, the usual case, the values are pushed in one update;
+     * otherwise the pipeline is created if needed and each value is pushed only if its key is missing.
+     */
+    private void addMissing(ObjectId collectorItemId, String path, String keyField, Map<Object, Object> byKey) {
+        if (byKey.isEmpty()) {
+            return;
+        }
+        String keyPath = path + "." + keyField;
+        Query noneInArray = byCollectorItemId(collectorItemId).addCriteria(Criteria.where(keyPath).nin(byKey.keySet()));
+        Update pushAll = new Update().push(path).each(byKey.values().toArray());
+        if (mongoTemplate.updateFirst(noneInArray, pushAll, Pipeline.class).getN() > 0) {
+            return;
+        }
+
+        mongoTemplate.upsert(byCollectorItemId(collectorItemId), new Update().setOnInsert(path, new ArrayList<>()), Pipeline.class);
+        for (Map.Entry<Object, Object> entry : byKey.entrySet()) {
+            Query notInArray = byCollectorItemId(collectorItemId).addCriteria(Criteria.where(keyPath).ne(entry.getKey()));
+            mongoTemplate.updateFirst(notInArray, new Update().push(path, entry.getValue()), Pipeline.class);
+        }
+    }
+
+    private static Query byCollectorItemId(ObjectId collectorItemId) {
+        return new Query(Criteria.where("collectorItemId").is(collectorItemId));
+    }
+
+    private static String stagePath(String stage, String field) {
+        return "stages." + stage + "." + field;
+    }
+}
@@ -0,0 +1,11 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.PipelineResponse;
+import org.bson.types.ObjectId;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository for stored {@link PipelineResponse}s, keyed by team dashboard collector item id.
+ */
+public interface PipelineResponseRepository extends CrudRepository<PipelineResponse, ObjectId> {
+}
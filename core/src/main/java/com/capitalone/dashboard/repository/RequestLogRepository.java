@@ -4,5 +4,5 @@ import com.capitalone.dashboard.model.RequestLog;
 import org.bson.types.ObjectId;
 import org.springframework.data.repository.CrudRepository;
 
-public interface RequestLogRepository extends CrudRepository<RequestLog, ObjectId> {
+public interface RequestLogRepository extends CrudRepository<RequestLog, ObjectId>, RequestLogRepositoryCustom {
 }
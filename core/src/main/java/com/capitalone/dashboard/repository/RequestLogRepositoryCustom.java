@@ -0,0 +1,41 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.RequestLog;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * {@link RequestLog} operations that are not expressible as derived queries.
+ */
+public interface RequestLogRepositoryCustom {
+
+    /**
+     * Creates the query indexes of the request log collection in the background and sets up a
+     * TTL index on {@code created} that expires request logs after the given time. An existing
+     * TTL index is changed in place when the retention changes.
+     *
+     * @param retentionSeconds time request logs are kept, 0 or less to keep them forever
+     */
+    void ensureIndexes(long retentionSeconds);
+
+    /**
+     * Deletes request logs written before the {@code created} field was introduced, which the TTL
+     * index never expires.
+     *
+     * @param timestamp request logs with an older timestamp are deleted
+     * @return number of deleted request logs
+     */
+    int deleteUndatedBefore(long timestamp);
+
+    /**
+     * Streams request logs, most recent first, reading them from the database in batches as the
+     * iterator advances. The iterator must be closed.
+     *
+     * @param endpoint request endpoint, or null for any
+     * @param client client address, or null for any
+     * @param from earliest timestamp, inclusive, or null
+     * @param to latest timestamp, exclusive, or null
+     * @param max maximum number of request logs
+     * @return matching request logs
+     */
+    CloseableIterator<RequestLog> stream(String endpoint, String client, Long from, Long to, int max);
+}
@@ -0,0 +1,96 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.RequestLog;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * {@link RequestLogRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class RequestLogRepositoryImpl implements RequestLogRepositoryCustom {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestLogRepositoryImpl.class);
+
+    private static final String TTL_INDEX = "created_ttl";
+    private static final String EXPIRE_AFTER_SECONDS = "expireAfterSeconds";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public RequestLogRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void ensureIndexes(long retentionSeconds) {
+        DBCollection collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(RequestLog.class));
+        createIndex(collection, "timestamp", new BasicDBObject("timestamp", 1));
+        createIndex(collection, "endpoint_timestamp", new BasicDBObject("endpoint", 1).append("timestamp", 1));
+        createIndex(collection, "client_timestamp", new BasicDBObject("client", 1).append("timestamp", 1));
+
+        DBObject ttlIndex = null;
+        for (DBObject index : collection.getIndexInfo()) {
+            if (TTL_INDEX.equals(index.get("name"))) {
+                ttlIndex = index;
+            }
+        }
+        if (retentionSeconds <= 0) {
+            if (ttlIndex != null) {
+                collection.dropIndex(TTL_INDEX);
+            }
+        } else if (ttlIndex == null) {
+            collection.createIndex(new BasicDBObject("created", 1), new BasicDBObject("name", TTL_INDEX)
+                    .append(EXPIRE_AFTER_SECONDS, retentionSeconds).append("background", true));
+        } else if (!Long.valueOf(retentionSeconds).equals(toLong(ttlIndex.get(EXPIRE_AFTER_SECONDS)))) {
+            mongoTemplate.getDb().command(new BasicDBObject("collMod", collection.getName())
+                    .append("index", new BasicDBObject("keyPattern", new BasicDBObject("created", 1))
+                            .append(EXPIRE_AFTER_SECONDS, retentionSeconds))).throwOnError();
+            LOGGER.info("Request log retention changed to {} seconds", retentionSeconds);
+        }
+    }
+
+    @Override
+    public int deleteUndatedBefore(long timestamp) {
+        Query query = new Query(Criteria.where("timestamp").lt(timestamp).and("created").exists(false));
+        return mongoTemplate.remove(query, RequestLog.class).getN();
+    }
+
+    @Override
+    public CloseableIterator<RequestLog> stream(String endpoint, String client, Long from, Long to, int max) {
+        Query query = new Query();
+        if (endpoint != null) {
+            query.addCriteria(Criteria.where("endpoint").is(endpoint));
+        }
+        if (client != null) {
+            query.addCriteria(Criteria.where("client").is(client));
+        }
+        if (from != null || to != null) {
+            Criteria timestamp = Criteria.where("timestamp");
+            if (from != null) {
+                timestamp.gte(from);
+            }
+            if (to != null) {
+                timestamp.lt(to);
+            }
+            query.addCriteria(timestamp);
+        }
+        query.with(new Sort(Sort.Direction.DESC, "timestamp")).limit(max);
+        return mongoTemplate.stream(query, RequestLog.class);
+    }
+
+    private static void createIndex(DBCollection collection, String name, DBObject keys) {
+        collection.createIndex(keys, new BasicDBObject("name", name).append("background", true));
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.TeamDashboardCollectorItems;
+import org.bson.types.ObjectId;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+/**
+ * Repository for {@link TeamDashboardCollectorItems}, keyed by team dashboard id.
+ */
+public interface TeamDashboardCollectorItemsRepository extends CrudRepository<TeamDashboardCollectorItems, ObjectId> {
+
+    /**
+     * Finds the team dashboards with a component that uses a collector item.
+     *
+     * @param collectorItemId collector item id
+     * @return team dashboards using the collector item
+     */
+    List<TeamDashboardCollectorItems> findByCollectorItemIds(ObjectId collectorItemId);
+}
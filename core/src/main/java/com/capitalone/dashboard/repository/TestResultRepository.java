@@ -8,7 +8,8 @@ import org.springframework.data.repository.CrudRepository;
 /**
  * Repository for {@link TestResult} data.
  */
-public interface TestResultRepository extends CrudRepository<TestResult, ObjectId>, QueryDslPredicateExecutor<TestResult> {
+public interface TestResultRepository extends CrudRepository<TestResult, ObjectId>, QueryDslPredicateExecutor<TestResult>,
+        TestResultRepositoryCustom {
 
     /**
      * Finds the {@link TestResult} with the given execution ID for a specific
@@ -0,0 +1,65 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.TestCapability;
+import com.capitalone.dashboard.model.TestResult;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link TestResult} queries that are not expressible as derived or Querydsl queries.
+ */
+public interface TestResultRepositoryCustom {
+
+    /**
+     * Finds test results, most recent first, reading their nested lists only down to the given
+     * depth. Deeper lists are left out by the query projection and come back empty. The test cases
+     * of chunked test results are read from their chunks only from depth 3 on.
+     *
+     * @param criteria criteria the test results match
+     * @param max maximum number of test results, or null for all
+     * @param depth 0 - test result, 1 - test capabilities, 2 - test suites, 3 - test cases,
+     *              4 or null - test steps
+     * @return matching test results
+     */
+    List<TestResult> findAll(Criteria criteria, Integer max, Integer depth);
+
+    /**
+     * Saves a test result with the test cases of its suites split into
+     * {@link com.capitalone.dashboard.model.TestCaseChunk}s, so that the test result document only
+     * keeps the capability and suite summaries. The chunks of an earlier save are replaced: the new
+     * chunks are written first, the test result is switched over to them, and the old ones are
+     * removed last.
+     *
+     * @param testResult test result
+     * @param testCasesPerChunk maximum number of test cases in a chunk, 0 or less to embed the
+     *                          test cases in the test result document instead
+     * @return the saved test result
+     */
+    TestResult saveChunked(TestResult testResult, int testCasesPerChunk);
+
+    /**
+     * Adds test capabilities to a saved chunked test result. Only the chunks of the added
+     * capabilities are written, the test cases saved before are neither read nor rewritten. Test
+     * results that are not chunked are read and saved again as a whole by
+     * {@link #saveChunked(TestResult, int)}.
+     *
+     * @param testResult saved test result, read without its test cases
+     * @param testCapabilities test capabilities to add
+     * @param testCasesPerChunk maximum number of test cases in a chunk, 0 or less to embed the
+     *                          test cases in the test result document instead
+     * @return the saved test result
+     */
+    TestResult addTestCapabilities(TestResult testResult, Collection<TestCapability> testCapabilities,
+                                   int testCasesPerChunk);
+
+    /**
+     * Reads the test cases of chunked test results back into their suites. Test results that are
+     * not chunked are left as they are.
+     *
+     * @param testResults test results read with their test suites
+     * @param withSteps true to read the steps of the test cases too
+     */
+    void loadTestCases(Collection<TestResult> testResults, boolean withSteps);
+}
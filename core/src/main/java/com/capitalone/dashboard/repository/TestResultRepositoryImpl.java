@@ -0,0 +1,186 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.TestCapability;
+import com.capitalone.dashboard.model.TestCase;
+import com.capitalone.dashboard.model.TestCaseChunk;
+import com.capitalone.dashboard.model.TestResult;
+import com.capitalone.dashboard.model.TestSuite;
+import com.google.common.collect.Iterables;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link TestResultRepositoryCustom} implementation backed by {@link MongoTemplate}.
+ */
+public class TestResultRepositoryImpl implements TestResultRepositoryCustom {
+    // nested list left out at each depth
+    private static final String[] EXCLUDED_AT_DEPTH = {
+            "testCapabilities",
+            "testCapabilities.testSuites",
+            "testCapabilities.testSuites.testCases",
+            "testCapabilities.testSuites.testCases.testSteps"
+    };
+    private static final int TEST_CASES_DEPTH = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public TestResultRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<TestResult> findAll(Criteria criteria, Integer max, Integer depth) {
+        Query query = new Query(criteria).with(new Sort(Sort.Direction.DESC, "timestamp"));
+        if (max != null) {
+            query.limit(max);
+        }
+        if (depth != null && depth >= 0 && depth < EXCLUDED_AT_DEPTH.length) {
+            query.fields().exclude(EXCLUDED_AT_DEPTH[depth]);
+        }
+        List<TestResult> testResults = mongoTemplate.find(query, TestResult.class);
+        if (depth == null || depth >= TEST_CASES_DEPTH) {
+            loadTestCases(testResults, depth == null || depth > TEST_CASES_DEPTH);
+        }
+        return testResults;
+    }
+
+    @Override
+    public TestResult saveChunked(TestResult testResult, int testCasesPerChunk) {
+        boolean hadChunks = testResult.getId() != null && testResult.isChunked();
+        if (testCasesPerChunk <= 0) {
+            testResult.setChunked(false);
+            testResult.setChunkGeneration(null);
+            mongoTemplate.save(testResult);
+            if (hadChunks) {
+                mongoTemplate.remove(new Query(Criteria.where("testResultId").is(testResult.getId())),
+                        TestCaseChunk.class);
+            }
+            return testResult;
+        }
+
+        // the chunks of the new generation are written before the test result switches to them, so
+        // readers see either the old or the new test cases and a failed save leaves the old ones
+        if (testResult.getId() == null) {
+            testResult.setId(ObjectId.get());
+        }
+        ObjectId generation = ObjectId.get();
+        insertChunks(testResult.getId(), generation, testResult.getTestCapabilities(), 0, testCasesPerChunk);
+        testResult.setChunked(true);
+        testResult.setChunkGeneration(generation);
+        saveWithoutTestCases(testResult);
+
+        if (hadChunks) {
+            mongoTemplate.remove(new Query(Criteria.where("testResultId").is(testResult.getId())
+                    .and("generation").ne(generation)), TestCaseChunk.class);
+        }
+        return testResult;
+    }
+
+    @Override
+    public TestResult addTestCapabilities(TestResult testResult, Collection<TestCapability> testCapabilities,
+                                          int testCasesPerChunk) {
+        if (testResult.getId() == null || !testResult.isChunked() || testCasesPerChunk <= 0) {
+            loadTestCases(Collections.singletonList(testResult), true);
+            testResult.getTestCapabilities().addAll(testCapabilities);
+            return saveChunked(testResult, testCasesPerChunk);
+        }
+
+        int capabilityIndex = testResult.getTestCapabilities().size();
+        // chunks past the saved capabilities are left over from an interrupted call
+        mongoTemplate.remove(new Query(Criteria.where("testResultId").is(testResult.getId())
+                .and("capabilityIndex").gte(capabilityIndex)), TestCaseChunk.class);
+        insertChunks(testResult.getId(), testResult.getChunkGeneration(), testCapabilities, capabilityIndex,
+                testCasesPerChunk);
+        testResult.getTestCapabilities().addAll(testCapabilities);
+        return saveWithoutTestCases(testResult);
+    }
+
+    @Override
+    public void loadTestCases(Collection<TestResult> testResults, boolean withSteps) {
+        Map<ObjectId, TestResult> chunked = new HashMap<>();
+        for (TestResult testResult : testResults) {
+            if (testResult.isChunked()) {
+                chunked.put(testResult.getId(), testResult);
+            }
+        }
+        if (chunked.isEmpty()) {
+            return;
+        }
+
+        Query query = new Query(Criteria.where("testResultId").in(chunked.keySet())).with(new Sort(
+                "testResultId", "capabilityIndex", "suiteIndex", "chunk"));
+        if (!withSteps) {
+            query.fields().exclude("testCases.testSteps");
+        }
+        for (TestCaseChunk chunk : mongoTemplate.find(query, TestCaseChunk.class)) {
+            TestResult testResult = chunked.get(chunk.getTestResultId());
+            if (!Objects.equals(chunk.getGeneration(), testResult.getChunkGeneration())
+                    || chunk.getCapabilityIndex() >= testResult.getTestCapabilities().size()) {
+                continue;
+            }
+            TestCapability capability = Iterables.get(testResult.getTestCapabilities(), chunk.getCapabilityIndex());
+            if (chunk.getSuiteIndex() < capability.getTestSuites().size()) {
+                Iterables.get(capability.getTestSuites(), chunk.getSuiteIndex()).getTestCases()
+                        .addAll(chunk.getTestCases());
+            }
+        }
+    }
+
+    private void insertChunks(ObjectId testResultId, ObjectId generation,
+                              Collection<TestCapability> testCapabilities, int capabilityIndex,
+                              int testCasesPerChunk) {
+        List<TestCaseChunk> chunks = new ArrayList<>();
+        for (TestCapability capability : testCapabilities) {
+            int suiteIndex = 0;
+            for (TestSuite suite : capability.getTestSuites()) {
+                int chunk = 0;
+                for (List<TestCase> slice : Iterables.partition(suite.getTestCases(), testCasesPerChunk)) {
+                    chunks.add(new TestCaseChunk(testResultId, generation, capabilityIndex, suiteIndex, chunk++,
+                            new ArrayList<>(slice)));
+                }
+                suiteIndex++;
+            }
+            capabilityIndex++;
+        }
+        if (!chunks.isEmpty()) {
+            mongoTemplate.insert(chunks, TestCaseChunk.class);
+        }
+    }
+
+    /**
+     * Saves a chunked test result with the test cases left out of the document.
+     */
+    private TestResult saveWithoutTestCases(TestResult testResult) {
+        List<List<TestCase>> testCases = new ArrayList<>();
+        for (TestCapability capability : testResult.getTestCapabilities()) {
+            for (TestSuite suite : capability.getTestSuites()) {
+                testCases.add(new ArrayList<>(suite.getTestCases()));
+                suite.getTestCases().clear();
+            }
+        }
+        try {
+            mongoTemplate.save(testResult);
+        } finally {
+            int suites = 0;
+            for (TestCapability capability : testResult.getTestCapabilities()) {
+                for (TestSuite suite : capability.getTestSuites()) {
+                    suite.getTestCases().addAll(testCases.get(suites++));
+                }
+            }
+        }
+        return testResult;
+    }
+}
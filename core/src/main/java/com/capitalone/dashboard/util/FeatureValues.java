@@ -0,0 +1,79 @@
+package com.capitalone.dashboard.util;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the string dates and estimates that feature collectors store on a
+ * {@link com.capitalone.dashboard.model.Feature} into typed values that Mongo can index and
+ * compare natively.
+ */
+public final class FeatureValues {
+    // yyyy-MM-dd, optionally followed by THH:mm, :ss and fractions of a second
+    private static final Pattern ISO_DATE_TIME = Pattern.compile(
+            "^(\\d{4})-(\\d{2})-(\\d{2})(?:T(\\d{2}):(\\d{2})(?::(\\d{2})(?:\\.(\\d{1,3})\\d*)?)?)?");
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private FeatureValues() {
+        // util class.
+    }
+
+    /**
+     * Converts an ISO date time as written by the feature collectors. The time zone offset is
+     * ignored and out of range fields roll over, so that dates keep the order in which they
+     * compared as strings, including the Kanban end date.
+     *
+     * @param isoDateTime ISO date time, such as 2015-11-01T00:00:00.0000000
+     * @return date, or null if the string is not an ISO date time
+     */
+    public static Date toDate(String isoDateTime) {
+        if (isoDateTime == null) {
+            return null;
+        }
+        Matcher matcher = ISO_DATE_TIME.matcher(isoDateTime.trim());
+        if (!matcher.find()) {
+            return null;
+        }
+        Calendar calendar = new GregorianCalendar(UTC);
+        calendar.setLenient(true);
+        calendar.clear();
+        calendar.set(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) - 1,
+                Integer.parseInt(matcher.group(3)), toInt(matcher.group(4)), toInt(matcher.group(5)),
+                toInt(matcher.group(6)));
+        String millis = matcher.group(7);
+        if (millis != null) {
+            // .5 is 500 milliseconds
+            calendar.set(Calendar.MILLISECOND, Integer.parseInt((millis + "00").substring(0, 3)));
+        }
+        return calendar.getTime();
+    }
+
+    /**
+     * Converts a story point estimate. Fractional estimates are truncated.
+     *
+     * @param estimate estimate
+     * @return estimate, or null if the string is not a number
+     */
+    public static Integer toEstimate(String estimate) {
+        if (estimate == null || estimate.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(estimate.trim());
+        } catch (NumberFormatException e) {
+            try {
+                return Double.valueOf(estimate.trim()).intValue();
+            } catch (NumberFormatException notANumber) {
+                return null;
+            }
+        }
+    }
+
+    private static int toInt(String digits) {
+        return digits == null ? 0 : Integer.parseInt(digits);
+    }
+}
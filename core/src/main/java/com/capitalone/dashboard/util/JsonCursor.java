@@ -0,0 +1,132 @@
+package com.capitalone.dashboard.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Forward-only reader over a JSON response body. Collectors use it to walk the array of items
+ * in a response and map each item as soon as it has been read, so a large response is never
+ * held in memory as a String or as a complete json-simple tree.
+ * <p>
+ * Items are handed out as json-simple values (integers as {@link Long}, decimals as
+ * {@link Double}) so existing mapping code keeps working unchanged.
+ */
+public class JsonCursor implements Closeable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private boolean inArray;
+
+    public JsonCursor(InputStream in) throws IOException {
+        this.parser = JSON_FACTORY.createParser(in);
+    }
+
+    /**
+     * Moves to the array reached by following the given field names from the root object,
+     * e.g. {@code enterArray("plans", "plan")} for {@code {"plans": {"plan": [...]}}}. With no
+     * field names the root of the document has to be the array.
+     *
+     * @param path field names leading to the array
+     * @return true if the array was found, false if the document is empty or has no such array
+     * @throws IOException if the stream can not be read or is not valid JSON
+     */
+    public boolean enterArray(String... path) throws IOException {
+        JsonToken token = parser.nextToken();
+        for (String field : path) {
+            if (token != JsonToken.START_OBJECT || !seekField(field)) {
+                return false;
+            }
+            token = parser.nextToken();
+        }
+        inArray = token == JsonToken.START_ARRAY;
+        return inArray;
+    }
+
+    /**
+     * Reads the next object of the array entered with {@link #enterArray(String...)}. Elements
+     * that are not objects are skipped.
+     *
+     * @return the next object, or null once the array is exhausted
+     * @throws IOException if the stream can not be read or is not valid JSON
+     */
+    public JSONObject nextObject() throws IOException {
+        while (inArray) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                inArray = false;
+            } else if (token == JsonToken.START_OBJECT) {
+                return (JSONObject) readValue(token);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the whole document as a single object. Meant for responses that describe one item.
+     *
+     * @return the root object, or null if the document is empty or not an object
+     * @throws IOException if the stream can not be read or is not valid JSON
+     */
+    public JSONObject readObject() throws IOException {
+        JsonToken token = parser.nextToken();
+        return token == JsonToken.START_OBJECT ? (JSONObject) readValue(token) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private boolean seekField(String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.getCurrentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                JSONObject object = new JSONObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    object.put(name, readValue(parser.nextToken()));
+                }
+                return object;
+            case START_ARRAY:
+                JSONArray array = new JSONArray();
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                    array.add(readValue(element));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? parser.getBigIntegerValue() : parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+}
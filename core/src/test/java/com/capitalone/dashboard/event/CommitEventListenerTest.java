@@ -1,7 +1,6 @@
 package com.capitalone.dashboard.event;
 
 import com.capitalone.dashboard.model.Application;
-import com.capitalone.dashboard.model.Collector;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
 import com.capitalone.dashboard.model.Commit;
@@ -10,16 +9,16 @@ import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.DashboardType;
 import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
 import com.capitalone.dashboard.model.PipelineStageType;
+import com.capitalone.dashboard.model.TeamDashboardCollectorItems;
 import com.capitalone.dashboard.repository.CollectorItemRepository;
 import com.capitalone.dashboard.repository.CollectorRepository;
-import com.capitalone.dashboard.repository.ComponentRepository;
-import com.capitalone.dashboard.repository.DashboardRepository;
 import com.capitalone.dashboard.repository.PipelineRepository;
 import org.bson.types.ObjectId;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
@@ -30,6 +29,10 @@ import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,26 +41,35 @@ import static org.mockito.Mockito.when;
 public class CommitEventListenerTest {
 
     @Mock
-    private ComponentRepository componentRepository;
+    private CollectorRepository collectorRepository;
 
     @Mock
-    private DashboardRepository dashboardRepository;
+    private CollectorItemRepository collectorItemRepository;
 
     @Mock
-    private CollectorRepository collectorRepository;
+    private PipelineRepository pipelineRepository;
 
     @Mock
-    private CollectorItemRepository collectorItemRepository;
+    private PipelineResponseUpdater pipelineResponseUpdater;
 
     @Mock
-    private PipelineRepository pipelineRepository;
+    private TeamDashboardIndex teamDashboardIndex;
+
+    private PipelineUpdateQueue pipelineUpdateQueue;
 
-    @InjectMocks
     private CommitEventListener eventListener;
 
     private static final boolean HAS_BUILD_COLLECTOR = true;
     private static final boolean NO_BUILD_COLLECTOR = false;
 
+    @Before
+    public void setUp() {
+        // not started, updates are applied by flush() on the test thread
+        pipelineUpdateQueue = new PipelineUpdateQueue(pipelineRepository, pipelineResponseUpdater, 100, 0);
+        eventListener = new CommitEventListener(collectorRepository, collectorItemRepository, pipelineRepository,
+                pipelineUpdateQueue, teamDashboardIndex);
+    }
+
     @Test
     public void commitSaved_addedToPipeline() {
         // Arrange
@@ -65,11 +77,11 @@ public class CommitEventListenerTest {
         Dashboard dashboard = createDashboard(HAS_BUILD_COLLECTOR);
         Pipeline pipeline = new Pipeline();
 
-        setupFindDashboards(commit, dashboard);
-        setupGetOrCreatePipeline(dashboard, pipeline);
+        setupTeamDashboardIndex(commit, dashboard, pipeline);
 
         // Act
         eventListener.onAfterSave(new AfterSaveEvent<>(commit, null, ""));
+        pipelineUpdateQueue.flush();
 
         // Assert
         boolean commitFound = pipeline.getStages()
@@ -78,7 +90,7 @@ public class CommitEventListenerTest {
                 .stream()
                 .anyMatch(pc -> pc.getScmRevisionNumber().equals(commit.getScmRevisionNumber()));
         assertThat(commitFound, is(true));
-        verify(pipelineRepository).save(pipeline);
+        verify(pipelineRepository).addCommits(any(ObjectId.class), eq(PipelineStageType.Commit.name()), anyCollectionOf(PipelineCommit.class));
     }
 
     @Test
@@ -88,11 +100,11 @@ public class CommitEventListenerTest {
         Dashboard dashboard = createDashboard(HAS_BUILD_COLLECTOR);
         Pipeline pipeline = new Pipeline();
 
-        setupFindDashboards(commit, dashboard);
-        setupGetOrCreatePipeline(dashboard, pipeline);
+        setupTeamDashboardIndex(commit, dashboard, pipeline);
 
         // Act
         eventListener.onAfterSave(new AfterSaveEvent<>(commit, null, ""));
+        pipelineUpdateQueue.flush();
 
         // Assert
         boolean commitFound = !pipeline.getStages().isEmpty() &&  pipeline.getStages()
@@ -101,7 +113,7 @@ public class CommitEventListenerTest {
                 .stream()
                 .anyMatch(pc -> pc.getScmRevisionNumber().equals(commit.getScmRevisionNumber()));
         assertThat(commitFound, is(false));
-        verify(pipelineRepository, never()).save(pipeline);
+        verify(pipelineRepository, never()).addCommits(any(ObjectId.class), anyString(), anyCollectionOf(PipelineCommit.class));
     }
 
     @Test
@@ -111,11 +123,11 @@ public class CommitEventListenerTest {
         Dashboard dashboard = createDashboard(HAS_BUILD_COLLECTOR);
         Pipeline pipeline = new Pipeline();
 
-        setupFindDashboards(commit, dashboard);
-        setupGetOrCreatePipeline(dashboard, pipeline);
+        setupTeamDashboardIndex(commit, dashboard, pipeline);
 
         // Act
         eventListener.onAfterSave(new AfterSaveEvent<>(commit, null, ""));
+        pipelineUpdateQueue.flush();
 
         // Assert
         boolean commitFound = !pipeline.getStages().isEmpty() &&  pipeline.getStages()
@@ -124,7 +136,7 @@ public class CommitEventListenerTest {
                 .stream()
                 .anyMatch(pc -> pc.getScmRevisionNumber().equals(commit.getScmRevisionNumber()));
         assertThat(commitFound, is(false));
-        verify(pipelineRepository, never()).save(pipeline);
+        verify(pipelineRepository, never()).addCommits(any(ObjectId.class), anyString(), anyCollectionOf(PipelineCommit.class));
     }
     @Test
     public void commitSaved_noBuildCollector_notAddedToPipeline() {
@@ -133,15 +145,15 @@ public class CommitEventListenerTest {
         Dashboard dashboard = createDashboard(NO_BUILD_COLLECTOR);
         Pipeline pipeline = new Pipeline();
 
-        setupFindDashboards(commit, dashboard);
-        setupGetOrCreatePipeline(dashboard, pipeline);
+        setupTeamDashboardIndex(commit, dashboard, pipeline);
 
         // Act
         eventListener.onAfterSave(new AfterSaveEvent<>(commit, null, ""));
+        pipelineUpdateQueue.flush();
 
         // Assert
         assertThat(pipeline.getStages().get(PipelineStageType.Commit.name()), nullValue());
-        verify(pipelineRepository, never()).save(pipeline);
+        verify(pipelineRepository, never()).addCommits(any(ObjectId.class), anyString(), anyCollectionOf(PipelineCommit.class));
     }
 
     private Commit createCommit(String revisionNumber) {
@@ -183,25 +195,15 @@ public class CommitEventListenerTest {
         return dashboard;
     }
 
-    private void setupFindDashboards(Commit commit, Dashboard dashboard) {
-        CollectorItem commitCollectorItem = new CollectorItem();
-        List<Component> components = Collections.singletonList(dashboard.getApplication().getComponents().get(0));
-        commitCollectorItem.setId(commit.getCollectorItemId());
-        when(collectorItemRepository.findOne(commit.getCollectorItemId())).thenReturn(commitCollectorItem);
-        when(componentRepository.findBySCMCollectorItemId(commitCollectorItem.getId())).thenReturn(components);
-        when(dashboardRepository.findByApplicationComponentsIn(components)).thenReturn(Collections.singletonList(dashboard));
-    }
-
-    private void setupGetOrCreatePipeline(Dashboard dashboard, Pipeline pipeline) {
-        Collector productCollector = new Collector();
-        productCollector.setId(ObjectId.get());
-        CollectorItem teamDashboardCI = collectorItem();
+    private void setupTeamDashboardIndex(Commit commit, Dashboard dashboard, Pipeline pipeline) {
+        TeamDashboardCollectorItems teamDashboard = new TeamDashboardCollectorItems();
+        teamDashboard.setDashboardId(dashboard.getId());
+        teamDashboard.setPipelineCollectorItemId(ObjectId.get());
+        List<CollectorItem> buildItems = dashboard.getApplication().getComponents().get(0).getCollectorItems(CollectorType.Build);
+        teamDashboard.setBuildCollector(buildItems != null && !buildItems.isEmpty());
 
-        when(collectorRepository.findByCollectorType(CollectorType.Product))
-                .thenReturn(Collections.singletonList(productCollector));
-        when(collectorItemRepository.findTeamDashboardCollectorItemsByCollectorIdAndDashboardId(productCollector.getId(), dashboard.getId().toString()))
-                .thenReturn(teamDashboardCI);
-        when(pipelineRepository.findByCollectorItemId(teamDashboardCI.getId())).thenReturn(pipeline);
+        when(teamDashboardIndex.findByCollectorItemId(commit.getCollectorItemId())).thenReturn(Collections.singletonList(teamDashboard));
+        when(pipelineRepository.findByCollectorItemId(teamDashboard.getPipelineCollectorItemId())).thenReturn(pipeline);
     }
 
     private CollectorItem collectorItem() {
@@ -0,0 +1,148 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
+import com.capitalone.dashboard.model.PipelineStageType;
+import com.capitalone.dashboard.repository.PipelineRepository;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collection;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PipelineUpdateQueueTest {
+
+    @Mock
+    private PipelineRepository pipelineRepository;
+
+    @Mock
+    private PipelineResponseUpdater pipelineResponseUpdater;
+
+    private PipelineUpdateQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new PipelineUpdateQueue(pipelineRepository, pipelineResponseUpdater, 100, 0);
+    }
+
+    @Test
+    public void flush_updatesForSamePipeline_oneWrite() {
+        ObjectId pipelineId = ObjectId.get();
+        Pipeline pipeline = pipeline(pipelineId);
+        Pipeline stored = pipeline(pipelineId);
+        when(pipelineRepository.findByCollectorItemId(pipelineId)).thenReturn(pipeline, stored);
+
+        queue.submit(pipelineId, p -> p.addFailedBuild(build("1")));
+        queue.submit(pipelineId, p -> p.addFailedBuild(build("2")));
+        assertThat(queue.getQueueDepth(), is(2));
+
+        queue.flush();
+
+        assertThat(pipeline.getFailedBuilds().size(), is(2));
+        // read once to apply the updates, and once more for the response after writing them
+        verify(pipelineRepository, times(2)).findByCollectorItemId(pipelineId);
+        ArgumentCaptor<Collection<Build>> builds = collectionCaptor();
+        verify(pipelineRepository, times(1)).addFailedBuilds(eq(pipelineId), builds.capture());
+        assertThat(builds.getValue().size(), is(2));
+        verify(pipelineRepository, never()).save(any(Pipeline.class));
+        verify(pipelineResponseUpdater, times(1)).update(stored);
+        assertThat(queue.getQueueDepth(), is(0));
+        assertThat(queue.getAppliedUpdates(), is(2L));
+        assertThat(queue.getPipelineWrites(), is(1L));
+    }
+
+    @Test
+    public void flush_failingUpdate_otherPipelinesStillWritten() {
+        ObjectId failing = ObjectId.get();
+        ObjectId other = ObjectId.get();
+        when(pipelineRepository.findByCollectorItemId(other)).thenReturn(pipeline(other));
+
+        queue.submit(failing, p -> {
+            throw new IllegalStateException("boom");
+        });
+        queue.submit(other, p -> p.addFailedBuild(build("1")));
+
+        queue.flush();
+
+        verify(pipelineRepository, never()).addFailedBuilds(eq(failing), anyCollectionOf(Build.class));
+        verify(pipelineRepository).addFailedBuilds(eq(other), anyCollectionOf(Build.class));
+    }
+
+    @Test
+    public void flush_writesOnlyChanges() {
+        ObjectId pipelineId = ObjectId.get();
+        Pipeline pipeline = pipeline(pipelineId);
+        pipeline.addCommit(PipelineStageType.Commit.name(), commit("sha0"));
+        Build failedBuild = build("1");
+        pipeline.addFailedBuild(failedBuild);
+        when(pipelineRepository.findByCollectorItemId(pipelineId)).thenReturn(pipeline);
+
+        queue.submit(pipelineId, p -> {
+            p.addCommit(PipelineStageType.Commit.name(), commit("sha1"));
+            p.getFailedBuilds().clear();
+        });
+        queue.flush();
+
+        ArgumentCaptor<Collection<PipelineCommit>> commits = collectionCaptor();
+        verify(pipelineRepository).addCommits(eq(pipelineId), eq(PipelineStageType.Commit.name()), commits.capture());
+        assertThat(commits.getValue(), contains(commit("sha1")));
+        ArgumentCaptor<Collection<Build>> builds = collectionCaptor();
+        verify(pipelineRepository).removeFailedBuilds(eq(pipelineId), builds.capture());
+        assertThat(builds.getValue(), contains(failedBuild));
+        verify(pipelineRepository, never()).addFailedBuilds(any(ObjectId.class), anyCollectionOf(Build.class));
+    }
+
+    @Test
+    public void flush_noChanges_nothingWritten() {
+        ObjectId pipelineId = ObjectId.get();
+        when(pipelineRepository.findByCollectorItemId(pipelineId)).thenReturn(pipeline(pipelineId));
+
+        queue.submit(pipelineId, p -> { });
+        queue.flush();
+
+        assertThat(queue.getAppliedUpdates(), is(1L));
+        assertThat(queue.getPipelineWrites(), is(0L));
+        verify(pipelineResponseUpdater, never()).update(any(Pipeline.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArgumentCaptor<Collection<T>> collectionCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(Collection.class);
+    }
+
+    private Pipeline pipeline(ObjectId collectorItemId) {
+        Pipeline pipeline = new Pipeline();
+        pipeline.setCollectorItemId(collectorItemId);
+        return pipeline;
+    }
+
+    private PipelineCommit commit(String revision) {
+        PipelineCommit commit = new PipelineCommit(1L);
+        commit.setScmRevisionNumber(revision);
+        return commit;
+    }
+
+    private Build build(String number) {
+        Build build = new Build();
+        build.setId(ObjectId.get());
+        build.setNumber(number);
+        return build;
+    }
+}
@@ -0,0 +1,131 @@
+package com.capitalone.dashboard.event;
+
+import com.capitalone.dashboard.model.Application;
+import com.capitalone.dashboard.model.Collector;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.TeamDashboardCollectorItems;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.CollectorRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.TeamDashboardCollectorItemsRepository;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TeamDashboardIndexTest {
+
+    @Mock
+    private TeamDashboardCollectorItemsRepository teamDashboardCollectorItemsRepository;
+    @Mock
+    private DashboardRepository dashboardRepository;
+    @Mock
+    private CollectorRepository collectorRepository;
+    @Mock
+    private CollectorItemRepository collectorItemRepository;
+
+    private TeamDashboardIndex index;
+
+    @Before
+    public void setUp() {
+        index = new TeamDashboardIndex(teamDashboardCollectorItemsRepository, dashboardRepository,
+                collectorRepository, collectorItemRepository, 60000);
+    }
+
+    @Test
+    public void update_indexesCollectorItemsOfAllComponents() {
+        CollectorItem scm = collectorItem();
+        CollectorItem build = collectorItem();
+        Component component = new Component("comp");
+        component.addCollectorItem(CollectorType.SCM, scm);
+        component.addCollectorItem(CollectorType.Build, build);
+        Dashboard dashboard = new Dashboard("template", "title", new Application("app", component), "owner", DashboardType.Team);
+        dashboard.setId(ObjectId.get());
+        ObjectId pipelineId = ObjectId.get();
+
+        index.update(dashboard, pipelineId);
+
+        ArgumentCaptor<TeamDashboardCollectorItems> saved = ArgumentCaptor.forClass(TeamDashboardCollectorItems.class);
+        verify(teamDashboardCollectorItemsRepository).save(saved.capture());
+        assertThat(saved.getValue().getDashboardId(), is(dashboard.getId()));
+        assertThat(saved.getValue().getPipelineCollectorItemId(), is(pipelineId));
+        assertThat(saved.getValue().hasBuildCollector(), is(true));
+        assertThat(saved.getValue().getCollectorItemIds(), containsInAnyOrder(scm.getId(), build.getId()));
+    }
+
+    @Test
+    public void findByCollectorItemId_cachedUntilDashboardChanges() {
+        ObjectId collectorItemId = ObjectId.get();
+        TeamDashboardCollectorItems teamDashboard = new TeamDashboardCollectorItems();
+        when(teamDashboardCollectorItemsRepository.findByCollectorItemIds(collectorItemId))
+                .thenReturn(Collections.singletonList(teamDashboard));
+
+        List<TeamDashboardCollectorItems> first = index.findByCollectorItemId(collectorItemId);
+        List<TeamDashboardCollectorItems> second = index.findByCollectorItemId(collectorItemId);
+
+        assertThat(first.size(), is(1));
+        assertThat(second, is(first));
+        verify(teamDashboardCollectorItemsRepository, times(1)).findByCollectorItemIds(collectorItemId);
+
+        index.remove(ObjectId.get());
+        index.findByCollectorItemId(collectorItemId);
+        verify(teamDashboardCollectorItemsRepository, times(2)).findByCollectorItemIds(collectorItemId);
+    }
+
+    @Test
+    public void findByCollectorItemId_indexesAllTeamDashboardsAlthoughSomeAreIndexed() {
+        Collector productCollector = new Collector();
+        productCollector.setId(ObjectId.get());
+        when(collectorRepository.findByCollectorType(CollectorType.Product))
+                .thenReturn(Collections.singletonList(productCollector));
+        Dashboard indexed = teamDashboard();
+        Dashboard unindexed = teamDashboard();
+        when(dashboardRepository.findTeamDashboards()).thenReturn(Arrays.asList(indexed, unindexed));
+        CollectorItem pipelineItem = collectorItem();
+        when(collectorItemRepository.findTeamDashboardCollectorItemsByCollectorIdAndDashboardId(
+                eq(productCollector.getId()), anyString())).thenReturn(pipelineItem);
+        index.update(indexed, pipelineItem.getId());
+
+        index.findByCollectorItemId(ObjectId.get());
+
+        ArgumentCaptor<TeamDashboardCollectorItems> saved = ArgumentCaptor.forClass(TeamDashboardCollectorItems.class);
+        verify(teamDashboardCollectorItemsRepository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues().get(2).getDashboardId(), is(unindexed.getId()));
+
+        index.findByCollectorItemId(ObjectId.get());
+        verify(dashboardRepository, times(1)).findTeamDashboards();
+    }
+
+    private Dashboard teamDashboard() {
+        Dashboard dashboard = new Dashboard("template", "title", new Application("app", new Component("comp")), "owner", DashboardType.Team);
+        dashboard.setId(ObjectId.get());
+        return dashboard;
+    }
+
+    private CollectorItem collectorItem() {
+        CollectorItem item = new CollectorItem();
+        item.setId(ObjectId.get());
+        return item;
+    }
+}
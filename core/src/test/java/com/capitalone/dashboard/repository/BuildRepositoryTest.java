@@ -0,0 +1,109 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.BuildStatus;
+import com.capitalone.dashboard.model.CommitType;
+import com.capitalone.dashboard.model.SCM;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class BuildRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private BuildRepository buildRepository;
+
+    @After
+    public void tearDown() {
+        buildRepository.deleteAll();
+    }
+
+    @Test
+    public void findExistingNumbers_onlyMatchesCollectorItem() {
+        ObjectId job1 = ObjectId.get();
+        ObjectId job2 = ObjectId.get();
+        buildRepository.save(Arrays.asList(build(job1, "1"), build(job1, "2"), build(job2, "3")));
+
+        Set<String> existing = buildRepository.findExistingNumbers(job1,
+                Arrays.asList(build(job1, "1"), build(job1, "3"), build(job1, "4")));
+
+        assertEquals(new HashSet<>(Collections.singletonList("1")), existing);
+    }
+
+    @Test
+    public void findExistingNumbers_moreCandidatesThanOneQueryHolds() {
+        ObjectId job = ObjectId.get();
+        List<Build> candidates = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            candidates.add(build(job, String.valueOf(i)));
+        }
+        buildRepository.save(Arrays.asList(build(job, "5"), build(job, "1500"), build(job, "2499")));
+
+        assertEquals(new HashSet<>(Arrays.asList("5", "1500", "2499")),
+                buildRepository.findExistingNumbers(job, candidates));
+    }
+
+    @Test
+    public void findExistingNumbers_noCandidates() {
+        Set<String> existing = buildRepository.findExistingNumbers(ObjectId.get(), Collections.<Build>emptyList());
+
+        assertTrue(existing.isEmpty());
+        existing.add("1");
+    }
+
+    @Test
+    public void addToSourceChangeSet_onlyWritesTheChangeSet() {
+        Build build = build(ObjectId.get(), "1");
+        build.getSourceChangeSet().add(scm("a"));
+        buildRepository.save(build);
+
+        // a concurrent save of the build by its collector
+        Build saved = buildRepository.findOne(build.getId());
+        saved.setBuildStatus(BuildStatus.Success);
+        buildRepository.save(saved);
+
+        buildRepository.addToSourceChangeSet(build.getId(), Arrays.asList(scm("a"), scm("b")));
+
+        Build updated = buildRepository.findOne(build.getId());
+        assertEquals(BuildStatus.Success, updated.getBuildStatus());
+        assertEquals(2, updated.getSourceChangeSet().size());
+        assertEquals("a", updated.getSourceChangeSet().get(0).getScmRevisionNumber());
+        assertEquals("b", updated.getSourceChangeSet().get(1).getScmRevisionNumber());
+    }
+
+    private SCM scm(String revision) {
+        return new SCM("http://scm/repo", "master", revision, "log", "author",
+                Collections.<String>emptyList(), 1L, 1, CommitType.New);
+    }
+
+    private Build build(ObjectId collectorItemId, String number) {
+        Build build = new Build();
+        build.setCollectorItemId(collectorItemId);
+        build.setNumber(number);
+        build.setTimestamp(System.currentTimeMillis());
+        return build;
+    }
+}
@@ -0,0 +1,109 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.CloudHistoryResolution;
+import com.capitalone.dashboard.model.CloudInstanceHistory;
+import com.capitalone.dashboard.model.CloudInstanceHistoryRollup;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class CloudInstanceHistoryRollupRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    private static final String ACCOUNT = "123456789";
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    // Monday 2016-02-01 00:00 UTC
+    private static final long MONDAY = 1454284800000L;
+
+    @Autowired
+    private CloudInstanceHistoryRollupRepository cloudInstanceHistoryRollupRepository;
+
+    @Autowired
+    private CloudInstanceHistoryRepository cloudInstanceHistoryRepository;
+
+    @After
+    public void tearDown() {
+        cloudInstanceHistoryRollupRepository.deleteAll();
+        cloudInstanceHistoryRepository.deleteAll();
+    }
+
+    @Test
+    public void addToRollups_aggregatesPerBucket() {
+        cloudInstanceHistoryRollupRepository.addToRollups(history(MONDAY + 10, 10.0, 5, 100.0));
+        cloudInstanceHistoryRollupRepository.addToRollups(history(MONDAY + HOUR / 2, 30.0, 6, 110.0));
+        cloudInstanceHistoryRollupRepository.addToRollups(history(MONDAY + HOUR, 20.0, 7, 120.0));
+
+        List<CloudInstanceHistoryRollup> hours = cloudInstanceHistoryRollupRepository.findRollups(ACCOUNT,
+                CloudHistoryResolution.HOUR, MONDAY, MONDAY + 2 * HOUR);
+        assertEquals(2, hours.size());
+        CloudInstanceHistoryRollup first = hours.get(0);
+        assertEquals(MONDAY, first.getTime());
+        assertEquals(2, first.getSamples());
+        assertEquals(10.0, first.getCpuMin(), 0.0);
+        assertEquals(30.0, first.getCpuMax(), 0.0);
+        assertEquals(20.0, first.getCpu(), 0.0);
+        assertEquals(6, first.getTotal());
+        assertEquals(110.0, first.getEstimatedCharge(), 0.0);
+        assertEquals(MONDAY + HOUR, hours.get(1).getTime());
+        assertEquals(1, hours.get(1).getSamples());
+
+        List<CloudInstanceHistoryRollup> weeks = cloudInstanceHistoryRollupRepository.findRollups(ACCOUNT,
+                CloudHistoryResolution.WEEK, MONDAY, MONDAY + CloudHistoryResolution.WEEK.getLength());
+        assertEquals(1, weeks.size());
+        assertEquals(3, weeks.get(0).getSamples());
+        assertEquals(7, weeks.get(0).getTotal());
+        assertEquals(20.0, weeks.get(0).getCpu(), 0.0);
+    }
+
+    @Test
+    public void addMissingToRollups_addsEachStoredRecordOnce() {
+        // the latest record was rolled up when it was saved, the earlier ones before rollups existed
+        CloudInstanceHistory rolledUp = cloudInstanceHistoryRepository.save(history(MONDAY + 20, 20.0, 7, 120.0));
+        cloudInstanceHistoryRollupRepository.addToRollups(rolledUp);
+        cloudInstanceHistoryRepository.save(history(MONDAY, 10.0, 5, 100.0));
+        cloudInstanceHistoryRepository.save(history(MONDAY + 10, 30.0, 6, 110.0));
+
+        assertEquals(2, cloudInstanceHistoryRollupRepository.addMissingToRollups());
+        assertEquals(0, cloudInstanceHistoryRollupRepository.addMissingToRollups());
+        assertFalse(cloudInstanceHistoryRollupRepository.addToRollups(rolledUp));
+
+        List<CloudInstanceHistoryRollup> hours = cloudInstanceHistoryRollupRepository.findRollups(ACCOUNT,
+                CloudHistoryResolution.HOUR, MONDAY, MONDAY + HOUR);
+        assertEquals(1, hours.size());
+        assertEquals(3, hours.get(0).getSamples());
+        assertEquals(20.0, hours.get(0).getCpu(), 0.0);
+        assertEquals(7, hours.get(0).getTotal());
+        assertEquals(120.0, hours.get(0).getEstimatedCharge(), 0.0);
+        for (CloudInstanceHistory history : cloudInstanceHistoryRepository.findAll()) {
+            assertTrue(history.isRolledUp());
+        }
+    }
+
+    private CloudInstanceHistory history(long time, double cpu, int total, double estimatedCharge) {
+        CloudInstanceHistory history = new CloudInstanceHistory();
+        history.setAccountNumber(ACCOUNT);
+        history.setTime(time);
+        history.setCpu(cpu);
+        history.setTotal(total);
+        history.setEstimatedCharge(estimatedCharge);
+        return history;
+    }
+}
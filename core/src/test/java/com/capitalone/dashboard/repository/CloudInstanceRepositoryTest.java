@@ -0,0 +1,123 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.CloudInstance;
+import com.capitalone.dashboard.model.NameValue;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class CloudInstanceRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private CloudInstanceRepository cloudInstanceRepository;
+
+    @After
+    public void tearDown() {
+        cloudInstanceRepository.deleteAll();
+    }
+
+    @Test
+    public void bulkWrite_insertsReplacesAndDeletes() {
+        CloudInstance updated = cloudInstanceRepository.save(instance("i-1", "m3.medium"));
+        CloudInstance deleted = cloudInstanceRepository.save(instance("i-2", "m3.medium"));
+        CloudInstance inserted = instance("i-3", "m3.large");
+        CloudInstance replacement = instance("i-1", "m3.large");
+        replacement.setId(updated.getId());
+
+        cloudInstanceRepository.bulkWrite(Collections.singletonList(inserted),
+                Collections.singletonList(replacement), Collections.singletonList(deleted));
+
+        assertNotNull(inserted.getId());
+        assertEquals(2, cloudInstanceRepository.count());
+        assertEquals("m3.large", cloudInstanceRepository.findByInstanceId("i-1").getInstanceType());
+        assertEquals(updated.getId(), cloudInstanceRepository.findByInstanceId("i-1").getId());
+        assertEquals(inserted.getId(), cloudInstanceRepository.findByInstanceId("i-3").getId());
+        assertNull(cloudInstanceRepository.findByInstanceId("i-2"));
+    }
+
+    @Test
+    public void deleteByAccountNumberExcept_onlyOtherInstancesOfAccount() {
+        cloudInstanceRepository.save(instance("i-1", "m3.medium"));
+        cloudInstanceRepository.save(instance("i-2", "m3.medium"));
+        CloudInstance otherAccount = instance("i-3", "m3.medium");
+        otherAccount.setAccountNumber("987654321");
+        cloudInstanceRepository.save(otherAccount);
+
+        assertEquals(1, cloudInstanceRepository.deleteByAccountNumberExcept("123456789", Collections.singletonList("i-1")));
+
+        assertNotNull(cloudInstanceRepository.findByInstanceId("i-1"));
+        assertNull(cloudInstanceRepository.findByInstanceId("i-2"));
+        assertNotNull(cloudInstanceRepository.findByInstanceId("i-3"));
+    }
+
+    @Test
+    public void findByAnyTag_matchesNameAndValueOfTheSameTag() {
+        CloudInstance dev = instance("i-1", "m3.medium");
+        dev.getTags().add(new NameValue("Environment", "dev"));
+        dev.setPrivateDns("ip-10-0-0-1");
+        cloudInstanceRepository.save(dev);
+        CloudInstance crossed = instance("i-2", "m3.medium");
+        crossed.getTags().add(new NameValue("Environment", "qa"));
+        crossed.getTags().add(new NameValue("Owner", "dev"));
+        cloudInstanceRepository.save(crossed);
+        CloudInstance owned = instance("i-3", "m3.medium");
+        owned.getTags().add(new NameValue("Owner", "team"));
+        cloudInstanceRepository.save(owned);
+
+        List<CloudInstance> found = cloudInstanceRepository.findByAnyTag(
+                Arrays.asList(new NameValue("Environment", "dev"), new NameValue("Owner", "team")), null);
+
+        assertEquals(2, found.size());
+        assertEquals("i-1", found.get(0).getInstanceId());
+        assertEquals("i-3", found.get(1).getInstanceId());
+        assertEquals("m3.medium", found.get(0).getInstanceType());
+        assertNull(found.get(0).getPrivateDns());
+        assertTrue(cloudInstanceRepository.findByAnyTag(Collections.<NameValue>emptyList(), null).isEmpty());
+    }
+
+    @Test
+    public void findByAnyTag_page() {
+        for (int i = 1; i <= 5; i++) {
+            CloudInstance instance = instance("i-" + i, "m3.medium");
+            instance.getTags().add(new NameValue("Environment", "dev"));
+            cloudInstanceRepository.save(instance);
+        }
+
+        List<CloudInstance> found = cloudInstanceRepository.findByAnyTag(
+                Collections.singletonList(new NameValue("Environment", "dev")), new PageRequest(1, 2));
+
+        assertEquals(2, found.size());
+        assertEquals("i-3", found.get(0).getInstanceId());
+        assertEquals("i-4", found.get(1).getInstanceId());
+    }
+
+    private CloudInstance instance(String instanceId, String instanceType) {
+        CloudInstance instance = new CloudInstance();
+        instance.setAccountNumber("123456789");
+        instance.setInstanceId(instanceId);
+        instance.setInstanceType(instanceType);
+        return instance;
+    }
+}
@@ -0,0 +1,62 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.CodeQuality;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class CodeQualityRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private CodeQualityRepository codeQualityRepository;
+
+    @After
+    public void tearDown() {
+        codeQualityRepository.deleteAll();
+    }
+
+    @Test
+    public void findCollectorItemIdsWithTimestamp_matchesIdAndTimestampTogether() {
+        ObjectId existing = ObjectId.get();
+        ObjectId newer = ObjectId.get();
+        ObjectId crossed = ObjectId.get();
+        codeQualityRepository.save(codeQuality(existing, 1L));
+        codeQualityRepository.save(codeQuality(newer, 1L));
+        codeQualityRepository.save(codeQuality(crossed, 3L));
+
+        Map<ObjectId, Long> timestamps = new HashMap<>();
+        timestamps.put(existing, 1L);
+        timestamps.put(newer, 2L);
+        timestamps.put(crossed, 1L);
+
+        assertEquals(Collections.singleton(existing), codeQualityRepository.findCollectorItemIdsWithTimestamp(timestamps));
+        assertTrue(codeQualityRepository.findCollectorItemIdsWithTimestamp(new HashMap<ObjectId, Long>()).isEmpty());
+    }
+
+    private CodeQuality codeQuality(ObjectId collectorItemId, long timestamp) {
+        CodeQuality codeQuality = new CodeQuality();
+        codeQuality.setCollectorItemId(collectorItemId);
+        codeQuality.setTimestamp(timestamp);
+        return codeQuality;
+    }
+}
@@ -0,0 +1,71 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.CollectorItem;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class CollectorItemRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private CollectorItemRepository collectorItemRepository;
+
+    @After
+    public void tearDown() {
+        collectorItemRepository.deleteAll();
+    }
+
+    @Test
+    public void updateEnabled_writesOnlyStateChangesOfCollector() {
+        ObjectId collectorId = ObjectId.get();
+        CollectorItem onDashboard = collectorItemRepository.save(collectorItem(collectorId, false));
+        CollectorItem stillOnDashboard = collectorItemRepository.save(collectorItem(collectorId, true));
+        CollectorItem removed = collectorItemRepository.save(collectorItem(collectorId, true));
+        CollectorItem otherCollector = collectorItemRepository.save(collectorItem(ObjectId.get(), true));
+
+        int changed = collectorItemRepository.updateEnabled(collectorId,
+                Arrays.asList(onDashboard.getId(), stillOnDashboard.getId()));
+
+        assertEquals(2, changed);
+        assertTrue(collectorItemRepository.findOne(onDashboard.getId()).isEnabled());
+        assertTrue(collectorItemRepository.findOne(stillOnDashboard.getId()).isEnabled());
+        assertFalse(collectorItemRepository.findOne(removed.getId()).isEnabled());
+        assertTrue(collectorItemRepository.findOne(otherCollector.getId()).isEnabled());
+    }
+
+    @Test
+    public void setEnabled() {
+        CollectorItem item = collectorItemRepository.save(collectorItem(ObjectId.get(), true));
+
+        collectorItemRepository.setEnabled(Collections.singletonList(item.getId()), false);
+
+        assertFalse(collectorItemRepository.findOne(item.getId()).isEnabled());
+    }
+
+    private CollectorItem collectorItem(ObjectId collectorId, boolean enabled) {
+        CollectorItem item = new CollectorItem();
+        item.setCollectorId(collectorId);
+        item.setEnabled(enabled);
+        return item;
+    }
+}
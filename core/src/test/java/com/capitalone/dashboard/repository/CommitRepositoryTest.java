@@ -0,0 +1,63 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.Commit;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class CommitRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private CommitRepository commitRepository;
+
+    @After
+    public void tearDown() {
+        commitRepository.deleteAll();
+    }
+
+    @Test
+    public void findExistingRevisions_onlyMatchesCollectorItem() {
+        ObjectId repo1 = ObjectId.get();
+        ObjectId repo2 = ObjectId.get();
+        commitRepository.save(Arrays.asList(commit(repo1, "1"), commit(repo1, "2"), commit(repo2, "3")));
+
+        Set<String> existing = commitRepository.findExistingRevisions(repo1,
+                Arrays.asList(commit(repo1, "1"), commit(repo1, "3"), commit(repo1, "4")));
+
+        assertEquals(new HashSet<>(Collections.singletonList("1")), existing);
+    }
+
+    @Test
+    public void findExistingRevisions_noCandidates() {
+        assertTrue(commitRepository.findExistingRevisions(ObjectId.get(), Collections.<Commit>emptyList()).isEmpty());
+    }
+
+    private Commit commit(ObjectId collectorItemId, String revision) {
+        Commit commit = new Commit();
+        commit.setCollectorItemId(collectorItemId);
+        commit.setScmRevisionNumber(revision);
+        commit.setScmCommitTimestamp(System.currentTimeMillis());
+        return commit;
+    }
+}
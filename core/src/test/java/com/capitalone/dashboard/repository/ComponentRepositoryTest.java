@@ -0,0 +1,66 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class ComponentRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private ComponentRepository componentRepository;
+
+    @After
+    public void tearDown() {
+        componentRepository.deleteAll();
+    }
+
+    @Test
+    public void findCollectorItemIds_onlyItemsOfCollectorAndType() {
+        ObjectId collectorId = ObjectId.get();
+        CollectorItem build1 = collectorItem(collectorId);
+        CollectorItem build2 = collectorItem(collectorId);
+        CollectorItem otherCollector = collectorItem(ObjectId.get());
+        CollectorItem scm = collectorItem(collectorId);
+
+        Component component1 = new Component("comp1");
+        component1.addCollectorItem(CollectorType.Build, build1);
+        component1.addCollectorItem(CollectorType.Build, otherCollector);
+        component1.addCollectorItem(CollectorType.SCM, scm);
+        Component component2 = new Component("comp2");
+        component2.addCollectorItem(CollectorType.Build, build2);
+        componentRepository.save(Arrays.asList(component1, component2, new Component("comp3")));
+
+        assertEquals(new HashSet<>(Arrays.asList(build1.getId(), build2.getId())),
+                componentRepository.findCollectorItemIds(CollectorType.Build, collectorId));
+        assertTrue(componentRepository.findCollectorItemIds(CollectorType.Deployment, collectorId).isEmpty());
+    }
+
+    private CollectorItem collectorItem(ObjectId collectorId) {
+        CollectorItem item = new CollectorItem();
+        item.setId(ObjectId.get());
+        item.setCollectorId(collectorId);
+        return item;
+    }
+}
@@ -0,0 +1,69 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.EnvironmentComponent;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class EnvironmentComponentRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private EnvironmentComponentRepository environmentComponentRepository;
+
+    @After
+    public void tearDown() {
+        environmentComponentRepository.deleteAll();
+    }
+
+    @Test
+    public void findLatestByCollectorItemId_latestPerEnvironmentAndComponent() {
+        ObjectId collectorItemId = ObjectId.get();
+        environmentComponentRepository.save(component(collectorItemId, "QA", "API", "1.0", 1L));
+        environmentComponentRepository.save(component(collectorItemId, "QA", "UI", "1.0", 1L));
+        environmentComponentRepository.save(component(collectorItemId, "QA", "API", "1.1", 2L));
+        environmentComponentRepository.save(component(collectorItemId, "PROD", "API", "1.0", 3L));
+        environmentComponentRepository.save(component(ObjectId.get(), "QA", "API", "2.0", 4L));
+
+        List<EnvironmentComponent> latest = environmentComponentRepository.findLatestByCollectorItemId(collectorItemId);
+
+        assertEquals(3, latest.size());
+        assertComponent(latest.get(0), "QA", "API", "1.1");
+        assertComponent(latest.get(1), "QA", "UI", "1.0");
+        assertComponent(latest.get(2), "PROD", "API", "1.0");
+    }
+
+    private void assertComponent(EnvironmentComponent component, String environmentName, String componentName,
+                                 String componentVersion) {
+        assertEquals(environmentName, component.getEnvironmentName());
+        assertEquals(componentName, component.getComponentName());
+        assertEquals(componentVersion, component.getComponentVersion());
+    }
+
+    private EnvironmentComponent component(ObjectId collectorItemId, String environmentName, String componentName,
+                                           String componentVersion, long asOfDate) {
+        EnvironmentComponent component = new EnvironmentComponent();
+        component.setCollectorItemId(collectorItemId);
+        component.setEnvironmentName(environmentName);
+        component.setComponentName(componentName);
+        component.setComponentVersion(componentVersion);
+        component.setAsOfDate(asOfDate);
+        return component;
+    }
+}
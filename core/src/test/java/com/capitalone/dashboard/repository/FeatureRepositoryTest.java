@@ -9,6 +9,8 @@ import java.util.List;
 
 import com.capitalone.dashboard.config.MongoConfig;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureEstimate;
+import com.capitalone.dashboard.util.FeatureValues;
 
 import org.bson.types.ObjectId;
 import org.junit.After;
@@ -17,12 +19,17 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @ContextConfiguration(classes = { MongoConfig.class })
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -50,6 +57,9 @@ public class FeatureRepositoryTest {
 	@Autowired
 	private FeatureRepository featureRepo;
 
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
 	@Before
 	public void setUp() {
 		// Date-time modifications
@@ -452,7 +462,7 @@ public class FeatureRepositoryTest {
 
 		assertEquals(
 				"Expected top ordered sprint story ID did not match actual top ordered sprint story ID",
-				testStoryId, featureRepo.queryByOrderBySStatusDesc(testTeamID, maxDateWinner)
+				testStoryId, featureRepo.queryByOrderBySStatusDesc(testTeamID, new Date())
 						.get(0).getsId().toString());
 	}
 
@@ -464,21 +474,65 @@ public class FeatureRepositoryTest {
 		String testTeamId = "08374321";
 		String testSprintName = "Test Sprint 2";
 		assertEquals("Expected current sprint detail did not match actual current sprint detail",
-				testSprintName, featureRepo.getCurrentSprintDetail(testTeamId, maxDateWinner)
+				testSprintName, featureRepo.getCurrentSprintDetail(testTeamId, new Date())
 						.get(0).getsSprintName());
 	}
 
 	@Test
-	public void testGetInProgressFeaturesEstimatesByTeamId_MultipleValidStories() {
+	public void testSumEstimatesByEpic_MultipleValidStories() {
 		featureRepo.save(mockJiraFeature);
 		featureRepo.save(mockJiraFeature2);
 		featureRepo.save(mockJiraFeature3);
 		featureRepo.save(mockJiraFeature4);
 
-		assertEquals(
-				"The size of the actual response was not expected",
-				3,
-				featureRepo.getInProgressFeaturesEstimatesByTeamId(mockJiraFeature3.getsTeamID(),
-						currentSprintEndDate).size());
+		List<FeatureEstimate> estimates = featureRepo.sumEstimatesByEpic(
+				currentSprint(mockJiraFeature3.getsTeamID(), currentSprintEndDate));
+		assertEquals("The size of the actual response was not expected", 1, estimates.size());
+		assertEquals("32112345", estimates.get(0).getEpicId());
+		assertEquals("Test Epic 1", estimates.get(0).getEpicName());
+		assertEquals(165, estimates.get(0).getStoryPoints());
+	}
+
+	@Test
+	public void testSumEstimates_MultipleValidStories() {
+		mockJiraFeature3.setsEstimateTime(90);
+		mockJiraFeature4.setsEstimateTime(30);
+		mockJiraFeature4.setsStatus("Done");
+		featureRepo.save(mockJiraFeature);
+		featureRepo.save(mockJiraFeature2);
+		featureRepo.save(mockJiraFeature3);
+		featureRepo.save(mockJiraFeature4);
+
+		FeatureEstimate total = featureRepo.sumEstimates(
+				currentSprint(mockJiraFeature3.getsTeamID(), currentSprintEndDate));
+		assertEquals(165, total.getStoryPoints());
+		assertEquals(120, total.getEstimateTime());
+
+		FeatureEstimate inProgress = featureRepo.sumEstimates(
+				currentSprint(mockJiraFeature3.getsTeamID(), currentSprintEndDate).and("sStatus").is("In Progress"));
+		assertEquals(120, inProgress.getStoryPoints());
+		assertEquals(90, inProgress.getEstimateTime());
+
+		assertEquals(0, featureRepo.sumEstimates(currentSprint("unknown", currentSprintEndDate)).getStoryPoints());
+	}
+
+	@Test
+	public void testPopulateTypedValues_FeaturesWithoutTypedValues() {
+		featureRepo.save(mockJiraFeature);
+		featureRepo.save(mockJiraFeature2);
+		mongoTemplate.updateMulti(new Query(), new Update().unset("sprintBeginDateValue").unset("estimateValue"),
+				Feature.class);
+
+		assertEquals(2, featureRepo.populateTypedValues());
+		assertEquals(0, featureRepo.populateTypedValues());
+		Feature migrated = featureRepo.findOne(mockJiraFeature.getId());
+		assertEquals(FeatureValues.toDate(maxDateLoser), migrated.getSprintBeginDateValue());
+		assertEquals(Integer.valueOf(40), migrated.getEstimateValue());
+	}
+
+	private static Criteria currentSprint(String teamId, String date) {
+		return where("sTeamID").is(teamId).and("isDeleted").is("False").and("sSprintID").ne(null)
+				.and("sprintBeginDateValue").lte(FeatureValues.toDate(date))
+				.and("sprintEndDateValue").gte(FeatureValues.toDate(date));
 	}
 }
\ No newline at end of file
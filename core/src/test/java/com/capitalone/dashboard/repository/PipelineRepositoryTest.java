@@ -0,0 +1,105 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.Pipeline;
+import com.capitalone.dashboard.model.PipelineCommit;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class PipelineRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private PipelineRepository pipelineRepository;
+
+    @After
+    public void tearDown() {
+        pipelineRepository.deleteAll();
+    }
+
+    @Test
+    public void addCommits_createsPipeline() {
+        ObjectId collectorItemId = ObjectId.get();
+
+        pipelineRepository.addCommits(collectorItemId, "commit", Arrays.asList(commit("1", 10), commit("2", 20)));
+
+        assertEquals(1, pipelineRepository.count());
+        Map<String, PipelineCommit> commits = pipelineRepository.findByCollectorItemId(collectorItemId).getCommitsByStage("commit");
+        assertEquals(2, commits.size());
+        assertEquals(10, commits.get("1").getTimestamp());
+        assertEquals(20, commits.get("2").getTimestamp());
+    }
+
+    @Test
+    public void addCommits_keepsCommitsAlreadyInStage() {
+        ObjectId collectorItemId = ObjectId.get();
+        pipelineRepository.addCommits(collectorItemId, "commit", Collections.singletonList(commit("1", 10)));
+
+        pipelineRepository.addCommits(collectorItemId, "commit", Arrays.asList(commit("1", 99), commit("2", 20), commit("2", 30)));
+
+        assertEquals(1, pipelineRepository.count());
+        Pipeline pipeline = pipelineRepository.findByCollectorItemId(collectorItemId);
+        assertEquals(2, pipeline.getStages().get("commit").getCommits().size());
+        Map<String, PipelineCommit> commits = pipeline.getCommitsByStage("commit");
+        assertEquals(10, commits.get("1").getTimestamp());
+        assertEquals(20, commits.get("2").getTimestamp());
+    }
+
+    @Test
+    public void addCommits_stagesAreIndependent() {
+        ObjectId collectorItemId = ObjectId.get();
+        pipelineRepository.addCommits(collectorItemId, "commit", Collections.singletonList(commit("1", 10)));
+
+        pipelineRepository.addCommits(collectorItemId, "build", Collections.singletonList(commit("1", 20)));
+
+        Pipeline pipeline = pipelineRepository.findByCollectorItemId(collectorItemId);
+        assertEquals(10, pipeline.getCommitsByStage("commit").get("1").getTimestamp());
+        assertEquals(20, pipeline.getCommitsByStage("build").get("1").getTimestamp());
+    }
+
+    @Test
+    public void addFailedBuilds_keepsBuildsAlreadyFailed() {
+        ObjectId collectorItemId = ObjectId.get();
+        Build build1 = build("1");
+        Build build2 = build("2");
+        pipelineRepository.addFailedBuilds(collectorItemId, Collections.singletonList(build1));
+
+        build1.setLog("changed");
+        pipelineRepository.addFailedBuilds(collectorItemId, Arrays.asList(build1, build2));
+
+        assertEquals(1, pipelineRepository.count());
+        assertEquals(2, pipelineRepository.findByCollectorItemId(collectorItemId).getFailedBuilds().size());
+    }
+
+    private static PipelineCommit commit(String revision, long timestamp) {
+        PipelineCommit commit = new PipelineCommit(timestamp);
+        commit.setScmRevisionNumber(revision);
+        return commit;
+    }
+
+    private static Build build(String number) {
+        Build build = new Build();
+        build.setId(ObjectId.get());
+        build.setNumber(number);
+        return build;
+    }
+}
@@ -0,0 +1,107 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.RequestLog;
+import com.mongodb.DBObject;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class RequestLogRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private RequestLogRepository requestLogRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @After
+    public void tearDown() {
+        requestLogRepository.deleteAll();
+        mongoTemplate.getCollection("requests").dropIndexes();
+    }
+
+    @Test
+    public void ensureIndexes_createsAndChangesTtl() {
+        requestLogRepository.ensureIndexes(3600);
+        assertEquals(3600L, ((Number) ttlIndex().get("expireAfterSeconds")).longValue());
+
+        requestLogRepository.ensureIndexes(7200);
+        assertEquals(7200L, ((Number) ttlIndex().get("expireAfterSeconds")).longValue());
+
+        requestLogRepository.ensureIndexes(0);
+        assertNull(ttlIndex());
+    }
+
+    @Test
+    public void deleteUndatedBefore_onlyOldLogsWithoutCreated() {
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 1L, false));
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 2L, true));
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 5L, false));
+
+        assertEquals(1, requestLogRepository.deleteUndatedBefore(3L));
+        assertEquals(2, requestLogRepository.count());
+    }
+
+    @Test
+    public void stream_filtersMostRecentFirst() throws Exception {
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 1L, true));
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 2L, true));
+        requestLogRepository.save(requestLog("/build", "10.0.0.2", 3L, true));
+        requestLogRepository.save(requestLog("/commit", "10.0.0.1", 4L, true));
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 5L, true));
+        requestLogRepository.save(requestLog("/build", "10.0.0.1", 6L, true));
+
+        List<Long> timestamps = new ArrayList<>();
+        try (CloseableIterator<RequestLog> logs = requestLogRepository.stream("/build", "10.0.0.1", 2L, 6L, 2)) {
+            while (logs.hasNext()) {
+                timestamps.add(logs.next().getTimestamp());
+            }
+        }
+
+        assertEquals(2, timestamps.size());
+        assertEquals(Long.valueOf(5L), timestamps.get(0));
+        assertEquals(Long.valueOf(2L), timestamps.get(1));
+    }
+
+    private DBObject ttlIndex() {
+        for (DBObject index : mongoTemplate.getCollection("requests").getIndexInfo()) {
+            if ("created_ttl".equals(index.get("name"))) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private RequestLog requestLog(String endpoint, String client, long timestamp, boolean dated) {
+        RequestLog requestLog = new RequestLog();
+        requestLog.setEndpoint(endpoint);
+        requestLog.setClient(client);
+        requestLog.setMethod("POST");
+        requestLog.setTimestamp(timestamp);
+        if (dated) {
+            requestLog.setCreated(new Date(timestamp));
+        }
+        return requestLog;
+    }
+}
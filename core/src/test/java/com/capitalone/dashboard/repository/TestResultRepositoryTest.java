@@ -0,0 +1,209 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.config.MongoConfig;
+import com.capitalone.dashboard.model.TestCapability;
+import com.capitalone.dashboard.model.TestCase;
+import com.capitalone.dashboard.model.TestCaseChunk;
+import com.capitalone.dashboard.model.TestCaseStep;
+import com.capitalone.dashboard.model.TestResult;
+import com.capitalone.dashboard.model.TestSuite;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(classes = { MongoConfig.class })
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext
+public class TestResultRepositoryTest {
+
+    @ClassRule
+    public static final EmbeddedMongoDBRule RULE = new EmbeddedMongoDBRule();
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @After
+    public void tearDown() {
+        testResultRepository.deleteAll();
+        mongoTemplate.dropCollection(TestCaseChunk.class);
+    }
+
+    @Test
+    public void findAll_readsDownToDepth() {
+        ObjectId collectorItemId = ObjectId.get();
+        testResultRepository.save(testResult(collectorItemId, 1L));
+        Criteria criteria = Criteria.where("collectorItemId").is(collectorItemId);
+
+        assertTrue(first(testResultRepository.findAll(criteria, null, 0)).getTestCapabilities().isEmpty());
+        assertTrue(capability(testResultRepository.findAll(criteria, null, 1)).getTestSuites().isEmpty());
+        assertTrue(suite(testResultRepository.findAll(criteria, null, 2)).getTestCases().isEmpty());
+        assertTrue(testCase(testResultRepository.findAll(criteria, null, 3)).getTestSteps().isEmpty());
+        assertEquals(1, testCase(testResultRepository.findAll(criteria, null, 4)).getTestSteps().size());
+        assertEquals(1, testCase(testResultRepository.findAll(criteria, null, null)).getTestSteps().size());
+    }
+
+    @Test
+    public void findAll_mostRecentFirstUpToMax() {
+        ObjectId collectorItemId = ObjectId.get();
+        testResultRepository.save(testResult(collectorItemId, 1L));
+        testResultRepository.save(testResult(collectorItemId, 3L));
+        testResultRepository.save(testResult(collectorItemId, 2L));
+        testResultRepository.save(testResult(ObjectId.get(), 4L));
+
+        List<TestResult> results = testResultRepository.findAll(
+                Criteria.where("collectorItemId").is(collectorItemId), 2, null);
+
+        assertEquals(2, results.size());
+        assertEquals(3L, results.get(0).getTimestamp());
+        assertEquals(2L, results.get(1).getTimestamp());
+    }
+
+    @Test
+    public void saveChunked_keepsTestCasesOutOfTheResult() {
+        ObjectId collectorItemId = ObjectId.get();
+        TestResult testResult = testResult(collectorItemId, 1L);
+        suite(testResult).getTestCases().add(new TestCase());
+        suite(testResult).getTestCases().add(new TestCase());
+
+        testResultRepository.saveChunked(testResult, 2);
+
+        assertEquals(3, suite(testResult).getTestCases().size());
+        assertEquals(2, mongoTemplate.count(new Query(), TestCaseChunk.class));
+        TestResult stored = testResultRepository.findOne(testResult.getId());
+        assertTrue(stored.isChunked());
+        assertTrue(suite(stored).getTestCases().isEmpty());
+    }
+
+    @Test
+    public void findAll_readsChunkedTestCasesFromDepth3() {
+        ObjectId collectorItemId = ObjectId.get();
+        TestResult testResult = testResult(collectorItemId, 1L);
+        suite(testResult).getTestCases().add(new TestCase());
+        testResultRepository.saveChunked(testResult, 1);
+        Criteria criteria = Criteria.where("collectorItemId").is(collectorItemId);
+
+        assertTrue(suite(testResultRepository.findAll(criteria, null, 2)).getTestCases().isEmpty());
+        assertEquals(2, suite(testResultRepository.findAll(criteria, null, 3)).getTestCases().size());
+        assertTrue(testCase(testResultRepository.findAll(criteria, null, 3)).getTestSteps().isEmpty());
+        assertEquals(1, testCase(testResultRepository.findAll(criteria, null, null)).getTestSteps().size());
+    }
+
+    @Test
+    public void saveChunked_replacesEarlierChunks() {
+        TestResult testResult = testResult(ObjectId.get(), 1L);
+        suite(testResult).getTestCases().add(new TestCase());
+        testResultRepository.saveChunked(testResult, 1);
+
+        suite(testResult).getTestCases().clear();
+        testResultRepository.saveChunked(testResult, 1);
+        assertEquals(0, mongoTemplate.count(new Query(), TestCaseChunk.class));
+
+        suite(testResult).getTestCases().add(new TestCase());
+        testResultRepository.saveChunked(testResult, 1);
+        testResultRepository.saveChunked(testResult, 0);
+        assertEquals(0, mongoTemplate.count(new Query(), TestCaseChunk.class));
+        TestResult stored = testResultRepository.findOne(testResult.getId());
+        assertFalse(stored.isChunked());
+        assertEquals(1, suite(stored).getTestCases().size());
+    }
+
+    @Test
+    public void saveChunked_ignoresChunksOfOtherGenerations() {
+        TestResult testResult = testResult(ObjectId.get(), 1L);
+        testResultRepository.saveChunked(testResult, 1);
+        ObjectId generation = testResult.getChunkGeneration();
+        // chunks of a save that did not get to switch the test result over
+        mongoTemplate.insert(new TestCaseChunk(testResult.getId(), ObjectId.get(), 0, 0, 1,
+                Collections.singletonList(new TestCase())));
+
+        Criteria criteria = Criteria.where("collectorItemId").is(testResult.getCollectorItemId());
+        assertEquals(1, suite(testResultRepository.findAll(criteria, null, null)).getTestCases().size());
+
+        testResultRepository.saveChunked(testResult, 1);
+        assertNotEquals(generation, testResult.getChunkGeneration());
+        assertEquals(1, mongoTemplate.count(new Query(), TestCaseChunk.class));
+        assertEquals(1, suite(testResultRepository.findAll(criteria, null, null)).getTestCases().size());
+    }
+
+    @Test
+    public void addTestCapabilities_writesOnlyChunksOfAddedCapabilities() {
+        ObjectId collectorItemId = ObjectId.get();
+        TestResult testResult = testResult(collectorItemId, 1L);
+        testResultRepository.saveChunked(testResult, 1);
+        ObjectId savedChunkId = mongoTemplate.findAll(TestCaseChunk.class).get(0).getId();
+
+        TestResult stored = testResultRepository.findOne(testResult.getId());
+        testResultRepository.addTestCapabilities(stored,
+                testResult(collectorItemId, 1L).getTestCapabilities(), 1);
+
+        List<TestCaseChunk> chunks = mongoTemplate.findAll(TestCaseChunk.class);
+        assertEquals(2, chunks.size());
+        assertEquals(savedChunkId, mongoTemplate.findOne(new Query(Criteria.where("capabilityIndex").is(0)),
+                TestCaseChunk.class).getId());
+        TestResult read = first(testResultRepository.findAll(
+                Criteria.where("collectorItemId").is(collectorItemId), null, null));
+        assertEquals(2, read.getTestCapabilities().size());
+        for (TestCapability capability : read.getTestCapabilities()) {
+            assertEquals(1, capability.getTestSuites().iterator().next().getTestCases().size());
+        }
+    }
+
+    private static TestSuite suite(TestResult testResult) {
+        return testResult.getTestCapabilities().iterator().next().getTestSuites().iterator().next();
+    }
+
+    private static TestResult first(List<TestResult> results) {
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    private static TestCapability capability(List<TestResult> results) {
+        return first(results).getTestCapabilities().iterator().next();
+    }
+
+    private static TestSuite suite(List<TestResult> results) {
+        return capability(results).getTestSuites().iterator().next();
+    }
+
+    private static TestCase testCase(List<TestResult> results) {
+        return suite(results).getTestCases().iterator().next();
+    }
+
+    private static TestResult testResult(ObjectId collectorItemId, long timestamp) {
+        TestCase testCase = new TestCase();
+        testCase.setId("case");
+        testCase.getTestSteps().add(new TestCaseStep());
+        TestSuite testSuite = new TestSuite();
+        testSuite.setId("suite");
+        testSuite.getTestCases().add(testCase);
+        TestCapability testCapability = new TestCapability();
+        testCapability.setDescription("capability");
+        testCapability.getTestSuites().add(testSuite);
+
+        TestResult testResult = new TestResult();
+        testResult.setCollectorItemId(collectorItemId);
+        testResult.setTimestamp(timestamp);
+        testResult.getTestCapabilities().add(testCapability);
+        return testResult;
+    }
+}
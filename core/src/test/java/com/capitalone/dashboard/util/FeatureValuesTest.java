@@ -0,0 +1,44 @@
+package com.capitalone.dashboard.util;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FeatureValuesTest {
+
+    @Test
+    public void toDate_isoDateTimes() {
+        assertEquals(new Date(1446336000000L), FeatureValues.toDate("2015-11-01T00:00:00.0000000"));
+        assertEquals(new Date(1446336000000L), FeatureValues.toDate("2015-11-01"));
+        assertEquals(new Date(1446339723500L), FeatureValues.toDate("2015-11-01T01:02:03.5Z"));
+        assertEquals(new Date(1446339723123L), FeatureValues.toDate("2015-11-01T01:02:03.123-05:00"));
+    }
+
+    @Test
+    public void toDate_kanbanDatesKeepTheirOrder() {
+        Date start = FeatureValues.toDate(FeatureCollectorConstants.KANBAN_START_DATE);
+        Date end = FeatureValues.toDate(FeatureCollectorConstants.KANBAN_END_DATE);
+        assertTrue(start.before(new Date()));
+        assertTrue(end.after(FeatureValues.toDate("9999-12-31T23:59:59.999")));
+    }
+
+    @Test
+    public void toDate_notADate() {
+        assertNull(FeatureValues.toDate(null));
+        assertNull(FeatureValues.toDate(""));
+        assertNull(FeatureValues.toDate("yesterday"));
+    }
+
+    @Test
+    public void toEstimate() {
+        assertEquals(Integer.valueOf(5), FeatureValues.toEstimate("5"));
+        assertEquals(Integer.valueOf(2), FeatureValues.toEstimate(" 2.5 "));
+        assertNull(FeatureValues.toEstimate(""));
+        assertNull(FeatureValues.toEstimate(null));
+        assertNull(FeatureValues.toEstimate("large"));
+    }
+}
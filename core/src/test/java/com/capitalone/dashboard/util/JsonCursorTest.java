@@ -0,0 +1,74 @@
+package com.capitalone.dashboard.util;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonCursorTest {
+
+    @Test
+    public void enterArray_nestedPath_skipsOtherFields() throws IOException {
+        JsonCursor cursor = cursor("{\"expand\":[1,2],\"plans\":{\"size\":2,\"plan\":[{\"key\":\"A\"},3,{\"key\":\"B\"}]}}");
+
+        assertTrue(cursor.enterArray("plans", "plan"));
+        assertEquals("A", cursor.nextObject().get("key"));
+        assertEquals("B", cursor.nextObject().get("key"));
+        assertNull(cursor.nextObject());
+    }
+
+    @Test
+    public void enterArray_rootArray() throws IOException {
+        JsonCursor cursor = cursor("[{\"name\":\"app\"}]");
+
+        assertTrue(cursor.enterArray());
+        assertEquals("app", cursor.nextObject().get("name"));
+        assertNull(cursor.nextObject());
+    }
+
+    @Test
+    public void enterArray_missingOrEmpty() throws IOException {
+        assertFalse(cursor("{\"jobs\":{}}").enterArray("jobs"));
+        assertFalse(cursor("{\"other\":[]}").enterArray("jobs"));
+        assertFalse(cursor("").enterArray());
+        assertNull(cursor("").nextObject());
+    }
+
+    @Test
+    public void nextObject_mapsValuesLikeJsonSimple() throws IOException {
+        JsonCursor cursor = cursor("[{\"number\":12,\"ratio\":0.5,\"building\":false,\"result\":null,"
+                + "\"culprits\":[{\"fullName\":\"joe\"}]}]");
+        cursor.enterArray();
+
+        JSONObject build = cursor.nextObject();
+
+        assertEquals(12L, build.get("number"));
+        assertEquals(0.5, build.get("ratio"));
+        assertEquals(Boolean.FALSE, build.get("building"));
+        assertTrue(build.containsKey("result"));
+        assertNull(build.get("result"));
+        JSONArray culprits = (JSONArray) build.get("culprits");
+        assertEquals("joe", ((JSONObject) culprits.get(0)).get("fullName"));
+    }
+
+    @Test
+    public void readObject_wholeDocument() throws IOException {
+        JSONObject object = cursor("{\"number\":1,\"changeSet\":{\"items\":[]}}").readObject();
+
+        assertEquals(1L, object.get("number"));
+        assertTrue(((JSONObject) object.get("changeSet")).get("items") instanceof JSONArray);
+        assertNull(cursor("[]").readObject());
+    }
+
+    private static JsonCursor cursor(String json) throws IOException {
+        return new JsonCursor(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}